@@ -72,9 +72,10 @@ import org.ovirt.engine.core.common.utils.customprop.VmPropertiesUtils;
 import org.ovirt.engine.core.compat.DateTime;
 import org.ovirt.engine.core.compat.WindowsJavaTimezoneMapping;
 import org.ovirt.engine.core.dal.dbbroker.DbConnectionUtil;
+import org.ovirt.engine.core.dal.dbbroker.ReadCacheManager;
+import org.ovirt.engine.core.dal.dbbroker.auditloghandling.EventFloodMonitor;
 import org.ovirt.engine.core.dal.dbbroker.generic.DBConfigUtils;
 import org.ovirt.engine.core.dal.job.ExecutionMessageDirector;
-import org.ovirt.engine.core.dal.utils.CacheManager;
 import org.ovirt.engine.core.dao.ClusterDao;
 import org.ovirt.engine.core.dao.VdcOptionDao;
 import org.ovirt.engine.core.dao.VdsDao;
@@ -234,7 +235,9 @@ public class Backend implements BackendInternal, BackendCommandObjectsHandler {
         serviceLoader.load(PreviousHostedEngineHost.class);
 
         // initialize CDI services
-        serviceLoader.load(CacheManager.class);
+        serviceLoader.load(EventFloodMonitor.class);
+        serviceLoader.load(ReadCacheManager.class);
+        serviceLoader.load(SearchQueryCache.class);
         // initialize configuration utils to use DB
         Config.setConfigUtils(dbConfigUtils);
 
@@ -0,0 +1,25 @@
+package org.ovirt.engine.core.bll;
+
+import javax.inject.Inject;
+
+import org.ovirt.engine.core.bll.context.EngineContext;
+import org.ovirt.engine.core.common.queries.IdsQueryParameters;
+import org.ovirt.engine.core.dao.TagDao;
+
+/**
+ * Returns the tags of each of the given VMs, by the VM ids
+ */
+public class GetTagsByVmIdsQuery<P extends IdsQueryParameters> extends QueriesCommandBase<P> {
+
+    @Inject
+    private TagDao tagDao;
+
+    public GetTagsByVmIdsQuery(P parameters, EngineContext engineContext) {
+        super(parameters, engineContext);
+    }
+
+    @Override
+    protected void executeQueryCommand() {
+        getQueryReturnValue().setReturnValue(tagDao.getAllForVms(getParameters().getIds()));
+    }
+}
@@ -1,6 +1,5 @@
 package org.ovirt.engine.core.bll;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import org.ovirt.engine.core.bll.context.EngineContext;
@@ -9,7 +8,6 @@ import org.ovirt.engine.core.common.businessentities.OvfEntityData;
 import org.ovirt.engine.core.common.businessentities.VM;
 import org.ovirt.engine.core.common.businessentities.VmEntityType;
 import org.ovirt.engine.core.common.queries.IdQueryParameters;
-import org.ovirt.engine.core.utils.ovf.OvfReaderException;
 
 public class GetUnregisteredVmsQuery<P extends IdQueryParameters> extends GetUnregisteredEntitiesQuery<P> {
     public GetUnregisteredVmsQuery(P parameters, EngineContext engineContext) {
@@ -19,22 +17,15 @@ public class GetUnregisteredVmsQuery<P extends IdQueryParameters> extends GetUnr
     @Override
     protected void executeQueryCommand() {
         List<OvfEntityData> entityList = getOvfEntityList(VmEntityType.VM);
-        List<VM> vmList = new ArrayList<>();
-        for (OvfEntityData ovf : entityList) {
-            try {
-                VM vm = ovfHelper.readVmFromOvf(ovf.getOvfData()).getVm();
+        List<VM> vmList = readOvfEntities(entityList, ovf -> {
+            VM vm = ovfHelper.readVmFromOvf(ovf.getOvfData()).getVm();
 
-                // Setting the rest of the VM attributes which are not in the OVF.
-                vm.setClusterCompatibilityVersion(ovf.getLowestCompVersion());
-                vm.setClusterArch(ovf.getArchitecture());
-                vm.setStatus(ovf.getStatus());
-                vmList.add(vm);
-            } catch (OvfReaderException e) {
-                log.debug("failed to parse a given ovf configuration: \n" + ovf.getOvfData(), e);
-                getQueryReturnValue().setExceptionString("failed to parse a given ovf configuration "
-                        + e.getMessage());
-            }
-        }
+            // Setting the rest of the VM attributes which are not in the OVF.
+            vm.setClusterCompatibilityVersion(ovf.getLowestCompVersion());
+            vm.setClusterArch(ovf.getArchitecture());
+            vm.setStatus(ovf.getStatus());
+            return vm;
+        });
         getQueryReturnValue().setSucceeded(true);
         getQueryReturnValue().setReturnValue(vmList);
     }
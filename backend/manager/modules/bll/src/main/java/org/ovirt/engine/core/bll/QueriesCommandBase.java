@@ -22,6 +22,7 @@ import org.ovirt.engine.core.common.vdscommands.VDSParametersBase;
 import org.ovirt.engine.core.common.vdscommands.VDSReturnValue;
 import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.dal.VdcCommandBase;
+import org.ovirt.engine.core.dal.dbbroker.ReadScope;
 import org.ovirt.engine.core.dal.dbbroker.auditloghandling.AuditLogDirector;
 import org.ovirt.engine.core.utils.CorrelationIdTracker;
 import org.ovirt.engine.core.utils.log.Logged;
@@ -101,7 +102,8 @@ public abstract class QueriesCommandBase<P extends QueryParametersBase> extends
         if (validatePermissions()) {
             if (validateInputs()) {
                 long start = System.currentTimeMillis();
-                try {
+                // the same entities are often read many times by a single query
+                try (ReadScope readScope = ReadScope.open()) {
                     returnValue.setSucceeded(true);
                     executeQueryCommand();
                 } catch (RuntimeException ex) {
@@ -10,6 +10,7 @@ import javax.inject.Inject;
 
 import org.apache.commons.lang.StringUtils;
 import org.ovirt.engine.core.bll.context.CommandContext;
+import org.ovirt.engine.core.bll.scheduling.ClusterStateSnapshot;
 import org.ovirt.engine.core.bll.utils.ClusterUtils;
 import org.ovirt.engine.core.common.AuditLogType;
 import org.ovirt.engine.core.common.action.LockProperties;
@@ -93,6 +94,8 @@ public class RemoveVdsCommand<T extends RemoveVdsParameters> extends VdsCommand<
     private HostLocking hostLocking;
     @Inject
     private AnsibleExecutor ansibleExecutor;
+    @Inject
+    private ClusterStateSnapshot clusterStateSnapshot;
 
     public RemoveVdsCommand(T parameters, CommandContext commandContext) {
         super(parameters, commandContext);
@@ -154,6 +157,7 @@ public class RemoveVdsCommand<T extends RemoveVdsParameters> extends VdsCommand<
         tagDao.detachVdsFromAllTags(hostId);
         vdsDynamicDao.remove(hostId);
         vdsStaticDao.remove(hostId);
+        clusterStateSnapshot.invalidateHost(hostId);
     }
 
     private boolean isForceRemovalOfUnmanagedHost(VDS vds) {
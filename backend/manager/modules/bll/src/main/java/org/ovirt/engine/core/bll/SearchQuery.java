@@ -92,9 +92,11 @@ import org.ovirt.engine.core.utils.lock.EngineLock;
 import org.ovirt.engine.core.utils.lock.LockManager;
 
 public class SearchQuery<P extends SearchParameters> extends QueriesCommandBase<P> {
-    private static final Map<String, QueryData> queriesCache = new HashMap<>();
     public static final String LDAP = "LDAP";
 
+    @Inject
+    private SearchQueryCache queriesCache;
+
     @Inject
     private QuotaManager quotaManager;
 
@@ -262,13 +264,13 @@ public class SearchQuery<P extends SearchParameters> extends QueriesCommandBase<
     }
 
     private List<VM> searchVmsFromDb() {
-        QueryData data = initQueryData(true);
-        if (data == null) {
+        SearchQueryTemplate template = initQueryData(true);
+        if (template == null) {
             return Collections.emptyList();
         }
 
         var javaZoneIdToOffset = vmHandler.getJavaZoneIdToOffsetFuncSupplier();
-        List<VM> vms = vmDao.getAllUsingQuery(data.getQuery());
+        List<VM> vms = vmDao.getAllUsingQuery(template.getSql(), template.getParameters());
         Map<Guid, VM> vmsById = new HashMap<>();
         for (VM vm : vms) {
             vmHandler.updateVmGuestAgentVersion(vm);
@@ -314,10 +316,11 @@ public class SearchQuery<P extends SearchParameters> extends QueriesCommandBase<
 
     private List<DirectoryUser> searchDirectoryUsers() {
         // Parse the query:
-        QueryData data = initQueryData(true);
-        if (data == null) {
+        SearchQueryTemplate template = initQueryData(true);
+        if (template == null) {
             return Collections.emptyList();
         }
+        QueryData data = template.getQueryData();
 
         List<DirectoryUser> results = new ArrayList<>();
         Map<String, Object> response = SsoOAuthServiceUtils.searchUsers(
@@ -342,10 +345,11 @@ public class SearchQuery<P extends SearchParameters> extends QueriesCommandBase<
 
     private List<DirectoryGroup> searchDirectoryGroups() {
         // Parse the query:
-        QueryData data = initQueryData(true);
-        if (data == null) {
+        SearchQueryTemplate template = initQueryData(true);
+        if (template == null) {
             return Collections.emptyList();
         }
+        QueryData data = template.getQueryData();
 
         List<DirectoryGroup> results = new ArrayList<>();
         Map<String, Object> response = SsoOAuthServiceUtils.searchGroups(
@@ -382,13 +386,13 @@ public class SearchQuery<P extends SearchParameters> extends QueriesCommandBase<
 
     private <T extends Queryable> List<T> genericSearch(final SearchDao<T> dao,
             final boolean useCache) {
-        final QueryData data = initQueryData(useCache);
-        if (data == null) {
+        final SearchQueryTemplate template = initQueryData(useCache);
+        if (template == null) {
             return new ArrayList<>();
         }
 
-        log.debug("Executing generic query: {}", data.getQuery());
-        return dao.getAllWithQuery(data.getQuery());
+        log.debug("Executing generic query: {}", template.getQueryData().getQuery());
+        return dao.getAllWithQuery(template.getSql(), template.getParameters());
     }
 
     private List<AuditLog> searchAuditLogEvents() {
@@ -509,9 +513,9 @@ public class SearchQuery<P extends SearchParameters> extends QueriesCommandBase<
                     "^((?<prefix>(%s))@)(?<content>.*)",
                     StringUtils.join(AD_SEARCH_TYPES, "|")));
 
-    private QueryData initQueryData(boolean useCache) {
+    private SearchQueryTemplate initQueryData(boolean useCache) {
         final String ASTR = "*";
-        QueryData data = null;
+        SearchQueryTemplate data = null;
         boolean isExistsValue = false;
         boolean IsFromYesterday = false;
         boolean isSafe = false;
@@ -530,7 +534,7 @@ public class SearchQuery<P extends SearchParameters> extends QueriesCommandBase<
                 isExistsValue = data != null;
 
                 if (isExistsValue) {
-                    TimeSpan span = DateTime.getNow().subtract(new Date(data.getDate()));
+                    TimeSpan span = DateTime.getNow().subtract(new Date(data.getQueryData().getDate()));
                     if (span.Days >= 1) {
                         IsFromYesterday = true;
                     }
@@ -609,7 +613,7 @@ public class SearchQuery<P extends SearchParameters> extends QueriesCommandBase<
                                     :
                                     searchObj.getError().toString();
                     getQueryReturnValue().setExceptionString(error);
-                    if (!queriesCache.containsKey(searchKey)) {
+                    if (!queriesCache.contains(searchKey)) {
                         // log error only once
                         log.info(
                                 "ResourceManager::searchBusinessObjects - erroneous search text - ''{}'' error - ''{}''",
@@ -622,7 +626,7 @@ public class SearchQuery<P extends SearchParameters> extends QueriesCommandBase<
                     return null;
                 }
                 if (!searchObj.getvalid()) {
-                    if (!queriesCache.containsKey(searchKey)) {
+                    if (!queriesCache.contains(searchKey)) {
                         log.warn("ResourceManager::searchBusinessObjects - Invalid search text - ''{}''", searchText);
                         queriesCache.put(searchKey, null);
                     }
@@ -631,33 +635,37 @@ public class SearchQuery<P extends SearchParameters> extends QueriesCommandBase<
                 // find if this is a trivial search expression (like 'Vms:' etc).
                 isSafe = SearchObjects.isSafeExpression(searchText);
                 // An expression is considered safe if matches a trivial search.
-                data =
+                QueryData queryData =
                         new QueryData(curSyntaxChecker.generateQueryFromSyntaxContainer(searchObj, isSafe),
                                 DateTime.getNow().getTime(),
                                 queryAuthz, queryNamespace);
+                // directory searches are not executed on the database, only SQL queries get bind parameters
+                data = queryAuthz == null
+                        ? SearchQueryTemplate.parameterize(queryData)
+                        : SearchQueryTemplate.inline(queryData);
                 // when looking for tags , the query contains all parent children tag id's
                 // statically, therefore , in order to reflect changes in the parent tree
                 // we should not rely on the cached query in such case and have to build the
                 // query from scratch.
-                if (!containsStaticInValues(data.getQuery())) {
+                if (!containsStaticInValues(queryData.getQuery())) {
                     queriesCache.put(searchKey, data);
                 }
             }
         } catch (SearchEngineIllegalCharacterException e) {
-            if (!queriesCache.containsKey(searchKey)) {
+            if (!queriesCache.contains(searchKey)) {
                 log.error("Search expression can not end with ESCAPE character: {}",
                         getParameters().getSearchPattern());
                 queriesCache.put(searchKey, null);
             }
             data = null;
         } catch (SqlInjectionException e) {
-            if (!queriesCache.containsKey(searchKey)) {
+            if (!queriesCache.contains(searchKey)) {
                 log.error("Sql Injection in search: {}", getParameters().getSearchPattern());
                 queriesCache.put(searchKey, null);
             }
             data = null;
         } catch (RuntimeException ex) {
-            if (!queriesCache.containsKey(searchKey)) {
+            if (!queriesCache.contains(searchKey)) {
                 log.warn("Illegal search: {}: {}", getParameters().getSearchPattern(), ex.getMessage());
                 log.debug("Exception", ex);
                 queriesCache.put(searchKey, null);
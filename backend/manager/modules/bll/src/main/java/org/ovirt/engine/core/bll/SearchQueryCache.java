@@ -0,0 +1,172 @@
+package org.ovirt.engine.core.bll;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Singleton;
+
+import org.ovirt.engine.core.common.BackendService;
+import org.ovirt.engine.core.utils.EngineLocalConfig;
+import org.ovirt.engine.core.utils.metrics.MBeanRegistration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the compiled searches by their search text, so that repeated searches skip the syntax checker. Searches that
+ * failed to compile are kept as well, without a template, so that their errors are logged only once.
+ * <p>
+ * The cache is bounded: once it holds more than its maximal size, the least recently used searches are dropped. Its
+ * statistics are exposed via JMX.
+ */
+@Singleton
+public class SearchQueryCache implements BackendService, SearchQueryCacheMonitorMXBean {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchQueryCache.class);
+
+    private static final String MBEAN_NAME = "SearchQueryCache:type=" + SearchQueryCache.class.getName();
+
+    static final int DEFAULT_MAX_SIZE = 10000;
+
+    /** The part of the maximal size that is dropped at once when the cache is full **/
+    private static final int EVICTION_PERCENTAGE = 10;
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong clock = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final Object evictionLock = new Object();
+    private volatile int maxSize = DEFAULT_MAX_SIZE;
+
+    @PostConstruct
+    private void init() {
+        configure(EngineLocalConfig.getInstance().getInteger("ENGINE_SEARCH_QUERY_CACHE_MAX_ENTRIES", DEFAULT_MAX_SIZE));
+        log.info("Search query cache keeps up to {} searches", maxSize);
+
+        MBeanRegistration.register(this, MBEAN_NAME);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        MBeanRegistration.unregister(MBEAN_NAME);
+    }
+
+    void configure(int maxSize) {
+        this.maxSize = Math.max(1, maxSize);
+        evictIfFull();
+    }
+
+    /**
+     * Returns the compiled search of the given key, or {@code null} if it isn't cached or failed to compile
+     */
+    public SearchQueryTemplate get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null || entry.template == null) {
+            misses.increment();
+            return null;
+        }
+        entry.lastAccess = clock.incrementAndGet();
+        hits.increment();
+        return entry.template;
+    }
+
+    /**
+     * Checks whether the given key is cached, either compiled or failed, without counting it as a lookup
+     */
+    public boolean contains(String key) {
+        return entries.containsKey(key);
+    }
+
+    /**
+     * Caches a compiled search, {@code null} marks a search that failed to compile
+     */
+    public void put(String key, SearchQueryTemplate template) {
+        entries.put(key, new Entry(template, clock.incrementAndGet()));
+        evictIfFull();
+    }
+
+    private void evictIfFull() {
+        if (entries.size() <= maxSize) {
+            return;
+        }
+        synchronized (evictionLock) {
+            int excess = entries.size() - maxSize;
+            if (excess <= 0) {
+                return;
+            }
+            int toEvict = excess + maxSize * EVICTION_PERCENTAGE / 100;
+            // the access times are copied before sorting since they keep changing
+            entries.entrySet()
+                    .stream()
+                    .map(e -> new SimpleImmutableEntry<>(e.getKey(), e.getValue().lastAccess))
+                    .sorted(Map.Entry.comparingByValue())
+                    .limit(toEvict)
+                    .map(Map.Entry::getKey)
+                    .forEach(key -> {
+                        if (entries.remove(key) != null) {
+                            evictions.increment();
+                        }
+                    });
+        }
+    }
+
+    @Override
+    public int getSize() {
+        return entries.size();
+    }
+
+    @Override
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    @Override
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long lookups = hitCount + misses.sum();
+        return lookups == 0 ? 0 : (double) hitCount / lookups;
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    @Override
+    public void clear() {
+        entries.clear();
+    }
+
+    @Override
+    public void resetStatistics() {
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+    }
+
+    private static class Entry {
+        private final SearchQueryTemplate template;
+        private volatile long lastAccess;
+
+        private Entry(SearchQueryTemplate template, long lastAccess) {
+            this.template = template;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package org.ovirt.engine.core.bll;
+
+/**
+ * The following interface is used as interface for JMX bean
+ */
+public interface SearchQueryCacheMonitorMXBean {
+
+    /**
+     * The following method will return the number of cached searches
+     */
+    int getSize();
+
+    /**
+     * The following method will return the maximal number of cached searches
+     */
+    int getMaxSize();
+
+    /**
+     * The following method will return the number of searches found in the cache
+     */
+    long getHitCount();
+
+    /**
+     * The following method will return the number of searches that had to be compiled
+     */
+    long getMissCount();
+
+    /**
+     * The following method will return the ratio of the searches found in the cache
+     */
+    double getHitRate();
+
+    /**
+     * The following method will return the number of searches dropped from the cache to keep it bounded
+     */
+    long getEvictionCount();
+
+    /**
+     * The following method will drop all the cached searches
+     */
+    void clear();
+
+    /**
+     * The following method will reset all the statistics
+     */
+    void resetStatistics();
+}
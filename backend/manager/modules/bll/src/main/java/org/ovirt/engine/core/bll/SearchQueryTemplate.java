@@ -0,0 +1,157 @@
+package org.ovirt.engine.core.bll;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.ovirt.engine.core.aaa.QueryData;
+
+/**
+ * A compiled search: the {@link QueryData} generated by the syntax checker together with the SQL to execute, in which
+ * the compared string values were replaced by bind parameters. Searches which differ only in their values share the
+ * same SQL text, so the database reuses the statements it prepared for it.
+ * <p>
+ * Only the string literals that are compared to a column are parameterized: the ones that follow a comparison or a
+ * {@code LIKE} operator and the bounds of a {@code BETWEEN}. Prefixed literals, {@code IN} lists and literals in any
+ * other position are kept inline.
+ */
+public final class SearchQueryTemplate {
+
+    private static final String[] COMPARISON_KEYWORDS = { "LIKE", "ILIKE", "BETWEEN" };
+
+    private final QueryData queryData;
+    private final String sql;
+    private final Object[] parameters;
+
+    private SearchQueryTemplate(QueryData queryData, String sql, Object[] parameters) {
+        this.queryData = queryData;
+        this.sql = sql;
+        this.parameters = parameters;
+    }
+
+    /**
+     * Compiles a query that is not executed on the database, e.g. a directory search
+     */
+    public static SearchQueryTemplate inline(QueryData queryData) {
+        return new SearchQueryTemplate(queryData, queryData.getQuery(), new Object[0]);
+    }
+
+    /**
+     * Compiles an SQL search query, extracting its compared values into bind parameters
+     */
+    public static SearchQueryTemplate parameterize(QueryData queryData) {
+        String query = queryData.getQuery();
+        // placeholders which are already part of the query would be mixed up with the extracted parameters
+        if (query.indexOf('?') >= 0) {
+            return inline(queryData);
+        }
+
+        StringBuilder sql = new StringBuilder(query.length());
+        List<String> parameters = new ArrayList<>();
+        boolean betweenLowerBound = false;
+        int copied = 0;
+        int i = 0;
+        while (i < query.length()) {
+            char c = query.charAt(i);
+            if (c == '"') {
+                i = skipQuoted(query, i, '"');
+            } else if (c == '\'') {
+                int end = skipQuoted(query, i, '\'');
+                if (end < 0) {
+                    // an unterminated literal is left for the database to reject
+                    return inline(queryData);
+                }
+                boolean afterBetween = isPrecededByKeyword(query, i, "BETWEEN");
+                if (afterBetween || (betweenLowerBound && isPrecededByKeyword(query, i, "AND"))
+                        || isComparedValue(query, i)) {
+                    sql.append(query, copied, i).append('?');
+                    parameters.add(query.substring(i + 1, end - 1).replace("''", "'"));
+                    copied = end;
+                    betweenLowerBound = afterBetween;
+                } else {
+                    betweenLowerBound = false;
+                }
+                i = end;
+            } else {
+                i++;
+            }
+        }
+        if (parameters.isEmpty()) {
+            return inline(queryData);
+        }
+        sql.append(query, copied, query.length());
+        return new SearchQueryTemplate(queryData, sql.toString(), parameters.toArray());
+    }
+
+    /**
+     * Returns the position after the closing quote of the quoted text that starts at the given position, or -1 if it
+     * isn't closed. Doubled quotes are part of the text.
+     */
+    private static int skipQuoted(String query, int start, char quote) {
+        int i = start + 1;
+        while (i < query.length()) {
+            if (query.charAt(i) == quote) {
+                if (i + 1 < query.length() && query.charAt(i + 1) == quote) {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return -1;
+    }
+
+    private static boolean isComparedValue(String query, int literalStart) {
+        if (literalStart > 0 && isWordChar(query.charAt(literalStart - 1))) {
+            // prefixed literal, like E'' or N''
+            return false;
+        }
+        int end = skipWhitespace(query, literalStart);
+        if (end > 0) {
+            char previous = query.charAt(end - 1);
+            if (previous == '=' || previous == '<' || previous == '>') {
+                return true;
+            }
+        }
+        for (String keyword : COMPARISON_KEYWORDS) {
+            if (isPrecededByKeyword(query, literalStart, keyword)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isPrecededByKeyword(String query, int literalStart, String keyword) {
+        if (literalStart > 0 && isWordChar(query.charAt(literalStart - 1))) {
+            return false;
+        }
+        int end = skipWhitespace(query, literalStart);
+        int start = end - keyword.length();
+        return start >= 0
+                && query.regionMatches(true, start, keyword, 0, keyword.length())
+                && (start == 0 || !isWordChar(query.charAt(start - 1)));
+    }
+
+    private static int skipWhitespace(String query, int end) {
+        while (end > 0 && Character.isWhitespace(query.charAt(end - 1))) {
+            end--;
+        }
+        return end;
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    public QueryData getQueryData() {
+        return queryData;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public Object[] getParameters() {
+        return parameters.clone();
+    }
+}
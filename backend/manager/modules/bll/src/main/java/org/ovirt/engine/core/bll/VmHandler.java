@@ -76,6 +76,7 @@ import org.ovirt.engine.core.common.businessentities.VMStatus;
 import org.ovirt.engine.core.common.businessentities.VdsCpuUnit;
 import org.ovirt.engine.core.common.businessentities.VdsDynamic;
 import org.ovirt.engine.core.common.businessentities.VdsNumaNode;
+import org.ovirt.engine.core.common.businessentities.VdsStatic;
 import org.ovirt.engine.core.common.businessentities.VmBase;
 import org.ovirt.engine.core.common.businessentities.VmDevice;
 import org.ovirt.engine.core.common.businessentities.VmDeviceGeneralType;
@@ -1109,9 +1110,16 @@ public class VmHandler implements BackendService {
      * @param vm                  - the VM to check
      */
     public ValidationResult validateDedicatedVdsExistOnSameCluster(VmBase vm) {
+        if (vm.getDedicatedVmForVdsList().isEmpty()) {
+            return ValidationResult.VALID;
+        }
+        // all the dedicated hosts are loaded by a single query
+        Map<Guid, VdsStatic> dedicatedHosts = vdsStaticDao.getByIds(vm.getDedicatedVmForVdsList())
+                .stream()
+                .collect(Collectors.toMap(VdsStatic::getId, Function.identity()));
         for (Guid vdsId : vm.getDedicatedVmForVdsList()) {
             // get dedicated host, checks if exists and compare its cluster to the VM cluster
-            var vds = vdsStaticDao.get(vdsId);
+            var vds = dedicatedHosts.get(vdsId);
             if (vds == null) {
                 return new ValidationResult(EngineMessage.ACTION_TYPE_FAILED_DEDICATED_VDS_DOES_NOT_EXIST);
             }
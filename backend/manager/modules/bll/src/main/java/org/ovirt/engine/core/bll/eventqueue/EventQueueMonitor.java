@@ -1,36 +1,80 @@
 package org.ovirt.engine.core.bll.eventqueue;
 
-import java.util.LinkedList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.inject.Singleton;
 
 import org.ovirt.engine.core.common.eventqueue.Event;
 import org.ovirt.engine.core.common.eventqueue.EventQueue;
 import org.ovirt.engine.core.common.eventqueue.EventResult;
 import org.ovirt.engine.core.common.eventqueue.EventType;
-import org.ovirt.engine.core.common.utils.Pair;
 import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.utils.metrics.MBeanRegistration;
 import org.ovirt.engine.core.utils.threadpool.ThreadPoolUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * The following class processes the events of each storage pool one after another, in a thread which runs as long as
+ * the pool has pending events.
+ * <p>
+ * The pending events of a pool are split into priority lanes: a recovery is processed before a reconstruct, which is
+ * processed before any other event. Identical pending domain monitoring events, as well as identical pending
+ * reconstructs, are coalesced into a single event whose result is shared by all their submitters.
+ * <p>
+ * The statistics of each event type and the state of the queues are exposed via JMX.
+ */
 @Singleton
-public class EventQueueMonitor implements EventQueue {
+public class EventQueueMonitor implements EventQueue, EventQueueMonitorMXBean {
 
     private static final Logger log = LoggerFactory.getLogger(EventQueueMonitor.class);
 
-    private static final ConcurrentMap<Guid, ReentrantLock> poolsLockMap = new ConcurrentHashMap<>();
-    private static final Map<Guid, LinkedList<Pair<Event, FutureTask<EventResult>>>> poolsEventsMap =
-            new ConcurrentHashMap<>();
-    private static final Map<Guid, Event> poolCurrentEventMap = new ConcurrentHashMap<>();
+    private static final String MBEAN_NAME = "EventQueueMonitor:type=" + EventQueueMonitor.class.getName();
+
+    /** Identical pending events of these types are processed once, by the callable of the latest of them **/
+    private static final Set<EventType> COALESCED_BY_LATEST = EnumSet.of(EventType.DOMAINMONITORING);
+
+    /** Identical pending events of these types are processed once, by the callable of the first of them **/
+    private static final Set<EventType> COALESCED_BY_FIRST = EnumSet.of(EventType.RECONSTRUCT);
+
+    /** The queue of each storage pool, kept once created so a submitter never holds a queue which was dropped **/
+    private final ConcurrentMap<Guid, PoolEventQueue> poolQueues = new ConcurrentHashMap<>();
+
+    private final Map<EventType, EventTypeStatistics> statistics = new EnumMap<>(EventType.class);
+
+    public EventQueueMonitor() {
+        for (EventType eventType : EventType.values()) {
+            statistics.put(eventType, new EventTypeStatistics());
+        }
+    }
+
+    @PostConstruct
+    public void registerInJMX() {
+        MBeanRegistration.register(this, MBEAN_NAME);
+    }
+
+    @PreDestroy
+    public void unregisterFromJMX() {
+        MBeanRegistration.unregister(MBEAN_NAME);
+    }
 
     @Override
     public void submitEventAsync(Event event, Callable<EventResult> callable) {
@@ -60,164 +104,284 @@ public class EventQueueMonitor implements EventQueue {
         return null;
     }
 
-    private FutureTask<EventResult> submitTaskInternal(Event event,
-            Callable<EventResult> callable) {
-        FutureTask<EventResult> task = null;
+    private FutureTask<EventResult> submitTaskInternal(Event event, Callable<EventResult> callable) {
         Guid storagePoolId = event.getStoragePoolId();
-        ReentrantLock lock = getPoolLock(storagePoolId);
-        lock.lock();
+        EventTypeStatistics eventStatistics = statistics.get(event.getEventType());
+        eventStatistics.eventSubmitted();
+
+        PoolEventQueue queue = poolQueues.computeIfAbsent(storagePoolId, id -> new PoolEventQueue());
+        QueuedEvent queuedEvent;
+        boolean startProcessing = false;
+        queue.lock.lock();
         try {
-            Event currentEvent = poolCurrentEventMap.get(storagePoolId);
-            if (currentEvent != null) {
-                switch (currentEvent.getEventType()) {
-                    case RECOVERY:
-                        if (event.getEventType() == EventType.VDSCONNECTTOPOOL
-                                || event.getEventType() == EventType.VDSCLEARCACHE
-                                || event.getEventType() == EventType.DOMAINFAILOVER) {
-                            task = addTaskToQueue(event, callable, storagePoolId, isEventShouldBeFirst(event));
-                        } else {
-                            log.debug("Current event was skipped because of recovery is running now for pool '{}', event '{}'",
-                                    storagePoolId, event);
-                        }
-                        break;
-                    case RECONSTRUCT:
-                        if (event.getEventType() == EventType.VDSCONNECTTOPOOL
-                                || event.getEventType() == EventType.RECOVERY
-                                || event.getEventType() == EventType.DOMAINFAILOVER
-                                || event.getEventType() == EventType.VDSCLEARCACHE) {
-                            task = addTaskToQueue(event, callable, storagePoolId, isEventShouldBeFirst(event));
-                        } else {
-                            log.debug("Current event was skipped because of reconstruct is running now for pool '{}', event '{}'",
-                                    storagePoolId, event);
-                        }
-                        break;
-                    default:
-                        task = addTaskToQueue(event, callable, storagePoolId, isEventShouldBeFirst(event));
-                        break;
-                }
-            } else {
-                task = addTaskToQueue(event, callable, storagePoolId, false);
-                poolCurrentEventMap.put(storagePoolId, event);
-                ThreadPoolUtil.execute(new InternalEventQueueThread(storagePoolId, lock,
-                        poolsEventsMap, poolCurrentEventMap));
+            if (queue.currentEvent != null && isSkipped(storagePoolId, queue.currentEvent, event)) {
+                eventStatistics.eventSkipped();
+                return null;
+            }
+            queuedEvent = queue.coalesce(event, callable);
+            if (queuedEvent != null) {
+                log.debug("Event was coalesced with an identical pending event for pool '{}', event '{}'",
+                        storagePoolId, event);
+                eventStatistics.eventCoalesced();
+                return queuedEvent.task;
+            }
+            queuedEvent = new QueuedEvent(event, callable);
+            queue.add(queuedEvent);
+            if (queue.currentEvent == null) {
+                queue.currentEvent = event;
+                startProcessing = true;
             }
         } finally {
-            lock.unlock();
+            queue.lock.unlock();
+        }
+
+        if (startProcessing) {
+            execute(new PoolEventProcessor(storagePoolId, queue));
         }
-        return task;
+        return queuedEvent.task;
     }
 
     /**
-     * The following method should decide if we want that the event will be first for executing, before all other events
-     * already submitted to queue
-     * @param event
-     *            - submitted event
+     * The following method decides whether the submitted event should be skipped, because a recovery or a reconstruct
+     * of the pool is being processed
      */
-    private boolean isEventShouldBeFirst(Event event) {
-        return event.getEventType() == EventType.RECOVERY;
+    private boolean isSkipped(Guid storagePoolId, Event currentEvent, Event event) {
+        switch (currentEvent.getEventType()) {
+            case RECOVERY:
+                if (event.getEventType() == EventType.VDSCONNECTTOPOOL
+                        || event.getEventType() == EventType.VDSCLEARCACHE
+                        || event.getEventType() == EventType.DOMAINFAILOVER) {
+                    return false;
+                }
+                log.debug("Current event was skipped because of recovery is running now for pool '{}', event '{}'",
+                        storagePoolId, event);
+                return true;
+            case RECONSTRUCT:
+                if (event.getEventType() == EventType.VDSCONNECTTOPOOL
+                        || event.getEventType() == EventType.RECOVERY
+                        || event.getEventType() == EventType.DOMAINFAILOVER
+                        || event.getEventType() == EventType.VDSCLEARCACHE) {
+                    return false;
+                }
+                log.debug("Current event was skipped because of reconstruct is running now for pool '{}', event '{}'",
+                        storagePoolId, event);
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    void execute(Runnable command) {
+        ThreadPoolUtil.execute(command);
     }
 
-    private FutureTask<EventResult> addTaskToQueue(Event event, Callable<EventResult> callable, Guid storagePoolId, boolean addFirst) {
-        FutureTask<EventResult> task = new FutureTask<>(callable);
-        Pair<Event, FutureTask<EventResult>> queueEvent = new Pair<>(event, task);
-        if (addFirst) {
-            getEventQueue(storagePoolId).addFirst(queueEvent);
-        } else {
-            getEventQueue(storagePoolId).add(queueEvent);
+    @Override
+    public List<String> showEventQueues() {
+        List<String> queues = new ArrayList<>();
+        for (Entry<Guid, PoolEventQueue> entry : poolQueues.entrySet()) {
+            PoolEventQueue queue = entry.getValue();
+            queue.lock.lock();
+            try {
+                if (queue.currentEvent != null) {
+                    queues.add("The pool is : " + entry.getKey()
+                            + ", current event=" + queue.currentEvent
+                            + ", pending events=" + queue.size());
+                }
+            } finally {
+                queue.lock.unlock();
+            }
         }
-        return task;
+        return queues;
     }
 
-    private LinkedList<Pair<Event, FutureTask<EventResult>>> getEventQueue(Guid storagePoolId) {
-        LinkedList<Pair<Event, FutureTask<EventResult>>> queue = poolsEventsMap.get(storagePoolId);
-        if (queue == null) {
-            queue = new LinkedList<>();
-            poolsEventsMap.put(storagePoolId, queue);
+    @Override
+    public List<String> showEventTypeStatistics() {
+        return statistics.entrySet()
+                .stream()
+                .map(e -> "The event type is : " + e.getKey() + ' ' + e.getValue())
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void resetStatistics() {
+        statistics.values().forEach(EventTypeStatistics::reset);
+    }
+
+    /**
+     * The following enum defines the priority lanes of the pending events, in the order they are processed
+     */
+    private enum Lane {
+        RECOVERY,
+        RECONSTRUCT,
+        DEFAULT;
+
+        private static Lane of(EventType eventType) {
+            switch (eventType) {
+                case RECOVERY:
+                    return RECOVERY;
+                case RECONSTRUCT:
+                    return RECONSTRUCT;
+                default:
+                    return DEFAULT;
+            }
         }
-        return queue;
     }
 
-    private ReentrantLock getPoolLock(Guid poolId) {
-        if (!poolsLockMap.containsKey(poolId)) {
-            poolsLockMap.putIfAbsent(poolId, new ReentrantLock());
+    /**
+     * The following class holds a pending event and the future of its result, which may be shared by the submitters
+     * of identical events
+     */
+    private static class QueuedEvent {
+
+        private final Event event;
+        /** The callable to run, may be replaced by the one of a coalesced event until the event is processed **/
+        private volatile Callable<EventResult> callable;
+        private final FutureTask<EventResult> task;
+        private final long queuedNanos;
+
+        private QueuedEvent(Event event, Callable<EventResult> callable) {
+            this.event = event;
+            this.callable = callable;
+            this.task = new FutureTask<>(() -> this.callable.call());
+            this.queuedNanos = System.nanoTime();
         }
-        return poolsLockMap.get(poolId);
     }
 
-    private static class InternalEventQueueThread implements Runnable {
+    /**
+     * The following class represents the queue of a single storage pool, all its fields are guarded by its lock
+     */
+    private static class PoolEventQueue {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<Lane, Deque<QueuedEvent>> lanes = new EnumMap<>(Lane.class);
+        /** The event being processed, or the first queued one until processing starts, null if the queue is idle **/
+        private Event currentEvent;
 
-        private Guid storagePoolId;
-        private ReentrantLock lock;
-        private Map<Guid, Event> poolCurrentEventMap;
-        private Map<Guid, LinkedList<Pair<Event, FutureTask<EventResult>>>> poolsEventsMap;
+        private PoolEventQueue() {
+            for (Lane lane : Lane.values()) {
+                lanes.put(lane, new ArrayDeque<>());
+            }
+        }
 
-        public InternalEventQueueThread(Guid storagePoolId,
-                ReentrantLock lock,
-                Map<Guid, LinkedList<Pair<Event, FutureTask<EventResult>>>> poolsEventsMap,
-                Map<Guid, Event> poolCurrentEventMap) {
+        private void add(QueuedEvent queuedEvent) {
+            lanes.get(Lane.of(queuedEvent.event.getEventType())).add(queuedEvent);
+        }
+
+        /**
+         * Returns the pending event the given event was coalesced into, or null if it should be queued
+         */
+        private QueuedEvent coalesce(Event event, Callable<EventResult> callable) {
+            boolean byLatest = COALESCED_BY_LATEST.contains(event.getEventType());
+            if (!byLatest && !COALESCED_BY_FIRST.contains(event.getEventType())) {
+                return null;
+            }
+            for (QueuedEvent queuedEvent : lanes.get(Lane.of(event.getEventType()))) {
+                if (queuedEvent.event.equals(event)) {
+                    if (byLatest) {
+                        queuedEvent.callable = callable;
+                    }
+                    return queuedEvent;
+                }
+            }
+            return null;
+        }
+
+        private QueuedEvent poll() {
+            for (Deque<QueuedEvent> lane : lanes.values()) {
+                QueuedEvent queuedEvent = lane.poll();
+                if (queuedEvent != null) {
+                    return queuedEvent;
+                }
+            }
+            return null;
+        }
+
+        private int size() {
+            return lanes.values().stream().mapToInt(Deque::size).sum();
+        }
+    }
+
+    /**
+     * The following class processes the pending events of a pool, until none is left
+     */
+    private class PoolEventProcessor implements Runnable {
+
+        private final Guid storagePoolId;
+        private final PoolEventQueue queue;
+
+        private PoolEventProcessor(Guid storagePoolId, PoolEventQueue queue) {
             this.storagePoolId = storagePoolId;
-            this.lock = lock;
-            this.poolsEventsMap = poolsEventsMap;
-            this.poolCurrentEventMap = poolCurrentEventMap;
+            this.queue = queue;
         }
 
         @Override
         public void run() {
-            while (true) {
-                Pair<Event, FutureTask<EventResult>> pair;
-                lock.lock();
-                try {
-                    pair = poolsEventsMap.get(storagePoolId).poll();
-                    if (pair != null) {
-                        poolCurrentEventMap.put(storagePoolId, pair.getFirst());
-                    } else {
-                        poolCurrentEventMap.remove(storagePoolId);
-                        poolsEventsMap.remove(storagePoolId);
-                        log.debug("All task for event query were executed pool '{}'", storagePoolId);
-                        break;
-                    }
-                } finally {
-                    lock.unlock();
+            QueuedEvent queuedEvent;
+            while ((queuedEvent = next()) != null) {
+                process(queuedEvent);
+            }
+        }
+
+        private QueuedEvent next() {
+            queue.lock.lock();
+            try {
+                QueuedEvent queuedEvent = queue.poll();
+                if (queuedEvent != null) {
+                    queue.currentEvent = queuedEvent.event;
+                } else {
+                    queue.currentEvent = null;
+                    log.debug("All task for event query were executed pool '{}'", storagePoolId);
+                }
+                return queuedEvent;
+            } finally {
+                queue.lock.unlock();
+            }
+        }
+
+        private void process(QueuedEvent queuedEvent) {
+            EventTypeStatistics eventStatistics = statistics.get(queuedEvent.event.getEventType());
+            eventStatistics.getQueueTime().recordSince(queuedEvent.queuedNanos);
+            long startNanos = System.nanoTime();
+            queuedEvent.task.run();
+            eventStatistics.getProcessTime().recordSince(startNanos);
+            try {
+                EventResult result = queuedEvent.task.get();
+                if (result != null && result.getEventType() == EventType.RECONSTRUCT) {
+                    log.info("Finished reconstruct for pool '{}'. Clearing event queue", storagePoolId);
+                    clearAfterReconstruct(result);
                 }
-                Future<EventResult> futureResult = ThreadPoolUtil.execute(pair.getSecond());
-                try {
-                    if (futureResult.get() == null) {
-                        EventResult result = pair.getSecond().get();
-                        if (result != null && result.getEventType() == EventType.RECONSTRUCT) {
-                            log.info("Finished reconstruct for pool '{}'. Clearing event queue", storagePoolId);
-                            lock.lock();
-                            try {
-                                LinkedList<Pair<Event, FutureTask<EventResult>>> queue = new LinkedList<>();
-                                for (Pair<Event, FutureTask<EventResult>> task : poolsEventsMap.get(storagePoolId)) {
-                                    EventType eventType = task.getFirst().getEventType();
-                                    if (eventType == EventType.VDSCONNECTTOPOOL
-                                            ||
-                                            (eventType == EventType.RECOVERY || eventType == EventType.DOMAINFAILOVER || eventType == EventType.VDSCLEARCACHE) && !result.isSuccess()) {
-                                        queue.add(task);
-                                    } else {
-                                        log.info("The following operation '{}' was cancelled, because of reconstruct was run before",
-                                                task.getFirst());
-                                        task.getSecond().cancel(true);
-                                    }
-                                }
-                                if (queue.isEmpty()) {
-                                    poolCurrentEventMap.remove(storagePoolId);
-                                    poolsEventsMap.remove(storagePoolId);
-                                    break;
-                                } else {
-                                    poolsEventsMap.put(storagePoolId, queue);
-                                }
-                            } finally {
-                                lock.unlock();
-                            }
+            } catch (Exception e) {
+                log.error("Exception during process of events for pool '{}': {}",
+                        storagePoolId,
+                        e.getMessage());
+                log.debug("Exception", e);
+            }
+        }
+
+        /**
+         * Cancels the pending events made redundant by the reconstruct
+         */
+        private void clearAfterReconstruct(EventResult result) {
+            queue.lock.lock();
+            try {
+                for (Deque<QueuedEvent> lane : queue.lanes.values()) {
+                    for (Iterator<QueuedEvent> iterator = lane.iterator(); iterator.hasNext();) {
+                        QueuedEvent queuedEvent = iterator.next();
+                        EventType eventType = queuedEvent.event.getEventType();
+                        if (eventType == EventType.VDSCONNECTTOPOOL
+                                || (eventType == EventType.RECOVERY || eventType == EventType.DOMAINFAILOVER
+                                        || eventType == EventType.VDSCLEARCACHE) && !result.isSuccess()) {
+                            continue;
                         }
+                        log.info("The following operation '{}' was cancelled, because of reconstruct was run before",
+                                queuedEvent.event);
+                        iterator.remove();
+                        queuedEvent.task.cancel(true);
+                        statistics.get(eventType).eventCancelled();
                     }
-                } catch (Exception e) {
-                    log.error("Exception during process of events for pool '{}': {}",
-                            storagePoolId,
-                            e.getMessage());
-                    log.debug("Exception", e);
                 }
+            } finally {
+                queue.lock.unlock();
             }
         }
     }
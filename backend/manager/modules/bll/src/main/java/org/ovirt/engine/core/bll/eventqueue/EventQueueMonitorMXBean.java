@@ -0,0 +1,26 @@
+package org.ovirt.engine.core.bll.eventqueue;
+
+import java.util.List;
+
+/**
+ * The following interface is used as interface for JMX bean
+ */
+public interface EventQueueMonitorMXBean {
+
+    /**
+     * The following method will return the event currently processed and the number of pending events of each storage
+     * pool
+     */
+    List<String> showEventQueues();
+
+    /**
+     * The following method will return the statistics of each event type: submitted, coalesced, skipped and cancelled
+     * events, and the queueing and processing time histograms
+     */
+    List<String> showEventTypeStatistics();
+
+    /**
+     * The following method will reset all the statistics
+     */
+    void resetStatistics();
+}
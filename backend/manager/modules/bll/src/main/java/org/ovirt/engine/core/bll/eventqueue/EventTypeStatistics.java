@@ -0,0 +1,67 @@
+package org.ovirt.engine.core.bll.eventqueue;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.ovirt.engine.core.utils.metrics.LatencyHistogram;
+
+/**
+ * The following class holds the counters of a single event type, it is updated without any locking
+ */
+class EventTypeStatistics {
+
+    /** Number of events of the type which were submitted to the queue **/
+    private final LongAdder submitted = new LongAdder();
+    /** Number of submitted events which were merged into an identical pending event **/
+    private final LongAdder coalesced = new LongAdder();
+    /** Number of submitted events which were skipped because of the event currently processed **/
+    private final LongAdder skipped = new LongAdder();
+    /** Number of pending events which were cancelled by a reconstruct **/
+    private final LongAdder cancelled = new LongAdder();
+    /** Time elapsed between queueing an event and starting to process it **/
+    private final LatencyHistogram queueTime = new LatencyHistogram();
+    /** Time spent processing an event **/
+    private final LatencyHistogram processTime = new LatencyHistogram();
+
+    public void eventSubmitted() {
+        submitted.increment();
+    }
+
+    public void eventCoalesced() {
+        coalesced.increment();
+    }
+
+    public void eventSkipped() {
+        skipped.increment();
+    }
+
+    public void eventCancelled() {
+        cancelled.increment();
+    }
+
+    public LatencyHistogram getQueueTime() {
+        return queueTime;
+    }
+
+    public LatencyHistogram getProcessTime() {
+        return processTime;
+    }
+
+    public void reset() {
+        submitted.reset();
+        coalesced.reset();
+        skipped.reset();
+        cancelled.reset();
+        queueTime.reset();
+        processTime.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "submitted=" + submitted.sum()
+                + ", coalesced=" + coalesced.sum()
+                + ", skipped=" + skipped.sum()
+                + ", cancelled=" + cancelled.sum()
+                + ", queue time {" + queueTime + '}'
+                + ", process time {" + processTime + '}';
+    }
+}
@@ -1,6 +1,5 @@
 package org.ovirt.engine.core.bll.lock;
 
-import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -8,10 +7,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
-import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import javax.annotation.PostConstruct;
@@ -23,8 +23,6 @@ import javax.ejb.Singleton;
 import javax.ejb.Startup;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
-import javax.management.MBeanServer;
-import javax.management.ObjectName;
 
 import org.ovirt.engine.core.common.errors.EngineMessage;
 import org.ovirt.engine.core.common.locks.LockInfo;
@@ -32,11 +30,19 @@ import org.ovirt.engine.core.common.utils.Pair;
 import org.ovirt.engine.core.utils.lock.EngineLock;
 import org.ovirt.engine.core.utils.lock.LockManager;
 import org.ovirt.engine.core.utils.lock.LockingResult;
+import org.ovirt.engine.core.utils.metrics.HotKeysCounter;
+import org.ovirt.engine.core.utils.metrics.MBeanRegistration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * The following class an implementation of internal locking mechanism
+ * The following class an implementation of internal locking mechanism.
+ * <p>
+ * The lock table is split into {@link #STRIPES_COUNT} stripes, each one guarded by its own lock, so that operations on
+ * unrelated keys do not contend with each other. An {@link EngineLock} spanning several keys is acquired atomically by
+ * locking all the stripes it touches in ascending stripe order. Threads waiting inside {@code acquireLockWait()} park on
+ * a condition of the key which blocked them and are only woken up when that key is released.
+ * </p>
  */
 @Startup
 @Singleton(name = "LockManager")
@@ -45,45 +51,58 @@ import org.slf4j.LoggerFactory;
 @Local(LockManager.class)
 public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBean {
 
-    /** A map which is contains all internal representation of locks **/
-    private final Map<String, InternalLockView> locks = new HashMap<>();
-    /** A lock which is used to synchronized acquireLock(), acquireLockWait() and releaseLock() operations **/
-    private final Lock globalLock = new ReentrantLock();
-    /** A condition which is used in order to notify for waiting threads that some lock was released**/
-    private final Condition releasedLock = globalLock.newCondition();
+    /** Number of stripes the lock table is split into, a power of two of at most 64 as they are held in a long mask **/
+    static final int STRIPES_COUNT = 64;
+
+    /** Number of the most contended keys which are reported via JMX **/
+    private static final int HOT_KEYS_REPORTED = 20;
+
+    /** The stripes which are together contain all internal representation of locks **/
+    private final LockStripe[] stripes;
+    /** Contention statistics by locking group, updated and read without taking any stripe lock **/
+    private final Map<String, LockingGroupStatistics> statistics = new ConcurrentHashMap<>();
+    /** The keys which most frequently failed to be acquired **/
+    private final HotKeysCounter hotKeys = new HotKeysCounter(1024);
 
-    private MBeanServer platformMBeanServer;
-    private ObjectName objectName = null;
     private static final Logger log = LoggerFactory.getLogger(InMemoryLockManager.class);
+    private static final String MBEAN_NAME = "InMemoryLockManager:type=" + InMemoryLockManager.class.getName();
+
+    public InMemoryLockManager() {
+        stripes = new LockStripe[STRIPES_COUNT];
+        for (int i = 0; i < STRIPES_COUNT; i++) {
+            stripes[i] = new LockStripe();
+        }
+    }
 
     @PostConstruct
     public void registerInJMX() {
-        try {
-            objectName = new ObjectName("InMemoryLockManager:type=" + this.getClass().getName());
-            platformMBeanServer = ManagementFactory.getPlatformMBeanServer();
-            platformMBeanServer.registerMBean(this, objectName);
-        } catch (Exception e) {
-            throw new IllegalStateException("Problem during registration of Monitoring into JMX:" + e);
-        }
+        MBeanRegistration.register(this, MBEAN_NAME);
     }
 
     @PreDestroy
     public void unregisterFromJMX() {
-        try {
-            platformMBeanServer.unregisterMBean(this.objectName);
-        } catch (Exception e) {
-            throw new IllegalStateException("Problem during unregistration of Monitoring into JMX:" + e);
-        }
+        MBeanRegistration.unregister(MBEAN_NAME);
     }
 
     @Override
     public LockingResult acquireLock(EngineLock lock) {
         log.debug("Before acquiring lock '{}'", lock);
-        globalLock.lock();
+        forEachLockingGroup(lock, group -> getStatistics(group).acquireAttempted());
+        return tryAcquireLock(lock, true);
+    }
+
+    /**
+     * Acquires the given lock if none of its keys is taken, without counting an acquire attempt, so the retries of
+     * {@code acquireLockWait()} are not counted as attempts of their own. A failure is counted only for the first try
+     * of an attempt, as the retries would count the same failure again
+     */
+    private LockingResult tryAcquireLock(EngineLock lock, boolean firstTry) {
+        long stripeIndexes = getStripeIndexes(lock);
+        lockStripes(stripeIndexes);
         try {
-            return acquireLockInternal(lock);
+            return acquireLockInternal(lock, firstTry);
         } finally {
-            globalLock.unlock();
+            unlockStripes(stripeIndexes);
         }
     }
 
@@ -91,16 +110,19 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
     public void acquireLockWait(EngineLock lock) {
         log.debug("Before acquiring and wait lock '{}'", lock);
         validateLockForAcquireAndWait(lock);
-        globalLock.lock();
+        forEachLockingGroup(lock, group -> getStatistics(group).acquireAttempted());
+        long startNanos = System.nanoTime();
+        boolean firstTry = true;
         try {
-            while (!acquireLockInternal(lock).isAcquired()) {
+            while (!tryAcquireLock(lock, firstTry).isAcquired()) {
+                firstTry = false;
                 log.info("Failed to acquire lock and wait lock '{}'", lock);
-                releasedLock.await();
+                awaitRelease(lock, Long.MAX_VALUE);
             }
         } catch (InterruptedException ignore) {
 
         } finally {
-            globalLock.unlock();
+            recordWaitTime(lock, startNanos);
         }
     }
 
@@ -112,28 +134,36 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
             throw new IllegalArgumentException("timeout must be positive");
         }
         long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        forEachLockingGroup(lock, group -> getStatistics(group).acquireAttempted());
+        long startNanos = System.nanoTime();
         LockingResult lockAcquired = LockingResult.fail();
-        globalLock.lock();
+        boolean firstTry = true;
         try {
             do {
-                lockAcquired = acquireLockInternal(lock);
+                lockAcquired = tryAcquireLock(lock, firstTry);
+                firstTry = false;
                 if (!lockAcquired.isAcquired()) {
                     if (timeoutNanos <= 0L) {
                         log.info("Failed to acquire lock because timeout was reached. lock {}", lock);
                         break;
                     }
                     log.info("Failed to acquire lock, will try again until timeout. lock '{}'", lock);
-                    timeoutNanos = releasedLock.awaitNanos(timeoutNanos);
+                    timeoutNanos = awaitRelease(lock, timeoutNanos);
                 }
             } while (!lockAcquired.isAcquired());
         } catch (InterruptedException ignore) {
             log.info("Acquire lock operation was interrupted. lock '{}'", lock);
         } finally {
-            globalLock.unlock();
+            recordWaitTime(lock, startNanos);
         }
         return lockAcquired;
     }
 
+    private void recordWaitTime(EngineLock lock, long startNanos) {
+        long waitNanos = System.nanoTime() - startNanos;
+        forEachLockingGroup(lock, group -> getStatistics(group).getWaitTime().record(waitNanos));
+    }
+
     private void validateLockForAcquireAndWait(EngineLock lock) {
         if (lock.getSharedLocks() != null && lock.getExclusiveLocks().size() > 1) {
             log.error("Trying to acquire or wait on shared or more than one exclusive locks '{}'", lock);
@@ -141,10 +171,71 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
         }
     }
 
+    /**
+     * The following method parks the calling thread until the first key of the given lock which can not be acquired
+     * at the moment is released, or until the given timeout elapses. Only releases of that key wake the thread up.
+     * @return an estimate of the remaining nanoseconds to wait, as returned by {@link Condition#awaitNanos(long)}
+     */
+    private long awaitRelease(EngineLock lock, long timeoutNanos) throws InterruptedException {
+        if (lock.getSharedLocks() != null) {
+            for (Entry<String, Pair<String, String>> entry : lock.getSharedLocks().entrySet()) {
+                if (isBlocked(buildHashMapKey(entry), false)) {
+                    return awaitRelease(buildHashMapKey(entry), false, timeoutNanos);
+                }
+            }
+        }
+        if (lock.getExclusiveLocks() != null) {
+            for (Entry<String, Pair<String, String>> entry : lock.getExclusiveLocks().entrySet()) {
+                if (isBlocked(buildHashMapKey(entry), true)) {
+                    return awaitRelease(buildHashMapKey(entry), true, timeoutNanos);
+                }
+            }
+        }
+        // the lock was released in between, the caller should just try again
+        return timeoutNanos;
+    }
+
+    private long awaitRelease(String key, boolean exclusive, long timeoutNanos) throws InterruptedException {
+        LockStripe stripe = getStripe(key);
+        stripe.lock.lock();
+        try {
+            if (!isBlockedInStripe(stripe, key, exclusive)) {
+                return timeoutNanos;
+            }
+            KeyWaiters waiters = stripe.waiters.computeIfAbsent(key, k -> new KeyWaiters(stripe.lock.newCondition()));
+            waiters.count++;
+            try {
+                return waiters.released.awaitNanos(timeoutNanos);
+            } finally {
+                if (--waiters.count == 0) {
+                    stripe.waiters.remove(key);
+                }
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private boolean isBlocked(String key, boolean exclusive) {
+        LockStripe stripe = getStripe(key);
+        stripe.lock.lock();
+        try {
+            return isBlockedInStripe(stripe, key, exclusive);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private boolean isBlockedInStripe(LockStripe stripe, String key, boolean exclusive) {
+        InternalLockView lock = stripe.locks.get(key);
+        return lock != null && (exclusive || lock.getExclusive());
+    }
+
     @Override
     public void releaseLock(EngineLock lock) {
         log.debug("Before releasing a lock '{}'", lock);
-        globalLock.lock();
+        long stripeIndexes = getStripeIndexes(lock);
+        lockStripes(stripeIndexes);
         try {
             if (lock.getSharedLocks() != null) {
                 lock.getSharedLocks().entrySet().stream().forEach(entry ->
@@ -154,21 +245,22 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
                 lock.getExclusiveLocks().entrySet().stream().forEach(entry ->
                     releaseExclusiveLock(buildHashMapKey(entry)));
             }
-            releasedLock.signalAll();
         } finally {
-            globalLock.unlock();
+            unlockStripes(stripeIndexes);
         }
     }
 
     @Override
     public void clear() {
         log.warn("Cleaning all in memory locks");
-        globalLock.lock();
-        try {
-            locks.clear();
-            releasedLock.signalAll();
-        } finally {
-            globalLock.unlock();
+        for (LockStripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                stripe.locks.clear();
+                stripe.waiters.values().forEach(waiters -> waiters.released.signalAll());
+            } finally {
+                stripe.lock.unlock();
+            }
         }
     }
 
@@ -177,9 +269,10 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
         log.warn("The following lock is going to be released via external call, lockId '{}', error message can be"
                 + " left for shared lock",
                 lockId);
-        globalLock.lock();
+        LockStripe stripe = getStripe(lockId);
+        stripe.lock.lock();
         try {
-            InternalLockView lock = locks.get(lockId);
+            InternalLockView lock = stripe.locks.get(lockId);
             if (lock == null) {
                 log.warn("Lock with id '{}' does not exist and can not be released via external call", lockId);
                 return false;
@@ -189,9 +282,8 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
             } else {
                 releaseSharedLock(lockId, null);
             }
-            releasedLock.signalAll();
         } finally {
-            globalLock.unlock();
+            stripe.lock.unlock();
         }
         log.warn("Lock '{}' was released via external call", lockId);
         return true;
@@ -200,12 +292,52 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
     @Override
     public List<String> showAllLocks() {
         log.debug("All in memory locks will be shown");
-        globalLock.lock();
-        try {
-            return locks.entrySet().stream().map(this::createLockDescription).collect(Collectors.toList());
-        } finally {
-            globalLock.unlock();
-            log.debug("All in memory locks were shown");
+        List<String> descriptions = new ArrayList<>();
+        for (LockStripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                stripe.locks.entrySet().stream().map(this::createLockDescription).forEach(descriptions::add);
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        log.debug("All in memory locks were shown");
+        return descriptions;
+    }
+
+    @Override
+    public List<String> showLockingGroupStatistics() {
+        return statistics.entrySet()
+                .stream()
+                .sorted(Entry.comparingByKey())
+                .map(e -> "The locking group is : " + e.getKey() + ' ' + e.getValue())
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<String> showHotKeys() {
+        return hotKeys.getTopKeys(HOT_KEYS_REPORTED);
+    }
+
+    @Override
+    public void resetStatistics() {
+        statistics.values().forEach(LockingGroupStatistics::reset);
+        hotKeys.reset();
+    }
+
+    private LockingGroupStatistics getStatistics(String lockingGroup) {
+        LockingGroupStatistics groupStatistics = statistics.get(lockingGroup);
+        return groupStatistics != null
+                ? groupStatistics
+                : statistics.computeIfAbsent(lockingGroup, group -> new LockingGroupStatistics());
+    }
+
+    private void forEachLockingGroup(EngineLock lock, Consumer<String> action) {
+        if (lock.getSharedLocks() != null) {
+            lock.getSharedLocks().values().forEach(value -> action.accept(value.getFirst()));
+        }
+        if (lock.getExclusiveLocks() != null) {
+            lock.getExclusiveLocks().values().forEach(value -> action.accept(value.getFirst()));
         }
     }
 
@@ -220,18 +352,69 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
         return entry.getKey() + entry.getValue().getFirst();
     }
 
+    private static int getStripeIndex(String key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & (STRIPES_COUNT - 1);
+    }
+
+    private LockStripe getStripe(String key) {
+        return stripes[getStripeIndex(key)];
+    }
+
+    /**
+     * Returns the stripes touched by the given lock as a mask, bit i standing for stripe i. Stripes are always locked in
+     * ascending order in order to prevent deadlocks between locks spanning several stripes.
+     */
+    private long getStripeIndexes(EngineLock lock) {
+        long indexes = 0;
+        if (lock.getSharedLocks() != null) {
+            for (Entry<String, Pair<String, String>> entry : lock.getSharedLocks().entrySet()) {
+                indexes |= 1L << getStripeIndex(buildHashMapKey(entry));
+            }
+        }
+        if (lock.getExclusiveLocks() != null) {
+            for (Entry<String, Pair<String, String>> entry : lock.getExclusiveLocks().entrySet()) {
+                indexes |= 1L << getStripeIndex(buildHashMapKey(entry));
+            }
+        }
+        return indexes;
+    }
+
+    private void lockStripes(long stripeIndexes) {
+        for (long remaining = stripeIndexes; remaining != 0; remaining &= remaining - 1) {
+            stripes[Long.numberOfTrailingZeros(remaining)].lock.lock();
+        }
+    }
+
+    private void unlockStripes(long stripeIndexes) {
+        for (long remaining = stripeIndexes; remaining != 0; remaining &= remaining - 1) {
+            stripes[Long.numberOfTrailingZeros(remaining)].lock.unlock();
+        }
+    }
+
+    /**
+     * Wakes up the threads waiting for the given key, should be called while holding the lock of the key's stripe
+     */
+    private void signalReleased(LockStripe stripe, String key) {
+        KeyWaiters waiters = stripe.waiters.get(key);
+        if (waiters != null) {
+            waiters.released.signalAll();
+        }
+    }
+
     /**
      * The following method contains a logic for acquiring a lock. It is comprised of two steps:
      * 1. Check if the lock can be acquired
      * 2. If the first step succeeds, acquire a lock
+     * The locks of all the stripes touched by the given lock should be held by the caller
      */
-    private LockingResult acquireLockInternal(EngineLock lock) {
-        var result = acquireLockInternalStep(lock, true);
+    private LockingResult acquireLockInternal(EngineLock lock, boolean recordFailure) {
+        var result = acquireLockInternalStep(lock, true, recordFailure);
         if (!result.isAcquired()) {
             return result;
         }
 
-        result = acquireLockInternalStep(lock, false);
+        result = acquireLockInternalStep(lock, false, recordFailure);
         if (!result.isAcquired()) {
             return result;
         }
@@ -240,12 +423,15 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
         return LockingResult.success();
     }
 
-    private LockingResult acquireLockInternalStep(EngineLock lock, boolean checkOnly) {
+    private LockingResult acquireLockInternalStep(EngineLock lock, boolean checkOnly, boolean recordFailure) {
         if (lock.getSharedLocks() != null) {
             for (Entry<String, Pair<String, String>> entry : lock.getSharedLocks().entrySet()) {
                 LockingResult result =
-                        insertSharedLock(buildHashMapKey(entry), entry.getValue().getSecond(), checkOnly);
+                        insertSharedLock(buildHashMapKey(entry), entry.getValue(), checkOnly);
                 if (!result.isAcquired()) {
+                    if (recordFailure) {
+                        recordFailure(entry);
+                    }
                     log.debug("Failed to acquire lock. Shared lock is taken for key '{}', value '{}'",
                             entry.getKey(),
                             entry.getValue().getFirst());
@@ -256,8 +442,11 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
         if (lock.getExclusiveLocks() != null) {
             for (Entry<String, Pair<String, String>> entry : lock.getExclusiveLocks().entrySet()) {
                 LockingResult result =
-                        insertExclusiveLock(buildHashMapKey(entry), entry.getValue().getSecond(), checkOnly);
+                        insertExclusiveLock(buildHashMapKey(entry), entry.getValue(), checkOnly);
                 if (!result.isAcquired()) {
+                    if (recordFailure) {
+                        recordFailure(entry);
+                    }
                     log.debug("Failed to acquire lock. Exclusive lock is taken for key '{}', value '{}'",
                             entry.getKey(),
                             entry.getValue().getFirst());
@@ -268,12 +457,19 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
         return LockingResult.success();
     }
 
+    private void recordFailure(Entry<String, Pair<String, String>> entry) {
+        getStatistics(entry.getValue().getFirst()).acquireFailed();
+        hotKeys.hit(entry.getValue().getFirst() + ':' + entry.getKey());
+    }
+
     /**
      * The following method should insert an "shared" internal lock
-     * @param message
-     *            - error message associated with lock
+     * @param groupAndMessage
+     *            - locking group and error message associated with lock
      */
-    private LockingResult insertSharedLock(String key, String message, boolean isCheckOnly) {
+    private LockingResult insertSharedLock(String key, Pair<String, String> groupAndMessage, boolean isCheckOnly) {
+        String message = groupAndMessage.getSecond();
+        Map<String, InternalLockView> locks = getStripe(key).locks;
         InternalLockView lock = locks.get(key);
         if (lock != null) {
             if (!isCheckOnly) {
@@ -283,7 +479,7 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
                 return LockingResult.fail(lock.getMessages());
             }
         } else if (!isCheckOnly) {
-            locks.put(key, new InternalLockView(1, message, false));
+            locks.put(key, new InternalLockView(1, message, false, groupAndMessage.getFirst()));
         }
         return LockingResult.success();
     }
@@ -292,21 +488,25 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
      * The following method will add exclusive lock, the exclusive key can be
      * added only if there is not exist any shared or exclusive lock for given key
      */
-    private LockingResult insertExclusiveLock(String key, String message, boolean isCheckOnly) {
+    private LockingResult insertExclusiveLock(String key, Pair<String, String> groupAndMessage, boolean isCheckOnly) {
+        Map<String, InternalLockView> locks = getStripe(key).locks;
         InternalLockView lock = locks.get(key);
         if (lock != null) {
             return LockingResult.fail(lock.getMessages());
         }
         if (!isCheckOnly) {
-            locks.put(key, new InternalLockView(0, message, true));
+            locks.put(key, new InternalLockView(0, groupAndMessage.getSecond(), true, groupAndMessage.getFirst()));
         }
         return LockingResult.success();
     }
 
     private void releaseExclusiveLock(String key) {
-        InternalLockView lock = locks.get(key);
+        LockStripe stripe = getStripe(key);
+        InternalLockView lock = stripe.locks.get(key);
         if (lock != null && lock.getExclusive()) {
-            locks.remove(key);
+            stripe.locks.remove(key);
+            signalReleased(stripe, key);
+            recordHoldTime(lock);
             log.debug("The exclusive lock for key '{}' is released and lock is removed from map", key);
         } else if (lock == null) {
             log.warn("Trying to release exclusive lock which does not exist, lock key: '{}'", key);
@@ -316,13 +516,16 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
     }
 
     private void releaseSharedLock(String key, String message) {
-        InternalLockView lock = locks.get(key);
+        LockStripe stripe = getStripe(key);
+        InternalLockView lock = stripe.locks.get(key);
         if (lock != null) {
             if (lock.getCount() > 0) {
                 lock.decreaseCount();
                 log.debug("The shared lock for key '{}' is released.", key);
                 if (lock.getCount() == 0) {
-                    locks.remove(key);
+                    stripe.locks.remove(key);
+                    signalReleased(stripe, key);
+                    recordHoldTime(lock);
                     log.debug("The shared lock for key '{}' is removed from map", key);
                 } else {
                     lock.removeMessage(message);
@@ -335,14 +538,28 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
         }
     }
 
+    private void recordHoldTime(InternalLockView lock) {
+        if (lock.getLockingGroup() != null) {
+            getStatistics(lock.getLockingGroup()).getHoldTime().recordSince(lock.getAcquiredAt());
+        }
+    }
+
     @Override
     public LockInfo getLockInfo(String key) {
-        InternalLockView internalLockView = locks.get(key);
-        if (internalLockView == null) {
-            return null;
+        LockStripe stripe = getStripe(key);
+        InternalLockView internalLockView;
+        Set<String> messages;
+        stripe.lock.lock();
+        try {
+            internalLockView = stripe.locks.get(key);
+            if (internalLockView == null) {
+                return null;
+            }
+            messages = internalLockView.getMessages();
+        } finally {
+            stripe.lock.unlock();
         }
 
-        Set<String> messages = internalLockView.getMessages();
         messages.remove(EngineMessage.ACTION_TYPE_FAILED_OBJECT_LOCKED.name());
         if (messages.isEmpty()) {
             // EngineMessage.ACTION_TYPE_FAILED_OBJECT_LOCKED should only be used for
@@ -361,6 +578,34 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
                 .anyMatch(entry -> getLockInfo(buildHashMapKey(entry)) != null);
     }
 
+    /**
+     * The following class represents a single stripe of the lock table, all its fields are guarded by its lock
+     */
+    private static class LockStripe {
+
+        /** A lock which is used to synchronize all operations on the keys belonging to this stripe **/
+        private final ReentrantLock lock = new ReentrantLock();
+        /** A map which is contains internal representation of locks of this stripe **/
+        private final Map<String, InternalLockView> locks = new HashMap<>();
+        /** The threads waiting for a release of a key of this stripe **/
+        private final Map<String, KeyWaiters> waiters = new HashMap<>();
+    }
+
+    /**
+     * The following class holds a condition on which threads waiting for a release of a single key are parked
+     */
+    private static class KeyWaiters {
+
+        /** A condition which is used in order to notify waiting threads that the key was released **/
+        private final Condition released;
+        /** Number of threads waiting on the condition, the entry is removed once it drops to 0 **/
+        private int count;
+
+        public KeyWaiters(Condition released) {
+            this.released = released;
+        }
+    }
+
     /**
      * The following class represents different locks which are kept inside InMemoryLockManager
      */
@@ -372,12 +617,18 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
         private final boolean exclusive;
         /** Contains error messages for that key **/
         private List<String> messages;
+        /** The locking group of the key, used for reporting statistics **/
+        private final String lockingGroup;
+        /** The value of System.nanoTime() when the key was inserted into the lock table **/
+        private final long acquiredAt;
 
-        public InternalLockView(int count, String message, boolean exclusive) {
+        public InternalLockView(int count, String message, boolean exclusive, String lockingGroup) {
             this.count = count;
             this.exclusive = exclusive;
+            this.lockingGroup = lockingGroup;
             messages = new ArrayList<>();
             messages.add(message);
+            acquiredAt = System.nanoTime();
         }
 
         public boolean getExclusive() {
@@ -388,6 +639,14 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
             return count;
         }
 
+        public String getLockingGroup() {
+            return lockingGroup;
+        }
+
+        public long getAcquiredAt() {
+            return acquiredAt;
+        }
+
         public void increaseCount() {
             count++;
         }
@@ -21,4 +21,20 @@ public interface LockManagerMonitorMXBean {
      * The following method will release a lock with provided lockId
      */
     boolean releaseLock(String lockId);
+
+    /**
+     * The following method will return the contention statistics of each locking group: acquire attempts, failures,
+     * wait time and hold time histograms
+     */
+    List<String> showLockingGroupStatistics();
+
+    /**
+     * The following method will return the most contended lock keys and the number of failed attempts to take them
+     */
+    List<String> showHotKeys();
+
+    /**
+     * The following method will reset all the contention statistics
+     */
+    void resetStatistics();
 }
@@ -0,0 +1,51 @@
+package org.ovirt.engine.core.bll.lock;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.ovirt.engine.core.utils.metrics.LatencyHistogram;
+
+/**
+ * The following class holds the contention counters of a single locking group, it is updated without any locking
+ */
+class LockingGroupStatistics {
+
+    /** Number of keys of the group which were requested by acquire operations, once per operation **/
+    private final LongAdder acquireAttempts = new LongAdder();
+    /** Number of times keys of the group were already taken when acquired, acquireLockWait() retries included **/
+    private final LongAdder acquireFailures = new LongAdder();
+    /** Time spent inside acquireLockWait() until the lock was acquired or the timeout elapsed **/
+    private final LatencyHistogram waitTime = new LatencyHistogram();
+    /** Time elapsed between taking a key of the group and removing it from the lock table **/
+    private final LatencyHistogram holdTime = new LatencyHistogram();
+
+    public void acquireAttempted() {
+        acquireAttempts.increment();
+    }
+
+    public void acquireFailed() {
+        acquireFailures.increment();
+    }
+
+    public LatencyHistogram getWaitTime() {
+        return waitTime;
+    }
+
+    public LatencyHistogram getHoldTime() {
+        return holdTime;
+    }
+
+    public void reset() {
+        acquireAttempts.reset();
+        acquireFailures.reset();
+        waitTime.reset();
+        holdTime.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "attempts=" + acquireAttempts.sum()
+                + ", failures=" + acquireFailures.sum()
+                + ", wait time {" + waitTime + '}'
+                + ", hold time {" + holdTime + '}';
+    }
+}
@@ -6,8 +6,13 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
 
 import javax.annotation.PostConstruct;
 import javax.enterprise.concurrent.ManagedScheduledExecutorService;
@@ -39,12 +44,27 @@ import org.ovirt.engine.core.utils.threadpool.ThreadPools;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Keeps the quotas of the storage pools together with their consumption and validates the consumption requests of
+ * the commands against them.
+ * <p>
+ * The cached quotas are kept in concurrent maps, and the consumption of a quota is guarded by one of
+ * {@link #STRIPES_COUNT} locks chosen by the quota id, so that commands consuming different quotas do not contend with
+ * each other, even within the same storage pool. A command consuming several quotas locks all their stripes in
+ * ascending order. The periodic refresh builds new quota instances from the DB and replaces only the cached quotas
+ * which have changed, each under the lock of its stripe, and a command whose quotas were replaced before it locked them
+ * consumes the new instances instead.
+ * </p>
+ */
 @Singleton
 public class QuotaManager implements BackendService {
-    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    /** Number of stripes guarding the consumption of the cached quotas, must be a power of two **/
+    static final int STRIPES_COUNT = 64;
+
     private final Logger log = LoggerFactory.getLogger(QuotaManager.class);
-    private Map<Guid, Map<Guid, Quota>> storagePoolQuotaMap = new HashMap<>();
-    private Map<Guid, Guid> storagePoolDefaultQuotaIdMap = new HashMap<>();
+    private final ConcurrentMap<Guid, ConcurrentMap<Guid, Quota>> storagePoolQuotaMap = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Guid, Guid> storagePoolDefaultQuotaIdMap = new ConcurrentHashMap<>();
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES_COUNT];
 
     private final List<Integer> nonCountableQutoaVmStatusesList = new ArrayList<>();
 
@@ -63,6 +83,9 @@ public class QuotaManager implements BackendService {
 
     // constructor is exposed only for Java test. //TODO remove it when arquillian test used.
     protected QuotaManager() {
+        for (int i = 0; i < STRIPES_COUNT; i++) {
+            stripes[i] = new ReentrantLock();
+        }
     }
 
     @PostConstruct
@@ -83,19 +106,12 @@ public class QuotaManager implements BackendService {
     }
 
     public void removeQuotaFromCache(Guid storagePoolId, List<Guid> quotaList) {
-        lock.writeLock().lock();
-        try {
-            if (!storagePoolQuotaMap.containsKey(storagePoolId)) {
-                return;
-            }
-            synchronized (storagePoolQuotaMap.get(storagePoolId)) {
-                Map<Guid, Quota> map = storagePoolQuotaMap.get(storagePoolId);
-                for (Guid quotaId : quotaList) {
-                    map.remove(quotaId);
-                }
-            }
-        } finally {
-            lock.writeLock().unlock();
+        Map<Guid, Quota> map = storagePoolQuotaMap.get(storagePoolId);
+        if (map == null) {
+            return;
+        }
+        for (Guid quotaId : quotaList) {
+            map.remove(quotaId);
         }
     }
 
@@ -104,36 +120,15 @@ public class QuotaManager implements BackendService {
     }
 
     public void removeStoragePoolFromCache(Guid storagePoolId) {
-        lock.writeLock().lock();
-        try {
-            storagePoolQuotaMap.remove(storagePoolId);
-            storagePoolDefaultQuotaIdMap.remove(storagePoolId);
-        } finally {
-            lock.writeLock().unlock();
-        }
+        storagePoolQuotaMap.remove(storagePoolId);
+        storagePoolDefaultQuotaIdMap.remove(storagePoolId);
     }
 
-    private void addStoragePoolToCache(Guid storagePoolId) {
-        if (storagePoolQuotaMap.containsKey(storagePoolId)) {
-            return;
-        }
-
-        storagePoolQuotaMap.put(storagePoolId, new HashMap<>());
-        Quota defaultQuota = getQuotaDao().getDefaultQuotaForStoragePool(storagePoolId);
-        storagePoolDefaultQuotaIdMap.put(storagePoolId, defaultQuota.getId());
-    }
-
-    private void addStoragePoolToCacheWithLock(Guid storagePoolId) {
-        if (storagePoolQuotaMap.containsKey(storagePoolId)) {
-            return;
-        }
-
-        lock.writeLock().lock();
-        try {
-            addStoragePoolToCache(storagePoolId);
-        } finally {
-            lock.writeLock().unlock();
-        }
+    private Map<Guid, Quota> addStoragePoolToCache(Guid storagePoolId) {
+        Map<Guid, Quota> quotaMap =
+                storagePoolQuotaMap.computeIfAbsent(storagePoolId, id -> new ConcurrentHashMap<>());
+        getDefaultQuotaId(storagePoolId);
+        return quotaMap;
     }
 
     /**
@@ -203,22 +198,14 @@ public class QuotaManager implements BackendService {
             throw new InvalidQuotaParametersException("Null storage pool passed to QuotaManager");
         }
 
-        addStoragePoolToCacheWithLock(storagePool.getId());
-
-        QuotaManagerAuditLogger auditLogger = new QuotaManagerAuditLogger(command, auditLogDirector);
+        addStoragePoolToCache(storagePool.getId());
 
-        lock.readLock().lock();
-        try {
-            if (command.getStoragePool().getQuotaEnforcementType() != QuotaEnforcementTypeEnum.DISABLED) {
-                synchronized (storagePoolQuotaMap.get(storagePool.getId())) {
-                    return consumeQuotaParameters(params, command, auditLogger);
-                }
-            }
-        } finally {
-            lock.readLock().unlock();
+        if (command.getStoragePool().getQuotaEnforcementType() == QuotaEnforcementTypeEnum.DISABLED) {
+            return true;
         }
 
-        return true;
+        QuotaManagerAuditLogger auditLogger = new QuotaManagerAuditLogger(command, auditLogDirector);
+        return consumeQuotaParameters(params, command, auditLogger);
     }
 
     /**
@@ -229,16 +216,19 @@ public class QuotaManager implements BackendService {
      * @return - found quota. null if not found.
      */
     private Quota fetchQuotaFromCache(Guid quotaId, Guid storagePoolId) throws InvalidQuotaParametersException {
-        Map<Guid, Quota> quotaMap = storagePoolQuotaMap.get(storagePoolId);
+        Map<Guid, Quota> quotaMap = addStoragePoolToCache(storagePoolId);
 
         Quota quota = quotaMap.get(quotaId);
         // if quota was not found in cache - look for it in DB
         if (quota == null) {
             quota = getQuotaDao().getById(quotaId);
             if (quota != null) {
-                // cache in quota map
+                // cache in quota map, unless another thread has just cached it
                 if (storagePoolId.equals(quota.getStoragePoolId())) {
-                    quotaMap.put(quotaId, quota);
+                    Quota cachedQuota = quotaMap.putIfAbsent(quotaId, quota);
+                    if (cachedQuota != null) {
+                        quota = cachedQuota;
+                    }
                 } else {
                     throw new InvalidQuotaParametersException(
                             String.format("Quota %s does not match storage pool %s", quotaId.toString()
@@ -250,52 +240,30 @@ public class QuotaManager implements BackendService {
     }
 
     public void updateUsage(List<Quota> quotaList) {
-        List<Quota> needToCache = new ArrayList<>();
-
         if (quotaList == null) {
             return;
         }
 
-        lock.readLock().lock();
-        try {
-            for (Quota quotaExternal : quotaList) {
-                // look for the quota in the cache
-                Map<Guid, Quota> quotaMap = storagePoolQuotaMap.get(quotaExternal.getStoragePoolId());
-                Quota quota = null;
-                if (quotaMap != null) {
-                    quota = quotaMap.get(quotaExternal.getId());
-                }
-
-                // if quota not in cache look for it in DB and add it to cache
-                if (quota == null) {
-                    needToCache.add(quotaExternal);
-                } else {
-                    copyUsageData(quota, quotaExternal);
-                }
+        for (Quota quotaExternal : quotaList) {
+            // look for the quota in the cache, if not in cache look for it in DB and add it to cache
+            Quota quota = fetchQuotaFromCache(quotaExternal.getId(), quotaExternal.getStoragePoolId());
+            if (quota != null) {
+                copyUsageData(quota, quotaExternal);
             }
-        } finally {
-            lock.readLock().unlock();
         }
+    }
 
-        // if some of the quota are not in cache and need to be cached
-        if (!needToCache.isEmpty()) {
-            lock.writeLock().lock();
-            try {
-                for (Quota quotaExternal : needToCache) {
-                    addStoragePoolToCache(quotaExternal.getStoragePoolId());
-
-                    Quota quota = fetchQuotaFromCache(quotaExternal.getId(), quotaExternal.getStoragePoolId());
-                    if (quota != null) {
-                        copyUsageData(quota, quotaExternal);
-                    }
-                }
-            } finally {
-                lock.writeLock().unlock();
-            }
+    private void copyUsageData(Quota quota, Quota quotaExternal) {
+        SortedSet<Integer> stripeIndexes = getStripeIndexes(Stream.of(quota));
+        lockStripes(stripeIndexes);
+        try {
+            copyUsageDataLocked(quota, quotaExternal);
+        } finally {
+            unlockStripes(stripeIndexes);
         }
     }
 
-    private void copyUsageData(Quota quota, Quota quotaExternal) {
+    private void copyUsageDataLocked(Quota quota, Quota quotaExternal) {
         if (quota.getGlobalQuotaStorage() != null) {
             quotaExternal.setGlobalQuotaStorage(copyQuotaStorageUsage(quota.getGlobalQuotaStorage()));
         }
@@ -335,7 +303,7 @@ public class QuotaManager implements BackendService {
     /**
      * InitializeCache is called by SchedulerUtilQuartzImpl.
      */
-    private synchronized void updateQuotaCache() {
+    private void updateQuotaCache() {
         try {
             updateQuotaCacheImpl();
         } catch (Throwable t) {
@@ -344,7 +312,12 @@ public class QuotaManager implements BackendService {
         }
     }
 
-    private synchronized void updateQuotaCacheImpl() {
+    /**
+     * Refreshes the cache from the DB. The refresh is run by a single scheduled task: the quotas loaded from the DB
+     * are new instances, which replace only the cached quotas which differ from them. Each quota is replaced under the
+     * lock of its stripe, so it is never replaced while being consumed.
+     */
+    private void updateQuotaCacheImpl() {
         if (!isCacheUpdateNeeded()) {
             return;
         }
@@ -361,38 +334,57 @@ public class QuotaManager implements BackendService {
         Map<Guid, Guid> newDefaultQuotaIdMap = new HashMap<>();
 
         for (Quota quota : allQuotaIncludingConsumption) {
-            if (!newStoragePoolQuotaMap.containsKey(quota.getStoragePoolId())) {
-                newStoragePoolQuotaMap.put(quota.getStoragePoolId(), new HashMap<>());
-            }
-            newStoragePoolQuotaMap.get(quota.getStoragePoolId()).put(quota.getId(), quota);
+            newStoragePoolQuotaMap.computeIfAbsent(quota.getStoragePoolId(), id -> new HashMap<>())
+                    .put(quota.getId(), quota);
 
             if (quota.isDefault()) {
                 newDefaultQuotaIdMap.put(quota.getStoragePoolId(), quota.getId());
             }
         }
 
-        lock.writeLock().lock();
+        storagePoolQuotaMap.keySet().retainAll(newStoragePoolQuotaMap.keySet());
+        int updatedCount = 0;
+        for (Map.Entry<Guid, Map<Guid, Quota>> entry : newStoragePoolQuotaMap.entrySet()) {
+            Map<Guid, Quota> quotaMap = storagePoolQuotaMap.computeIfAbsent(entry.getKey(),
+                    id -> new ConcurrentHashMap<>());
+            quotaMap.keySet().retainAll(entry.getValue().keySet());
+            for (Quota quota : entry.getValue().values()) {
+                if (replaceCachedQuota(quotaMap, quota)) {
+                    updatedCount++;
+                }
+            }
+        }
+
+        storagePoolDefaultQuotaIdMap.keySet().retainAll(newDefaultQuotaIdMap.keySet());
+        storagePoolDefaultQuotaIdMap.putAll(newDefaultQuotaIdMap);
+
+        long timeEnd = System.currentTimeMillis();
+        log.info("Quota Cache updated, {} of {} quotas changed. ({} msec)",
+                updatedCount,
+                allQuotaIncludingConsumption.size(),
+                timeEnd - timeStart);
+    }
+
+    private boolean replaceCachedQuota(Map<Guid, Quota> quotaMap, Quota quota) {
+        ReentrantLock stripe = stripes[getStripeIndex(quota.getId())];
+        stripe.lock();
         try {
-            storagePoolQuotaMap = newStoragePoolQuotaMap;
-            storagePoolDefaultQuotaIdMap = newDefaultQuotaIdMap;
+            if (quota.equals(quotaMap.get(quota.getId()))) {
+                return false;
+            }
+            quotaMap.put(quota.getId(), quota);
+            return true;
         } finally {
-            lock.writeLock().unlock();
+            stripe.unlock();
         }
-        long timeEnd = System.currentTimeMillis();
-        log.info("Quota Cache updated. ({} msec)", timeEnd - timeStart);
     }
 
     public boolean isCacheUpdateNeeded() {
         int quotaCount = getQuotaDao().getQuotaCount();
         int cacheCount = 0;
 
-        lock.readLock().lock();
-        try {
-            for (Map<Guid, Quota> quotaMap : storagePoolQuotaMap.values()) {
-                cacheCount += quotaMap.size();
-            }
-        } finally {
-            lock.readLock().unlock();
+        for (Map<Guid, Quota> quotaMap : storagePoolQuotaMap.values()) {
+            cacheCount += quotaMap.size();
         }
 
         return cacheCount < quotaCount * Config.<Integer> getValue(ConfigValues.MinimumPercentageToUpdateQuotaCache) / 100;
@@ -411,11 +403,12 @@ public class QuotaManager implements BackendService {
     }
 
     public Guid getDefaultQuotaId(Guid storagePoolId) {
-        if (!storagePoolDefaultQuotaIdMap.containsKey(storagePoolId)) {
-            addStoragePoolToCacheWithLock(storagePoolId);
+        Guid defaultQuotaId = storagePoolDefaultQuotaIdMap.get(storagePoolId);
+        if (defaultQuotaId == null) {
+            defaultQuotaId = getQuotaDao().getDefaultQuotaForStoragePool(storagePoolId).getId();
+            storagePoolDefaultQuotaIdMap.putIfAbsent(storagePoolId, defaultQuotaId);
         }
-
-        return storagePoolDefaultQuotaIdMap.get(storagePoolId);
+        return defaultQuotaId;
     }
 
     public Guid getFirstQuotaForUserId(Guid storagePoolId, Guid adElementId) {
@@ -454,15 +447,39 @@ public class QuotaManager implements BackendService {
         boolean hardEnforcement =
                 QuotaEnforcementTypeEnum.HARD_ENFORCEMENT == command.getStoragePool().getQuotaEnforcementType();
 
-        // Process the quota consumption parameters to a list of Requests
-        // Each Request instance aggregates all requested consumptions against a single quota limit
-        Optional<List<Request>> requests = createRequests(parameters, command, hardEnforcement, auditLogger);
-        if (!requests.isPresent()) {
-            return false;
+        while (true) {
+            // Process the quota consumption parameters to a list of Requests
+            // Each Request instance aggregates all requested consumptions against a single quota limit
+            Optional<List<Request>> requests = createRequests(parameters, command, hardEnforcement, auditLogger);
+            if (!requests.isPresent()) {
+                return false;
+            }
+
+            // The consumed quotas are locked, so that the validation and the application of the requests are atomic
+            SortedSet<Integer> stripeIndexes = getStripeIndexes(requests.get().stream().map(Request::getQuota));
+            lockStripes(stripeIndexes);
+            try {
+                // The quotas replaced by the refresh before they were locked are consumed by new requests
+                if (requests.get().stream().allMatch(r -> isCached(r.getQuota(), command.getStoragePoolId()))) {
+                    return consumeRequestsLocked(requests.get(), command, hardEnforcement, auditLogger);
+                }
+            } finally {
+                unlockStripes(stripeIndexes);
+            }
         }
+    }
+
+    private boolean isCached(Quota quota, Guid storagePoolId) {
+        Map<Guid, Quota> quotaMap = storagePoolQuotaMap.get(storagePoolId);
+        return quotaMap != null && quotaMap.get(quota.getId()) == quota;
+    }
 
+    private boolean consumeRequestsLocked(List<Request> requests,
+            CommandBase<?> command,
+            boolean hardEnforcement,
+            QuotaManagerAuditLogger auditLogger) {
         // Validate that all requests satisfy the quota limits
-        for (Request request : requests.get()) {
+        for (Request request : requests) {
             ValidationResult validation = request.validate(hardEnforcement, auditLogger);
             if (!validation.isValid()) {
                 command.getReturnValue().getValidationMessages().addAll(validation.getMessagesAsStrings());
@@ -472,10 +489,33 @@ public class QuotaManager implements BackendService {
 
         // After successful validation, the requests are applied.
         // This changes only the cached quota objects in the QuotaManager, nothing is written to the DB.
-        requests.get().forEach(Request::apply);
+        requests.forEach(Request::apply);
         return true;
     }
 
+    /**
+     * Returns the indexes of the stripes guarding the given quotas, in ascending order. Stripes are always locked in
+     * that order in order to prevent deadlocks between commands consuming several quotas.
+     */
+    private SortedSet<Integer> getStripeIndexes(Stream<Quota> quotas) {
+        SortedSet<Integer> indexes = new TreeSet<>();
+        quotas.forEach(quota -> indexes.add(getStripeIndex(quota.getId())));
+        return indexes;
+    }
+
+    private static int getStripeIndex(Guid quotaId) {
+        int hash = quotaId.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES_COUNT - 1);
+    }
+
+    private void lockStripes(SortedSet<Integer> stripeIndexes) {
+        stripeIndexes.forEach(index -> stripes[index].lock());
+    }
+
+    private void unlockStripes(SortedSet<Integer> stripeIndexes) {
+        stripeIndexes.forEach(index -> stripes[index].unlock());
+    }
+
     /**
      * Processes the list of QuotaConsumptionParameter, and creates a list of quota Request objects.
      * Each Request instance aggregates all requests against a singe quota limit.
@@ -495,7 +535,7 @@ public class QuotaManager implements BackendService {
         for (QuotaConsumptionParameter param: parameters) {
             // Use default quota if the id is empty
             if (Guid.isNullOrEmpty(param.getQuotaGuid())) {
-                param.setQuotaGuid(storagePoolDefaultQuotaIdMap.get(command.getStoragePoolId()));
+                param.setQuotaGuid(getDefaultQuotaId(command.getStoragePoolId()));
             }
 
             Quota quota = fetchQuotaFromCache(param.getQuotaGuid(), command.getStoragePoolId());
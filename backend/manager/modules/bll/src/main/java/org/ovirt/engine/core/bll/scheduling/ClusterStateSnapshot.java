@@ -0,0 +1,173 @@
+package org.ovirt.engine.core.bll.scheduling;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.ovirt.engine.core.common.businessentities.HugePage;
+import org.ovirt.engine.core.common.businessentities.NumaNodeStatistics;
+import org.ovirt.engine.core.common.businessentities.VDS;
+import org.ovirt.engine.core.common.businessentities.VdsNumaNode;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dao.VdsNumaNodeDao;
+
+/**
+ * In-memory snapshot of the host state the scheduler needs on every scheduling request, kept per cluster.
+ * <p>
+ * The NUMA topology of a host is loaded from the database the first time the host is scheduled on, afterwards its
+ * NUMA statistics are updated incrementally by the host monitoring, so scheduling does not need a database round trip
+ * per host while holding the cluster lock. When the monitoring reports a topology different from the cached one, e.g.
+ * after the capabilities of the host were refreshed, or the host moves to another cluster, the host is dropped and
+ * reloaded on the next request.
+ * </p>
+ * <p>
+ * The snapshot always returns copies, so the scheduler is free to subtract pending resources from them.
+ * </p>
+ */
+@Singleton
+public class ClusterStateSnapshot {
+
+    @Inject
+    private VdsNumaNodeDao vdsNumaNodeDao;
+
+    private final Map<Guid, HostState> hosts = new ConcurrentHashMap<>();
+
+    /**
+     * Returns a copy of the NUMA nodes of the given host, loading them from the database if the host is not cached
+     */
+    public List<VdsNumaNode> getNumaNodes(VDS host) {
+        HostState state = hosts.get(host.getId());
+        if (state == null || !state.clusterId.equals(host.getClusterId())) {
+            state = new HostState(host.getClusterId(), vdsNumaNodeDao.getAllVdsNumaNodeByVdsId(host.getId()));
+            hosts.put(host.getId(), state);
+        }
+        return state.copyNumaNodes();
+    }
+
+    /**
+     * Updates the cached state of the host by the data reported by its monitoring. A host reporting no NUMA nodes,
+     * e.g. right after the engine started and before its capabilities were loaded, keeps its cached statistics.
+     */
+    public void updateHost(VDS vds) {
+        HostState state = hosts.get(vds.getId());
+        if (state == null) {
+            return;
+        }
+
+        if (!state.clusterId.equals(vds.getClusterId())) {
+            hosts.remove(vds.getId());
+        } else if (vds.getNumaNodeList() != null && !vds.getNumaNodeList().isEmpty()
+                && !state.updateStatistics(vds.getNumaNodeList())) {
+            hosts.remove(vds.getId());
+        }
+    }
+
+    /**
+     * Drops the cached state of the host, it is reloaded from the database on the next request
+     */
+    public void invalidateHost(Guid hostId) {
+        hosts.remove(hostId);
+    }
+
+    private static VdsNumaNode copy(VdsNumaNode node, NumaNodeStatistics statistics) {
+        VdsNumaNode copy = new VdsNumaNode();
+        copy.setId(node.getId());
+        copy.setIndex(node.getIndex());
+        copy.setCpuIds(new ArrayList<>(node.getCpuIds()));
+        copy.setMemTotal(node.getMemTotal());
+        copy.setNumaNodeDistances(new HashMap<>(node.getNumaNodeDistances()));
+        copy.setNumaNodeStatistics(copy(statistics));
+        return copy;
+    }
+
+    private static NumaNodeStatistics copy(NumaNodeStatistics statistics) {
+        if (statistics == null) {
+            return null;
+        }
+        NumaNodeStatistics copy = new NumaNodeStatistics();
+        copy.setMemFree(statistics.getMemFree());
+        copy.setCpuSys(statistics.getCpuSys());
+        copy.setCpuUser(statistics.getCpuUser());
+        copy.setCpuIdle(statistics.getCpuIdle());
+        copy.setMemUsagePercent(statistics.getMemUsagePercent());
+        copy.setCpuUsagePercent(statistics.getCpuUsagePercent());
+        if (statistics.getHugePages() != null) {
+            copy.setHugePages(statistics.getHugePages().stream()
+                    .map(page -> new HugePage(page.getSizeKB(), page.getFree(), page.getTotal()))
+                    .collect(Collectors.toList()));
+        }
+        return copy;
+    }
+
+    private static class HostState {
+
+        private final Guid clusterId;
+        private final List<VdsNumaNode> topology;
+        private volatile Map<Integer, NumaNodeStatistics> statistics;
+
+        public HostState(Guid clusterId, List<VdsNumaNode> numaNodes) {
+            this.clusterId = clusterId;
+            this.topology = numaNodes.stream()
+                    .map(node -> copy(node, null))
+                    .collect(Collectors.toList());
+            this.statistics = toStatistics(numaNodes);
+        }
+
+        /**
+         * Replaces the statistics of the NUMA nodes by the reported ones
+         *
+         * @return false if the reported nodes do not match the cached topology
+         */
+        public boolean updateStatistics(List<VdsNumaNode> reportedNodes) {
+            if (!isSameTopology(reportedNodes)) {
+                return false;
+            }
+
+            Map<Integer, NumaNodeStatistics> updated = new HashMap<>(statistics);
+            updated.putAll(toStatistics(reportedNodes));
+            statistics = updated;
+            return true;
+        }
+
+        private boolean isSameTopology(List<VdsNumaNode> reportedNodes) {
+            if (reportedNodes.size() != topology.size()) {
+                return false;
+            }
+            Map<Integer, VdsNumaNode> reportedByIndex = reportedNodes.stream()
+                    .collect(Collectors.toMap(VdsNumaNode::getIndex, node -> node, (a, b) -> a));
+            for (VdsNumaNode node : topology) {
+                VdsNumaNode reported = reportedByIndex.get(node.getIndex());
+                if (reported == null
+                        || reported.getMemTotal() != node.getMemTotal()
+                        || !Objects.equals(reported.getCpuIds(), node.getCpuIds())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        public List<VdsNumaNode> copyNumaNodes() {
+            Map<Integer, NumaNodeStatistics> currentStatistics = statistics;
+            return topology.stream()
+                    .map(node -> copy(node, currentStatistics.get(node.getIndex())))
+                    .collect(Collectors.toList());
+        }
+
+        private static Map<Integer, NumaNodeStatistics> toStatistics(List<VdsNumaNode> numaNodes) {
+            Map<Integer, NumaNodeStatistics> result = new HashMap<>();
+            for (VdsNumaNode node : numaNodes) {
+                if (node.getNumaNodeStatistics() != null) {
+                    result.put(node.getIndex(), copy(node.getNumaNodeStatistics()));
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package org.ovirt.engine.core.bll.scheduling;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.ovirt.engine.core.common.businessentities.VDS;
+import org.ovirt.engine.core.common.businessentities.VM;
+import org.ovirt.engine.core.common.scheduling.PerHostMessages;
+import org.ovirt.engine.core.common.utils.Pair;
+import org.ovirt.engine.core.compat.Guid;
+
+/**
+ * Evaluates scheduling policy units concurrently.
+ * <p>
+ * Filters which decide about every host on its own (see {@link PolicyUnitImpl#canFilterHostsIndependently()}) are run
+ * on contiguous partitions of the host list, each partition running the whole chain of the given filters. Score
+ * functions are run concurrently with each other, each on the full host list, since their scores may be relative to
+ * the other hosts.
+ * </p>
+ * <p>
+ * The results are merged in the order of the hosts and of the policy units, so they do not depend on the order in
+ * which the tasks finish. The calling thread takes part in the evaluation and runs every task which did not start yet
+ * by itself, so a saturated executor only makes the evaluation sequential.
+ * </p>
+ */
+public class ParallelPolicyUnitsEvaluator {
+
+    /** Minimal number of hosts worth a separate task **/
+    static final int MIN_HOSTS_PER_PARTITION = 16;
+
+    private final ExecutorService executor;
+    private final int parallelism;
+
+    /**
+     * Receives the hosts filtered out by each filter, in the order of the filters
+     */
+    @FunctionalInterface
+    public interface FilterListener {
+        void filtered(PolicyUnitImpl filter, List<VDS> hostsBefore, List<VDS> hostsAfter);
+    }
+
+    /**
+     * @param executor
+     *            - the executor running the tasks, when {@code null} all the tasks run on the calling thread
+     * @param parallelism
+     *            - maximal number of tasks a single evaluation is split to
+     */
+    public ParallelPolicyUnitsEvaluator(ExecutorService executor, int parallelism) {
+        this.executor = executor;
+        this.parallelism = Math.max(parallelism, 1);
+    }
+
+    /**
+     * Runs the chain of the given host independent filters on partitions of the host list
+     *
+     * @return the hosts which passed all the filters, in their original order
+     */
+    public List<VDS> filter(List<PolicyUnitImpl> filters,
+            SchedulingContext context,
+            List<VDS> hosts,
+            List<VM> vmGroup,
+            PerHostMessages messages,
+            FilterListener listener) {
+        List<List<VDS>> partitions = partition(hosts);
+        List<Callable<PartitionResult>> tasks = new ArrayList<>(partitions.size());
+        for (List<VDS> partition : partitions) {
+            tasks.add(() -> filterPartition(filters, context, partition, vmGroup));
+        }
+        List<PartitionResult> results = invokeAll(tasks);
+
+        for (PartitionResult result : results) {
+            result.messages.getMessages().forEach(messages::addMessages);
+        }
+
+        List<VDS> hostsBefore = hosts;
+        for (int i = 0; i < filters.size(); i++) {
+            List<VDS> hostsAfter = new ArrayList<>();
+            for (PartitionResult result : results) {
+                hostsAfter.addAll(result.stages.get(i));
+            }
+            listener.filtered(filters.get(i), hostsBefore, hostsAfter);
+            hostsBefore = hostsAfter;
+        }
+        return hostsBefore;
+    }
+
+    /**
+     * Runs the given score functions concurrently
+     *
+     * @return the scores of every function, in the order of the functions
+     */
+    public List<List<Pair<Guid, Integer>>> score(List<PolicyUnitImpl> functions,
+            SchedulingContext context,
+            List<VDS> hosts,
+            List<VM> vmGroup) {
+        List<Callable<List<Pair<Guid, Integer>>>> tasks = new ArrayList<>(functions.size());
+        for (PolicyUnitImpl function : functions) {
+            tasks.add(() -> function.score(context, hosts, vmGroup));
+        }
+        return invokeAll(tasks);
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /* visible for testing only */
+    List<List<VDS>> partition(List<VDS> hosts) {
+        int partitionsCount = Math.min(parallelism,
+                Math.max(1, (hosts.size() + MIN_HOSTS_PER_PARTITION - 1) / MIN_HOSTS_PER_PARTITION));
+        int partitionSize = (hosts.size() + partitionsCount - 1) / partitionsCount;
+
+        List<List<VDS>> partitions = new ArrayList<>(partitionsCount);
+        for (int from = 0; from < hosts.size(); from += partitionSize) {
+            partitions.add(hosts.subList(from, Math.min(from + partitionSize, hosts.size())));
+        }
+        return partitions;
+    }
+
+    private static PartitionResult filterPartition(List<PolicyUnitImpl> filters,
+            SchedulingContext context,
+            List<VDS> hosts,
+            List<VM> vmGroup) {
+        PartitionResult result = new PartitionResult();
+        List<VDS> currentHosts = hosts;
+        for (PolicyUnitImpl filter : filters) {
+            if (!currentHosts.isEmpty()) {
+                currentHosts = filter.filter(context, currentHosts, vmGroup, result.messages);
+            }
+            result.stages.add(currentHosts);
+        }
+        return result;
+    }
+
+    private <T> List<T> invokeAll(List<Callable<T>> tasks) {
+        List<FutureTask<T>> futures = new ArrayList<>(tasks.size());
+        for (Callable<T> task : tasks) {
+            futures.add(new FutureTask<>(task));
+        }
+
+        // the first task is always run by the calling thread
+        if (executor != null) {
+            for (FutureTask<T> future : futures.subList(1, futures.size())) {
+                try {
+                    executor.execute(future);
+                } catch (RejectedExecutionException e) {
+                    break;
+                }
+            }
+        }
+
+        // run the tasks no thread picked up yet, running a task which already started or finished does nothing
+        futures.forEach(FutureTask::run);
+
+        List<T> results = new ArrayList<>(futures.size());
+        for (FutureTask<T> future : futures) {
+            results.add(await(future));
+        }
+        return results;
+    }
+
+    private static <T> T await(FutureTask<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while evaluating the scheduling policy units", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static class PartitionResult {
+
+        private final PerHostMessages messages = new PerHostMessages();
+
+        /** The hosts left in the partition after each of the filters **/
+        private final List<List<VDS>> stages = new ArrayList<>();
+    }
+}
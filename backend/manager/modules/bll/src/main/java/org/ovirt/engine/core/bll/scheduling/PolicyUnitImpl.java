@@ -80,6 +80,14 @@ public abstract class PolicyUnitImpl {
         return hosts;
     }
 
+    /**
+     * Returns true if the filter decides about every host on its own, regardless of the other hosts it is given,
+     * and does not change the scheduling context. Such filter may be run on parts of the host list concurrently.
+     */
+    public boolean canFilterHostsIndependently() {
+        return false;
+    }
+
     public List<Pair<Guid, Integer>> score(SchedulingContext context, List<VDS> hosts, List<VM> vmGroup) {
         return vmGroup.stream()
                 .flatMap(vm -> score(context, hosts, vm).stream())
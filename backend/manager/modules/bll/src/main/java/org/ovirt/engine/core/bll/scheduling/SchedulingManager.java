@@ -14,14 +14,17 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import javax.annotation.PostConstruct;
+import javax.enterprise.concurrent.ManagedExecutorService;
 import javax.enterprise.concurrent.ManagedScheduledExecutorService;
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -89,12 +92,12 @@ import org.ovirt.engine.core.dal.dbbroker.auditloghandling.AuditLogableImpl;
 import org.ovirt.engine.core.dal.dbbroker.auditloghandling.MessageBundler;
 import org.ovirt.engine.core.dao.ClusterDao;
 import org.ovirt.engine.core.dao.VdsDao;
-import org.ovirt.engine.core.dao.VdsNumaNodeDao;
 import org.ovirt.engine.core.dao.VmNumaNodeDao;
 import org.ovirt.engine.core.dao.scheduling.AffinityGroupDao;
 import org.ovirt.engine.core.dao.scheduling.ClusterPolicyDao;
 import org.ovirt.engine.core.dao.scheduling.PolicyUnitDao;
 import org.ovirt.engine.core.di.Injector;
+import org.ovirt.engine.core.utils.EngineLocalConfig;
 import org.ovirt.engine.core.utils.threadpool.ThreadPoolUtil;
 import org.ovirt.engine.core.utils.threadpool.ThreadPools;
 import org.ovirt.engine.core.vdsbroker.ResourceManager;
@@ -107,6 +110,8 @@ public class SchedulingManager implements BackendService {
     private static final Logger log = LoggerFactory.getLogger(SchedulingManager.class);
     private static final String HIGH_UTILIZATION = "HighUtilization";
     private static final String LOW_UTILIZATION = "LowUtilization";
+    /** Maximal number of VMs of the waiting requests placed together in a single pass **/
+    private static final int MAX_BATCHED_VMS = 100;
 
     @Inject
     private AuditLogDirector auditLogDirector;
@@ -139,7 +144,7 @@ public class SchedulingManager implements BackendService {
     @Inject
     private VmNumaNodeDao vmNumaNodeDao;
     @Inject
-    private VdsNumaNodeDao vdsNumaNodeDao;
+    private ClusterStateSnapshot clusterStateSnapshot;
     @Inject
     private AffinityGroupDao affinityGroupDao;
     @Inject
@@ -148,10 +153,15 @@ public class SchedulingManager implements BackendService {
     @ThreadPools(ThreadPools.ThreadPoolType.EngineScheduledThreadPool)
     private ManagedScheduledExecutorService executor;
     @Inject
+    @ThreadPools(ThreadPools.ThreadPoolType.Scheduling)
+    private ManagedExecutorService schedulingExecutor;
+    @Inject
     private VdsCpuUnitPinningHelper vdsCpuUnitPinningHelper;
 
     private PendingResourceManager pendingResourceManager;
 
+    private ParallelPolicyUnitsEvaluator parallelEvaluator;
+
     /**
      * [policy id, policy] map
      */
@@ -167,6 +177,11 @@ public class SchedulingManager implements BackendService {
 
     private final ConcurrentHashMap<Guid, Semaphore> clusterLockMap = new ConcurrentHashMap<>();
 
+    /**
+     * [cluster id, requests waiting for the cluster lock] map
+     */
+    private final ConcurrentHashMap<Guid, Queue<SchedulingRequest>> pendingRequestsMap = new ConcurrentHashMap<>();
+
     private final Map<Guid, Boolean> clusterId2isHaReservationSafe = new HashMap<>();
 
     private final Guid defaultSelectorGuid = InternalPolicyUnits.getGuid(RankSelectorPolicyUnit.class);
@@ -188,6 +203,8 @@ public class SchedulingManager implements BackendService {
     public void init() {
         log.info("Initializing Scheduling manager");
         initializePendingResourceManager();
+        parallelEvaluator = new ParallelPolicyUnitsEvaluator(schedulingExecutor,
+                EngineLocalConfig.getInstance().getInteger("SCHEDULING_THREAD_POOL_SIZE", 1));
         loadPolicyUnits();
         loadClusterPolicies();
         loadExternalScheduler();
@@ -365,99 +382,240 @@ public class SchedulingManager implements BackendService {
             List<String> messages,
             boolean delayWhenNeeded,
             String correlationId) {
+        SchedulingRequest request = new SchedulingRequest(vms,
+                hostBlackList,
+                hostWhiteList,
+                destHostIdList,
+                ignoreHardVmToVmAffinity,
+                doNotGroupVms,
+                stateless,
+                delayWhenNeeded,
+                messages,
+                correlationId);
         prepareClusterLock(cluster.getId());
+        Queue<SchedulingRequest> pendingRequests =
+                pendingRequestsMap.computeIfAbsent(cluster.getId(), id -> new ConcurrentLinkedQueue<>());
         try {
             log.debug("Scheduling started, correlation Id: {}", correlationId);
+            // the VMs data does not depend on the state of the cluster, no need to hold the lock while loading it
+            vms.forEach(vmHandler::updateVmStatistics);
+            fetchVmNumaNodes(vms);
             checkAllowOverbooking(cluster);
+            pendingRequests.add(request);
             lockCluster(cluster.getId());
-            List<VDS> hosts = fetchHosts(cluster.getId(), hostBlackList, hostWhiteList);
-            vms.forEach(vmHandler::updateVmStatistics);
-            fetchNumaNodes(vms, hosts);
-            ClusterPolicy policy = policyMap.get(cluster.getClusterPolicyId());
-            SchedulingContext context = new SchedulingContext(cluster,
+
+            // the request may have been placed together with others by the previous holder of the cluster
+            if (request.isDone() || !pendingRequests.remove(request)) {
+                return request.await();
+            }
+            List<SchedulingRequest> batch = pollBatch(request, pendingRequests);
+            placeBatch(cluster, batch);
+            return request.await();
+        } catch (InterruptedException e) {
+            log.error("scheduling interrupted, correlation Id: {}: {}", correlationId, e.getMessage());
+            log.debug("Exception: ", e);
+            if (!pendingRequests.remove(request)) {
+                // already taken over by the current holder of the cluster, its pending resources have to be used
+                return request.await();
+            }
+            return Collections.emptyMap();
+        } finally {
+            releaseCluster(cluster.getId());
+
+            log.debug("Scheduling ended, correlation Id: {}", correlationId);
+        }
+    }
+
+    /**
+     * Takes the requests waiting for the cluster which can be placed together with the given one. The biggest
+     * requests are placed first, so the small ones fill the remaining space.
+     */
+    List<SchedulingRequest> pollBatch(SchedulingRequest request, Queue<SchedulingRequest> pendingRequests) {
+        List<SchedulingRequest> batch = new ArrayList<>();
+        batch.add(request);
+        int vmsCount = request.getVms().size();
+        for (SchedulingRequest other : pendingRequests) {
+            if (vmsCount >= MAX_BATCHED_VMS) {
+                break;
+            }
+            if (request.canBatchWith(other) && pendingRequests.remove(other)) {
+                batch.add(other);
+                vmsCount += other.getVms().size();
+            }
+        }
+        batch.sort(Comparator.comparingLong(SchedulingRequest::getMemSizeMb).reversed());
+        if (batch.size() > 1) {
+            log.debug("Placing {} scheduling requests with {} VMs together", batch.size(), vmsCount);
+        }
+        return batch;
+    }
+
+    /**
+     * Places the VMs of all the requests on a single model of the cluster hosts. The hosts, their NUMA nodes and
+     * their pending resources are loaded once, and then only the hosts chosen by the previous placements are
+     * refreshed, so placing many VMs does not reload the whole cluster for each of them. A request failing to be
+     * placed fails alone, the other requests of the batch are still placed.
+     */
+    void placeBatch(Cluster cluster, List<SchedulingRequest> batch) {
+        BatchPlacement placement;
+        try {
+            // all the requests of the batch see the same hosts
+            SchedulingRequest first = batch.get(0);
+            List<VDS> hosts = fetchHosts(cluster.getId(), first.getHostBlackList(), first.getHostWhiteList());
+            fetchHostNumaNodes(hosts);
+            placement = new BatchPlacement(cluster,
+                    policyMap.get(cluster.getClusterPolicyId()),
                     createClusterPolicyParameters(cluster),
-                    ignoreHardVmToVmAffinity,
-                    doNotGroupVms);
-
-            splitFilters(policy.getFilters(), policy.getFilterPositionMap(), context);
-            splitFunctions(policy.getFunctions(), context);
-            context.setShouldWeighClusterHosts(shouldWeighClusterHosts(cluster));
-
-            Function<List<VM>, Optional<Guid>> findBestHost = group -> {
-                context.getMessages().clear();
-                refreshCachedPendingValues(hosts);
-                return selectHost(policy, hosts, group, destHostIdList, context, correlationId);
-            };
-
-            Map<Guid, VDS> hostsMap = hosts.stream().collect(Collectors.toMap(VDS::getId, h -> h));
-
-            Set<Guid> hostsToNotifyPending = new HashSet<>();
-            List<Runnable> vfsUpdates = new ArrayList<>();
-            Map<Guid, Guid> vmToHostAssignment = new HashMap<>();
-            for (List<VM> vmGroup : groupVms(vms, context)) {
-                Optional<Guid> bestHost = findBestHost.apply(vmGroup);
-                // The delay is executed only once
-                if (delayWhenNeeded && context.isShouldDelay()) {
-                    log.debug("Delaying scheduling...");
-                    runVmDelayer.delay(hosts.stream().map(VDS::getId).collect(Collectors.toList()));
-                    context.setCanDelay(false);
-                    bestHost = findBestHost.apply(vmGroup);
-                }
+                    shouldWeighClusterHosts(cluster),
+                    hosts);
+        } catch (Throwable t) {
+            // without the model of the hosts none of the requests can be placed
+            batch.forEach(r -> r.fail(t));
+            throw t;
+        }
 
-                if (!bestHost.isPresent()) {
-                    continue;
+        try {
+            for (SchedulingRequest request : batch) {
+                try {
+                    placeRequest(placement, request);
+                } catch (RuntimeException e) {
+                    log.error("Failed to schedule VMs, correlation Id: {}: {}",
+                            request.getCorrelationId(),
+                            e.getMessage());
+                    log.debug("Exception: ", e);
+                    // the VMs of the request placed before the failure must not hold resources
+                    request.getVms().forEach(vm -> clearPendingVm(vm.getStaticData()));
+                    placement.hostsToRefresh.addAll(placement.hostsMap.keySet());
+                    request.fail(e);
+                }
+            }
+        } catch (Throwable t) {
+            // the owners wait for their requests without being interruptible, so none of them may be left undone
+            for (SchedulingRequest request : batch) {
+                if (!request.isDone()) {
+                    request.getVms().forEach(vm -> clearPendingVm(vm.getStaticData()));
+                    request.fail(t);
                 }
+            }
+            throw t;
+        } finally {
+            placement.hostsToNotifyPending.forEach(hostId -> getPendingResourceManager().notifyHostManagers(hostId));
+        }
+    }
+
+    /**
+     * Places the VMs of a single request of a batch and completes it with their assignment.
+     */
+    void placeRequest(BatchPlacement placement, SchedulingRequest request) {
+        List<VDS> hosts = placement.hosts;
+        SchedulingContext context = new SchedulingContext(placement.cluster,
+                placement.policyParameters,
+                request.isIgnoreHardVmToVmAffinity(),
+                request.isDoNotGroupVms());
+
+        splitFilters(placement.policy.getFilters(), placement.policy.getFilterPositionMap(), context);
+        splitFunctions(placement.policy.getFunctions(), context);
+        context.setShouldWeighClusterHosts(placement.shouldWeighClusterHosts);
+        // The delay is executed only once for the whole batch
+        context.setCanDelay(!placement.delayed);
+
+        Function<List<VM>, Optional<Guid>> findBestHost = group -> {
+            context.getMessages().clear();
+            refreshCachedPendingValues(hosts, placement.hostsToRefresh);
+            return selectHost(placement.policy, hosts, group, request.getDestHostIdList(), context,
+                    request.getCorrelationId());
+        };
+
+        Map<Guid, Guid> vmToHostAssignment = new HashMap<>();
+        List<Runnable> vfsUpdates = new ArrayList<>();
+        for (List<VM> vmGroup : groupVms(request.getVms(), context)) {
+            Optional<Guid> bestHost = findBestHost.apply(vmGroup);
+            if (request.isDelayWhenNeeded() && context.isShouldDelay() && !placement.delayed) {
+                log.debug("Delaying scheduling...");
+                runVmDelayer.delay(hosts.stream().map(VDS::getId).collect(Collectors.toList()));
+                placement.delayed = true;
+                context.setCanDelay(false);
+                // other engine flows may have changed the pending resources of any host meanwhile
+                placement.hostsToRefresh.addAll(placement.hostsMap.keySet());
+                bestHost = findBestHost.apply(vmGroup);
+            }
 
-                Guid bestHostId = bestHost.get();
-                vmGroup.forEach(vm -> vmToHostAssignment.put(vm.getId(), bestHostId));
+            if (!bestHost.isPresent()) {
+                continue;
+            }
 
-                // Stateless scheduling will not update the pending values or update vfs
-                if (stateless) {
-                    continue;
-                }
+            Guid bestHostId = bestHost.get();
+            vmGroup.forEach(vm -> vmToHostAssignment.put(vm.getId(), bestHostId));
 
-                List<VM> vmsNotOnHost = vmGroup.stream()
-                        .filter(vm -> !bestHostId.equals(vm.getRunOnVds()))
-                        .collect(Collectors.toList());
+            // Stateless scheduling will not update the pending values or update vfs
+            if (request.isStateless()) {
+                continue;
+            }
 
-                if (vmsNotOnHost.isEmpty()) {
-                    continue;
-                }
+            List<VM> vmsNotOnHost = vmGroup.stream()
+                    .filter(vm -> !bestHostId.equals(vm.getRunOnVds()))
+                    .collect(Collectors.toList());
 
-                VDS host = hostsMap.get(bestHostId);
-                // For dedicate VMs we are going to miss adding up the pending resources for NUMA.
-                // We will update the pending resources per VM below and then the overall
-                Map<Guid, Map<Integer, NumaNodeMemoryConsumption>> numaConsumptionPerVm = vmNumaRequirements(vmGroup, host);
-                Map<Integer, NumaNodeMemoryConsumption> numaConsumption = numaConsumptionPerVm.values().stream()
-                        .flatMap(m -> m.entrySet().stream())
-                        .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, NumaNodeMemoryConsumption::merge));
-                updateHostNumaNodes(host, numaConsumption);
-
-                for (VM vm : vmsNotOnHost) {
-                    vmHandler.updateCpuAndNumaPinning(vm, host.getId());
-                    vmHandler.setCpuPinningByNumaPinning(vm, host.getId());
-                    List<VdsCpuUnit> dedicatedCpuPinning = vdsCpuUnitPinningHelper.updatePhysicalCpuAllocations(vm,
-                            PendingCpuPinning.collectForHost(getPendingResourceManager(), host.getId()), host.getId());
-                    String numaPinningString = vmHandler.createNumaPinningForExclusiveCpuPinning(vm, dedicatedCpuPinning);
-                    updateDedicatedNumaMemoryConsumption(vm, host, numaPinningString, numaConsumptionPerVm);
-                    addPendingResources(vm, host, numaConsumptionPerVm.getOrDefault(vm.getId(), Collections.emptyMap()), dedicatedCpuPinning);
-                    hostsToNotifyPending.add(bestHostId);
-                    vfsUpdates.add(() -> markVfsAsUsedByVm(vm, bestHostId));
-                }
+            if (vmsNotOnHost.isEmpty()) {
+                continue;
             }
 
-            hostsToNotifyPending.forEach(hostId -> getPendingResourceManager().notifyHostManagers(hostId));
-            vfsUpdates.forEach(Runnable::run);
-            messages.addAll(context.getMessages());
-            return vmToHostAssignment;
-        } catch (InterruptedException e) {
-            log.error("scheduling interrupted, correlation Id: {}: {}", correlationId, e.getMessage());
-            log.debug("Exception: ", e);
-            return Collections.emptyMap();
-        } finally {
-            releaseCluster(cluster.getId());
+            VDS host = placement.hostsMap.get(bestHostId);
+            // For dedicate VMs we are going to miss adding up the pending resources for NUMA.
+            // We will update the pending resources per VM below and then the overall
+            Map<Guid, Map<Integer, NumaNodeMemoryConsumption>> numaConsumptionPerVm = vmNumaRequirements(vmGroup, host);
+            Map<Integer, NumaNodeMemoryConsumption> numaConsumption = numaConsumptionPerVm.values().stream()
+                    .flatMap(m -> m.entrySet().stream())
+                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, NumaNodeMemoryConsumption::merge));
+            updateHostNumaNodes(host, numaConsumption);
+
+            for (VM vm : vmsNotOnHost) {
+                vmHandler.updateCpuAndNumaPinning(vm, host.getId());
+                vmHandler.setCpuPinningByNumaPinning(vm, host.getId());
+                List<VdsCpuUnit> dedicatedCpuPinning = vdsCpuUnitPinningHelper.updatePhysicalCpuAllocations(vm,
+                        PendingCpuPinning.collectForHost(getPendingResourceManager(), host.getId()), host.getId());
+                String numaPinningString = vmHandler.createNumaPinningForExclusiveCpuPinning(vm, dedicatedCpuPinning);
+                updateDedicatedNumaMemoryConsumption(vm, host, numaPinningString, numaConsumptionPerVm);
+                addPendingResources(vm, host, numaConsumptionPerVm.getOrDefault(vm.getId(), Collections.emptyMap()), dedicatedCpuPinning);
+                placement.hostsToNotifyPending.add(bestHostId);
+                vfsUpdates.add(() -> markVfsAsUsedByVm(vm, bestHostId));
+            }
+            placement.hostsToRefresh.add(bestHostId);
+        }
 
-            log.debug("Scheduling ended, correlation Id: {}", correlationId);
+        vfsUpdates.forEach(Runnable::run);
+        request.getMessages().addAll(context.getMessages());
+        request.complete(vmToHostAssignment);
+    }
+
+    /**
+     * The model of the cluster hosts shared by the requests of a batch
+     */
+    static class BatchPlacement {
+
+        private final Cluster cluster;
+        private final ClusterPolicy policy;
+        private final Map<String, String> policyParameters;
+        private final boolean shouldWeighClusterHosts;
+        private final List<VDS> hosts;
+        private final Map<Guid, VDS> hostsMap;
+        /** The hosts whose pending resources changed since they were last loaded **/
+        private final Set<Guid> hostsToRefresh;
+        private final Set<Guid> hostsToNotifyPending = new HashSet<>();
+        private boolean delayed;
+
+        BatchPlacement(Cluster cluster,
+                ClusterPolicy policy,
+                Map<String, String> policyParameters,
+                boolean shouldWeighClusterHosts,
+                List<VDS> hosts) {
+            this.cluster = cluster;
+            this.policy = policy;
+            this.policyParameters = policyParameters;
+            this.shouldWeighClusterHosts = shouldWeighClusterHosts;
+            this.hosts = hosts;
+            this.hostsMap = hosts.stream().collect(Collectors.toMap(VDS::getId, h -> h));
+            this.hostsToRefresh = new HashSet<>(hostsMap.keySet());
         }
     }
 
@@ -512,14 +670,16 @@ public class SchedulingManager implements BackendService {
         return keepOnlyWhitelistedHosts(vdsList, whiteList);
     }
 
-    private void fetchNumaNodes(List<VM> vms, List<VDS> hosts) {
+    private void fetchVmNumaNodes(List<VM> vms) {
         // TODO - fetch numa nodes for all VMs in 1 DB call
         for (VM vm : vms) {
             vm.setvNumaNodeList(vmNumaNodeDao.getAllVmNumaNodeByVmId(vm.getId()));
         }
+    }
 
+    private void fetchHostNumaNodes(List<VDS> hosts) {
         for (VDS host : hosts) {
-            host.setNumaNodeList(vdsNumaNodeDao.getAllVdsNumaNodeByVdsId(host.getId()));
+            host.setNumaNodeList(clusterStateSnapshot.getNumaNodes(host));
 
             // Subtracting pending memory, so the scheduling units don't have to consider it
             Map<Integer, NumaNodeMemoryConsumption> pendingNumaMemory = PendingNumaMemory.collectForHost(pendingResourceManager, host.getId());
@@ -679,6 +839,21 @@ public class SchedulingManager implements BackendService {
         }
     }
 
+    /**
+     * Refresh cached VDS pending fields of the given hosts only, the set is emptied.
+     * @param vdsList - list of candidate hosts
+     * @param vdsIds - ids of the hosts whose pending resources changed since the last refresh
+     */
+    private void refreshCachedPendingValues(List<VDS> vdsList, Set<Guid> vdsIds) {
+        if (vdsIds.isEmpty()) {
+            return;
+        }
+        refreshCachedPendingValues(vdsList.stream()
+                .filter(vds -> vdsIds.contains(vds.getId()))
+                .collect(Collectors.toList()));
+        vdsIds.clear();
+    }
+
     /**
      * Refresh cached VDS pending fields with the current pending
      * values from PendingResourceManager.
@@ -873,7 +1048,8 @@ public class SchedulingManager implements BackendService {
         }
         refreshCachedPendingValues(hosts);
         vms.forEach(vmHandler::updateVmStatistics);
-        fetchNumaNodes(vms, hosts);
+        fetchVmNumaNodes(vms);
+        fetchHostNumaNodes(hosts);
         ClusterPolicy policy = policyMap.get(cluster.getClusterPolicyId());
         SchedulingContext context = new SchedulingContext(cluster,
                 createClusterPolicyParameters(cluster),
@@ -1009,10 +1185,32 @@ public class SchedulingManager implements BackendService {
             SchedulingContext context,
             String correlationId,
             SchedulingResult result) {
-        for (PolicyUnitImpl filterPolicyUnit : context.getInternalFilters()) {
-            if (hostList.isEmpty()) {
-                break;
+        List<PolicyUnitImpl> filters = context.getInternalFilters();
+        boolean parallel = shouldEvaluateInParallel(hostList);
+        int i = 0;
+        while (i < filters.size() && !hostList.isEmpty()) {
+            PolicyUnitImpl filterPolicyUnit = filters.get(i);
+            if (parallel && filterPolicyUnit.canFilterHostsIndependently()) {
+                // run the whole sequence of host independent filters on each part of the host list
+                int end = i + 1;
+                while (end < filters.size() && filters.get(end).canFilterHostsIndependently()) {
+                    end++;
+                }
+                hostList = parallelEvaluator.filter(filters.subList(i, end),
+                        context,
+                        hostList,
+                        vmGroup,
+                        result.getDetails(),
+                        (filter, hostsBefore, hostsAfter) -> logFilterActions(hostsBefore,
+                                toIdSet(hostsAfter),
+                                EngineMessage.VAR__FILTERTYPE__INTERNAL,
+                                filter.getPolicyUnit().getName(),
+                                result,
+                                correlationId));
+                i = end;
+                continue;
             }
+
             List<VDS> currentHostList = new ArrayList<>(hostList);
             hostList = filterPolicyUnit.filter(context, hostList, vmGroup, result.getDetails());
             logFilterActions(currentHostList,
@@ -1021,10 +1219,20 @@ public class SchedulingManager implements BackendService {
                     filterPolicyUnit.getPolicyUnit().getName(),
                     result,
                     correlationId);
+            i++;
         }
         return hostList;
     }
 
+    /**
+     * Checks whether the policy units should be evaluated in parallel:
+     * * there are at least config.SchedulerParallelEvaluationThreshold candidate hosts, 0 disables it.
+     */
+    private boolean shouldEvaluateInParallel(List<VDS> hostList) {
+        int threshold = Config.<Integer>getValue(ConfigValues.SchedulerParallelEvaluationThreshold);
+        return threshold > 0 && hostList.size() >= threshold && parallelEvaluator.getParallelism() > 1;
+    }
+
     private Set<Guid> toIdSet(List<VDS> hostList) {
         return hostList.stream().map(VDS::getId).collect(Collectors.toSet());
     }
@@ -1104,10 +1312,23 @@ public class SchedulingManager implements BackendService {
             List<VM> vmGroup,
             SchedulingContext context) {
 
-        for (Pair<PolicyUnitImpl, Integer> pair : context.getInternalScoreFunctions()) {
-            List<Pair<Guid, Integer>> scoreResult = pair.getFirst().score(context, hostList, vmGroup);
-            for (Pair<Guid, Integer> result : scoreResult) {
-                selector.record(pair.getFirst().getGuid(), result.getFirst(), result.getSecond());
+        List<PolicyUnitImpl> functions = context.getInternalScoreFunctions().stream()
+                .map(Pair::getFirst)
+                .collect(Collectors.toList());
+
+        List<List<Pair<Guid, Integer>>> scoreResults;
+        if (functions.size() > 1 && shouldEvaluateInParallel(hostList)) {
+            scoreResults = parallelEvaluator.score(functions, context, hostList, vmGroup);
+        } else {
+            scoreResults = functions.stream()
+                    .map(function -> function.score(context, hostList, vmGroup))
+                    .collect(Collectors.toList());
+        }
+
+        // record the scores in the order of the functions, regardless of the order they were computed in
+        for (int i = 0; i < functions.size(); i++) {
+            for (Pair<Guid, Integer> result : scoreResults.get(i)) {
+                selector.record(functions.get(i).getGuid(), result.getFirst(), result.getSecond());
             }
         }
     }
@@ -1446,8 +1667,11 @@ public class SchedulingManager implements BackendService {
     /**
      * update host scheduling statistics:
      * * CPU load duration interval over/under policy threshold
+     * * NUMA statistics kept in the cluster state snapshot
      */
     public void updateHostSchedulingStats(VDS vds) {
+        clusterStateSnapshot.updateHost(vds);
+
         HostCpuLoadHelper cpuLoadHelper = new HostCpuLoadHelper(vds,
                 resourceManager,
                 vdsCpuUnitPinningHelper);
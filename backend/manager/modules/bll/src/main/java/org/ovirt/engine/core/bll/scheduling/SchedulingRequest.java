@@ -0,0 +1,156 @@
+package org.ovirt.engine.core.bll.scheduling;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.ovirt.engine.core.common.businessentities.VM;
+import org.ovirt.engine.core.compat.Guid;
+
+/**
+ * A request to place VMs on hosts of a cluster, waiting for the cluster to be free.
+ * <p>
+ * Requests with the same parameters, typically coming from many VMs started at once, can be placed together in a
+ * single pass by the first of them which gets the cluster, see {@link #canBatchWith(SchedulingRequest)}.
+ * </p>
+ */
+class SchedulingRequest {
+
+    private final List<VM> vms;
+    private final List<Guid> hostBlackList;
+    private final List<Guid> hostWhiteList;
+    private final List<Guid> destHostIdList;
+    private final boolean ignoreHardVmToVmAffinity;
+    private final boolean doNotGroupVms;
+    private final boolean stateless;
+    private final boolean delayWhenNeeded;
+    private final List<String> messages;
+    private final String correlationId;
+
+    private final CompletableFuture<Map<Guid, Guid>> result = new CompletableFuture<>();
+
+    SchedulingRequest(List<VM> vms,
+            List<Guid> hostBlackList,
+            List<Guid> hostWhiteList,
+            List<Guid> destHostIdList,
+            boolean ignoreHardVmToVmAffinity,
+            boolean doNotGroupVms,
+            boolean stateless,
+            boolean delayWhenNeeded,
+            List<String> messages,
+            String correlationId) {
+        this.vms = vms;
+        this.hostBlackList = hostBlackList;
+        this.hostWhiteList = hostWhiteList;
+        this.destHostIdList = destHostIdList;
+        this.ignoreHardVmToVmAffinity = ignoreHardVmToVmAffinity;
+        this.doNotGroupVms = doNotGroupVms;
+        this.stateless = stateless;
+        this.delayWhenNeeded = delayWhenNeeded;
+        this.messages = messages;
+        this.correlationId = correlationId;
+    }
+
+    /**
+     * Returns true if both requests see the same candidate hosts and are placed by the same rules
+     */
+    public boolean canBatchWith(SchedulingRequest other) {
+        return Objects.equals(hostBlackList, other.hostBlackList)
+                && Objects.equals(hostWhiteList, other.hostWhiteList)
+                && Objects.equals(destHostIdList, other.destHostIdList)
+                && ignoreHardVmToVmAffinity == other.ignoreHardVmToVmAffinity
+                && doNotGroupVms == other.doNotGroupVms
+                && stateless == other.stateless
+                && delayWhenNeeded == other.delayWhenNeeded;
+    }
+
+    /**
+     * @return the total memory of the VMs, used to place the biggest requests of a batch first
+     */
+    public long getMemSizeMb() {
+        return vms.stream().mapToLong(VM::getMemSizeMb).sum();
+    }
+
+    public List<VM> getVms() {
+        return vms;
+    }
+
+    public List<Guid> getHostBlackList() {
+        return hostBlackList;
+    }
+
+    public List<Guid> getHostWhiteList() {
+        return hostWhiteList;
+    }
+
+    public List<Guid> getDestHostIdList() {
+        return destHostIdList;
+    }
+
+    public boolean isIgnoreHardVmToVmAffinity() {
+        return ignoreHardVmToVmAffinity;
+    }
+
+    public boolean isDoNotGroupVms() {
+        return doNotGroupVms;
+    }
+
+    public boolean isStateless() {
+        return stateless;
+    }
+
+    public boolean isDelayWhenNeeded() {
+        return delayWhenNeeded;
+    }
+
+    public List<String> getMessages() {
+        return messages;
+    }
+
+    public String getCorrelationId() {
+        return correlationId;
+    }
+
+    public boolean isDone() {
+        return result.isDone();
+    }
+
+    public void complete(Map<Guid, Guid> vmToHostAssignment) {
+        result.complete(vmToHostAssignment);
+    }
+
+    public void fail(Throwable t) {
+        result.completeExceptionally(t);
+    }
+
+    /**
+     * Waits until the request is placed by the thread which took it over. The wait is not interruptible, since the
+     * pending resources of the placed VMs are already added and only the caller can clear them.
+     */
+    public Map<Guid, Guid> await() {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return result.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) e.getCause();
+                    }
+                    if (e.getCause() instanceof Error) {
+                        throw (Error) e.getCause();
+                    }
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -46,6 +46,11 @@ public class CPUPolicyUnit extends PolicyUnitImpl {
         super(policyUnit, pendingResourceManager);
     }
 
+    @Override
+    public boolean canFilterHostsIndependently() {
+        return true;
+    }
+
     /**
      * Filters out the hosts that do not have enough free CPUs to accommodate the shared and exclusively pinned CPUs
      * required by the vmGroup.
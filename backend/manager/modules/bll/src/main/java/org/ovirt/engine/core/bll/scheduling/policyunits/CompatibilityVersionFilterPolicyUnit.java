@@ -31,6 +31,11 @@ public class CompatibilityVersionFilterPolicyUnit extends PolicyUnitImpl {
         super(policyUnit, pendingResourceManager);
     }
 
+    @Override
+    public boolean canFilterHostsIndependently() {
+        return true;
+    }
+
     @Override
     public List<VDS> filter(SchedulingContext context,
             List<VDS> hosts,
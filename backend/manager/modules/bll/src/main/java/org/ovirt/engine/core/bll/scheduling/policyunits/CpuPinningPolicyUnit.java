@@ -56,6 +56,11 @@ public class CpuPinningPolicyUnit extends PolicyUnitImpl {
         super(policyUnit, pendingResourceManager);
     }
 
+    @Override
+    public boolean canFilterHostsIndependently() {
+        return true;
+    }
+
     @Override
     public List<VDS> filter(final SchedulingContext context,
             final List<VDS> hosts,
@@ -30,6 +30,11 @@ public class CpuTopologyPolicyUnit extends PolicyUnitImpl {
         super(policyUnit, pendingResourceManager);
     }
 
+    @Override
+    public boolean canFilterHostsIndependently() {
+        return true;
+    }
+
     @Override
     public List<VDS> filter(SchedulingContext context, List<VDS> hosts, VM vm, PerHostMessages messages) {
         List<VDS> candidates = new ArrayList<>();
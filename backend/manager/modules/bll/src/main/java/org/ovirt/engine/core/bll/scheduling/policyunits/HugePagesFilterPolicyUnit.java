@@ -36,6 +36,11 @@ public class HugePagesFilterPolicyUnit extends PolicyUnitImpl {
         super(policyUnit, pendingResourceManager);
     }
 
+    @Override
+    public boolean canFilterHostsIndependently() {
+        return true;
+    }
+
     @Override
     public List<VDS> filter(SchedulingContext context,
             List<VDS> hosts,
@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import javax.inject.Inject;
 
@@ -26,11 +27,12 @@ import org.ovirt.engine.core.common.queries.GetUnregisteredDisksQueryParameters;
 import org.ovirt.engine.core.common.queries.QueryReturnValue;
 import org.ovirt.engine.core.common.queries.QueryType;
 import org.ovirt.engine.core.common.utils.Pair;
+import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.dao.DiskImageDao;
 import org.ovirt.engine.core.dao.UnregisteredDisksDao;
 import org.ovirt.engine.core.dao.UnregisteredOVFDataDao;
 import org.ovirt.engine.core.utils.OvfUtils;
-import org.ovirt.engine.core.utils.ovf.xml.XmlDocument;
+import org.ovirt.engine.core.utils.threadpool.ThreadPoolUtil;
 
 public class ScanStorageForUnregisteredDisksCommand<T extends StorageDomainParametersBase> extends StorageDomainCommandBase<T> {
 
@@ -106,16 +108,23 @@ public class ScanStorageForUnregisteredDisksCommand<T extends StorageDomainParam
     }
 
     protected void setVmsForUnregisteredDisks(List<OvfEntityData> allEntities) {
-        for (OvfEntityData ovfEntity : allEntities) {
+        // the disks of the OVFs are fetched concurrently, and the unregistered disks are then updated in order
+        List<Set<Guid>> entitiesDiskIds = ThreadPoolUtil.mapConcurrently(allEntities, ovfEntity -> {
             try {
-                XmlDocument xmlDocument = new XmlDocument(ovfEntity.getOvfData());
-                ovfUtils.updateUnregisteredDisksWithVMs(unregisteredDisks,
-                        ovfEntity.getEntityId(),
-                        ovfEntity.getEntityName(),
-                        xmlDocument);
+                return ovfUtils.fetchVmDisks(ovfEntity.getOvfData());
             } catch (Exception e) {
                 log.warn("Could not parse OVF data of VM");
-                continue;
+                return null;
+            }
+        }, OvfUtils.getOvfParsingParallelism());
+
+        Map<Guid, UnregisteredDisk> unregisteredDisksById = OvfUtils.mapByDiskId(unregisteredDisks);
+        for (int i = 0; i < allEntities.size(); i++) {
+            if (entitiesDiskIds.get(i) != null) {
+                ovfUtils.updateUnregisteredDisksWithVMs(unregisteredDisksById,
+                        allEntities.get(i).getEntityId(),
+                        allEntities.get(i).getEntityName(),
+                        entitiesDiskIds.get(i));
             }
         }
     }
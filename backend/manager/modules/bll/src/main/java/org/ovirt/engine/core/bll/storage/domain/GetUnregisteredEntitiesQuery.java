@@ -1,5 +1,6 @@
 package org.ovirt.engine.core.bll.storage.domain;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import javax.inject.Inject;
@@ -10,7 +11,11 @@ import org.ovirt.engine.core.bll.storage.ovfstore.OvfHelper;
 import org.ovirt.engine.core.common.businessentities.OvfEntityData;
 import org.ovirt.engine.core.common.businessentities.VmEntityType;
 import org.ovirt.engine.core.common.queries.IdQueryParameters;
+import org.ovirt.engine.core.common.utils.Pair;
 import org.ovirt.engine.core.dao.UnregisteredOVFDataDao;
+import org.ovirt.engine.core.utils.OvfUtils;
+import org.ovirt.engine.core.utils.ovf.OvfReaderException;
+import org.ovirt.engine.core.utils.threadpool.ThreadPoolUtil;
 
 public abstract class GetUnregisteredEntitiesQuery<P extends IdQueryParameters> extends QueriesCommandBase<P> {
     @Inject
@@ -27,4 +32,35 @@ public abstract class GetUnregisteredEntitiesQuery<P extends IdQueryParameters>
         return unregisteredOVFDataDao.getAllForStorageDomainByEntityType(getParameters().getId(), vmEntityType);
     }
 
+    /**
+     * Reads the entities of the given OVFs concurrently. The OVFs which fail to be read are skipped and reported by the
+     * exception string of the query, and the entities are returned in the order of their OVFs.
+     */
+    protected <T> List<T> readOvfEntities(List<OvfEntityData> entityList, OvfEntityReader<T> reader) {
+        List<Pair<T, OvfReaderException>> results = ThreadPoolUtil.mapConcurrently(entityList, ovf -> {
+            try {
+                return new Pair<>(reader.read(ovf), null);
+            } catch (OvfReaderException e) {
+                return new Pair<>(null, e);
+            }
+        }, OvfUtils.getOvfParsingParallelism());
+
+        List<T> entities = new ArrayList<>();
+        for (int i = 0; i < results.size(); i++) {
+            OvfReaderException e = results.get(i).getSecond();
+            if (e == null) {
+                entities.add(results.get(i).getFirst());
+            } else {
+                log.debug("failed to parse a given ovf configuration: \n" + entityList.get(i).getOvfData(), e);
+                getQueryReturnValue().setExceptionString("failed to parse a given ovf configuration "
+                        + e.getMessage());
+            }
+        }
+        return entities;
+    }
+
+    @FunctionalInterface
+    protected interface OvfEntityReader<T> {
+        T read(OvfEntityData ovf) throws OvfReaderException;
+    }
 }
@@ -1,8 +1,14 @@
 package org.ovirt.engine.core.bll.storage.ovfstore;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -227,11 +233,43 @@ public class ProcessOvfUpdateForStorageDomainCommand<T extends ProcessOvfUpdateP
         }
     }
 
-    private byte[] buildOvfInfoFileByteArray(List<Guid> vmAndTemplatesIds) {
-        ByteArrayOutputStream bufferedOutputStream = new ByteArrayOutputStream();
+    /**
+     * Writes the OVF store tar to a temporary file, so that it is streamed from the file to each of the OVF stores
+     * instead of being kept in memory. The caller is responsible for deleting the file.
+     */
+    private File buildOvfStoreFile(List<Guid> vmAndTemplatesIds) {
+        File ovfStoreFile;
+        try {
+            ovfStoreFile = createOvfStoreFile();
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Exception while creating the OVF store file of domain %s",
+                    getParameters().getStorageDomainId()), e);
+        }
+
+        try (OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(ovfStoreFile))) {
+            buildOvfStore(vmAndTemplatesIds, outputStream);
+        } catch (IOException | RuntimeException e) {
+            deleteOvfStoreFile(ovfStoreFile);
+            throw new RuntimeException(String.format("Exception while writing the OVF store file of domain %s",
+                    getParameters().getStorageDomainId()), e);
+        }
+        return ovfStoreFile;
+    }
+
+    protected File createOvfStoreFile() throws IOException {
+        return Files.createTempFile("ovf-store-", ".tar").toFile();
+    }
+
+    private void deleteOvfStoreFile(File ovfStoreFile) {
+        if (!ovfStoreFile.delete()) {
+            log.warn("Failed to delete the OVF store file '{}'", ovfStoreFile);
+        }
+    }
+
+    private void buildOvfStore(List<Guid> vmAndTemplatesIds, OutputStream outputStream) {
         Set<Guid> processedIds = new HashSet<>();
 
-        try (InMemoryTar inMemoryTar = new InMemoryTar(bufferedOutputStream)) {
+        try (InMemoryTar inMemoryTar = new InMemoryTar(outputStream)) {
             inMemoryTar.addTarEntry(generateInfoFileData().getBytes(),
                     OvfInfoFileConstants.InfoFileName);
             Map<String, Object> metaDataForEntities = generateMetaDataFile(vmAndTemplatesIds);
@@ -255,8 +293,6 @@ public class ProcessOvfUpdateForStorageDomainCommand<T extends ProcessOvfUpdateP
             throw new RuntimeException(String.format("Exception while building in memory tar of the OVFs of domain %s",
                     getParameters().getStorageDomainId()), e);
         }
-
-        return bufferedOutputStream.toByteArray();
     }
 
     private List<Pair<Guid, String>> retrieveUnprocessedUnregisteredOvfData(Set<Guid> processedIds,
@@ -291,8 +327,15 @@ public class ProcessOvfUpdateForStorageDomainCommand<T extends ProcessOvfUpdateP
 
         vmAndTemplatesIds.addAll(vmStaticDao.getVmAndTemplatesIdsWithoutAttachedImageDisks(getParameters().getStoragePoolId(), false));
 
-        byte[] bytes = buildOvfInfoFileByteArray(vmAndTemplatesIds);
+        File ovfStoreFile = buildOvfStoreFile(vmAndTemplatesIds);
+        try {
+            return updateOvfStores(ovfStoreFile, vmAndTemplatesIds);
+        } finally {
+            deleteOvfStoreFile(ovfStoreFile);
+        }
+    }
 
+    private boolean updateOvfStores(File ovfStoreFile, List<Guid> vmAndTemplatesIds) {
         Pair<StorageDomainOvfInfo, DiskImage> lastOvfStoreForUpdate = domainOvfStoresInfoForUpdate.getLast();
 
         // means that the last ovf store was never updated, if it was - we don't want to update
@@ -311,7 +354,7 @@ public class ProcessOvfUpdateForStorageDomainCommand<T extends ProcessOvfUpdateP
 
         for (Pair<StorageDomainOvfInfo, DiskImage> pair : domainOvfStoresInfoForUpdate) {
             shouldUpdateLastOvfStore |=
-                    performOvfUpdateForDomain(bytes,
+                    performOvfUpdateForDomain(ovfStoreFile,
                             pair.getFirst(),
                             pair.getSecond(),
                             vmAndTemplatesIds);
@@ -320,7 +363,7 @@ public class ProcessOvfUpdateForStorageDomainCommand<T extends ProcessOvfUpdateP
         // if we successfully updated any ovf store, we can attempt to also update the one we kept for best effort
         // backup (if we did)
         if (shouldUpdateLastOvfStore && lastOvfStoreForUpdate != null) {
-            performOvfUpdateForDomain(bytes,
+            performOvfUpdateForDomain(ovfStoreFile,
                     lastOvfStoreForUpdate.getFirst(),
                     lastOvfStoreForUpdate.getSecond(),
                     vmAndTemplatesIds);
@@ -354,7 +397,7 @@ public class ProcessOvfUpdateForStorageDomainCommand<T extends ProcessOvfUpdateP
         runVdsCommand(VDSCommandType.SetVolumeDescription, vdsCommandParameters);
     }
 
-    private boolean performOvfUpdateForDomain(byte[] ovfData,
+    private boolean performOvfUpdateForDomain(File ovfStoreFile,
             StorageDomainOvfInfo storageDomainOvfInfo,
             DiskImage ovfDisk,
             List<Guid> vmAndTemplatesIds) {
@@ -374,20 +417,20 @@ public class ProcessOvfUpdateForStorageDomainCommand<T extends ProcessOvfUpdateP
 
             storageDomainOvfInfoDao.update(storageDomainOvfInfo);
 
-            ByteArrayInputStream byteArrayInputStream =
-                    new ByteArrayInputStream(ovfData);
-
-            Long size = Long.valueOf(ovfData.length);
-            UploadStreamParameters uploadStreamParameters =
-                    new UploadStreamParameters(storagePoolId, storageDomainId,
-                            diskId, volumeId, byteArrayInputStream,
-                            size);
-
-            uploadStreamParameters.setParentCommand(getActionType());
-            uploadStreamParameters.setParentParameters(getParameters());
-            uploadStreamParameters.setEndProcedure(EndProcedure.COMMAND_MANAGED);
-            ActionReturnValue actionReturnValue =
-                    runInternalActionWithTasksContext(ActionType.UploadStream, uploadStreamParameters);
+            Long size = ovfStoreFile.length();
+            ActionReturnValue actionReturnValue;
+            try (InputStream inputStream = new BufferedInputStream(new FileInputStream(ovfStoreFile))) {
+                UploadStreamParameters uploadStreamParameters =
+                        new UploadStreamParameters(storagePoolId, storageDomainId,
+                                diskId, volumeId, inputStream,
+                                size);
+
+                uploadStreamParameters.setParentCommand(getActionType());
+                uploadStreamParameters.setParentParameters(getParameters());
+                uploadStreamParameters.setEndProcedure(EndProcedure.COMMAND_MANAGED);
+                actionReturnValue =
+                        runInternalActionWithTasksContext(ActionType.UploadStream, uploadStreamParameters);
+            }
             if (actionReturnValue.getSucceeded()) {
                 storageDomainOvfInfo.setStatus(StorageDomainOvfInfoStatus.UPDATED);
                 storageDomainOvfInfo.setStoredOvfIds(vmAndTemplatesIds);
@@ -408,7 +451,7 @@ public class ProcessOvfUpdateForStorageDomainCommand<T extends ProcessOvfUpdateP
                 imageDao.update(ovfDisk.getImage());
                 return true;
             }
-        } catch (EngineException e) {
+        } catch (EngineException | IOException e) {
             log.warn("failed to update domain '{}' ovf store disk '{}'", storageDomainId, diskId);
         }
 
@@ -9,6 +9,12 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 
@@ -59,6 +65,8 @@ import org.ovirt.engine.core.dao.VmDao;
 import org.ovirt.engine.core.dao.VmStaticDao;
 import org.ovirt.engine.core.dao.VmTemplateDao;
 import org.ovirt.engine.core.dao.scheduling.AffinityGroupDao;
+import org.ovirt.engine.core.utils.EngineLocalConfig;
+import org.ovirt.engine.core.utils.threadpool.ThreadPoolUtil;
 
 @NonTransactiveCommandAttribute
 @InternalCommandAttribute
@@ -234,30 +242,41 @@ public class ProcessOvfUpdateForStoragePoolCommand <T extends ProcessOvfUpdatePa
      * Creates and returns a map containing valid templates metadata
      */
     protected Map<Guid, KeyValuePairCompat<String, List<Guid>>> populateTemplatesMetadataForOvfUpdate(List<Guid> idsToProcess) {
-        Map<Guid, KeyValuePairCompat<String, List<Guid>>> vmsAndTemplateMetadata = new HashMap<>();
+        Map<Guid, KeyValuePairCompat<String, List<Guid>>> vmsAndTemplateMetadata = new ConcurrentHashMap<>();
         List<VmTemplate> templates = vmTemplateDao.getVmTemplatesByIds(idsToProcess);
 
-        for (VmTemplate template : templates) {
-            if (VmTemplateStatus.Locked != template.getStatus()) {
-                updateTemplateDisksFromDb(template);
-                boolean verifyDisksNotLocked = verifyImagesStatus(template.getDiskList());
-                if (verifyDisksNotLocked) {
-                    ovfUpdateProcessHelper.loadTemplateData(template);
-                    Long currentDbGeneration = vmStaticDao.getDbGeneration(template.getId());
-                    // currentDbGeneration can be null in case that the template was deleted during the run of OvfDataUpdater.
-                    if (currentDbGeneration != null && template.getDbGeneration() == currentDbGeneration) {
-                        proccessedOvfConfigurationsInfo.add(ovfUpdateProcessHelper.buildMetadataDictionaryForTemplate(template, vmsAndTemplateMetadata));
-                        proccessedIdsInfo.add(template.getId());
-                        proccessedOvfGenerationsInfo.add(template.getDbGeneration());
-                        proccessDisksDomains(template.getDiskList());
-                    }
-                }
-            }
-        }
+        List<OvfEntry> entries = generateConcurrently(templates,
+                template -> generateTemplateOvf(template, vmsAndTemplateMetadata));
+        addProcessedEntries(entries);
 
         return vmsAndTemplateMetadata;
     }
 
+    /**
+     * Generates the OVF of the given template, or returns {@code null} if it can't be updated now
+     */
+    private OvfEntry generateTemplateOvf(VmTemplate template,
+            Map<Guid, KeyValuePairCompat<String, List<Guid>>> vmsAndTemplateMetadata) {
+        if (VmTemplateStatus.Locked == template.getStatus()) {
+            return null;
+        }
+        updateTemplateDisksFromDb(template);
+        boolean verifyDisksNotLocked = verifyImagesStatus(template.getDiskList());
+        if (!verifyDisksNotLocked) {
+            return null;
+        }
+        ovfUpdateProcessHelper.loadTemplateData(template);
+        Long currentDbGeneration = vmStaticDao.getDbGeneration(template.getId());
+        // currentDbGeneration can be null in case that the template was deleted during the run of OvfDataUpdater.
+        if (currentDbGeneration == null || template.getDbGeneration() != currentDbGeneration) {
+            return null;
+        }
+        return new OvfEntry(template.getId(),
+                template.getDbGeneration(),
+                ovfUpdateProcessHelper.buildMetadataDictionaryForTemplate(template, vmsAndTemplateMetadata),
+                template.getDiskList());
+    }
+
     protected void updateTemplateDisksFromDb(VmTemplate template) {
         vmTemplateHandler.updateDisksFromDb(template);
     }
@@ -320,57 +339,133 @@ public class ProcessOvfUpdateForStoragePoolCommand <T extends ProcessOvfUpdatePa
      * Create and returns map contains valid vms metadata
      */
     protected Map<Guid, KeyValuePairCompat<String, List<Guid>>> populateVmsMetadataForOvfUpdate(List<Guid> idsToProcess) {
-        Map<Guid, KeyValuePairCompat<String, List<Guid>>> vmsAndTemplateMetadata = new HashMap<>();
+        Map<Guid, KeyValuePairCompat<String, List<Guid>>> vmsAndTemplateMetadata = new ConcurrentHashMap<>();
         List<VM> vms = vmDao.getVmsByIds(idsToProcess);
-        for (VM vm : vms) {
-            if (VMStatus.ImageLocked != vm.getStatus()) {
-                updateVmDisksFromDb(vm);
-                if (!verifyImagesStatus(vm.getDiskList())) {
-                    continue;
-                }
-                ArrayList<DiskImage> vmImages = ovfUpdateProcessHelper.getVmImagesFromDb(vm);
-                if (!verifyImagesStatus(vmImages)) {
-                    continue;
-                }
-                vm.setSnapshots(snapshotDao.getAllWithConfiguration(vm.getId()));
-                if (!verifySnapshotsStatus(vm.getSnapshots())) {
-                    continue;
-                }
 
-                ovfUpdateProcessHelper.loadVmData(vm);
-                Long currentDbGeneration = vmStaticDao.getDbGeneration(vm.getId());
-                if (currentDbGeneration == null) {
-                    log.warn("currentDbGeneration of VM (name: '{}', id: '{}') is null, probably because the VM was deleted during the run of OvfDataUpdater.",
-                            vm.getName(),
-                            vm.getId());
-                    continue;
-                }
-                if (vm.getStaticData().getDbGeneration() == currentDbGeneration) {
-                    List<LunDisk> lunDisks = DisksFilter.filterLunDisks(vm.getDiskMap().values());
-                    for (LunDisk lun : lunDisks) {
-                        lun.getLun().setLunConnections(storageServerConnectionDao.getAllForLun(lun.getLun().getId()));
-                    }
-
-                    List<AffinityGroup> affinityGroups = affinityGroupDao.getAllAffinityGroupsByVmId(vm.getId());
-                    List<Label> affinityLabels = labelDao.getAllByEntityIds(Collections.singletonList(vm.getId()));
-                    Set<DbUser> dbUsers = new HashSet<>(dbUserDao.getAllForVm(vm.getId()));
-                    FullEntityOvfData fullEntityOvfData = new FullEntityOvfData(vm);
-                    fullEntityOvfData.setDiskImages(vmImages);
-                    fullEntityOvfData.setLunDisks(lunDisks);
-                    fullEntityOvfData.setAffinityGroups(affinityGroups);
-                    fullEntityOvfData.setAffinityLabels(affinityLabels);
-                    fullEntityOvfData.setDbUsers(dbUsers);
-                    ovfHelper.populateUserToRoles(fullEntityOvfData, vm.getId());
-                    proccessedOvfConfigurationsInfo.add(ovfUpdateProcessHelper.buildMetadataDictionaryForVm(vm,
-                            vmsAndTemplateMetadata,
-                            fullEntityOvfData));
-                    proccessedIdsInfo.add(vm.getId());
-                    proccessedOvfGenerationsInfo.add(vm.getStaticData().getDbGeneration());
-                    proccessDisksDomains(vm.getDiskList());
+        List<OvfEntry> entries = generateConcurrently(vms, vm -> generateVmOvf(vm, vmsAndTemplateMetadata));
+        addProcessedEntries(entries);
+
+        return vmsAndTemplateMetadata;
+    }
+
+    /**
+     * Generates the OVF of the given VM, or returns {@code null} if it can't be updated now
+     */
+    private OvfEntry generateVmOvf(VM vm, Map<Guid, KeyValuePairCompat<String, List<Guid>>> vmsAndTemplateMetadata) {
+        if (VMStatus.ImageLocked == vm.getStatus()) {
+            return null;
+        }
+        updateVmDisksFromDb(vm);
+        if (!verifyImagesStatus(vm.getDiskList())) {
+            return null;
+        }
+        ArrayList<DiskImage> vmImages = ovfUpdateProcessHelper.getVmImagesFromDb(vm);
+        if (!verifyImagesStatus(vmImages)) {
+            return null;
+        }
+        vm.setSnapshots(snapshotDao.getAllWithConfiguration(vm.getId()));
+        if (!verifySnapshotsStatus(vm.getSnapshots())) {
+            return null;
+        }
+
+        ovfUpdateProcessHelper.loadVmData(vm);
+        Long currentDbGeneration = vmStaticDao.getDbGeneration(vm.getId());
+        if (currentDbGeneration == null) {
+            log.warn("currentDbGeneration of VM (name: '{}', id: '{}') is null, probably because the VM was deleted during the run of OvfDataUpdater.",
+                    vm.getName(),
+                    vm.getId());
+            return null;
+        }
+        if (vm.getStaticData().getDbGeneration() != currentDbGeneration) {
+            return null;
+        }
+
+        List<LunDisk> lunDisks = DisksFilter.filterLunDisks(vm.getDiskMap().values());
+        for (LunDisk lun : lunDisks) {
+            lun.getLun().setLunConnections(storageServerConnectionDao.getAllForLun(lun.getLun().getId()));
+        }
+
+        List<AffinityGroup> affinityGroups = affinityGroupDao.getAllAffinityGroupsByVmId(vm.getId());
+        List<Label> affinityLabels = labelDao.getAllByEntityIds(Collections.singletonList(vm.getId()));
+        Set<DbUser> dbUsers = new HashSet<>(dbUserDao.getAllForVm(vm.getId()));
+        FullEntityOvfData fullEntityOvfData = new FullEntityOvfData(vm);
+        fullEntityOvfData.setDiskImages(vmImages);
+        fullEntityOvfData.setLunDisks(lunDisks);
+        fullEntityOvfData.setAffinityGroups(affinityGroups);
+        fullEntityOvfData.setAffinityLabels(affinityLabels);
+        fullEntityOvfData.setDbUsers(dbUsers);
+        ovfHelper.populateUserToRoles(fullEntityOvfData, vm.getId());
+        return new OvfEntry(vm.getId(),
+                vm.getStaticData().getDbGeneration(),
+                ovfUpdateProcessHelper.buildMetadataDictionaryForVm(vm, vmsAndTemplateMetadata, fullEntityOvfData),
+                vm.getDiskList());
+    }
+
+    /**
+     * Adds the generated OVFs to the processed info, in the order of the entities
+     */
+    private void addProcessedEntries(List<OvfEntry> entries) {
+        for (OvfEntry entry : entries) {
+            if (entry != null) {
+                proccessedOvfConfigurationsInfo.add(entry.ovf);
+                proccessedIdsInfo.add(entry.id);
+                proccessedOvfGenerationsInfo.add(entry.generation);
+                proccessDisksDomains(entry.disks);
+            }
+        }
+    }
+
+    /**
+     * Generates the OVFs of the given entities concurrently. The entities are split to contiguous partitions, one for
+     * each of the configured parallel generations, and the calling thread generates every partition no other thread
+     * started yet, so a saturated thread pool only makes the generation sequential.
+     *
+     * @return the generated OVFs in the order of the entities
+     */
+    private <E> List<OvfEntry> generateConcurrently(List<E> entities, Function<E, OvfEntry> generator) {
+        int parallelism = Math.min(getOvfGenerationParallelism(), entities.size());
+        if (parallelism <= 1 || ThreadPoolUtil.getExecutorService() == null) {
+            return entities.stream().map(generator).collect(Collectors.toList());
+        }
+
+        int partitionSize = (entities.size() + parallelism - 1) / parallelism;
+        List<FutureTask<List<OvfEntry>>> partitions = new ArrayList<>(parallelism);
+        for (int from = 0; from < entities.size(); from += partitionSize) {
+            List<E> partition = entities.subList(from, Math.min(from + partitionSize, entities.size()));
+            partitions.add(new FutureTask<>(
+                    () -> partition.stream().map(generator).collect(Collectors.toList())));
+        }
+
+        // the first partition is always generated by the calling thread
+        for (FutureTask<List<OvfEntry>> partition : partitions.subList(1, partitions.size())) {
+            try {
+                ThreadPoolUtil.execute((Runnable) partition);
+            } catch (RejectedExecutionException e) {
+                break;
+            }
+        }
+        // running a partition which already started or finished does nothing
+        partitions.forEach(FutureTask::run);
+
+        List<OvfEntry> entries = new ArrayList<>(entities.size());
+        for (FutureTask<List<OvfEntry>> partition : partitions) {
+            try {
+                entries.addAll(partition.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while generating OVFs", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
                 }
+                throw new IllegalStateException(e.getCause());
             }
         }
-        return vmsAndTemplateMetadata;
+        return entries;
+    }
+
+    protected int getOvfGenerationParallelism() {
+        return EngineLocalConfig.getInstance().getInteger("ENGINE_OVF_GENERATION_PARALLELISM", 4);
     }
 
     protected void proccessDisksDomains(List<DiskImage> disks) {
@@ -397,4 +492,21 @@ public class ProcessOvfUpdateForStoragePoolCommand <T extends ProcessOvfUpdatePa
     protected LockProperties applyLockProperties(LockProperties lockProperties) {
         return lockProperties.withScope(LockProperties.Scope.Execution).withWaitForever();
     }
+
+    /**
+     * The generated OVF of a VM or a template
+     */
+    private static class OvfEntry {
+        private final Guid id;
+        private final long generation;
+        private final String ovf;
+        private final List<DiskImage> disks;
+
+        private OvfEntry(Guid id, long generation, String ovf, List<DiskImage> disks) {
+            this.id = id;
+            this.generation = generation;
+            this.ovf = ovf;
+            this.disks = disks;
+        }
+    }
 }
@@ -3,19 +3,24 @@ package org.ovirt.engine.core.bll.tasks;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.annotation.PostConstruct;
 import javax.enterprise.concurrent.ManagedScheduledExecutorService;
@@ -31,6 +36,7 @@ import org.ovirt.engine.core.common.action.ActionType;
 import org.ovirt.engine.core.common.asynctasks.AsyncTaskCreationInfo;
 import org.ovirt.engine.core.common.asynctasks.AsyncTaskParameters;
 import org.ovirt.engine.core.common.asynctasks.AsyncTaskType;
+import org.ovirt.engine.core.common.asynctasks.EntityInfo;
 import org.ovirt.engine.core.common.businessentities.AsyncTask;
 import org.ovirt.engine.core.common.businessentities.AsyncTaskResultEnum;
 import org.ovirt.engine.core.common.businessentities.AsyncTaskStatus;
@@ -55,6 +61,14 @@ import org.slf4j.LoggerFactory;
 
 /**
  * AsyncTaskManager: Singleton, manages all tasks in the system.
+ * <p>
+ * The tasks are kept in concurrent maps, indexed by their storage pool and by the entity they act on, so looking them
+ * up and adding them doesn't need a global lock. Only the changes of the tasks' states, done by the polling timer and
+ * by the cancellation of tasks, are serialized by the polling lock.
+ * <p>
+ * The statuses of all the tasks of a storage pool are fetched from its SPM in a single call, and the tasks are polled
+ * less frequently as they age: a task is polled again after a tenth of its age, but no sooner than the polling rate
+ * and no later than the maximal polling interval.
  */
 @Singleton
 public final class AsyncTaskManager implements BackendService {
@@ -75,11 +89,26 @@ public final class AsyncTaskManager implements BackendService {
     private static final Logger log = LoggerFactory.getLogger(AsyncTaskManager.class);
     private final AuditLogDirector auditLogDirector = Injector.get(AuditLogDirector.class);
 
+    /** The ratio between the age of a task and the interval of time until it is polled again **/
+    private static final long TASK_AGE_TO_POLLING_INTERVAL_RATIO = 10;
+
     /** Map which consist all tasks that currently are monitored **/
-    private ConcurrentMap<Guid, SPMTask> tasks;
+    private final ConcurrentMap<Guid, SPMTask> tasks = new ConcurrentHashMap<>();
+
+    /** The ids of the monitored tasks of each storage pool **/
+    private final ConcurrentMap<Guid, Set<Guid>> tasksByStoragePool = new ConcurrentHashMap<>();
+
+    /** The ids of the monitored command tasks of each entity **/
+    private final ConcurrentMap<Guid, Set<Guid>> tasksByEntity = new ConcurrentHashMap<>();
+
+    /** The time (in milliseconds) at which each monitored task should be polled again **/
+    private final ConcurrentMap<Guid, Long> nextPollTimes = new ConcurrentHashMap<>();
+
+    /** Serializes the polling of the tasks with their cancellation **/
+    private final Lock pollingLock = new ReentrantLock();
 
     /** Indication if tasks has changed for logging process. **/
-    private boolean logChangedMap = true;
+    private volatile boolean logChangedMap = true;
 
     /** The period of time (in minutes) to hold the asynchronous tasks' statuses in the asynchronous tasks cache **/
     private long cacheTimeInMinutes;
@@ -97,7 +126,6 @@ public final class AsyncTaskManager implements BackendService {
     @PostConstruct
     private void init() {
         cacheTimeInMinutes = Config.<Long>getValue(ConfigValues.AsyncTaskStatusCachingTimeInMinutes);
-        tasks = new ConcurrentHashMap<>();
 
         schedulerService.scheduleWithFixedDelay(this::timerElapsed,
                 Config.<Long> getValue(ConfigValues.AsyncTaskPollingRate),
@@ -144,16 +172,19 @@ public final class AsyncTaskManager implements BackendService {
 
     }
 
-    private synchronized void timerElapsed() {
+    private void timerElapsed() {
+        pollingLock.lock();
         try {
             timerElapsedImpl();
         } catch (Throwable t) {
             log.error("Exception in timerElapsed: {}", ExceptionUtils.getRootCauseMessage(t));
             log.debug("Exception", t);
+        } finally {
+            pollingLock.unlock();
         }
     }
 
-    private synchronized void timerElapsedImpl() {
+    private void timerElapsedImpl() {
         if (thereAreTasksToPoll()) {
             pollAndUpdateAsyncTasks();
 
@@ -192,7 +223,7 @@ public final class AsyncTaskManager implements BackendService {
      * @return - true for uncached object , and false when the object should be
      * cached.
      */
-    public synchronized boolean cachingOver(SPMTask task) {
+    public boolean cachingOver(SPMTask task) {
         // Get time in milliseconds that the task should be cached
         long SubtractMinutesAsMills = TimeUnit.MINUTES
                 .toMillis(cacheTimeInMinutes);
@@ -205,29 +236,13 @@ public final class AsyncTaskManager implements BackendService {
                 .currentTimeMillis() - SubtractMinutesAsMills);
     }
 
-    public synchronized boolean hasTasksByStoragePoolId(Guid storagePoolID) {
-        boolean retVal = false;
-        if (tasks != null) {
-            for (SPMTask task : tasks.values()) {
-                if (task.getStoragePoolID().equals(storagePoolID)) {
-                    retVal = true;
-                    break;
-                }
-            }
-        }
-        return retVal;
+    public boolean hasTasksByStoragePoolId(Guid storagePoolID) {
+        return getStoragePoolTasks(storagePoolID).findAny().isPresent();
     }
 
-    public synchronized boolean hasTasksForEntityIdAndAction(Guid id, ActionType type) {
-        if (tasks != null) {
-            for (SPMTask task : tasks.values()) {
-                if (isCurrentTaskLookedFor(id, task)
-                        && type.equals(task.getParameters().getDbAsyncTask().getActionType())) {
-                    return true;
-                }
-            }
-        }
-        return false;
+    public boolean hasTasksForEntityIdAndAction(Guid id, ActionType type) {
+        return getEntityTasks(id)
+                .anyMatch(task -> type.equals(task.getParameters().getDbAsyncTask().getActionType()));
     }
 
     public void handlePartiallyExecuteTasksOfCommand(final List<AsyncTask> tasks) {
@@ -336,12 +351,59 @@ public final class AsyncTaskManager implements BackendService {
     }
 
     private boolean isCurrentTaskLookedFor(Guid id, SPMTask task) {
-        return task instanceof CommandAsyncTask && task.getParameters().getEntityInfo() != null &&
-                id.equals(task.getParameters().getEntityInfo().getId())
+        return id.equals(getEntityId(task))
                 && task.getState() != AsyncTaskState.Cleared
                 && task.getState() != AsyncTaskState.ClearFailed;
     }
 
+    /**
+     * Returns the id of the entity the given task acts on, or {@code null} if it isn't a command task.
+     */
+    private static Guid getEntityId(SPMTask task) {
+        if (!(task instanceof CommandAsyncTask)) {
+            return null;
+        }
+        EntityInfo entityInfo = task.getParameters().getEntityInfo();
+        return entityInfo == null ? null : entityInfo.getId();
+    }
+
+    private Stream<SPMTask> getStoragePoolTasks(Guid storagePoolId) {
+        return getIndexedTasks(tasksByStoragePool, storagePoolId)
+                .filter(task -> storagePoolId.equals(task.getStoragePoolID()));
+    }
+
+    private Stream<SPMTask> getEntityTasks(Guid entityId) {
+        return getIndexedTasks(tasksByEntity, entityId).filter(task -> isCurrentTaskLookedFor(entityId, task));
+    }
+
+    /**
+     * Returns the monitored tasks whose ids are indexed by the given key. The index may briefly hold the ids of tasks
+     * being added or removed, so the callers check the returned tasks against the key.
+     */
+    private Stream<SPMTask> getIndexedTasks(ConcurrentMap<Guid, Set<Guid>> index, Guid key) {
+        Set<Guid> vdsmTaskIds = index.get(key);
+        return vdsmTaskIds == null ? Stream.empty() : vdsmTaskIds.stream().map(tasks::get).filter(Objects::nonNull);
+    }
+
+    private static void addToIndex(ConcurrentMap<Guid, Set<Guid>> index, Guid key, Guid vdsmTaskId) {
+        if (key != null) {
+            index.compute(key, (k, vdsmTaskIds) -> {
+                Set<Guid> ids = vdsmTaskIds == null ? ConcurrentHashMap.newKeySet() : vdsmTaskIds;
+                ids.add(vdsmTaskId);
+                return ids;
+            });
+        }
+    }
+
+    private static void removeFromIndex(ConcurrentMap<Guid, Set<Guid>> index, Guid key, Guid vdsmTaskId) {
+        if (key != null) {
+            index.computeIfPresent(key, (k, vdsmTaskIds) -> {
+                vdsmTaskIds.remove(vdsmTaskId);
+                return vdsmTaskIds.isEmpty() ? null : vdsmTaskIds;
+            });
+        }
+    }
+
     private void cleanZombieTasks() {
         long maxTime = DateTime.getNow()
                 .addMinutes(-1 * Config.<Integer>getValue(ConfigValues.AsyncTaskZombieTaskLifeInMinutes)).getTime();
@@ -404,41 +466,43 @@ public final class AsyncTaskManager implements BackendService {
     }
 
     /**
-     * Fetch all tasks statuses from each storagePoolId , and update the tasks
-     * map with the updated statuses.
+     * Fetch all tasks statuses from each storagePoolId that has tasks due for
+     * polling, and update the tasks map with the updated statuses.
      */
     private void pollAndUpdateAsyncTasks() {
+        long now = System.currentTimeMillis();
         if (logChangedMap) {
             log.info("Polling and updating Async Tasks: {} tasks, {} tasks to poll now",
                     tasks.size(), numberOfTasksToPoll());
         }
 
         // Fetch Set of pool id's
-        Set<Guid> poolsOfActiveTasks = getPoolIdsTasks();
+        Set<Guid> poolsOfActiveTasks = getPoolIdsTasks(now);
 
         // Get all tasks from all the SPMs.
         Map<Guid, Map<Guid, AsyncTaskStatus>> poolsAllTasksMap = getSPMsTasksStatuses(poolsOfActiveTasks);
 
         // For each task that found on each pool id
-        updateTaskStatuses(poolsAllTasksMap);
+        updateTaskStatuses(poolsAllTasksMap, now);
     }
 
     /**
-     * Update task status based on asyncTaskMap.
+     * Update task status based on asyncTaskMap. All the tasks of a polled
+     * storage pool are updated, as their statuses were fetched anyway.
      *
      * @param poolsAllTasksMap Task statuses Map fetched from VDSM.
+     * @param now the time of the poll
      */
-    private void updateTaskStatuses(
-            Map<Guid, Map<Guid, AsyncTaskStatus>> poolsAllTasksMap) {
-        for (SPMTask task : tasks.values()) {
-            if (task.getShouldPoll()) {
-                Map<Guid, AsyncTaskStatus> asyncTasksForPoolMap = poolsAllTasksMap
-                        .get(task.getStoragePoolID());
+    // Visible for testing
+    void updateTaskStatuses(Map<Guid, Map<Guid, AsyncTaskStatus>> poolsAllTasksMap, long now) {
+        long pollingRate = TimeUnit.SECONDS.toMillis(Config.<Long> getValue(ConfigValues.AsyncTaskPollingRate));
+        long maxPollingInterval = Math.max(pollingRate,
+                TimeUnit.SECONDS.toMillis(Config.<Long> getValue(ConfigValues.AsyncTaskMaxPollingIntervalInSeconds)));
 
-                // If the storage pool id exists
-                if (asyncTasksForPoolMap != null) {
-                    AsyncTaskStatus cachedAsyncTaskStatus = asyncTasksForPoolMap
-                            .get(task.getVdsmTaskId());
+        for (Entry<Guid, Map<Guid, AsyncTaskStatus>> entry : poolsAllTasksMap.entrySet()) {
+            getStoragePoolTasks(entry.getKey()).forEach(task -> {
+                if (task.getShouldPoll()) {
+                    AsyncTaskStatus cachedAsyncTaskStatus = entry.getValue().get(task.getVdsmTaskId());
 
                     log.debug("Updating task of command {} with id '{}' to status '{}'.",
                             task.getParameters().getDbAsyncTask().getActionType(),
@@ -447,15 +511,32 @@ public final class AsyncTaskManager implements BackendService {
 
                     // task found in VDSM.
                     task.updateTask(cachedAsyncTaskStatus);
+                    nextPollTimes.put(task.getVdsmTaskId(),
+                            now + getPollingInterval(task, now, pollingRate, maxPollingInterval));
+                } else {
+                    log.debug("Not updating task of command {} with id '{}' and status '{}'.",
+                            task.getParameters().getDbAsyncTask().getActionType(),
+                            task.getCommandId(),
+                            task.getLastTaskStatus());
                 }
-            } else {
-                log.debug("Not updating task of command {} with id '{}' and status '{}'.",
-                        task.getParameters().getDbAsyncTask().getActionType(),
-                        task.getCommandId(),
-                        task.getLastTaskStatus());
-            }
+            });
         }
+    }
 
+    /**
+     * Returns the interval of time (in milliseconds) until the given task should be polled again: a tenth of its age,
+     * bounded by the polling rate and by the maximal polling interval.
+     */
+    // Visible for testing
+    static long getPollingInterval(SPMTask task, long now, long pollingRate, long maxPollingInterval) {
+        Date startTime = task.getParameters().getDbAsyncTask().getStartTime();
+        long age = startTime == null ? 0 : now - startTime.getTime();
+        return Math.min(Math.max(age / TASK_AGE_TO_POLLING_INTERVAL_RATIO, pollingRate), maxPollingInterval);
+    }
+
+    private boolean isDueForPolling(SPMTask task, long now) {
+        Long nextPollTime = nextPollTimes.get(task.getVdsmTaskId());
+        return nextPollTime == null || nextPollTime <= now;
     }
 
     /**
@@ -496,127 +577,134 @@ public final class AsyncTaskManager implements BackendService {
     }
 
     /**
-     * Get a Set of all the storage pool id's of tasks that should pool.
+     * Get a Set of all the storage pool id's that have tasks which should
+     * poll and are due for polling.
      *
-     * @return - Set of active tasks.
+     * @return - Set of pools of active tasks.
      * @see SPMAsyncTask#getShouldPoll()
      */
-    private Set<Guid> getPoolIdsTasks() {
+    // Visible for testing
+    Set<Guid> getPoolIdsTasks(long now) {
         Set<Guid> poolsOfActiveTasks = new HashSet<>();
 
-        for (SPMTask task : tasks.values()) {
-            if (task.getShouldPoll()) {
-                poolsOfActiveTasks.add(task.getStoragePoolID());
+        for (Guid storagePoolId : tasksByStoragePool.keySet()) {
+            if (getStoragePoolTasks(storagePoolId)
+                    .anyMatch(task -> task.getShouldPoll() && isDueForPolling(task, now))) {
+                poolsOfActiveTasks.add(storagePoolId);
             }
         }
         return poolsOfActiveTasks;
     }
 
     /**
-     * get list of pools that have only cleared and old tasks (which don't exist
-     * anymore in the manager):
+     * Removes the cleared and old tasks from the manager, and logs the pools
+     * that have no tasks left.
      */
-    private synchronized void removeClearedAndOldTasks() {
-        Set<Guid> poolsOfActiveTasks = new HashSet<>();
+    // Visible for testing
+    void removeClearedAndOldTasks() {
         Set<Guid> poolsOfClearedAndOldTasks = new HashSet<>();
-        ConcurrentMap<Guid, SPMTask> activeTaskMap = new ConcurrentHashMap<>();
         for (SPMTask task : tasks.values()) {
-            if (!cachingOver(task)) {
-                activeTaskMap.put(task.getVdsmTaskId(), task);
-                poolsOfActiveTasks.add(task.getStoragePoolID());
-            } else {
+            if (cachingOver(task) && removeTaskFromMap(task)) {
                 poolsOfClearedAndOldTasks.add(task.getStoragePoolID());
             }
         }
 
-        // Check if tasks need to be updated with less tasks (activated tasks).
-        if (poolsOfClearedAndOldTasks.size() > 0) {
-            setNewMap(activeTaskMap);
-            poolsOfClearedAndOldTasks.removeAll(poolsOfActiveTasks);
+        if (poolsOfClearedAndOldTasks.isEmpty()) {
+            return;
         }
+
+        log.info("Removed cleared tasks. The map contains now {} tasks", tasks.size());
         for (Guid storagePoolID : poolsOfClearedAndOldTasks) {
-            log.info("Cleared all tasks of pool '{}'.",
-                    storagePoolID);
+            if (!hasTasksByStoragePoolId(storagePoolID)) {
+                log.info("Cleared all tasks of pool '{}'.",
+                        storagePoolID);
+            }
         }
     }
 
-    public synchronized void lockAndAddTaskToManager(SPMTask task) {
+    public void lockAndAddTaskToManager(SPMTask task) {
         addTaskToManager(task);
     }
 
-    private void addTaskToManager(SPMTask task) {
+    /**
+     * Adds the given task to the manager, unless it already monitors a task
+     * with the same id, which is only overridden if its action type is unknown.
+     *
+     * @return whether the task was added
+     */
+    private boolean addTaskToManager(SPMTask task) {
         if (task == null) {
             log.error("Cannot add a null task.");
-        } else {
-            if (!tasks.containsKey(task.getVdsmTaskId())) {
-                log.info(
-                        "Adding task '{}' (Parent Command '{}', Parameters Type '{}'), {}.",
-                        task.getVdsmTaskId(),
-                        task.getParameters().getDbAsyncTask().getActionType(),
-                        task.getParameters().getClass().getName(),
-                        task.getShouldPoll() ? "polling started."
-                                : "polling hasn't started yet.");
-
-                // Set the indication to true for logging tasks status on next
-                // execution.
-                addTaskToMap(task.getVdsmTaskId(), task);
-            } else {
-                SPMTask existingTask = tasks.get(task.getVdsmTaskId());
-                if (existingTask.getParameters().getDbAsyncTask().getActionType() == ActionType.Unknown
-                        && task.getParameters().getDbAsyncTask().getActionType() != ActionType.Unknown) {
-                    log.info(
-                            "Task '{}' already exists with action type 'Unknown', now overriding it with action type '{}'",
-                            task.getVdsmTaskId(),
-                            task.getParameters().getDbAsyncTask().getActionType());
+            return false;
+        }
 
-                    // Set the indication to true for logging tasks status on
-                    // next execution.
-                    addTaskToMap(task.getVdsmTaskId(), task);
-                }
-            }
+        SPMTask existingTask = tasks.putIfAbsent(task.getVdsmTaskId(), task);
+        if (existingTask == null) {
+            log.info(
+                    "Adding task '{}' (Parent Command '{}', Parameters Type '{}'), {}.",
+                    task.getVdsmTaskId(),
+                    task.getParameters().getDbAsyncTask().getActionType(),
+                    task.getParameters().getClass().getName(),
+                    task.getShouldPoll() ? "polling started."
+                            : "polling hasn't started yet.");
+        } else if (existingTask.getParameters().getDbAsyncTask().getActionType() == ActionType.Unknown
+                && task.getParameters().getDbAsyncTask().getActionType() != ActionType.Unknown
+                && tasks.replace(task.getVdsmTaskId(), existingTask, task)) {
+            log.info(
+                    "Task '{}' already exists with action type 'Unknown', now overriding it with action type '{}'",
+                    task.getVdsmTaskId(),
+                    task.getParameters().getDbAsyncTask().getActionType());
+            removeFromIndexes(existingTask);
+        } else {
+            return false;
         }
-    }
 
-    /**
-     * Adds new task to tasks map , and set the log status to true. We set the
-     * indication to true for logging tasks status on next execution.
-     *
-     * @param guid - Key of the map.
-     * @param asyncTask - Value of the map.
-     */
-    private void addTaskToMap(Guid guid, SPMTask asyncTask) {
-        tasks.put(guid, asyncTask);
+        addToIndexes(task);
+        // Set the indication to true for logging tasks status on next
+        // execution.
         logChangedMap = true;
+        return true;
     }
 
     /**
-     * We set the indication to true when tasks map changes for logging tasks
-     * status on next execution.
+     * Removes the given task from the manager, unless it was replaced.
      *
-     * @param asyncTaskMap - Map to copy to tasks map.
+     * @return whether the task was removed
      */
-    private void setNewMap(ConcurrentMap<Guid, SPMTask> asyncTaskMap) {
-        // If not the same set tasks to be as asyncTaskMap.
-        tasks = asyncTaskMap;
+    private boolean removeTaskFromMap(SPMTask task) {
+        if (!tasks.remove(task.getVdsmTaskId(), task)) {
+            return false;
+        }
+        removeFromIndexes(task);
+        nextPollTimes.remove(task.getVdsmTaskId());
 
         // Set the indication to true for logging.
         logChangedMap = true;
+        return true;
+    }
 
-        // Log tasks to poll now.
-        log.info("Setting new tasks map. The map contains now {} tasks", tasks.size());
+    private void addToIndexes(SPMTask task) {
+        addToIndex(tasksByStoragePool, task.getStoragePoolID(), task.getVdsmTaskId());
+        addToIndex(tasksByEntity, getEntityId(task), task.getVdsmTaskId());
+    }
+
+    private void removeFromIndexes(SPMTask task) {
+        removeFromIndex(tasksByStoragePool, task.getStoragePoolID(), task.getVdsmTaskId());
+        removeFromIndex(tasksByEntity, getEntityId(task), task.getVdsmTaskId());
     }
 
     public SPMTask createTask(AsyncTaskType taskType, AsyncTaskParameters taskParameters) {
         return coco.construct(taskType, taskParameters, false);
     }
 
-    public synchronized void startPollingTask(Guid vdsmTaskId) {
-        if (tasks.containsKey(vdsmTaskId)) {
-            tasks.get(vdsmTaskId).startPollingTask();
+    public void startPollingTask(Guid vdsmTaskId) {
+        SPMTask task = tasks.get(vdsmTaskId);
+        if (task != null) {
+            task.startPollingTask();
         }
     }
 
-    public synchronized ArrayList<AsyncTaskStatus> pollTasks(ArrayList<Guid> vdsmTaskIdList) {
+    public ArrayList<AsyncTaskStatus> pollTasks(ArrayList<Guid> vdsmTaskIdList) {
         ArrayList<AsyncTaskStatus> returnValue = new ArrayList<>();
 
         if (vdsmTaskIdList != null && vdsmTaskIdList.size() > 0) {
@@ -671,55 +759,55 @@ public final class AsyncTaskManager implements BackendService {
         }
 
         if (currPoolTasks != null && currPoolTasks.size() > 0) {
-            synchronized (this) {
-                final List<SPMTask> newlyAddedTasks = new ArrayList<>();
-
-                for (AsyncTaskCreationInfo creationInfo : currPoolTasks) {
-                    creationInfo.setStoragePoolID(sp.getId());
-                    if (!tasks.containsKey(creationInfo.getVdsmTaskId())) {
-                        try {
-                            SPMTask task;
-                            if (partiallyCompletedCommandTasks.containsKey(creationInfo.getVdsmTaskId())) {
-                                AsyncTask asyncTaskInDb = partiallyCompletedCommandTasks.get(creationInfo.getVdsmTaskId());
-                                task = coco.construct(creationInfo, asyncTaskInDb);
-                                if (task.getEntitiesMap() == null) {
-                                    task.setEntitiesMap(new HashMap<>());
-                                }
-                                partiallyCompletedCommandTasks.remove(task.getVdsmTaskId());
-                                // mark it as a task of a partially completed command
-                                // Will result in failure of the command
-                                task.setPartiallyCompletedCommandTask(true);
-                            } else {
-                                task = asyncTaskFactory.construct(creationInfo);
+            final List<SPMTask> newlyAddedTasks = new ArrayList<>();
+
+            for (AsyncTaskCreationInfo creationInfo : currPoolTasks) {
+                creationInfo.setStoragePoolID(sp.getId());
+                if (!tasks.containsKey(creationInfo.getVdsmTaskId())) {
+                    try {
+                        SPMTask task;
+                        AsyncTask asyncTaskInDb = partiallyCompletedCommandTasks.get(creationInfo.getVdsmTaskId());
+                        if (asyncTaskInDb != null) {
+                            task = coco.construct(creationInfo, asyncTaskInDb);
+                            if (task.getEntitiesMap() == null) {
+                                task.setEntitiesMap(new HashMap<>());
                             }
-                            addTaskToManager(task);
+                            // mark it as a task of a partially completed command
+                            // Will result in failure of the command
+                            task.setPartiallyCompletedCommandTask(true);
+                        } else {
+                            task = asyncTaskFactory.construct(creationInfo);
+                        }
+                        // Another thread may have added the task meanwhile
+                        if (addTaskToManager(task)) {
+                            partiallyCompletedCommandTasks.remove(task.getVdsmTaskId());
                             newlyAddedTasks.add(task);
-                        } catch (Exception e) {
-                            log.error("Failed to load task of type '{}' with id '{}': {}.",
-                                    creationInfo.getTaskType(), creationInfo.getVdsmTaskId(),
-                                    ExceptionUtils.getRootCauseMessage(e));
-                            log.debug("Exception", e);
                         }
+                    } catch (Exception e) {
+                        log.error("Failed to load task of type '{}' with id '{}': {}.",
+                                creationInfo.getTaskType(), creationInfo.getVdsmTaskId(),
+                                ExceptionUtils.getRootCauseMessage(e));
+                        log.debug("Exception", e);
                     }
                 }
+            }
 
-                TransactionSupport.executeInNewTransaction(() -> {
-                    for (SPMTask task : newlyAddedTasks) {
-                        asyncTaskUtils.addOrUpdateTaskInDB(coco, task);
-                    }
-                    return null;
-                });
-
+            TransactionSupport.executeInNewTransaction(() -> {
                 for (SPMTask task : newlyAddedTasks) {
-                    startPollingTask(task.getVdsmTaskId());
+                    asyncTaskUtils.addOrUpdateTaskInDB(coco, task);
                 }
+                return null;
+            });
 
-                log.info(
-                        "Discovered {} tasks on Storage Pool '{}', {} added to manager.",
-                        currPoolTasks.size(),
-                        sp.getName(),
-                        newlyAddedTasks.size());
+            for (SPMTask task : newlyAddedTasks) {
+                startPollingTask(task.getVdsmTaskId());
             }
+
+            log.info(
+                    "Discovered {} tasks on Storage Pool '{}', {} added to manager.",
+                    currPoolTasks.size(),
+                    sp.getName(),
+                    newlyAddedTasks.size());
         } else {
             log.info("Discovered no tasks on Storage Pool '{}'",
                     sp.getName());
@@ -747,34 +835,44 @@ public final class AsyncTaskManager implements BackendService {
      *
      * @param vdsmTaskList - List of tasks to stop.
      */
-    public synchronized void cancelTasks(List<Guid> vdsmTaskList) {
-        for (Guid vdsmTaskId : vdsmTaskList) {
-            cancelTask(vdsmTaskId);
+    public void cancelTasks(List<Guid> vdsmTaskList) {
+        pollingLock.lock();
+        try {
+            for (Guid vdsmTaskId : vdsmTaskList) {
+                cancelTask(vdsmTaskId);
+            }
+        } finally {
+            pollingLock.unlock();
         }
     }
 
-    public synchronized void cancelTask(Guid vdsmTaskId) {
-        if (tasks.containsKey(vdsmTaskId)) {
+    public void cancelTask(Guid vdsmTaskId) {
+        SPMTask task = tasks.get(vdsmTaskId);
+        if (task == null) {
+            return;
+        }
+        pollingLock.lock();
+        try {
             log.info("Attempting to cancel task '{}'.", vdsmTaskId);
-            tasks.get(vdsmTaskId).stopTask();
-            tasks.get(vdsmTaskId).concreteStartPollingTask();
+            task.stopTask();
+            task.concreteStartPollingTask();
+            // Poll the stopped task on the next tick, whatever its age
+            nextPollTimes.remove(vdsmTaskId);
+        } finally {
+            pollingLock.unlock();
         }
     }
 
-    public synchronized boolean entityHasTasks(Guid id) {
-        for (SPMTask task : tasks.values()) {
-            if (isCurrentTaskLookedFor(id, task)) {
-                return true;
-            }
-        }
-        return false;
+    public boolean entityHasTasks(Guid id) {
+        return getEntityTasks(id).findAny().isPresent();
     }
 
     public Collection<Guid> getUserIdsForVdsmTaskIds(List<Guid> vdsmTaskIds) {
         Set<Guid> users = new TreeSet<>();
         for (Guid id : vdsmTaskIds) {
-            if (tasks.containsKey(id)) {
-                users.add(tasks.get(id).getParameters().getDbAsyncTask().getUserId());
+            SPMTask task = tasks.get(id);
+            if (task != null) {
+                users.add(task.getParameters().getDbAsyncTask().getUserId());
             }
         }
         return users;
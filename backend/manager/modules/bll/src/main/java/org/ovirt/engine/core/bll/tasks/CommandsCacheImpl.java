@@ -1,11 +1,17 @@
 package org.ovirt.engine.core.bll.tasks;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -19,34 +25,55 @@ import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.dao.CommandEntityDao;
 import org.ovirt.engine.core.utils.transaction.TransactionSupport;
 
+/**
+ * Keeps all the persisted commands in memory, together with indexes of the commands by their root command and of the
+ * command ids by their associated entities, so that the lookups of child commands and of the commands of an entity do
+ * not hit the database. All the writes go through to the database. The maps are concurrent, so that once the cache
+ * is loaded, neither reads nor writes block each other.
+ */
 @Singleton
 public class CommandsCacheImpl implements CommandsCache {
 
-    private Map<Guid, CommandEntity> commandMap;
+    private final ConcurrentMap<Guid, CommandEntity> commandMap;
+    /** Ids of the commands by the id of their root command, {@link Guid#Empty} for commands without a root **/
+    private final ConcurrentMap<Guid, Set<Guid>> commandIdsByRootId;
+    /** Associated entities by the id of their command **/
+    private final ConcurrentMap<Guid, Set<CommandAssociatedEntity>> associatedEntitiesByCommandId;
+    /** Ids of the commands by the id of their associated entity **/
+    private final ConcurrentMap<Guid, Set<Guid>> commandIdsByEntityId;
     private volatile boolean cacheInitialized;
-    private Object LOCK = new Object();
+    private final Object LOCK = new Object();
 
     @Inject
     private CommandEntityDao commandEntityDao;
 
     public CommandsCacheImpl() {
-        commandMap = new HashMap<>();
+        commandMap = new ConcurrentHashMap<>();
+        commandIdsByRootId = new ConcurrentHashMap<>();
+        associatedEntitiesByCommandId = new ConcurrentHashMap<>();
+        commandIdsByEntityId = new ConcurrentHashMap<>();
     }
 
     private void initializeCache() {
         if (!cacheInitialized) {
             synchronized (LOCK) {
                 if (!cacheInitialized) {
-                    List<CommandEntity> cmdEntities = commandEntityDao.getAll();
-                    for (CommandEntity cmdEntity : cmdEntities) {
-                        commandMap.put(cmdEntity.getId(), cmdEntity);
-                    }
+                    loadCache();
                     cacheInitialized = true;
                 }
             }
         }
     }
 
+    private void loadCache() {
+        for (CommandEntity cmdEntity : commandEntityDao.getAll()) {
+            if (commandMap.putIfAbsent(cmdEntity.getId(), cmdEntity) == null) {
+                addToRootIndex(cmdEntity);
+            }
+        }
+        commandEntityDao.getAllCommandAssociatedEntities().forEach(this::addToEntityIndex);
+    }
+
     @Override
     public Set<Guid> keySet() {
         initializeCache();
@@ -61,21 +88,77 @@ public class CommandsCacheImpl implements CommandsCache {
 
     @Override
     public void remove(final Guid commandId) {
-        commandMap.remove(commandId);
+        removeFromCache(commandId);
         commandEntityDao.remove(commandId);
     }
 
+    private void removeFromCache(Guid commandId) {
+        CommandEntity cmdEntity = commandMap.remove(commandId);
+        if (cmdEntity != null) {
+            removeFromRootIndex(cmdEntity);
+        }
+
+        Set<CommandAssociatedEntity> associatedEntities = associatedEntitiesByCommandId.remove(commandId);
+        if (associatedEntities != null) {
+            associatedEntities.forEach(entity -> removeFromIndex(commandIdsByEntityId, entity.getEntityId(), commandId));
+        }
+    }
+
     @Override
     public void put(final CommandEntity cmdEntity) {
-        commandMap.put(cmdEntity.getId(), cmdEntity);
+        CommandEntity existingCmdEntity = commandMap.put(cmdEntity.getId(), cmdEntity);
+        if (existingCmdEntity != null) {
+            removeFromRootIndex(existingCmdEntity);
+        }
+        addToRootIndex(cmdEntity);
         saveOrUpdateWithoutTransaction(cmdEntity);
     }
 
+    private void addToRootIndex(CommandEntity cmdEntity) {
+        commandIdsByRootId.computeIfAbsent(getRootIndexKey(cmdEntity), id -> ConcurrentHashMap.newKeySet())
+                .add(cmdEntity.getId());
+    }
+
+    private void removeFromRootIndex(CommandEntity cmdEntity) {
+        removeFromIndex(commandIdsByRootId, getRootIndexKey(cmdEntity), cmdEntity.getId());
+    }
+
+    /**
+     * Commands without a root command are persisted with an empty root command id, they are indexed the same way
+     */
+    private static Guid getRootIndexKey(CommandEntity cmdEntity) {
+        return Guid.isNullOrEmpty(cmdEntity.getRootCommandId()) ? Guid.Empty : cmdEntity.getRootCommandId();
+    }
+
+    private void addToEntityIndex(CommandAssociatedEntity entity) {
+        associatedEntitiesByCommandId.computeIfAbsent(entity.getCommandId(), id -> ConcurrentHashMap.newKeySet())
+                .add(entity);
+        commandIdsByEntityId.computeIfAbsent(entity.getEntityId(), id -> ConcurrentHashMap.newKeySet())
+                .add(entity.getCommandId());
+    }
+
+    private static void removeFromIndex(ConcurrentMap<Guid, Set<Guid>> index, Guid key, Guid commandId) {
+        index.computeIfPresent(key, (id, commandIds) -> {
+            commandIds.remove(commandId);
+            return commandIds.isEmpty() ? null : commandIds;
+        });
+    }
+
+    /**
+     * Commands created before the cutoff are dropped from the cache only if they were removed from the database,
+     * commands with async tasks are kept there.
+     */
     @Override
     public void removeAllCommandsBeforeDate(DateTime cutoff) {
         commandEntityDao.removeAllBeforeDate(cutoff);
-        cacheInitialized = false;
         initializeCache();
+        Set<Guid> persistedCommandIds = new HashSet<>(commandEntityDao.getIdsBeforeDate(cutoff));
+        commandMap.values().stream()
+                .filter(cmdEntity -> cmdEntity.getCreatedAt() != null && cmdEntity.getCreatedAt().before(cutoff))
+                .filter(cmdEntity -> !persistedCommandIds.contains(cmdEntity.getId()))
+                .map(CommandEntity::getId)
+                .collect(Collectors.toList())
+                .forEach(this::removeFromCache);
     }
 
     @Override
@@ -131,20 +214,34 @@ public class CommandsCacheImpl implements CommandsCache {
             commandEntityDao.insertCommandAssociatedEntities(cmdAssociatedEntities);
             return null;
         });
+        initializeCache();
+        cmdAssociatedEntities.forEach(this::addToEntityIndex);
     }
 
     @Override
     public List<CommandAssociatedEntity> getCommandAssociatedEntities(Guid cmdId) {
-        return commandEntityDao.getAllCommandAssociatedEntities(cmdId);
+        initializeCache();
+        Set<CommandAssociatedEntity> associatedEntities = associatedEntitiesByCommandId.get(cmdId);
+        return associatedEntities == null ? Collections.emptyList() : new ArrayList<>(associatedEntities);
     }
 
     @Override
     public List<Guid> getCommandIdsByEntityId(Guid entityId) {
-        return commandEntityDao.getCommandIdsByEntity(entityId);
+        initializeCache();
+        Set<Guid> commandIds = commandIdsByEntityId.get(entityId);
+        return commandIds == null ? Collections.emptyList() : new ArrayList<>(commandIds);
     }
 
     @Override
     public List<CommandEntity> getChildCmdsByParentCmdId(Guid cmdId) {
-        return commandEntityDao.getCmdEntitiesByParentCmdId(cmdId);
+        initializeCache();
+        Set<Guid> commandIds = commandIdsByRootId.get(cmdId);
+        if (commandIds == null) {
+            return Collections.emptyList();
+        }
+        return commandIds.stream()
+                .map(commandMap::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
     }
 }
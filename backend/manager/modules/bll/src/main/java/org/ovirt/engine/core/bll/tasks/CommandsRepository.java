@@ -5,12 +5,16 @@ import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -41,6 +45,10 @@ public class CommandsRepository {
 
     private static final Logger log = LoggerFactory.getLogger(CommandsRepository.class);
     private final ConcurrentMap<Guid, CallbackTiming> callbacksTiming;
+    /** The callbacks ordered by the time they are due, so that the poller does not have to walk all of them **/
+    private final ConcurrentSkipListSet<DueCallback> dueCallbacks;
+    /** The clock of the callbacks poller in seconds, advanced only by the poller **/
+    private volatile long callbacksClock;
     private final CommandsCache commandsCache;
     private final CommandContextsCache contextsCache;
     private final ConcurrentHashMap<Guid, List<Guid>> childHierarchy;
@@ -56,6 +64,7 @@ public class CommandsRepository {
         this.contextsCache = contextsCache;
 
         callbacksTiming = new ConcurrentHashMap<>();
+        dueCallbacks = new ConcurrentSkipListSet<>();
         childHierarchy = new ConcurrentHashMap<>();
         subscriptions = new ConcurrentHashMap<>();
         LOCK = new Object();
@@ -110,6 +119,54 @@ public class CommandsRepository {
 
     public void addToCallbackMap(Guid commandId, CallbackTiming callbackTiming) {
         callbacksTiming.put(commandId, callbackTiming);
+        scheduleCallback(commandId, callbackTiming, callbackTiming.getInitialDelay());
+    }
+
+    public void removeFromCallbackMap(Guid commandId) {
+        CallbackTiming callbackTiming = callbacksTiming.remove(commandId);
+        if (callbackTiming != null) {
+            synchronized (callbackTiming) {
+                dueCallbacks.remove(new DueCallback(callbackTiming.getDueTime(), commandId));
+            }
+        }
+    }
+
+    /**
+     * Schedules the callback of the command to be executed after the given delay, replacing its previous schedule
+     *
+     * @param delay
+     *            the delay in seconds, relative to the last poll of the due callbacks
+     */
+    public void scheduleCallback(Guid commandId, CallbackTiming callbackTiming, long delay) {
+        synchronized (callbackTiming) {
+            dueCallbacks.remove(new DueCallback(callbackTiming.getDueTime(), commandId));
+            callbackTiming.setDueTime(callbacksClock + delay);
+            dueCallbacks.add(new DueCallback(callbackTiming.getDueTime(), commandId));
+        }
+    }
+
+    /**
+     * Advances the callbacks clock and removes the callbacks which have become due from the schedule. Their commands
+     * have to be scheduled again by {@link #scheduleCallback(Guid, CallbackTiming, long)} in order to be polled again.
+     * Should only be called by the callbacks poller.
+     *
+     * @param elapsed
+     *            the time in seconds elapsed since the previous poll
+     * @return the ids of the commands whose callbacks are due, in the order they became due
+     */
+    public List<Guid> pollDueCallbacks(long elapsed) {
+        long clock = callbacksClock + elapsed;
+        callbacksClock = clock;
+        NavigableSet<DueCallback> due = dueCallbacks.headSet(new DueCallback(clock + 1, null), false);
+        Set<Guid> dueCommandIds = new LinkedHashSet<>();
+        for (DueCallback dueCallback = due.pollFirst(); dueCallback != null; dueCallback = due.pollFirst()) {
+            // skip the schedules of callbacks which have been replaced in the meantime
+            CallbackTiming callbackTiming = callbacksTiming.get(dueCallback.commandId);
+            if (callbackTiming != null && callbackTiming.getDueTime() == dueCallback.dueTime) {
+                dueCommandIds.add(dueCallback.commandId);
+            }
+        }
+        return new ArrayList<>(dueCommandIds);
     }
 
     public void persistCommand(CommandEntity cmdEntity, CommandContext cmdContext) {
@@ -268,10 +325,6 @@ public class CommandsRepository {
         return Collections.emptyList();
     }
 
-    public ConcurrentMap<Guid, CallbackTiming> getCallbacksTiming() {
-        return callbacksTiming;
-    }
-
     public void persistCommandAssociatedEntities(Collection<CommandAssociatedEntity> cmdAssociatedEntities) {
         commandsCache.persistCommandAssociatedEntities(cmdAssociatedEntities);
     }
@@ -370,4 +423,40 @@ public class CommandsRepository {
             subscriber.cancel();
         }
     }
+
+    private static class DueCallback implements Comparable<DueCallback> {
+
+        private static final Comparator<DueCallback> COMPARATOR = Comparator.<DueCallback>comparingLong(c -> c.dueTime)
+                .thenComparing(c -> c.commandId, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+        private final long dueTime;
+        private final Guid commandId;
+
+        private DueCallback(long dueTime, Guid commandId) {
+            this.dueTime = dueTime;
+            this.commandId = commandId;
+        }
+
+        @Override
+        public int compareTo(DueCallback other) {
+            return COMPARATOR.compare(this, other);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof DueCallback)) {
+                return false;
+            }
+            DueCallback other = (DueCallback) obj;
+            return dueTime == other.dueTime && Objects.equals(commandId, other.commandId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(dueTime, commandId);
+        }
+    }
 }
@@ -25,15 +25,18 @@ public class SPMAsyncTask implements SPMTask {
     private static final Logger log = LoggerFactory.getLogger(SPMAsyncTask.class);
 
     protected final CommandCoordinator coco;
-    private boolean zombieTask;
     private AsyncTaskParameters parameters;
     private Map<Guid, VdcObjectType> entitiesMap;
-    private AsyncTaskState state;
-    private AsyncTaskStatus lastTaskStatus;
     private boolean partiallyCompletedCommandTask;
 
+    // The fields below are changed by the polling of the tasks and read by the lookups of the AsyncTaskManager,
+    // which don't hold its polling lock.
+    private volatile boolean zombieTask;
+    private volatile AsyncTaskState state;
+    private volatile AsyncTaskStatus lastTaskStatus;
+
     // Indicates time in milliseconds when task status recently changed.
-    private long lastAccessToStatusSinceEnd;
+    private volatile long lastAccessToStatusSinceEnd;
 
     public SPMAsyncTask(CommandCoordinator coco, AsyncTaskParameters parameters) {
         this.coco = coco;
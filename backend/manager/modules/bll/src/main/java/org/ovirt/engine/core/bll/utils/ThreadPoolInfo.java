@@ -27,6 +27,8 @@ public class ThreadPoolInfo {
         configMaxThreadAttrNamesMap.put("engine", "ENGINE_THREAD_POOL_MAX_SIZE");
         configMaxThreadAttrNamesMap.put("engineScheduled", "ENGINE_SCHEDULED_THREAD_POOL_SIZE");
         configMaxThreadAttrNamesMap.put("hostUpdatesChecker", "HOST_CHECK_FOR_UPDATES_THREAD_POOL_SIZE");
+        configMaxThreadAttrNamesMap.put("hostMonitoring", "HOST_MONITORING_THREAD_POOL_SIZE");
+        configMaxThreadAttrNamesMap.put("scheduling", "SCHEDULING_THREAD_POOL_SIZE");
     }
 
     public ThreadPoolInfo(String poolName) {
@@ -22,6 +22,8 @@ public class EngineThreadPools implements BackendService {
 
     public static final String COMMAND_COORDINATOR_POOL_NAME = "java:jboss/ee/concurrency/executor/commandCoordinator";
     public static final String HOST_UPDATES_CHECKER_POOL_NAME = "java:jboss/ee/concurrency/executor/hostUpdatesChecker";
+    public static final String HOST_MONITORING_POOL_NAME = "java:jboss/ee/concurrency/executor/hostMonitoring";
+    public static final String SCHEDULING_POOL_NAME = "java:jboss/ee/concurrency/executor/scheduling";
     public static final String ENGINE_SCHEDULED_POOL_NAME =
             "java:jboss/ee/concurrency/scheduler/engineScheduledThreadPool";
     public static final String ENGINE_THREAD_MONITORING_POOL_NAME =
@@ -34,6 +36,12 @@ public class EngineThreadPools implements BackendService {
     @Resource(lookup = EngineThreadPools.HOST_UPDATES_CHECKER_POOL_NAME)
     private ManagedExecutorService hostUpdatesCheckerPool;
 
+    @Resource(lookup = EngineThreadPools.HOST_MONITORING_POOL_NAME)
+    private ManagedExecutorService hostMonitoringPool;
+
+    @Resource(lookup = EngineThreadPools.SCHEDULING_POOL_NAME)
+    private ManagedExecutorService schedulingPool;
+
     @Resource(lookup = EngineThreadPools.ENGINE_SCHEDULED_POOL_NAME)
     private ManagedScheduledExecutorService engineScheduledThreadPool;
 
@@ -67,6 +75,18 @@ public class EngineThreadPools implements BackendService {
         return hostUpdatesCheckerPool;
     }
 
+    @Produces
+    @ThreadPools(ThreadPools.ThreadPoolType.HostMonitoring)
+    public ManagedExecutorService hostMonitoringPoolProducer() {
+        return hostMonitoringPool;
+    }
+
+    @Produces
+    @ThreadPools(ThreadPools.ThreadPoolType.Scheduling)
+    public ManagedExecutorService schedulingPoolProducer() {
+        return schedulingPool;
+    }
+
     @Produces
     @ThreadPools(ThreadPools.ThreadPoolType.EngineScheduledThreadPool)
     public ManagedScheduledExecutorService engineScheduledThreadPoolProducer() {
@@ -30,6 +30,7 @@ import org.ovirt.engine.core.dao.ClusterDao;
 import org.ovirt.engine.core.dao.DiskDao;
 import org.ovirt.engine.core.dao.DiskVmElementDao;
 import org.ovirt.engine.core.dao.network.VmNetworkInterfaceDao;
+import org.ovirt.engine.core.utils.ovf.xml.StaxXmlDocument;
 import org.ovirt.engine.core.utils.ovf.xml.XmlDocument;
 import org.ovirt.engine.core.vdsbroker.builder.vminfo.LibvirtVmXmlBuilder;
 import org.ovirt.engine.core.vdsbroker.builder.vminfo.VmInfoBuildUtils;
@@ -101,7 +102,7 @@ public class OvfManager {
             throws OvfReaderException {
         OvfReader ovf = null;
         try {
-            ovf = new OvfVmReader(new XmlDocument(ovfstring), vm, fullEntityOvfData, getOsRepository());
+            ovf = new OvfVmReader(new StaxXmlDocument(ovfstring), vm, fullEntityOvfData, getOsRepository());
             ovf.build();
             initIcons(vm.getStaticData());
         } catch (Exception ex) {
@@ -135,7 +136,7 @@ public class OvfManager {
             throws OvfReaderException {
         OvfReader ovf = null;
         try {
-            ovf = new OvfTemplateReader(new XmlDocument(ovfstring), fullEntityOvfData, getOsRepository());
+            ovf = new OvfTemplateReader(new StaxXmlDocument(ovfstring), fullEntityOvfData, getOsRepository());
             ovf.build();
             initIcons(fullEntityOvfData.getVmBase());
         } catch (Exception ex) {
@@ -30,6 +30,7 @@ import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import org.mockito.verification.VerificationMode;
+import org.ovirt.engine.core.bll.scheduling.ClusterStateSnapshot;
 import org.ovirt.engine.core.bll.utils.ClusterUtils;
 import org.ovirt.engine.core.bll.utils.GlusterUtil;
 import org.ovirt.engine.core.common.AuditLogType;
@@ -127,6 +128,9 @@ public class RemoveVdsCommandTest extends BaseCommandTest {
     @Mock
     private TagDao tagDao;
 
+    @Mock
+    private ClusterStateSnapshot clusterStateSnapshot;
+
     /**
      * The command under test.
      */
@@ -0,0 +1,64 @@
+package org.ovirt.engine.core.bll;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.aaa.QueryData;
+
+public class SearchQueryCacheTest {
+
+    private SearchQueryCache cache;
+
+    @BeforeEach
+    public void setUp() {
+        cache = new SearchQueryCache();
+    }
+
+    @Test
+    public void testHitsAndMisses() {
+        SearchQueryTemplate template = template("SELECT * FROM vms");
+        assertNull(cache.get("Vms:"));
+        cache.put("Vms:", template);
+
+        assertSame(template, cache.get("Vms:"));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(0.5, cache.getHitRate());
+    }
+
+    @Test
+    public void testFailedSearchKept() {
+        cache.put("Vms: name =", null);
+
+        assertTrue(cache.contains("Vms: name ="));
+        assertNull(cache.get("Vms: name ="));
+        assertEquals(0, cache.getHitCount());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEvicted() {
+        cache.configure(10);
+        for (int i = 0; i < 10; i++) {
+            cache.put("Vms: name = vm" + i, template("SELECT * FROM vms"));
+        }
+        cache.get("Vms: name = vm0");
+        cache.put("Vms: name = vm10", template("SELECT * FROM vms"));
+
+        assertEquals(9, cache.getSize());
+        assertEquals(2, cache.getEvictionCount());
+        assertNotNull(cache.get("Vms: name = vm0"));
+        assertFalse(cache.contains("Vms: name = vm1"));
+        assertFalse(cache.contains("Vms: name = vm2"));
+        assertTrue(cache.contains("Vms: name = vm10"));
+    }
+
+    private static SearchQueryTemplate template(String query) {
+        return SearchQueryTemplate.parameterize(new QueryData(query, 0, null, null));
+    }
+}
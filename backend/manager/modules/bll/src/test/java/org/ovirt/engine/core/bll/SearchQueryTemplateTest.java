@@ -0,0 +1,68 @@
+package org.ovirt.engine.core.bll;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.aaa.QueryData;
+
+public class SearchQueryTemplateTest {
+
+    @Test
+    public void testComparedValuesParameterized() {
+        SearchQueryTemplate template = parameterize(
+                "SELECT * FROM vms WHERE vms.vm_name ILIKE '%web%' AND (vms.status IS NULL OR vms.status != '1')");
+
+        assertEquals("SELECT * FROM vms WHERE vms.vm_name ILIKE ? AND (vms.status IS NULL OR vms.status != ?)",
+                template.getSql());
+        assertArrayEquals(new Object[] { "%web%", "1" }, template.getParameters());
+    }
+
+    @Test
+    public void testSameTemplateForDifferentValues() {
+        SearchQueryTemplate first = parameterize("SELECT * FROM vds WHERE vds.vds_name = 'host1'");
+        SearchQueryTemplate second = parameterize("SELECT * FROM vds WHERE vds.vds_name = 'host2'");
+
+        assertEquals(first.getSql(), second.getSql());
+    }
+
+    @Test
+    public void testBetweenBoundsParameterized() {
+        SearchQueryTemplate template = parameterize(
+                "SELECT * FROM audit_log WHERE audit_log.log_time between 'Jan 1, 2020' and 'Jan 2, 2020'");
+
+        assertEquals("SELECT * FROM audit_log WHERE audit_log.log_time between ? and ?", template.getSql());
+        assertArrayEquals(new Object[] { "Jan 1, 2020", "Jan 2, 2020" }, template.getParameters());
+    }
+
+    @Test
+    public void testOtherLiteralsKeptInline() {
+        String query = "SELECT * FROM vms WHERE vms.vm_guid IN ('a', 'b') AND 'x' LIKE ANY(string_to_array(vms.tags, ','))"
+                + " AND vms.vm_name = E'y'";
+        SearchQueryTemplate template = parameterize(query);
+
+        assertEquals(query, template.getSql());
+        assertEquals(0, template.getParameters().length);
+    }
+
+    @Test
+    public void testEscapedQuoteUnescaped() {
+        SearchQueryTemplate template = parameterize("SELECT * FROM vms WHERE vms.description = 'it''s'");
+
+        assertEquals("SELECT * FROM vms WHERE vms.description = ?", template.getSql());
+        assertArrayEquals(new Object[] { "it's" }, template.getParameters());
+    }
+
+    @Test
+    public void testQueryWithPlaceholderKeptInline() {
+        String query = "SELECT * FROM vms WHERE vms.vm_name = 'a?'";
+        SearchQueryTemplate template = parameterize(query);
+
+        assertEquals(query, template.getSql());
+        assertEquals(0, template.getParameters().length);
+    }
+
+    private static SearchQueryTemplate parameterize(String query) {
+        return SearchQueryTemplate.parameterize(new QueryData(query, 0, null, null));
+    }
+}
@@ -0,0 +1,85 @@
+package org.ovirt.engine.core.bll.eventqueue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.common.eventqueue.Event;
+import org.ovirt.engine.core.common.eventqueue.EventResult;
+import org.ovirt.engine.core.common.eventqueue.EventType;
+import org.ovirt.engine.core.compat.Guid;
+
+public class EventQueueMonitorTest {
+
+    private final Guid storagePoolId = Guid.newGuid();
+    private final Guid vdsId = Guid.newGuid();
+    private final List<Runnable> processors = new ArrayList<>();
+    private final List<String> processed = new ArrayList<>();
+    private EventQueueMonitor eventQueue;
+
+    @BeforeEach
+    public void setUp() {
+        eventQueue = spy(new EventQueueMonitor());
+        doAnswer(invocation -> processors.add(invocation.getArgument(0))).when(eventQueue).execute(any());
+    }
+
+    @Test
+    public void testEventsProcessedByPriority() {
+        submit(EventType.DOMAINMONITORING, "monitoring");
+        submit(EventType.POOLREFRESH, "refresh");
+        submit(EventType.RECOVERY, "recovery");
+        processEvents();
+
+        assertEquals(1, processors.size());
+        assertEquals(List.of("recovery", "monitoring", "refresh"), processed);
+    }
+
+    @Test
+    public void testIdenticalMonitoringEventsCoalesced() {
+        submit(EventType.DOMAINMONITORING, "first");
+        submit(EventType.DOMAINMONITORING, "latest");
+        processEvents();
+
+        assertEquals(List.of("latest"), processed);
+    }
+
+    @Test
+    public void testReconstructCancelsPendingEvents() {
+        submit(EventType.POOLREFRESH, "refresh");
+        submit(EventType.RECONSTRUCT, "reconstruct");
+        submit(EventType.RECONSTRUCT, "coalesced reconstruct");
+        submit(EventType.DOMAINMONITORING, "monitoring");
+        submit(EventType.VDSCONNECTTOPOOL, "connect");
+        processEvents();
+
+        assertEquals(List.of("reconstruct", "connect"), processed);
+    }
+
+    @Test
+    public void testEventsSkippedDuringReconstruct() {
+        submit(EventType.RECONSTRUCT, "reconstruct");
+        submit(EventType.DOMAINMONITORING, "monitoring");
+        submit(EventType.POOLREFRESH, "refresh");
+        submit(EventType.VDSCONNECTTOPOOL, "connect");
+        processEvents();
+
+        assertEquals(List.of("reconstruct", "connect"), processed);
+    }
+
+    private void submit(EventType eventType, String name) {
+        eventQueue.submitEventAsync(new Event(storagePoolId, null, vdsId, eventType, name), () -> {
+            processed.add(name);
+            return new EventResult(true, eventType);
+        });
+    }
+
+    private void processEvents() {
+        processors.forEach(Runnable::run);
+    }
+}
@@ -5,7 +5,9 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -175,6 +177,75 @@ public class InMemoryLockManagerTest {
         assertEquals(0, lockManager.showAllLocks().size());
     }
 
+    @Test
+    public void testAcquireLockWaitWokenByReleaseOfSameKey() throws InterruptedException {
+        assertTrue(lockManager.acquireLock(lockLock1).isAcquired());
+        assertTrue(lockManager.acquireLock(lockLock2).isAcquired());
+        Thread releaser = new Thread(() -> {
+            sleep(500L);
+            lockManager.releaseLock(lockLock2);
+            sleep(500L);
+            lockManager.releaseLock(lockLock1);
+        });
+        releaser.start();
+        long before = System.currentTimeMillis();
+        assertTrue(lockManager.acquireLockWait(failLockLock, 5000L).isAcquired());
+        long after = System.currentTimeMillis();
+        assertTrue(after - before >= 900L && after - before < 5000L);
+        releaser.join();
+        assertEquals(1, lockManager.showAllLocks().size());
+        lockManager.releaseLock(failLockLock);
+        assertTrue(lockManager.showAllLocks().isEmpty());
+    }
+
+    @Test
+    public void testAcquireManyKeys() {
+        List<EngineLock> engineLocks = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            Map<String, Pair<String, String>> exclusiveLocks = new HashMap<>();
+            exclusiveLocks.put(Guid.newGuid().toString(), new Pair<>("1", ERROR1));
+            exclusiveLocks.put(Guid.newGuid().toString(), new Pair<>("2", ERROR2));
+            EngineLock engineLock = new EngineLock(exclusiveLocks, null);
+            assertTrue(lockManager.acquireLock(engineLock).isAcquired());
+            assertFalse(lockManager.acquireLock(engineLock).isAcquired());
+            engineLocks.add(engineLock);
+        }
+        assertEquals(1000, lockManager.showAllLocks().size());
+        engineLocks.forEach(lockManager::releaseLock);
+        assertTrue(lockManager.showAllLocks().isEmpty());
+    }
+
+    @Test
+    public void testStatistics() {
+        assertTrue(lockManager.acquireLock(lockLock1).isAcquired());
+        assertFalse(lockManager.acquireLock(failLockLock).isAcquired());
+        lockManager.releaseLock(lockLock1);
+        assertTrue(lockManager.acquireLock(lockLock2).isAcquired());
+        lockManager.releaseLock(lockLock2);
+
+        List<String> statistics = lockManager.showLockingGroupStatistics();
+        assertEquals(2, statistics.size());
+        assertTrue(statistics.get(0).startsWith("The locking group is : 1 attempts=2, failures=1"));
+        assertTrue(statistics.get(1).startsWith("The locking group is : 2 attempts=1, failures=0"));
+        assertEquals(List.of("1:" + updateGuid + "=1"), lockManager.showHotKeys());
+
+        lockManager.resetStatistics();
+        assertTrue(lockManager.showHotKeys().isEmpty());
+        assertTrue(lockManager.showLockingGroupStatistics().get(0).contains("attempts=0, failures=0"));
+    }
+
+    @Test
+    public void testStatisticsCountRetriedWaitOnce() {
+        assertTrue(lockManager.acquireLock(lockLock1).isAcquired());
+        assertFalse(lockManager.acquireLockWait(failLockLock, 100L).isAcquired());
+        lockManager.releaseLock(lockLock1);
+
+        // the wait tried to acquire the lock twice, before and after waiting, but was a single failed attempt
+        assertTrue(lockManager.showLockingGroupStatistics().get(0)
+                .startsWith("The locking group is : 1 attempts=2, failures=1"));
+        assertEquals(List.of("1:" + updateGuid + "=1"), lockManager.showHotKeys());
+    }
+
     @Test
     public void testAcquireLockNegativeTimeout() {
         assertThrows(IllegalArgumentException.class, () -> lockManager.acquireLockWait(lockLock1, -1000L));
@@ -208,8 +279,12 @@ public class InMemoryLockManagerTest {
     }
 
     private void sleep() {
+        sleep(2000L);
+    }
+
+    private void sleep(long millis) {
         try {
-            Thread.sleep(2000L);
+            Thread.sleep(millis);
         } catch (InterruptedException e) {
             e.printStackTrace();
         }
@@ -1,5 +1,6 @@
 package org.ovirt.engine.core.bll.quota;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
@@ -13,6 +14,9 @@ import static org.mockito.Mockito.when;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -416,6 +420,33 @@ public class QuotaManagerTest {
         verify(quotaDao, times(1)).getById(quota2.getId());
     }
 
+    @Test
+    public void testConcurrentConsume() throws Exception {
+        quota.setGlobalQuotaStorage(getQuotaStorage(1000, 0));
+        int threads = 8;
+        int consumptionsPerThread = 50;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < consumptionsPerThread; j++) {
+                        assertTrue(consumeForStorageQuota(1d));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(threads * consumptionsPerThread, quota.getGlobalQuotaStorage().getStorageSizeGBUsage(), 0.001);
+        assertEmptyValidateMessage();
+    }
+
     @Test
     public void testUseDefaultQuotaStorage() {
         assertTrue(quotaManager.consume(command,
@@ -0,0 +1,135 @@
+package org.ovirt.engine.core.bll.scheduling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.ovirt.engine.core.common.businessentities.HugePage;
+import org.ovirt.engine.core.common.businessentities.NumaNodeStatistics;
+import org.ovirt.engine.core.common.businessentities.VDS;
+import org.ovirt.engine.core.common.businessentities.VdsNumaNode;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dao.VdsNumaNodeDao;
+
+@ExtendWith(MockitoExtension.class)
+public class ClusterStateSnapshotTest {
+
+    @Mock
+    private VdsNumaNodeDao vdsNumaNodeDao;
+
+    @InjectMocks
+    private ClusterStateSnapshot snapshot;
+
+    private VDS host;
+
+    @BeforeEach
+    public void setUp() {
+        host = new VDS();
+        host.setId(Guid.newGuid());
+        host.setClusterId(Guid.newGuid());
+        when(vdsNumaNodeDao.getAllVdsNumaNodeByVdsId(host.getId()))
+                .thenReturn(Arrays.asList(createNode(0, 1024), createNode(1, 2048)));
+    }
+
+    @Test
+    public void testNumaNodesLoadedOnce() {
+        snapshot.getNumaNodes(host);
+        List<VdsNumaNode> nodes = snapshot.getNumaNodes(host);
+
+        verify(vdsNumaNodeDao, times(1)).getAllVdsNumaNodeByVdsId(host.getId());
+        assertEquals(2, nodes.size());
+        assertEquals(1024, nodes.get(0).getNumaNodeStatistics().getMemFree());
+        assertEquals(2048, nodes.get(1).getNumaNodeStatistics().getMemFree());
+    }
+
+    @Test
+    public void testReturnedNodesAreCopies() {
+        List<VdsNumaNode> nodes = snapshot.getNumaNodes(host);
+        nodes.get(0).getNumaNodeStatistics().setMemFree(0);
+        nodes.get(0).getNumaNodeStatistics().getHugePages().get(0).setFree(0);
+
+        VdsNumaNode node = snapshot.getNumaNodes(host).get(0);
+        assertEquals(1024, node.getNumaNodeStatistics().getMemFree());
+        assertEquals(10, node.getNumaNodeStatistics().getHugePages().get(0).getFree());
+    }
+
+    @Test
+    public void testMonitoringUpdatesStatistics() {
+        snapshot.getNumaNodes(host);
+
+        host.setNumaNodeList(Arrays.asList(createNode(0, 512), createNode(1, 256)));
+        snapshot.updateHost(host);
+
+        List<VdsNumaNode> nodes = snapshot.getNumaNodes(host);
+        verify(vdsNumaNodeDao, times(1)).getAllVdsNumaNodeByVdsId(host.getId());
+        assertEquals(512, nodes.get(0).getNumaNodeStatistics().getMemFree());
+        assertEquals(256, nodes.get(1).getNumaNodeStatistics().getMemFree());
+    }
+
+    @Test
+    public void testChangedTopologyReloaded() {
+        snapshot.getNumaNodes(host);
+
+        host.setNumaNodeList(Collections.singletonList(createNode(0, 512)));
+        snapshot.updateHost(host);
+        snapshot.getNumaNodes(host);
+
+        verify(vdsNumaNodeDao, times(2)).getAllVdsNumaNodeByVdsId(host.getId());
+    }
+
+    @Test
+    public void testHostWithoutReportedNodesKeepsStatistics() {
+        snapshot.getNumaNodes(host);
+
+        host.setNumaNodeList(Collections.emptyList());
+        snapshot.updateHost(host);
+        List<VdsNumaNode> nodes = snapshot.getNumaNodes(host);
+
+        verify(vdsNumaNodeDao, times(1)).getAllVdsNumaNodeByVdsId(host.getId());
+        assertEquals(1024, nodes.get(0).getNumaNodeStatistics().getMemFree());
+    }
+
+    @Test
+    public void testChangedClusterReloaded() {
+        snapshot.getNumaNodes(host);
+
+        host.setClusterId(Guid.newGuid());
+        snapshot.getNumaNodes(host);
+
+        verify(vdsNumaNodeDao, times(2)).getAllVdsNumaNodeByVdsId(host.getId());
+    }
+
+    @Test
+    public void testInvalidatedHostReloaded() {
+        snapshot.getNumaNodes(host);
+
+        snapshot.invalidateHost(host.getId());
+        snapshot.getNumaNodes(host);
+
+        verify(vdsNumaNodeDao, times(2)).getAllVdsNumaNodeByVdsId(host.getId());
+    }
+
+    private static VdsNumaNode createNode(int index, long memFree) {
+        NumaNodeStatistics statistics = new NumaNodeStatistics();
+        statistics.setMemFree(memFree);
+        statistics.setHugePages(Collections.singletonList(new HugePage(2048, 10, 10)));
+
+        VdsNumaNode node = new VdsNumaNode();
+        node.setIndex(index);
+        node.setMemTotal(4096);
+        node.setCpuIds(Arrays.asList(index * 2, index * 2 + 1));
+        node.setNumaNodeStatistics(statistics);
+        return node;
+    }
+}
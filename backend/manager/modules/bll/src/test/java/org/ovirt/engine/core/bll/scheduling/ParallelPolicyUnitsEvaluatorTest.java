@@ -0,0 +1,183 @@
+package org.ovirt.engine.core.bll.scheduling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.common.businessentities.Cluster;
+import org.ovirt.engine.core.common.businessentities.VDS;
+import org.ovirt.engine.core.common.businessentities.VM;
+import org.ovirt.engine.core.common.scheduling.PerHostMessages;
+import org.ovirt.engine.core.common.scheduling.PolicyUnit;
+import org.ovirt.engine.core.common.utils.Pair;
+import org.ovirt.engine.core.compat.Guid;
+
+public class ParallelPolicyUnitsEvaluatorTest {
+
+    private static final int PARALLELISM = 4;
+
+    private ExecutorService executor;
+    private ParallelPolicyUnitsEvaluator evaluator;
+    private SchedulingContext context;
+    private List<VDS> hosts;
+    private List<VM> vmGroup;
+
+    @BeforeEach
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(PARALLELISM);
+        evaluator = new ParallelPolicyUnitsEvaluator(executor, PARALLELISM);
+        context = new SchedulingContext(new Cluster(), Collections.emptyMap());
+        hosts = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            VDS host = new VDS();
+            host.setId(Guid.newGuid());
+            host.setVdsName("host" + i);
+            host.setVmCount(i);
+            hosts.add(host);
+        }
+        vmGroup = Collections.singletonList(new VM());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testPartition() {
+        List<List<VDS>> partitions = evaluator.partition(hosts);
+
+        assertEquals(PARALLELISM, partitions.size());
+        assertEquals(hosts, partitions.stream().flatMap(List::stream).collect(Collectors.toList()));
+        assertEquals(1, evaluator.partition(hosts.subList(0, ParallelPolicyUnitsEvaluator.MIN_HOSTS_PER_PARTITION)).size());
+        assertEquals(2, evaluator.partition(hosts.subList(0, ParallelPolicyUnitsEvaluator.MIN_HOSTS_PER_PARTITION + 1)).size());
+    }
+
+    @Test
+    public void testFilterSameAsSequential() {
+        PolicyUnitImpl even = new TestFilter(host -> host.getVmCount() % 2 == 0);
+        PolicyUnitImpl notDivisibleByThree = new TestFilter(host -> host.getVmCount() % 3 != 0);
+        List<PolicyUnitImpl> filters = Arrays.asList(even, notDivisibleByThree);
+
+        List<PolicyUnitImpl> notifiedFilters = new ArrayList<>();
+        List<Integer> filteredOutCounts = new ArrayList<>();
+        PerHostMessages messages = new PerHostMessages();
+        List<VDS> result = evaluator.filter(filters, context, hosts, vmGroup, messages, (filter, before, after) -> {
+            notifiedFilters.add(filter);
+            filteredOutCounts.add(before.size() - after.size());
+        });
+
+        List<VDS> expected = hosts.stream()
+                .filter(host -> host.getVmCount() % 2 == 0 && host.getVmCount() % 3 != 0)
+                .collect(Collectors.toList());
+        assertEquals(expected, result);
+        assertEquals(filters, notifiedFilters);
+        assertEquals(Arrays.asList(100, 34), filteredOutCounts);
+        assertEquals(134, messages.getMessages().size());
+        assertEquals(Collections.singletonList("filtered"), messages.getMessages(hosts.get(1).getId()));
+    }
+
+    @Test
+    public void testFilterWithoutExecutor() {
+        evaluator = new ParallelPolicyUnitsEvaluator(null, PARALLELISM);
+        List<VDS> result = evaluator.filter(Collections.singletonList(new TestFilter(host -> host.getVmCount() < 10)),
+                context,
+                hosts,
+                vmGroup,
+                new PerHostMessages(),
+                (filter, before, after) -> {});
+
+        assertEquals(hosts.subList(0, 10), result);
+    }
+
+    @Test
+    public void testFilterFailure() {
+        PolicyUnitImpl failing = new TestFilter(host -> {
+            throw new IllegalArgumentException("failed");
+        });
+
+        assertThrows(IllegalArgumentException.class,
+                () -> evaluator.filter(Collections.singletonList(failing),
+                        context,
+                        hosts,
+                        vmGroup,
+                        new PerHostMessages(),
+                        (filter, before, after) -> {}));
+    }
+
+    @Test
+    public void testScoresInOrderOfFunctions() {
+        List<PolicyUnitImpl> functions = Arrays.asList(new TestFunction(1), new TestFunction(2), new TestFunction(3));
+
+        List<List<Pair<Guid, Integer>>> scores = evaluator.score(functions, context, hosts, vmGroup);
+
+        assertEquals(3, scores.size());
+        for (int i = 0; i < scores.size(); i++) {
+            assertEquals(hosts.size(), scores.get(i).size());
+            assertSame(hosts.get(0).getId(), scores.get(i).get(0).getFirst());
+            assertEquals(i + 1, scores.get(i).get(0).getSecond().intValue());
+        }
+    }
+
+    private static PolicyUnit createPolicyUnit() {
+        PolicyUnit policyUnit = new PolicyUnit();
+        policyUnit.setId(Guid.newGuid());
+        policyUnit.setInternal(true);
+        return policyUnit;
+    }
+
+    private static class TestFilter extends PolicyUnitImpl {
+
+        private final Predicate<VDS> predicate;
+
+        public TestFilter(Predicate<VDS> predicate) {
+            super(createPolicyUnit(), null);
+            this.predicate = predicate;
+        }
+
+        @Override
+        public boolean canFilterHostsIndependently() {
+            return true;
+        }
+
+        @Override
+        public List<VDS> filter(SchedulingContext context, List<VDS> hosts, VM vm, PerHostMessages messages) {
+            List<VDS> result = new ArrayList<>();
+            for (VDS host : hosts) {
+                if (predicate.test(host)) {
+                    result.add(host);
+                } else {
+                    messages.addMessage(host.getId(), "filtered");
+                }
+            }
+            return result;
+        }
+    }
+
+    private static class TestFunction extends PolicyUnitImpl {
+
+        private final int score;
+
+        public TestFunction(int score) {
+            super(createPolicyUnit(), null);
+            this.score = score;
+        }
+
+        @Override
+        public List<Pair<Guid, Integer>> score(SchedulingContext context, List<VDS> hosts, List<VM> vmGroup) {
+            return hosts.stream().map(host -> new Pair<>(host.getId(), score)).collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package org.ovirt.engine.core.bll.scheduling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.ovirt.engine.core.bll.scheduling.pending.PendingResourceManager;
+import org.ovirt.engine.core.common.businessentities.Cluster;
+import org.ovirt.engine.core.common.businessentities.VDSStatus;
+import org.ovirt.engine.core.common.businessentities.VM;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dao.VdsDao;
+import org.ovirt.engine.core.utils.MockConfigDescriptor;
+import org.ovirt.engine.core.utils.MockConfigExtension;
+
+@ExtendWith({ MockConfigExtension.class, MockitoExtension.class })
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class SchedulingManagerTest {
+
+    @Mock
+    private VdsDao vdsDao;
+    @Mock
+    private ClusterStateSnapshot clusterStateSnapshot;
+    @Mock
+    private PendingResourceManager pendingResourceManager;
+
+    @Spy
+    @InjectMocks
+    private SchedulingManager schedulingManager;
+
+    private Cluster cluster;
+
+    public static Stream<MockConfigDescriptor<?>> mockConfiguration() {
+        return Stream.of(
+                MockConfigDescriptor.of(ConfigValues.VcpuConsumptionPercentage, 80),
+                MockConfigDescriptor.of(ConfigValues.SpeedOptimizationSchedulingThreshold, 10)
+        );
+    }
+
+    @BeforeEach
+    public void setUp() {
+        cluster = new Cluster();
+        cluster.setId(Guid.newGuid());
+        cluster.setClusterPolicyId(Guid.newGuid());
+    }
+
+    @Test
+    public void testPollBatchTakesCompatibleRequestsBiggestFirst() {
+        SchedulingRequest request = createRequest(1024, false);
+        SchedulingRequest bigger = createRequest(4096, false);
+        SchedulingRequest stateless = createRequest(2048, true);
+        Queue<SchedulingRequest> pendingRequests = new ConcurrentLinkedQueue<>(Arrays.asList(stateless, bigger));
+
+        List<SchedulingRequest> batch = schedulingManager.pollBatch(request, pendingRequests);
+
+        assertEquals(Arrays.asList(bigger, request), batch);
+        assertEquals(Collections.singletonList(stateless), new ArrayList<>(pendingRequests));
+    }
+
+    @Test
+    public void testFailedRequestDoesNotFailBatch() {
+        SchedulingRequest first = createRequest(4096, false);
+        SchedulingRequest failing = createRequest(2048, false);
+        SchedulingRequest last = createRequest(1024, false);
+        Map<Guid, Guid> assignment = Collections.singletonMap(Guid.newGuid(), Guid.newGuid());
+        doAnswer(invocation -> {
+            invocation.<SchedulingRequest> getArgument(1).complete(assignment);
+            return null;
+        }).when(schedulingManager).placeRequest(any(), any());
+        IllegalStateException failure = new IllegalStateException();
+        doThrow(failure).when(schedulingManager).placeRequest(any(), eq(failing));
+
+        schedulingManager.placeBatch(cluster, Arrays.asList(first, failing, last));
+
+        assertSame(assignment, first.await());
+        assertSame(assignment, last.await());
+        assertSame(failure, assertThrows(IllegalStateException.class, failing::await));
+        // the resources taken by the failed request are released, the placed requests keep theirs
+        verify(pendingResourceManager).clearVm(failing.getVms().get(0).getStaticData());
+        verify(pendingResourceManager, never()).clearVm(first.getVms().get(0).getStaticData());
+    }
+
+    @Test
+    public void testErrorFailsUnplacedRequestsOfBatch() {
+        SchedulingRequest failing = createRequest(2048, false);
+        SchedulingRequest last = createRequest(1024, false);
+        Error error = new Error("placement failed");
+        doThrow(error).when(schedulingManager).placeRequest(any(), eq(failing));
+
+        assertSame(error, assertThrows(Error.class,
+                () -> schedulingManager.placeBatch(cluster, Arrays.asList(failing, last))));
+
+        // the owners of the requests are not left waiting
+        assertSame(error, assertThrows(Error.class, failing::await));
+        assertSame(error, assertThrows(Error.class, last::await));
+        verify(schedulingManager, never()).placeRequest(any(), eq(last));
+        verify(pendingResourceManager).clearVm(failing.getVms().get(0).getStaticData());
+        verify(pendingResourceManager).clearVm(last.getVms().get(0).getStaticData());
+    }
+
+    @Test
+    public void testBatchFailsWhenHostsCannotBeLoaded() {
+        SchedulingRequest first = createRequest(2048, false);
+        SchedulingRequest second = createRequest(1024, false);
+        when(vdsDao.getAllForClusterWithStatus(cluster.getId(), VDSStatus.Up)).thenThrow(new IllegalStateException());
+
+        assertThrows(IllegalStateException.class,
+                () -> schedulingManager.placeBatch(cluster, Arrays.asList(first, second)));
+
+        assertTrue(first.isDone());
+        assertThrows(IllegalStateException.class, second::await);
+        verify(schedulingManager, never()).placeRequest(any(), any());
+    }
+
+    private static SchedulingRequest createRequest(int memSizeMb, boolean stateless) {
+        VM vm = new VM();
+        vm.setId(Guid.newGuid());
+        vm.setVmMemSizeMb(memSizeMb);
+        return new SchedulingRequest(Collections.singletonList(vm),
+                Collections.emptyList(),
+                Collections.emptyList(),
+                Collections.emptyList(),
+                false,
+                false,
+                stateless,
+                false,
+                new ArrayList<>(),
+                null);
+    }
+}
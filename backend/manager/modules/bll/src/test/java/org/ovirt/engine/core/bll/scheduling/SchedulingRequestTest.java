@@ -0,0 +1,91 @@
+package org.ovirt.engine.core.bll.scheduling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.common.businessentities.VM;
+import org.ovirt.engine.core.compat.Guid;
+
+public class SchedulingRequestTest {
+
+    @Test
+    public void testCanBatchWithSameParameters() {
+        Guid host = Guid.newGuid();
+        SchedulingRequest request = createRequest(Collections.singletonList(host), false, 1024);
+        SchedulingRequest other = createRequest(new ArrayList<>(Collections.singletonList(host)), false, 2048);
+
+        assertTrue(request.canBatchWith(other));
+    }
+
+    @Test
+    public void testCannotBatchWithDifferentParameters() {
+        SchedulingRequest request = createRequest(Collections.emptyList(), false, 1024);
+
+        assertFalse(request.canBatchWith(createRequest(Collections.singletonList(Guid.newGuid()), false, 1024)));
+        assertFalse(request.canBatchWith(createRequest(Collections.emptyList(), true, 1024)));
+    }
+
+    @Test
+    public void testMemSize() {
+        SchedulingRequest request = new SchedulingRequest(Arrays.asList(createVm(1024), createVm(512)),
+                Collections.emptyList(),
+                Collections.emptyList(),
+                Collections.emptyList(),
+                false,
+                false,
+                false,
+                false,
+                new ArrayList<>(),
+                null);
+
+        assertEquals(1536, request.getMemSizeMb());
+    }
+
+    @Test
+    public void testAwaitCompleted() {
+        SchedulingRequest request = createRequest(Collections.emptyList(), false, 1024);
+        Map<Guid, Guid> assignment = Collections.singletonMap(Guid.newGuid(), Guid.newGuid());
+
+        new Thread(() -> request.complete(assignment)).start();
+
+        assertEquals(assignment, request.await());
+        assertTrue(request.isDone());
+    }
+
+    @Test
+    public void testAwaitFailed() {
+        SchedulingRequest request = createRequest(Collections.emptyList(), false, 1024);
+        request.fail(new IllegalArgumentException());
+
+        assertThrows(IllegalArgumentException.class, request::await);
+    }
+
+    private static SchedulingRequest createRequest(List<Guid> hostBlackList, boolean stateless, int memSizeMb) {
+        return new SchedulingRequest(Collections.singletonList(createVm(memSizeMb)),
+                hostBlackList,
+                Collections.emptyList(),
+                Collections.emptyList(),
+                false,
+                false,
+                stateless,
+                false,
+                new ArrayList<>(),
+                null);
+    }
+
+    private static VM createVm(int memSizeMb) {
+        VM vm = new VM();
+        vm.setId(Guid.newGuid());
+        vm.setVmMemSizeMb(memSizeMb);
+        return vm;
+    }
+}
@@ -0,0 +1,137 @@
+package org.ovirt.engine.core.bll.storage.ovfstore;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.ovirt.engine.core.bll.BaseCommandTest;
+import org.ovirt.engine.core.common.action.ActionReturnValue;
+import org.ovirt.engine.core.common.action.ActionType;
+import org.ovirt.engine.core.common.action.ProcessOvfUpdateParameters;
+import org.ovirt.engine.core.common.businessentities.StorageDomain;
+import org.ovirt.engine.core.common.businessentities.StorageDomainOvfInfo;
+import org.ovirt.engine.core.common.businessentities.StorageDomainOvfInfoStatus;
+import org.ovirt.engine.core.common.businessentities.storage.DiskImage;
+import org.ovirt.engine.core.common.businessentities.storage.StorageType;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dao.DiskDao;
+import org.ovirt.engine.core.dao.ImageDao;
+import org.ovirt.engine.core.dao.StorageDomainDao;
+import org.ovirt.engine.core.dao.StorageDomainOvfInfoDao;
+import org.ovirt.engine.core.dao.VmAndTemplatesGenerationsDao;
+import org.ovirt.engine.core.dao.VmStaticDao;
+
+public class ProcessOvfUpdateForStorageDomainCommandTest extends BaseCommandTest {
+
+    private final Guid storagePoolId = Guid.newGuid();
+    private final Guid storageDomainId = Guid.newGuid();
+
+    @Spy
+    @InjectMocks
+    private ProcessOvfUpdateForStorageDomainCommand<ProcessOvfUpdateParameters> command =
+            new ProcessOvfUpdateForStorageDomainCommand<>(
+                    new ProcessOvfUpdateParameters(storagePoolId, storageDomainId), null);
+
+    @Mock
+    private StorageDomainOvfInfoDao storageDomainOvfInfoDao;
+
+    @Mock
+    private DiskDao diskDao;
+
+    @Mock
+    private StorageDomainDao storageDomainDao;
+
+    @Mock
+    private VmStaticDao vmStaticDao;
+
+    @Mock
+    private VmAndTemplatesGenerationsDao vmAndTemplatesGenerationsDao;
+
+    @Mock
+    private ImageDao imageDao;
+
+    @TempDir
+    public Path tempDir;
+
+    private File ovfStoreFile;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        DiskImage ovfDisk = new DiskImage();
+        ovfDisk.setId(Guid.newGuid());
+        ovfDisk.setImageId(Guid.newGuid());
+        ovfDisk.setStoragePoolId(storagePoolId);
+        ovfDisk.setStorageIds(new ArrayList<>(Collections.singletonList(storageDomainId)));
+        StorageDomainOvfInfo ovfInfo = new StorageDomainOvfInfo(storageDomainId,
+                null,
+                ovfDisk.getId(),
+                StorageDomainOvfInfoStatus.OUTDATED,
+                null);
+        when(storageDomainOvfInfoDao.getAllForDomain(storageDomainId))
+                .thenReturn(new ArrayList<>(Collections.singletonList(ovfInfo)));
+        when(diskDao.get(ovfDisk.getId())).thenReturn(ovfDisk);
+
+        StorageDomain storageDomain = new StorageDomain();
+        storageDomain.setId(storageDomainId);
+        storageDomain.setStorageType(StorageType.NFS);
+        when(storageDomainDao.get(storageDomainId)).thenReturn(storageDomain);
+        when(storageDomainDao.getVmAndTemplatesIdsByStorageDomainId(eq(storageDomainId), anyBoolean(), anyBoolean()))
+                .thenReturn(new ArrayList<>(Collections.singletonList(Guid.newGuid())));
+        when(vmStaticDao.getVmAndTemplatesIdsWithoutAttachedImageDisks(eq(storagePoolId), anyBoolean()))
+                .thenReturn(new ArrayList<>());
+
+        ovfStoreFile = tempDir.resolve("ovf-store.tar").toFile();
+        doReturn(ovfStoreFile).when(command).createOvfStoreFile();
+        doReturn(null).when(command).runVdsCommand(any(), any());
+
+        command.init();
+    }
+
+    @Test
+    public void testOvfStoreFileDeletedAfterUpload() {
+        doAnswer(invocation -> {
+            assertTrue(ovfStoreFile.length() > 0, "the OVF store should be uploaded from the written file");
+            ActionReturnValue returnValue = new ActionReturnValue();
+            returnValue.setSucceeded(true);
+            return returnValue;
+        }).when(command).runInternalActionWithTasksContext(eq(ActionType.UploadStream), any());
+
+        assertTrue(command.updateOvfStoreContent());
+        assertFalse(ovfStoreFile.exists(), "the OVF store file should be deleted after the upload");
+    }
+
+    @Test
+    public void testOvfStoreFileDeletedWhenUploadFails() {
+        doAnswer(invocation -> {
+            throw new IllegalStateException();
+        }).when(command).runInternalActionWithTasksContext(eq(ActionType.UploadStream), any());
+
+        assertThrows(IllegalStateException.class, () -> command.updateOvfStoreContent());
+        assertFalse(ovfStoreFile.exists(), "the OVF store file should be deleted when the upload fails");
+    }
+
+    @Test
+    public void testOvfStoreFileDeletedWhenBuildFails() {
+        when(vmAndTemplatesGenerationsDao.loadOvfDataForIds(any())).thenThrow(new IllegalStateException());
+
+        assertThrows(RuntimeException.class, () -> command.updateOvfStoreContent());
+        assertFalse(ovfStoreFile.exists(), "the OVF store file should be deleted when writing it fails");
+    }
+}
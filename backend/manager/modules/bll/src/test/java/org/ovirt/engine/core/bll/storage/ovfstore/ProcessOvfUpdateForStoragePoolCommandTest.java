@@ -4,6 +4,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
@@ -27,6 +28,7 @@ import org.apache.commons.collections.CollectionUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
@@ -564,4 +566,65 @@ public class ProcessOvfUpdateForStoragePoolCommandTest extends BaseCommandTest {
                 Collections.singletonMap(poolId, Collections.singletonList(ovfInfo.getStorageDomainId()));
         verifyOvfUpdatedForSupportedPools(Collections.singletonList(poolId), domainsRequiredUpdateForPool);
     }
+
+    @Test
+    public void testConcurrentlyGeneratedOvfsKeepOrderOfEntities() {
+        int size = ITEMS_COUNT_PER_UPDATE - 1;
+        List<Guid> vmGuids = generateGuidList(size);
+        List<Guid> templatesGuids = generateGuidList(size);
+        addVms(vmGuids, 2, VMStatus.Down, ImageStatus.OK);
+        addTemplates(templatesGuids, 2, VmTemplateStatus.OK, ImageStatus.OK);
+        initTestForPool(pool1, vmGuids, templatesGuids, Collections.emptyList());
+        doReturn(4).when(command).getOvfGenerationParallelism();
+
+        executeCommand();
+
+        List<Guid> expectedIds = new ArrayList<>(vmGuids);
+        expectedIds.addAll(templatesGuids);
+        verifyOvfGenerationsUpdatedInOrder(expectedIds);
+    }
+
+    @Test
+    public void testConcurrentlyGeneratedOvfsSkipLockedEntities() {
+        int size = ITEMS_COUNT_PER_UPDATE - 1;
+        List<Guid> vmGuids = generateGuidList(size);
+        List<Guid> templatesGuids = generateGuidList(size);
+        List<Guid> expectedIds = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            boolean locked = i % 3 == 0;
+            addVms(vmGuids.subList(i, i + 1), 2, locked ? VMStatus.ImageLocked : VMStatus.Down, ImageStatus.OK);
+            if (!locked) {
+                expectedIds.add(vmGuids.get(i));
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            boolean locked = i % 3 == 1;
+            addTemplates(templatesGuids.subList(i, i + 1), 2, VmTemplateStatus.OK,
+                    locked ? ImageStatus.LOCKED : ImageStatus.OK);
+            if (!locked) {
+                expectedIds.add(templatesGuids.get(i));
+            }
+        }
+        initTestForPool(pool1, vmGuids, templatesGuids, Collections.emptyList());
+        doReturn(4).when(command).getOvfGenerationParallelism();
+
+        executeCommand();
+
+        verifyOvfGenerationsUpdatedInOrder(expectedIds);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void verifyOvfGenerationsUpdatedInOrder(List<Guid> expectedIds) {
+        ArgumentCaptor<List<Guid>> idsCaptor = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<List<String>> ovfsCaptor = ArgumentCaptor.forClass(List.class);
+        verify(vmAndTemplatesGenerationsDao, atLeastOnce())
+                .updateOvfGenerations(idsCaptor.capture(), any(), ovfsCaptor.capture());
+
+        List<Guid> updatedIds = idsCaptor.getAllValues().stream().flatMap(List::stream).collect(Collectors.toList());
+        List<String> updatedOvfs =
+                ovfsCaptor.getAllValues().stream().flatMap(List::stream).collect(Collectors.toList());
+        assertEquals(expectedIds, updatedIds, "the OVFs should be updated in the order of the vms/templates");
+        assertEquals(expectedIds.stream().map(Guid::toString).collect(Collectors.toList()), updatedOvfs,
+                "each OVF should be updated along with the id of its vm/template");
+    }
 }
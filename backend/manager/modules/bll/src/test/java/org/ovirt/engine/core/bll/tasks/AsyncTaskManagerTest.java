@@ -0,0 +1,166 @@
+package org.ovirt.engine.core.bll.tasks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.ovirt.engine.core.bll.tasks.interfaces.CommandCoordinator;
+import org.ovirt.engine.core.bll.tasks.interfaces.SPMTask;
+import org.ovirt.engine.core.common.VdcObjectType;
+import org.ovirt.engine.core.common.action.ActionType;
+import org.ovirt.engine.core.common.asynctasks.AsyncTaskCreationInfo;
+import org.ovirt.engine.core.common.asynctasks.AsyncTaskParameters;
+import org.ovirt.engine.core.common.asynctasks.AsyncTaskType;
+import org.ovirt.engine.core.common.asynctasks.EntityInfo;
+import org.ovirt.engine.core.common.businessentities.AsyncTask;
+import org.ovirt.engine.core.common.businessentities.AsyncTaskStatus;
+import org.ovirt.engine.core.common.businessentities.AsyncTaskStatusEnum;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.utils.InjectorExtension;
+import org.ovirt.engine.core.utils.MockConfigDescriptor;
+import org.ovirt.engine.core.utils.MockConfigExtension;
+
+@ExtendWith({ MockConfigExtension.class, InjectorExtension.class, MockitoExtension.class })
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class AsyncTaskManagerTest {
+
+    private static final long POLLING_RATE_SECONDS = 10;
+    private static final long MAX_POLLING_INTERVAL_SECONDS = 30;
+    private static final long POLLING_RATE = TimeUnit.SECONDS.toMillis(POLLING_RATE_SECONDS);
+    private static final long MAX_POLLING_INTERVAL = TimeUnit.SECONDS.toMillis(MAX_POLLING_INTERVAL_SECONDS);
+
+    @Mock
+    private CommandCoordinator coco;
+
+    @InjectMocks
+    private AsyncTaskManager asyncTaskManager;
+
+    public static Stream<MockConfigDescriptor<?>> mockConfiguration() {
+        return Stream.of(
+                MockConfigDescriptor.of(ConfigValues.AsyncTaskPollingRate, POLLING_RATE_SECONDS),
+                MockConfigDescriptor.of(ConfigValues.AsyncTaskMaxPollingIntervalInSeconds, MAX_POLLING_INTERVAL_SECONDS)
+        );
+    }
+
+    @Test
+    public void testPollingIntervalOfNewTaskIsPollingRate() {
+        long now = System.currentTimeMillis();
+        SPMTask task = mockTask(Guid.newGuid(), new Date(now), true);
+
+        assertEquals(POLLING_RATE, AsyncTaskManager.getPollingInterval(task, now, POLLING_RATE, MAX_POLLING_INTERVAL));
+    }
+
+    @Test
+    public void testPollingIntervalIsTenthOfTaskAge() {
+        long now = System.currentTimeMillis();
+        SPMTask task = mockTask(Guid.newGuid(), new Date(now - TimeUnit.SECONDS.toMillis(200)), true);
+
+        assertEquals(TimeUnit.SECONDS.toMillis(20),
+                AsyncTaskManager.getPollingInterval(task, now, POLLING_RATE, MAX_POLLING_INTERVAL));
+    }
+
+    @Test
+    public void testPollingIntervalOfOldTaskIsMaxPollingInterval() {
+        long now = System.currentTimeMillis();
+        SPMTask task = mockTask(Guid.newGuid(), new Date(now - TimeUnit.HOURS.toMillis(1)), true);
+
+        assertEquals(MAX_POLLING_INTERVAL,
+                AsyncTaskManager.getPollingInterval(task, now, POLLING_RATE, MAX_POLLING_INTERVAL));
+    }
+
+    @Test
+    public void testPollingIntervalOfTaskWithoutStartTimeIsPollingRate() {
+        SPMTask task = mockTask(Guid.newGuid(), null, true);
+
+        assertEquals(POLLING_RATE, AsyncTaskManager.getPollingInterval(task,
+                System.currentTimeMillis(), POLLING_RATE, MAX_POLLING_INTERVAL));
+    }
+
+    @Test
+    public void testPoolIdsTasksContainsOnlyPoolsWithDueTasks() {
+        long now = System.currentTimeMillis();
+        Guid neverPolledPoolId = Guid.newGuid();
+        Guid notPollingPoolId = Guid.newGuid();
+        Guid polledPoolId = Guid.newGuid();
+        asyncTaskManager.lockAndAddTaskToManager(mockTask(neverPolledPoolId, new Date(now), true));
+        asyncTaskManager.lockAndAddTaskToManager(mockTask(notPollingPoolId, new Date(now), false));
+        asyncTaskManager.lockAndAddTaskToManager(mockTask(polledPoolId, new Date(now), true));
+
+        asyncTaskManager.updateTaskStatuses(Collections.singletonMap(polledPoolId, Collections.emptyMap()), now);
+
+        assertEquals(Collections.singleton(neverPolledPoolId), asyncTaskManager.getPoolIdsTasks(now));
+        assertEquals(Set.of(neverPolledPoolId, polledPoolId),
+                asyncTaskManager.getPoolIdsTasks(now + POLLING_RATE));
+    }
+
+    @Test
+    public void testTasksByStoragePool() {
+        Guid storagePoolId = Guid.newGuid();
+        SPMTask task = mockTask(storagePoolId, new Date(), true);
+        asyncTaskManager.lockAndAddTaskToManager(task);
+
+        assertTrue(asyncTaskManager.hasTasksByStoragePoolId(storagePoolId));
+        assertFalse(asyncTaskManager.hasTasksByStoragePoolId(Guid.newGuid()));
+
+        when(task.getState()).thenReturn(AsyncTaskState.Cleared);
+        asyncTaskManager.removeClearedAndOldTasks();
+
+        assertFalse(asyncTaskManager.hasTasksByStoragePoolId(storagePoolId));
+    }
+
+    @Test
+    public void testTasksByEntity() {
+        Guid entityId = Guid.newGuid();
+        CommandAsyncTask task = mock(CommandAsyncTask.class);
+        initTask(task, Guid.newGuid(), new Date(), true);
+        task.getParameters().setEntityInfo(new EntityInfo(VdcObjectType.Disk, entityId));
+        task.getParameters().getDbAsyncTask().setActionType(ActionType.AddDisk);
+        asyncTaskManager.lockAndAddTaskToManager(task);
+
+        assertTrue(asyncTaskManager.entityHasTasks(entityId));
+        assertTrue(asyncTaskManager.hasTasksForEntityIdAndAction(entityId, ActionType.AddDisk));
+        assertFalse(asyncTaskManager.hasTasksForEntityIdAndAction(entityId, ActionType.RemoveDisk));
+        assertFalse(asyncTaskManager.entityHasTasks(Guid.newGuid()));
+
+        // cleared tasks are ignored even before they are removed
+        when(task.getState()).thenReturn(AsyncTaskState.Cleared);
+        assertFalse(asyncTaskManager.entityHasTasks(entityId));
+    }
+
+    private static SPMTask mockTask(Guid storagePoolId, Date startTime, boolean shouldPoll) {
+        SPMTask task = mock(SPMTask.class);
+        initTask(task, storagePoolId, startTime, shouldPoll);
+        return task;
+    }
+
+    private static void initTask(SPMTask task, Guid storagePoolId, Date startTime, boolean shouldPoll) {
+        Guid vdsmTaskId = Guid.newGuid();
+        AsyncTask dbAsyncTask = new AsyncTask();
+        dbAsyncTask.setActionType(ActionType.Unknown);
+        dbAsyncTask.setStartTime(startTime);
+        AsyncTaskParameters parameters = new AsyncTaskParameters(
+                new AsyncTaskCreationInfo(vdsmTaskId, AsyncTaskType.unknown, storagePoolId), dbAsyncTask);
+        when(task.getParameters()).thenReturn(parameters);
+        when(task.getVdsmTaskId()).thenReturn(vdsmTaskId);
+        when(task.getStoragePoolID()).thenReturn(storagePoolId);
+        when(task.getShouldPoll()).thenReturn(shouldPoll);
+        when(task.getState()).thenReturn(shouldPoll ? AsyncTaskState.Polling : AsyncTaskState.Initializing);
+        when(task.getLastTaskStatus()).thenReturn(new AsyncTaskStatus(AsyncTaskStatusEnum.running));
+    }
+}
@@ -0,0 +1,79 @@
+package org.ovirt.engine.core.bll.tasks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.ovirt.engine.core.bll.tasks.interfaces.CommandCallback;
+import org.ovirt.engine.core.bll.tasks.interfaces.CommandContextsCache;
+import org.ovirt.engine.core.compat.Guid;
+
+@ExtendWith(MockitoExtension.class)
+public class CommandsRepositoryTest {
+
+    private static final long POLLING_RATE = 2;
+
+    @Mock
+    private CommandsCache commandsCache;
+
+    @Mock
+    private CommandContextsCache contextsCache;
+
+    @Mock
+    private CommandCallback callback;
+
+    private CommandsRepository commandsRepository;
+
+    @BeforeEach
+    public void setUp() {
+        commandsRepository = new CommandsRepository(commandsCache, contextsCache);
+    }
+
+    @Test
+    public void testCallbackPolledOnlyWhenDue() {
+        Guid cmdId = Guid.newGuid();
+        commandsRepository.addToCallbackMap(cmdId, new CallbackTiming(callback, 2 * POLLING_RATE));
+
+        assertTrue(commandsRepository.pollDueCallbacks(POLLING_RATE).isEmpty());
+        assertEquals(Collections.singletonList(cmdId), commandsRepository.pollDueCallbacks(POLLING_RATE));
+        assertTrue(commandsRepository.pollDueCallbacks(POLLING_RATE).isEmpty());
+    }
+
+    @Test
+    public void testDueCallbacksOrderedByDueTime() {
+        Guid laterCmdId = Guid.newGuid();
+        Guid earlierCmdId = Guid.newGuid();
+        commandsRepository.addToCallbackMap(laterCmdId, new CallbackTiming(callback, 2 * POLLING_RATE));
+        commandsRepository.addToCallbackMap(earlierCmdId, new CallbackTiming(callback, POLLING_RATE));
+
+        assertEquals(Arrays.asList(earlierCmdId, laterCmdId), commandsRepository.pollDueCallbacks(2 * POLLING_RATE));
+    }
+
+    @Test
+    public void testRescheduledCallback() {
+        Guid cmdId = Guid.newGuid();
+        CallbackTiming callbackTiming = new CallbackTiming(callback, POLLING_RATE);
+        commandsRepository.addToCallbackMap(cmdId, callbackTiming);
+        commandsRepository.scheduleCallback(cmdId, callbackTiming, 3 * POLLING_RATE);
+
+        assertTrue(commandsRepository.pollDueCallbacks(POLLING_RATE).isEmpty());
+        assertTrue(commandsRepository.pollDueCallbacks(POLLING_RATE).isEmpty());
+        assertEquals(Collections.singletonList(cmdId), commandsRepository.pollDueCallbacks(POLLING_RATE));
+    }
+
+    @Test
+    public void testRemovedCallbackNotPolled() {
+        Guid cmdId = Guid.newGuid();
+        commandsRepository.addToCallbackMap(cmdId, new CallbackTiming(callback, POLLING_RATE));
+        commandsRepository.removeFromCallbackMap(cmdId);
+
+        assertTrue(commandsRepository.pollDueCallbacks(POLLING_RATE).isEmpty());
+    }
+}
@@ -1,5 +1,6 @@
 package org.ovirt.engine.core.bll.utils;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -15,14 +16,18 @@ import java.util.Set;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.ovirt.engine.core.common.businessentities.storage.DiskImage;
 import org.ovirt.engine.core.common.businessentities.storage.UnregisteredDisk;
 import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.utils.OvfUtils;
+import org.ovirt.engine.core.utils.ovf.OvfSummary;
 import org.ovirt.engine.core.utils.ovf.xml.XmlDocument;
 
 public class OvfUtilsTest {
     private static final String VM_OVF_XML_DATA = "src/test/resources/vmOvfData.xml";
+    private static final String VM_OVF_XML_DATA2 = "src/test/resources/vmOvfData2.xml";
 
     private OvfUtils ovfUtils;
 
@@ -75,8 +80,28 @@ public class OvfUtilsTest {
         assertTrue(!unregDisks.get(0).getVms().isEmpty(), "The VMs id is set in the unregisteterd disks");
     }
 
+    @ParameterizedTest
+    @ValueSource(strings = { VM_OVF_XML_DATA, VM_OVF_XML_DATA2 })
+    public void testStreamedDisksSameAsDomDisks(String ovfFile) throws Exception {
+        String ovfData = getXmlOvfData(ovfFile);
+        XmlDocument xmlDocument = new XmlDocument(ovfData);
+        assertEquals(ovfUtils.fetchVmDisks(xmlDocument), ovfUtils.fetchVmDisks(ovfData));
+        assertEquals(ovfUtils.fetchMemoryDisks(xmlDocument), OvfSummary.parse(ovfData).getMemoryDiskIds());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { VM_OVF_XML_DATA, VM_OVF_XML_DATA2 })
+    public void testStreamedOriginSameAsDomOrigin(String ovfFile) throws Exception {
+        String ovfData = getXmlOvfData(ovfFile);
+        assertEquals(ovfUtils.isExternalVM(new XmlDocument(ovfData)), OvfSummary.parse(ovfData).isExternal());
+    }
+
     private String getXmlOvfData() throws IOException {
-        return new String(Files.readAllBytes(Paths.get(VM_OVF_XML_DATA)), StandardCharsets.UTF_8);
+        return getXmlOvfData(VM_OVF_XML_DATA);
+    }
+
+    private String getXmlOvfData(String ovfFile) throws IOException {
+        return new String(Files.readAllBytes(Paths.get(ovfFile)), StandardCharsets.UTF_8);
     }
 
 }
@@ -10,6 +10,9 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.when;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -17,12 +20,15 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
@@ -35,11 +41,14 @@ import org.ovirt.engine.core.common.businessentities.BiosType;
 import org.ovirt.engine.core.common.businessentities.BusinessEntity;
 import org.ovirt.engine.core.common.businessentities.DisplayType;
 import org.ovirt.engine.core.common.businessentities.GraphicsType;
+import org.ovirt.engine.core.common.businessentities.Label;
 import org.ovirt.engine.core.common.businessentities.OriginType;
 import org.ovirt.engine.core.common.businessentities.Snapshot;
 import org.ovirt.engine.core.common.businessentities.VM;
 import org.ovirt.engine.core.common.businessentities.VmDevice;
+import org.ovirt.engine.core.common.businessentities.VmBase;
 import org.ovirt.engine.core.common.businessentities.VmDeviceGeneralType;
+import org.ovirt.engine.core.common.businessentities.VmDeviceId;
 import org.ovirt.engine.core.common.businessentities.VmTemplate;
 import org.ovirt.engine.core.common.businessentities.network.VmNetworkInterface;
 import org.ovirt.engine.core.common.businessentities.network.VmNetworkStatistics;
@@ -49,12 +58,14 @@ import org.ovirt.engine.core.common.businessentities.storage.DiskVmElement;
 import org.ovirt.engine.core.common.businessentities.storage.FullEntityOvfData;
 import org.ovirt.engine.core.common.businessentities.storage.Image;
 import org.ovirt.engine.core.common.businessentities.storage.ImageStatus;
+import org.ovirt.engine.core.common.businessentities.storage.LunDisk;
 import org.ovirt.engine.core.common.businessentities.storage.QcowCompat;
 import org.ovirt.engine.core.common.businessentities.storage.VolumeFormat;
 import org.ovirt.engine.core.common.businessentities.storage.VolumeType;
 import org.ovirt.engine.core.common.config.ConfigValues;
 import org.ovirt.engine.core.common.osinfo.OsRepository;
 import org.ovirt.engine.core.common.queries.VmIconIdSizePair;
+import org.ovirt.engine.core.common.scheduling.AffinityGroup;
 import org.ovirt.engine.core.common.utils.Pair;
 import org.ovirt.engine.core.common.utils.VmDeviceType;
 import org.ovirt.engine.core.compat.Guid;
@@ -63,6 +74,8 @@ import org.ovirt.engine.core.utils.MockConfigDescriptor;
 import org.ovirt.engine.core.utils.MockConfigExtension;
 import org.ovirt.engine.core.utils.RandomUtils;
 import org.ovirt.engine.core.utils.RandomUtilsSeedingExtension;
+import org.ovirt.engine.core.utils.ovf.xml.StaxXmlDocument;
+import org.ovirt.engine.core.utils.ovf.xml.XmlDocument;
 
 @ExtendWith({MockitoExtension.class, MockConfigExtension.class, RandomUtilsSeedingExtension.class})
 @MockitoSettings(strictness = Strictness.LENIENT)
@@ -77,6 +90,9 @@ public class OvfManagerTest {
     private static final int EXISTING_OS_ID = 1;
     private static final int NONEXISTING_OS_ID = 2;
 
+    private static final String VM_OVF_XML_DATA = "src/test/resources/vmOvfData.xml";
+    private static final String VM_OVF_XML_DATA2 = "src/test/resources/vmOvfData2.xml";
+
     private static final int MIN_ENTITY_NAME_LENGTH = 3;
     private static final int MAX_ENTITY_NAME_LENGTH = 30;
 
@@ -279,6 +295,99 @@ public class OvfManagerTest {
                         equals(diskPair.getSecond().getDiskVmElementForVm(vm.getId())));
     }
 
+    @Test
+    public void testVmReadSameAsDom() throws Exception {
+        VM vm = createVM();
+        Map<String, Object> specParams = new HashMap<>();
+        specParams.put("vram", "32768");
+        specParams.put("nested", Collections.singletonMap("path", "/dev/null"));
+        VmDevice video = new VmDevice(new VmDeviceId(Guid.newGuid(), vm.getId()), VmDeviceGeneralType.VIDEO,
+                VmDeviceType.QXL.getName(), "", specParams, true, true, false, "", null, null, null);
+        vm.getManagedVmDeviceMap().put(video.getDeviceId(), video);
+        ArrayList<DiskImage> disks = createDisksAndDiskVmElements(vm);
+        FullEntityOvfData fullEntityOvfDataForExport = new FullEntityOvfData(vm);
+        fullEntityOvfDataForExport.setDiskImages(disks);
+        String xml = manager.exportVm(vm, fullEntityOvfDataForExport, Version.v4_3);
+
+        assertVmReadSameAsDom(xml);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { VM_OVF_XML_DATA, VM_OVF_XML_DATA2 })
+    public void testStoredVmReadSameAsDom(String path) throws Exception {
+        assertVmReadSameAsDom(new String(Files.readAllBytes(Paths.get(path)), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testTemplateReadSameAsDom() throws Exception {
+        VmTemplate template = createVmTemplate();
+        VM vm = createVM();
+        vm.setId(template.getId());
+        FullEntityOvfData fullEntityOvfDataForExport = new FullEntityOvfData(template);
+        fullEntityOvfDataForExport.setDiskImages(createDisksAndDiskVmElements(vm));
+        String xml = manager.exportTemplate(fullEntityOvfDataForExport, Version.v4_3);
+
+        FullEntityOvfData dom = new FullEntityOvfData(new VmTemplate());
+        new OvfTemplateReader(new XmlDocument(xml), dom, osRepository).build();
+        FullEntityOvfData stax = new FullEntityOvfData(new VmTemplate());
+        new OvfTemplateReader(new StaxXmlDocument(xml), stax, osRepository).build();
+
+        assertEquals(dom.getVmTemplate(), stax.getVmTemplate());
+        assertReadSameAsDom(dom, stax, xml);
+    }
+
+    private void assertVmReadSameAsDom(String xml) throws Exception {
+        VM domVm = new VM();
+        FullEntityOvfData dom = new FullEntityOvfData(domVm);
+        new OvfVmReader(new XmlDocument(xml), domVm, dom, osRepository).build();
+        VM staxVm = new VM();
+        FullEntityOvfData stax = new FullEntityOvfData(staxVm);
+        new OvfVmReader(new StaxXmlDocument(xml), staxVm, stax, osRepository).build();
+
+        assertEquals(domVm, staxVm);
+        assertEquals(domVm.getStaticData(), staxVm.getStaticData());
+        assertEquals(domVm.getSnapshots(), staxVm.getSnapshots());
+        assertEquals(domVm.getAppList(), staxVm.getAppList());
+        assertReadSameAsDom(dom, stax, xml);
+    }
+
+    private static void assertReadSameAsDom(FullEntityOvfData dom, FullEntityOvfData stax, String xml) {
+        Guid id = dom.getVmBase().getId();
+        assertEquals(dom.getDiskImages(), stax.getDiskImages());
+        for (int i = 0; i < dom.getDiskImages().size(); i++) {
+            assertEquals(dom.getDiskImages().get(i).getDiskVmElementForVm(id),
+                    stax.getDiskImages().get(i).getDiskVmElementForVm(id));
+        }
+        // the connections of the LUNs have no id, so they are only equal to themselves
+        assertEquals(dom.getLunDisks().stream().map(LunDisk::getLun).map(Object::toString).collect(Collectors.toList()),
+                stax.getLunDisks().stream().map(LunDisk::getLun).map(Object::toString).collect(Collectors.toList()));
+        assertEquals(dom.getInterfaces(), stax.getInterfaces());
+        assertEquals(dom.getClusterName(), stax.getClusterName());
+        assertEquals(dom.getUserToRoles(), stax.getUserToRoles());
+        assertEquals(dom.getAffinityGroups().stream().map(AffinityGroup::getName).collect(Collectors.toList()),
+                stax.getAffinityGroups().stream().map(AffinityGroup::getName).collect(Collectors.toList()));
+        assertEquals(dom.getAffinityLabels().stream().map(Label::getName).collect(Collectors.toList()),
+                stax.getAffinityLabels().stream().map(Label::getName).collect(Collectors.toList()));
+        assertEquals(String.valueOf(dom.getVmBase().getVmInit()), String.valueOf(stax.getVmBase().getVmInit()));
+        assertEquals(describeDevices(dom.getVmBase(), xml), describeDevices(stax.getVmBase(), xml));
+    }
+
+    /**
+     * Describes the devices of the given entity, leaving out the ids the reader generates for the devices the OVF
+     * has no id of
+     */
+    private static List<String> describeDevices(VmBase vmBase, String xml) {
+        return Stream.concat(vmBase.getManagedDeviceMap().values().stream(),
+                vmBase.getUnmanagedDeviceList().stream())
+                .map(device -> {
+                    String deviceId = device.getDeviceId().toString();
+                    String description = device.toString() + " " + device.getSpecParams();
+                    return xml.contains(deviceId) ? description : description.replace(deviceId, "");
+                })
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
     private <T extends BusinessEntity<?>> void assertCollection(List<T> colA, List<T> colB) {
         assertCollection(colA, colB, null);
     }
@@ -1,6 +1,5 @@
 package org.ovirt.engine.core.bll;
 
-import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 
 import org.ovirt.engine.core.common.action.ImagesContainterParametersBase;
@@ -19,7 +18,7 @@ public class UploadStreamParameters extends ImagesContainterParametersBase {
             Guid storageDomainId,
             Guid imageGroupId,
             Guid imageId,
-            ByteArrayInputStream inputStream,
+            InputStream inputStream,
             Long streamLength) {
         super(imageId);
         this.inputStream = inputStream;
@@ -348,6 +348,7 @@ public class VmDynamic implements BusinessEntityWithStatus<Guid, VMStatus>, Comp
         guestContainers = template.getGuestContainers();
         volatileRun = template.isVolatileRun();
         leaseInfo = template.leaseInfo;
+        runtimeName = template.getRuntimeName();
         currentCpuPinning = template.getCurrentCpuPinning();
         currentSockets = template.getCurrentSockets();
         currentCoresPerSocket = template.getCurrentCoresPerSocket();
@@ -60,6 +60,13 @@ public enum ConfigValues {
     @TypeConverterAttribute(Long.class)
     AsyncTaskPollingRate,
 
+    /**
+     * The longest period of time (in seconds) between two polls of a long running asynchronous task.
+     */
+    @Reloadable
+    @TypeConverterAttribute(Long.class)
+    AsyncTaskMaxPollingIntervalInSeconds,
+
     @TypeConverterAttribute(Long.class)
     AsyncCommandPollingLoopInSeconds,
 
@@ -212,6 +219,16 @@ public enum ConfigValues {
     @TypeConverterAttribute(Integer.class)
     NumberVmRefreshesBeforeSave,
     @TypeConverterAttribute(Integer.class)
+    VmStatisticsSaveThresholdPercent,
+    @TypeConverterAttribute(Integer.class)
+    VmStatisticsMaxSkippedSaves,
+    /**
+     * The period of time (in milliseconds) during which the VM status events of a host are collected before they are
+     * processed together, the events of the same VM are merged.
+     */
+    @TypeConverterAttribute(Integer.class)
+    VmStatusEventsCoalescingWindowInMillis,
+    @TypeConverterAttribute(Integer.class)
     NumberVdsRefreshesBeforeTryToStartUnknownVms,
     @TypeConverterAttribute(Integer.class)
     NumberVdsRefreshesBeforeRetryToStartUnknownVms,
@@ -1138,6 +1155,9 @@ public enum ConfigValues {
     @TypeConverterAttribute(Integer.class)
     SchedulerOverBookingThreshold(ClientAccessLevel.Admin),
 
+    @TypeConverterAttribute(Integer.class)
+    SchedulerParallelEvaluationThreshold,
+
     @TypeConverterAttribute(Boolean.class)
     IgnoreVmToVmAffinityForHostMaintenance,
 
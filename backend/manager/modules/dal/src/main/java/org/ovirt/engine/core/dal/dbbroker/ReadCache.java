@@ -0,0 +1,437 @@
+package org.ovirt.engine.core.dal.dbbroker;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.Transaction;
+
+import org.ovirt.engine.core.common.utils.Pair;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.utils.transaction.TransactionSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+
+/**
+ * Cache of the results of read stored procedures, used by {@link SimpleJdbcCallsHandler}.
+ * <p>
+ * Nothing is cached unless a DAO registers a region for its reads, see
+ * {@link #registerRegion(String, boolean, Collection, Collection)}. The results of the reads of a region are kept for
+ * the current request in the {@link ReadScope} of the thread, and for all the threads when the region is shared and
+ * the cache is enabled by {@link #configure(int, int)}. Results are kept serialized, so every read returns its own
+ * copy of the entities, which the caller is free to change.
+ * </p>
+ * <p>
+ * The results of a region are dropped whenever one of the modification procedures the region was registered with is
+ * called, and once more when the transaction calling it completes. While such transaction is running the shared
+ * results of the region are neither used nor stored, so other threads never see uncommitted data and the writing
+ * thread sees its own changes. Modifications done outside of the stored procedures are only caught by the time to
+ * live of the results.
+ * </p>
+ */
+public class ReadCache implements ReadCacheMonitorMXBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadCache.class);
+
+    private final List<Region> regions = new CopyOnWriteArrayList<>();
+    private final Map<String, Region> regionsByRead = new ConcurrentHashMap<>();
+    /** The regions by the lower case name of the modification procedures dropping their results **/
+    private final Map<String, List<Region>> regionsByModification = new ConcurrentHashMap<>();
+
+    private volatile long timeToLiveNanos;
+    private volatile int maxEntries;
+
+    /**
+     * Registers the reads of a DAO which can be cached
+     *
+     * @param name
+     *            - the region name, reported in the statistics
+     * @param shared
+     *            - whether the results are shared by all the threads, otherwise they are kept in the
+     *            {@link ReadScope} of the current thread only
+     * @param readProcedures
+     *            - the cached read procedures, their parameters must be of simple immutable types
+     * @param modificationProcedures
+     *            - the procedures, regardless of case, which modify the rows returned by the read procedures, the
+     *            procedures modifying the tables joined by their views included, calling any of them drops the results
+     */
+    public void registerRegion(String name,
+            boolean shared,
+            Collection<String> readProcedures,
+            Collection<String> modificationProcedures) {
+        Region region = new Region(name, shared);
+        regions.add(region);
+        readProcedures.forEach(procedure -> regionsByRead.put(procedure, region));
+        modificationProcedures.forEach(procedure -> regionsByModification
+                .computeIfAbsent(procedure.toLowerCase(Locale.ROOT), p -> new CopyOnWriteArrayList<>())
+                .add(region));
+    }
+
+    /**
+     * Enables the shared results
+     *
+     * @param timeToLiveSeconds
+     *            - how long the results are kept, 0 disables the shared results
+     * @param maxEntries
+     *            - the maximal number of results kept for each region
+     */
+    public void configure(int timeToLiveSeconds, int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.timeToLiveNanos = TimeUnit.SECONDS.toNanos(Math.max(timeToLiveSeconds, 0));
+        if (!isEnabled()) {
+            clear();
+        }
+    }
+
+    public boolean isEnabled() {
+        return timeToLiveNanos > 0 && maxEntries > 0;
+    }
+
+    /**
+     * Returns the results of the given read, loading them by the given loader if they are not cached
+     */
+    <T> List<T> read(String procedureName, MapSqlParameterSource parameterSource, Supplier<List<T>> loader) {
+        Region region = regionsByRead.get(procedureName);
+        if (region == null) {
+            return loader.get();
+        }
+        ReadScope scope = ReadScope.current();
+        boolean shared = region.shared && isEnabled();
+        if (scope == null && !shared) {
+            return loader.get();
+        }
+        Key key = Key.create(region, procedureName, parameterSource);
+        if (key == null) {
+            return loader.get();
+        }
+
+        if (scope != null) {
+            List<T> results = deserialize(scope.get(key));
+            if (results != null) {
+                region.scopeHits.increment();
+                return results;
+            }
+        }
+        if (shared && region.writers.get() == 0) {
+            byte[] data = region.get(key, System.nanoTime());
+            List<T> results = deserialize(data);
+            if (results != null) {
+                region.hits.increment();
+                if (scope != null) {
+                    scope.put(key, data);
+                }
+                return results;
+            }
+        }
+
+        region.misses.increment();
+        long generation = region.generation.get();
+        List<T> results = loader.get();
+        // empty results are not kept, entities may be added by procedures the cache does not know about
+        if (results == null || results.isEmpty()) {
+            return results;
+        }
+        byte[] data = serialize(results);
+        if (data == null) {
+            return results;
+        }
+        if (scope != null) {
+            scope.put(key, data);
+        }
+        if (shared && region.writers.get() == 0 && region.generation.get() == generation) {
+            region.put(key, data, System.nanoTime() + timeToLiveNanos, maxEntries);
+        }
+        return results;
+    }
+
+    /**
+     * Keeps the given entities, loaded by a bulk read, in the {@link ReadScope} of the current thread as the results
+     * of the single entity reads of the given procedure
+     *
+     * @param procedureName
+     *            - the single entity read procedure
+     * @param entities
+     *            - the loaded entities and the parameters of their single entity read
+     */
+    void putScoped(String procedureName, List<? extends Pair<MapSqlParameterSource, ?>> entities) {
+        Region region = regionsByRead.get(procedureName);
+        ReadScope scope = ReadScope.current();
+        if (region == null || scope == null) {
+            return;
+        }
+        for (Pair<MapSqlParameterSource, ?> entity : entities) {
+            Key key = Key.create(region, procedureName, entity.getFirst());
+            byte[] data = key == null ? null : serialize(Collections.singletonList(entity.getSecond()));
+            if (data != null) {
+                scope.put(key, data);
+            }
+        }
+    }
+
+    /**
+     * Drops the results of the regions whose entities may be changed by the given modification procedure
+     */
+    void invalidate(String procedureName) {
+        List<Region> invalidated = regionsByModification.get(procedureName.toLowerCase(Locale.ROOT));
+        if (invalidated == null) {
+            return;
+        }
+        ReadScope scope = ReadScope.current();
+        boolean enabled = isEnabled();
+        for (Region region : invalidated) {
+            if (scope != null) {
+                scope.invalidate(region);
+            }
+            if (region.shared && enabled) {
+                region.invalidate();
+                invalidateOnCompletion(region);
+            }
+        }
+    }
+
+    private void invalidateOnCompletion(Region region) {
+        Transaction transaction;
+        try {
+            transaction = TransactionSupport.current();
+            if (transaction == null || transaction.getStatus() != Status.STATUS_ACTIVE) {
+                return;
+            }
+        } catch (Exception e) {
+            log.debug("Cannot get the current transaction: {}", e.getMessage());
+            return;
+        }
+
+        region.writers.incrementAndGet();
+        try {
+            transaction.registerSynchronization(new Synchronization() {
+                @Override
+                public void beforeCompletion() {
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    region.invalidate();
+                    region.writers.decrementAndGet();
+                }
+            });
+        } catch (Exception e) {
+            region.writers.decrementAndGet();
+            log.warn("Cannot track the transaction modifying region '{}', its cached results are dropped: {}",
+                    region.name,
+                    e.getMessage());
+            log.debug("Exception", e);
+        }
+    }
+
+    @Override
+    public List<String> showStatistics() {
+        List<String> result = new ArrayList<>(regions.size());
+        for (Region region : regions) {
+            result.add(String.format(
+                    "%s: shared=%s, entries=%d, hits=%d, scopeHits=%d, misses=%d, invalidations=%d, evictions=%d",
+                    region.name,
+                    region.shared && isEnabled(),
+                    region.size(),
+                    region.hits.sum(),
+                    region.scopeHits.sum(),
+                    region.misses.sum(),
+                    region.invalidations.sum(),
+                    region.evictions.sum()));
+        }
+        return result;
+    }
+
+    @Override
+    public void clear() {
+        regions.forEach(Region::invalidate);
+    }
+
+    @Override
+    public void resetStatistics() {
+        regions.forEach(Region::resetStatistics);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> deserialize(byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(data))) {
+            return (List<T>) in.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            log.warn("Cannot read cached results: {}", e.getMessage());
+            log.debug("Exception", e);
+            return null;
+        }
+    }
+
+    private static byte[] serialize(List<?> results) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(new ArrayList<>(results));
+        } catch (IOException e) {
+            log.debug("Cannot cache results: {}", e.getMessage());
+            return null;
+        }
+        return bytes.toByteArray();
+    }
+
+    static final class Region {
+
+        private final String name;
+        private final boolean shared;
+
+        /** Incremented whenever the results are dropped, so results loaded meanwhile are not stored **/
+        private final AtomicLong generation = new AtomicLong();
+        /** Number of the running transactions which modified the entities of the region **/
+        private final AtomicInteger writers = new AtomicInteger();
+
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder scopeHits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder invalidations = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+
+        private final LinkedHashMap<Key, CachedResults> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+        private Region(String name, boolean shared) {
+            this.name = name;
+            this.shared = shared;
+        }
+
+        private synchronized byte[] get(Key key, long now) {
+            CachedResults cached = entries.get(key);
+            if (cached == null) {
+                return null;
+            }
+            if (now - cached.expiresAt >= 0) {
+                entries.remove(key);
+                return null;
+            }
+            return cached.data;
+        }
+
+        private synchronized void put(Key key, byte[] data, long expiresAt, int maxEntries) {
+            entries.put(key, new CachedResults(data, expiresAt));
+            Iterator<CachedResults> eldest = entries.values().iterator();
+            while (entries.size() > maxEntries) {
+                eldest.next();
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+
+        private synchronized void invalidate() {
+            entries.clear();
+            generation.incrementAndGet();
+            invalidations.increment();
+        }
+
+        private synchronized int size() {
+            return entries.size();
+        }
+
+        private void resetStatistics() {
+            hits.reset();
+            scopeHits.reset();
+            misses.reset();
+            invalidations.reset();
+            evictions.reset();
+        }
+    }
+
+    private static final class CachedResults {
+
+        private final byte[] data;
+        private final long expiresAt;
+
+        private CachedResults(byte[] data, long expiresAt) {
+            this.data = data;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    static final class Key {
+
+        private final Region region;
+        private final String procedureName;
+        private final Map<String, Object> parameters;
+
+        private Key(Region region, String procedureName, Map<String, Object> parameters) {
+            this.region = region;
+            this.procedureName = procedureName;
+            this.parameters = parameters;
+        }
+
+        /**
+         * @return the key of the read, or {@code null} if the read cannot be cached since some of its parameters are
+         *         not of a simple immutable type
+         */
+        static Key create(Region region, String procedureName, MapSqlParameterSource parameterSource) {
+            Map<String, Object> parameters = new HashMap<>(parameterSource.getValues());
+            for (Object value : parameters.values()) {
+                if (value != null && !isImmutable(value)) {
+                    return null;
+                }
+            }
+            return new Key(region, procedureName, parameters);
+        }
+
+        private static boolean isImmutable(Object value) {
+            return value instanceof String
+                    || value instanceof Integer
+                    || value instanceof Long
+                    || value instanceof Short
+                    || value instanceof Boolean
+                    || value instanceof UUID
+                    || value instanceof Guid
+                    || value instanceof Enum;
+        }
+
+        Region getRegion() {
+            return region;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return region == other.region
+                    && procedureName.equals(other.procedureName)
+                    && parameters.equals(other.parameters);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(procedureName, parameters);
+        }
+    }
+}
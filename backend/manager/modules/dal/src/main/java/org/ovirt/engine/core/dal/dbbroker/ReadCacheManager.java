@@ -0,0 +1,46 @@
+package org.ovirt.engine.core.dal.dbbroker;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.ovirt.engine.core.common.BackendService;
+import org.ovirt.engine.core.utils.EngineLocalConfig;
+import org.ovirt.engine.core.utils.metrics.MBeanRegistration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Enables the shared results of the {@link ReadCache} according to the engine configuration and exposes its
+ * statistics via JMX
+ */
+@Singleton
+public class ReadCacheManager implements BackendService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadCacheManager.class);
+
+    private static final String MBEAN_NAME = "ReadCache:type=" + ReadCache.class.getName();
+
+    @Inject
+    private SimpleJdbcCallsHandler callsHandler;
+
+    @PostConstruct
+    private void init() {
+        final EngineLocalConfig config = EngineLocalConfig.getInstance();
+        int timeToLive = config.getInteger("ENGINE_DB_READ_CACHE_TTL", 0);
+        int maxEntries = config.getInteger("ENGINE_DB_READ_CACHE_MAX_ENTRIES", 0);
+        callsHandler.getReadCache().configure(timeToLive, maxEntries);
+        log.info("DB read cache {}, time to live {} seconds, up to {} results per region",
+                callsHandler.getReadCache().isEnabled() ? "enabled" : "disabled",
+                timeToLive,
+                maxEntries);
+
+        MBeanRegistration.register(callsHandler.getReadCache(), MBEAN_NAME);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        MBeanRegistration.unregister(MBEAN_NAME);
+    }
+}
@@ -0,0 +1,24 @@
+package org.ovirt.engine.core.dal.dbbroker;
+
+import java.util.List;
+
+/**
+ * The following interface is used as interface for JMX bean
+ */
+public interface ReadCacheMonitorMXBean {
+
+    /**
+     * The following method will return the hit, miss, invalidation and eviction counts of every cached region
+     */
+    List<String> showStatistics();
+
+    /**
+     * The following method will drop all the cached results
+     */
+    void clear();
+
+    /**
+     * The following method will reset all the statistics
+     */
+    void resetStatistics();
+}
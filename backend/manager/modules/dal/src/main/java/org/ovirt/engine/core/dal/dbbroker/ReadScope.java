@@ -0,0 +1,68 @@
+package org.ovirt.engine.core.dal.dbbroker;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A scope in which the results of the cached reads (see {@link ReadCache}) are kept for the current thread only, until
+ * the scope is closed. Repeated identical reads done while serving a single request hit the database once, and the
+ * entities loaded by a bulk read can be kept as the results of the matching single entity reads, so that
+ * <code>get(id)</code> calls following a <code>getByIds(ids)</code> call do not hit the database at all.
+ * <p>
+ * Scopes are opened with try-with-resources. Nested scopes share the outermost one, which alone discards the results
+ * when closed:
+ * </p>
+ *
+ * <pre>
+ * try (ReadScope scope = ReadScope.open()) {
+ *     ...
+ * }
+ * </pre>
+ */
+public final class ReadScope implements AutoCloseable {
+
+    private static final ThreadLocal<ReadScope> currentScope = new ThreadLocal<>();
+
+    private final Map<ReadCache.Key, byte[]> results = new HashMap<>();
+    private int depth = 1;
+
+    private ReadScope() {
+    }
+
+    public static ReadScope open() {
+        ReadScope scope = currentScope.get();
+        if (scope == null) {
+            scope = new ReadScope();
+            currentScope.set(scope);
+        } else {
+            scope.depth++;
+        }
+        return scope;
+    }
+
+    /**
+     * @return the scope open on the current thread, or {@code null} if there is none
+     */
+    static ReadScope current() {
+        return currentScope.get();
+    }
+
+    byte[] get(ReadCache.Key key) {
+        return results.get(key);
+    }
+
+    void put(ReadCache.Key key, byte[] result) {
+        results.put(key, result);
+    }
+
+    void invalidate(ReadCache.Region region) {
+        results.keySet().removeIf(key -> key.getRegion() == region);
+    }
+
+    @Override
+    public void close() {
+        if (--depth == 0) {
+            currentScope.remove();
+        }
+    }
+}
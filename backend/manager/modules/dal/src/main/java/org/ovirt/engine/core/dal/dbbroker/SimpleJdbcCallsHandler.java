@@ -6,6 +6,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
@@ -27,6 +28,7 @@ public class SimpleJdbcCallsHandler {
 
     private final ConcurrentMap<String, SimpleJdbcCall> callsMap = new ConcurrentHashMap<>();
     private final ConcurrentMap<String, Pair<String, Integer>> outParamsMap = new ConcurrentHashMap<>();
+    private final ReadCache readCache = new ReadCache();
 
     private final DbEngineDialect dialect;
     private final JdbcTemplate jdbcTemplate;
@@ -58,7 +60,11 @@ public class SimpleJdbcCallsHandler {
             final List<MapSqlParameterSource> executions)
             throws DataAccessException {
 
-        jdbcTemplate.execute(new BatchProcedureExecutionConnectionCallback(this, procName, executions));
+        try {
+            jdbcTemplate.execute(new BatchProcedureExecutionConnectionCallback(this, procName, executions));
+        } finally {
+            readCache.invalidate(procName);
+        }
     }
 
     /**
@@ -76,7 +82,11 @@ public class SimpleJdbcCallsHandler {
     }
 
     public Map<String, Object> executeModification(final String procedureName, final MapSqlParameterSource paramSource) {
-        return executeImpl(procedureName, paramSource, createCallForModification(procedureName));
+        try {
+            return executeImpl(procedureName, paramSource, createCallForModification(procedureName));
+        } finally {
+            readCache.invalidate(procedureName);
+        }
     }
 
     /**
@@ -100,7 +110,7 @@ public class SimpleJdbcCallsHandler {
 
     public int executeModificationReturnResult(final String procedureName, final MapSqlParameterSource paramSource) {
         Integer procedureResult = null;
-        Map<String, Object> result = executeImpl(procedureName, paramSource, createCallForModification(procedureName));
+        Map<String, Object> result = executeModification(procedureName, paramSource);
         if (!result.isEmpty()) {
             List<?> resultArray = (List<?>) result.values().iterator().next();
             if (resultArray != null && !resultArray.isEmpty()) {
@@ -120,14 +130,45 @@ public class SimpleJdbcCallsHandler {
         return results.isEmpty() ? null : results.get(0);
     }
 
-    @SuppressWarnings("unchecked")
     public <T> List<T> executeReadList(final String procedureName,
             final RowMapper<T> mapper,
             final MapSqlParameterSource parameterSource) {
+        return readCache.read(procedureName,
+                parameterSource,
+                () -> executeReadListImpl(procedureName, mapper, parameterSource));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> List<T> executeReadListImpl(final String procedureName,
+            final RowMapper<T> mapper,
+            final MapSqlParameterSource parameterSource) {
         Map<String, Object> resultsMap = executeImpl(procedureName, parameterSource, createCallForRead(procedureName, mapper, parameterSource), mapper);
         return (List<T>) resultsMap.get(RETURN_VALUE_PARAMETER);
     }
 
+    /**
+     * Keeps the given entities, usually loaded by a single bulk read, in the {@link ReadScope} of the current thread
+     * as the results of the single entity read procedure. Does nothing when no scope is open or the procedure is not
+     * cached.
+     *
+     * @param procedureName
+     *            the single entity read procedure
+     * @param entities
+     *            the loaded entities
+     * @param parameterMapper
+     *            creates the parameters of the single entity read of each of the entities
+     */
+    public <T> void addToReadScope(final String procedureName,
+            final List<T> entities,
+            final Function<T, MapSqlParameterSource> parameterMapper) {
+        if (ReadScope.current() == null) {
+            return;
+        }
+        readCache.putScoped(procedureName, entities.stream()
+                .map(entity -> new Pair<>(parameterMapper.apply(entity), entity))
+                .collect(Collectors.toList()));
+    }
+
     private CallCreator createCallForRead(final String procedureName,
             final RowMapper<?> mapper,
             final MapSqlParameterSource parameterSource) {
@@ -191,4 +232,8 @@ public class SimpleJdbcCallsHandler {
     public DbEngineDialect getDialect() {
         return dialect;
     }
+
+    public ReadCache getReadCache() {
+        return readCache;
+    }
 }
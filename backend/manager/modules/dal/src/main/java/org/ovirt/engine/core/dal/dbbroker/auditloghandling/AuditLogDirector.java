@@ -6,10 +6,9 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 
 import org.apache.commons.lang.StringUtils;
+import org.ovirt.engine.core.common.AuditLogSeverity;
 import org.ovirt.engine.core.common.AuditLogType;
 import org.ovirt.engine.core.common.businessentities.AuditLog;
-import org.ovirt.engine.core.dao.AuditLogDao;
-import org.ovirt.engine.core.utils.transaction.TransactionSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -19,7 +18,7 @@ public class AuditLogDirector {
     private static final int USERNAME_LENGTH = 255;
 
     @Inject
-    private AuditLogDao auditLogDao;
+    private AuditLogWriter auditLogWriter;
 
     public void log(AuditLogable auditLogable, AuditLogType logType) {
         log(auditLogable, logType, "", false);
@@ -34,6 +33,13 @@ public class AuditLogDirector {
 
     /**
      * Log an event with the given message
+     * <p>
+     * External events and alerts are written to the database before this method returns. The other events are
+     * queued and written in batches by the {@link AuditLogWriter}, possibly after the calling transaction ends, and
+     * the id of their {@link AuditLog} is assigned by the database only then: it is 0 when this method returns, so
+     * code which needs to read an event back must look it up by other attributes, as is done for external events by
+     * their origin and custom event id.
+     * </p>
      *
      * @param auditLogable
      *            the event which contains the data members to log
@@ -71,10 +77,13 @@ public class AuditLogDirector {
         // truncate user name
         auditLog.setUserName(StringUtils.abbreviate(auditLog.getUserName(), USERNAME_LENGTH));
 
-        TransactionSupport.executeInNewTransaction(() -> {
-            auditLogDao.save(auditLog);
-            return null;
-        });
+        // External events are read back by their origin right after they are logged, and alerts replace the previous
+        // ones of the same type, so these are written when they are logged; the other events are written in batches:
+        if (auditLogable.isExternal() || auditLog.getSeverity() == AuditLogSeverity.ALERT) {
+            auditLogWriter.writeNow(auditLog);
+        } else {
+            auditLogWriter.write(auditLog);
+        }
         return auditLog;
     }
 
@@ -0,0 +1,236 @@
+package org.ovirt.engine.core.dal.dbbroker.auditloghandling;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.concurrent.ManagedScheduledExecutorService;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang.exception.ExceptionUtils;
+import org.ovirt.engine.core.common.businessentities.AuditLog;
+import org.ovirt.engine.core.dao.AuditLogDao;
+import org.ovirt.engine.core.utils.EngineLocalConfig;
+import org.ovirt.engine.core.utils.threadpool.ThreadPools;
+import org.ovirt.engine.core.utils.transaction.TransactionSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes the audit log events to the database. The events are put in a bounded queue and written in batches by the
+ * engine scheduled thread pool, either periodically or as soon as a full batch is queued, so that the threads logging
+ * them don't wait for the database.
+ * <p>
+ * When the queue is full the logging thread waits for a short time for room in it, and if there is still no room the
+ * configured {@link OverflowPolicy} is applied to the event.
+ */
+@Singleton
+public class AuditLogWriter {
+    private static final Logger log = LoggerFactory.getLogger(AuditLogWriter.class);
+
+    /**
+     * What to do with an event that can't be queued.
+     */
+    public enum OverflowPolicy {
+        /**
+         * Write the event by the logging thread.
+         */
+        WRITE,
+        /**
+         * Drop the event.
+         */
+        DISCARD
+    }
+
+    @Inject
+    private AuditLogDao auditLogDao;
+
+    @Inject
+    @ThreadPools(ThreadPools.ThreadPoolType.EngineScheduledThreadPool)
+    private ManagedScheduledExecutorService executor;
+
+    private BlockingQueue<AuditLog> queue;
+    private int batchSize;
+    private long offerTimeout;
+    private OverflowPolicy overflowPolicy;
+    private volatile boolean stopped;
+    private ScheduledFuture<?> flushJob;
+
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final AtomicBoolean flushing = new AtomicBoolean();
+    private final AtomicLong discarded = new AtomicLong();
+
+    @PostConstruct
+    private void init() {
+        EngineLocalConfig config = EngineLocalConfig.getInstance();
+        int queueSize = config.getInteger("ENGINE_AUDIT_LOG_QUEUE_SIZE", 10000);
+        String overflowPolicy = config.getProperty("ENGINE_AUDIT_LOG_OVERFLOW_POLICY", true);
+        configure(queueSize,
+                config.getInteger("ENGINE_AUDIT_LOG_BATCH_SIZE", 500),
+                config.getInteger("ENGINE_AUDIT_LOG_QUEUE_OFFER_TIMEOUT", 100),
+                overflowPolicy == null ? OverflowPolicy.WRITE : OverflowPolicy.valueOf(overflowPolicy.toUpperCase()));
+        if (isAsync()) {
+            long flushInterval = config.getInteger("ENGINE_AUDIT_LOG_FLUSH_INTERVAL", 500);
+            flushJob = executor.scheduleWithFixedDelay(this::flush,
+                    flushInterval,
+                    flushInterval,
+                    TimeUnit.MILLISECONDS);
+            log.info("Audit log events are queued, up to {} events, and written in batches of up to {} events",
+                    queueSize,
+                    batchSize);
+        } else {
+            log.info("Audit log events are written when they are logged");
+        }
+    }
+
+    void configure(int queueSize, int batchSize, long offerTimeout, OverflowPolicy overflowPolicy) {
+        this.queue = queueSize > 0 ? new ArrayBlockingQueue<>(queueSize) : null;
+        this.batchSize = Math.max(1, batchSize);
+        this.offerTimeout = offerTimeout;
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    @PreDestroy
+    private void destroy() {
+        stopped = true;
+        if (flushJob != null) {
+            flushJob.cancel(false);
+        }
+        // Write what is left in the queue, events logged from now on are written when they are logged:
+        if (queue != null) {
+            drain();
+        }
+    }
+
+    /**
+     * Checks if the events are queued and written asynchronously.
+     */
+    public boolean isAsync() {
+        return queue != null && !stopped;
+    }
+
+    /**
+     * Writes the given event to the database when it is called, in a new transaction. The id of the event is set
+     * when the method returns.
+     */
+    public void writeNow(AuditLog auditLog) {
+        inNewTransaction(() -> auditLogDao.save(auditLog));
+    }
+
+    /**
+     * Writes the given event to the database, usually after it is returned. The id of the event isn't set.
+     */
+    public void write(AuditLog auditLog) {
+        if (!isAsync()) {
+            writeNow(auditLog);
+            return;
+        }
+
+        if (queue.offer(auditLog)) {
+            if (queue.size() >= batchSize) {
+                requestFlush();
+            }
+            return;
+        }
+
+        // The queue is full, make sure it is being flushed and give the flush a chance to make room:
+        requestFlush();
+        try {
+            if (queue.offer(auditLog, offerTimeout, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        switch (overflowPolicy) {
+        case DISCARD:
+            discarded.incrementAndGet();
+            break;
+        case WRITE:
+        default:
+            writeNow(auditLog);
+            break;
+        }
+    }
+
+    private void requestFlush() {
+        if (flushRequested.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::flush);
+            } catch (RejectedExecutionException e) {
+                // The periodic flush will write the events:
+                flushRequested.set(false);
+            }
+        }
+    }
+
+    /**
+     * Writes the queued events. Only one flush runs at a time, a flush started while another one is running returns
+     * immediately as the running flush drains the queue anyway.
+     */
+    void flush() {
+        flushRequested.set(false);
+        if (!flushing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            drain();
+        } catch (RuntimeException e) {
+            log.error("Failed to write the audit log events: {}", ExceptionUtils.getRootCauseMessage(e));
+            log.debug("Exception", e);
+        } finally {
+            flushing.set(false);
+        }
+
+        long discardedCount = discarded.getAndSet(0);
+        if (discardedCount > 0) {
+            log.warn("Discarded {} audit log events as the audit log queue was full", discardedCount);
+        }
+    }
+
+    private void drain() {
+        List<AuditLog> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            writeBatch(batch);
+            batch.clear();
+        }
+    }
+
+    private void writeBatch(List<AuditLog> batch) {
+        try {
+            inNewTransaction(() -> auditLogDao.saveAllInBatch(batch));
+        } catch (RuntimeException e) {
+            log.warn("Failed to write a batch of {} audit log events, writing them one at a time: {}",
+                    batch.size(),
+                    ExceptionUtils.getRootCauseMessage(e));
+            log.debug("Exception", e);
+            for (AuditLog auditLog : batch) {
+                try {
+                    writeNow(auditLog);
+                } catch (RuntimeException ex) {
+                    log.error("Failed to write audit log event '{}': {}",
+                            auditLog.getMessage(),
+                            ExceptionUtils.getRootCauseMessage(ex));
+                    log.debug("Exception", ex);
+                }
+            }
+        }
+    }
+
+    void inNewTransaction(Runnable code) {
+        TransactionSupport.executeInNewTransaction(() -> {
+            code.run();
+            return null;
+        });
+    }
+}
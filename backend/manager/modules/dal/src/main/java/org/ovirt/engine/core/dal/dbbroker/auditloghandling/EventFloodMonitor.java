@@ -0,0 +1,27 @@
+package org.ovirt.engine.core.dal.dbbroker.auditloghandling;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Singleton;
+
+import org.ovirt.engine.core.common.BackendService;
+import org.ovirt.engine.core.utils.metrics.MBeanRegistration;
+
+/**
+ * Exposes the statistics of the node local {@link EventFloodRegistry}, which keeps the flood regulated events, via JMX
+ */
+@Singleton
+public class EventFloodMonitor implements BackendService {
+
+    private static final String MBEAN_NAME = "EventFloodRegistry:type=" + EventFloodRegistry.class.getName();
+
+    @PostConstruct
+    private void init() {
+        MBeanRegistration.register(EventFloodRegistry.getInstance(), MBEAN_NAME);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        MBeanRegistration.unregister(MBEAN_NAME);
+    }
+}
@@ -0,0 +1,157 @@
+package org.ovirt.engine.core.dal.dbbroker.auditloghandling;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+import org.ovirt.engine.core.common.AuditLogType;
+
+/**
+ * Keeps the flood regulated events of this engine, each until its flood rate period is over. The periods are expired
+ * by a hashed timer wheel of one second ticks, advanced by the threads regulating the events, so no thread or timer
+ * is needed and an expired event costs a single removal.
+ * <p>
+ * The number of occurrences suppressed for each event type is counted and exposed via JMX.
+ */
+public class EventFloodRegistry implements EventFloodRegistryMonitorMXBean {
+
+    private static final long TICK_MILLIS = 1000;
+    private static final int WHEEL_SIZE = 512;
+
+    private static final EventFloodRegistry instance = new EventFloodRegistry(System::currentTimeMillis);
+
+    private final LongSupplier clock;
+
+    /**
+     * The end of the flood rate period of every regulated event, in milliseconds.
+     */
+    private final ConcurrentMap<EventKey, Long> periodEnds = new ConcurrentHashMap<>();
+    private final Queue<Timeout>[] wheel;
+    private final Lock expirationLock = new ReentrantLock();
+    private volatile long expiredTick;
+
+    private final ConcurrentMap<AuditLogType, LongAdder> suppressed = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    EventFloodRegistry(LongSupplier clock) {
+        this.clock = clock;
+        this.wheel = new Queue[WHEEL_SIZE];
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.expiredTick = clock.getAsLong() / TICK_MILLIS;
+    }
+
+    public static EventFloodRegistry getInstance() {
+        return instance;
+    }
+
+    /**
+     * Starts the flood rate period of the given event, unless it is already in one.
+     *
+     * @param key
+     *            the event
+     * @param periodMillis
+     *            the length of the flood rate period
+     * @return whether the period was started and the event should be logged
+     */
+    public boolean tryStart(EventKey key, long periodMillis) {
+        long now = clock.getAsLong();
+        expire(now);
+
+        Long periodEnd = now + periodMillis;
+        Long currentPeriodEnd = periodEnds.putIfAbsent(key, periodEnd);
+        // A period which is over and wasn't expired yet is replaced:
+        if (currentPeriodEnd == null
+                || currentPeriodEnd <= now && periodEnds.replace(key, currentPeriodEnd, periodEnd)) {
+            // The slot of the tick following the end of the period, which is expired after the period is over:
+            wheel[(int) ((periodEnd / TICK_MILLIS + 1) % WHEEL_SIZE)].add(new Timeout(key, periodEnd));
+            return true;
+        }
+
+        suppressed.computeIfAbsent(key.getLogType(), type -> new LongAdder()).increment();
+        return false;
+    }
+
+    /**
+     * Ends the flood rate period of the given event, so its next occurrence is logged.
+     */
+    public void end(EventKey key) {
+        periodEnds.remove(key);
+    }
+
+    /**
+     * Removes the periods which are over from the slots of the ticks that passed since the last expiration. Only one
+     * thread expires at a time, the others don't wait for it.
+     */
+    private void expire(long now) {
+        long tick = now / TICK_MILLIS;
+        if (tick <= expiredTick || !expirationLock.tryLock()) {
+            return;
+        }
+        try {
+            // After a pause longer than the wheel, each slot is visited once:
+            long lastTick = Math.min(tick, expiredTick + WHEEL_SIZE);
+            for (long t = expiredTick + 1; t <= lastTick; t++) {
+                Iterator<Timeout> timeouts = wheel[(int) (t % WHEEL_SIZE)].iterator();
+                while (timeouts.hasNext()) {
+                    Timeout timeout = timeouts.next();
+                    // Periods longer than the wheel stay for the following rounds:
+                    if (timeout.periodEnd <= now) {
+                        timeouts.remove();
+                        // Unless the event was ended and started again:
+                        periodEnds.remove(timeout.key, timeout.periodEnd);
+                    }
+                }
+            }
+            expiredTick = tick;
+        } finally {
+            expirationLock.unlock();
+        }
+    }
+
+    public long getSuppressedCount(AuditLogType logType) {
+        LongAdder count = suppressed.get(logType);
+        return count == null ? 0 : count.sum();
+    }
+
+    @Override
+    public List<String> showSuppressedEvents() {
+        return suppressed.entrySet()
+                .stream()
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue().sum()))
+                .sorted(Map.Entry.<AuditLogType, Long> comparingByValue(Comparator.reverseOrder()))
+                .map(entry -> String.format("%s: %d suppressed", entry.getKey(), entry.getValue()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public int getRegulatedEventsCount() {
+        return periodEnds.size();
+    }
+
+    @Override
+    public void resetStatistics() {
+        suppressed.clear();
+    }
+
+    private static class Timeout {
+        private final EventKey key;
+        private final Long periodEnd;
+
+        private Timeout(EventKey key, Long periodEnd) {
+            this.key = key;
+            this.periodEnd = periodEnd;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package org.ovirt.engine.core.dal.dbbroker.auditloghandling;
+
+import java.util.List;
+
+/**
+ * The following interface is used as interface for JMX bean
+ */
+public interface EventFloodRegistryMonitorMXBean {
+
+    /**
+     * The following method will return the number of suppressed events of every event type
+     */
+    List<String> showSuppressedEvents();
+
+    /**
+     * The following method will return the number of events currently regulated
+     */
+    int getRegulatedEventsCount();
+
+    /**
+     * The following method will reset the suppressed events counts
+     */
+    void resetStatistics();
+}
@@ -3,7 +3,6 @@ package org.ovirt.engine.core.dal.dbbroker.auditloghandling;
 import java.util.concurrent.TimeUnit;
 
 import org.ovirt.engine.core.common.AuditLogType;
-import org.ovirt.engine.core.dal.utils.CacheManager;
 
 public class EventFloodRegulator {
 
@@ -11,7 +10,7 @@ public class EventFloodRegulator {
     private final AuditLogType logType;
     private boolean useTimeout;
     private long endTime;
-    private String timeoutObjectId;
+    private EventKey timeoutKey;
 
     public EventFloodRegulator(AuditLogable event, AuditLogType logType) {
         this.event = event;
@@ -27,13 +26,7 @@ public class EventFloodRegulator {
      */
     public boolean isLegal(boolean ignoreTimeout) {
         if (useTimeout && !ignoreTimeout) {
-            String key = "".equals(timeoutObjectId) ? logType.toString() : timeoutObjectId;
-            String oldValue = CacheManager.getTimeoutBaseCache().putIfAbsent(
-                    key,
-                    key,
-                    endTime,
-                    TimeUnit.MILLISECONDS);
-            return oldValue == null;
+            return EventFloodRegistry.getInstance().tryStart(timeoutKey, endTime);
         }
         return true;
     }
@@ -47,18 +40,16 @@ public class EventFloodRegulator {
                 : logType.getEventFloodRate();
         if (eventFloodRate > 0) {
             setEndTime(TimeUnit.SECONDS.toMillis(eventFloodRate));
-            timeoutObjectId = composeObjectId();
-        } else {
-            timeoutObjectId = "";
+            timeoutKey = composeKey();
         }
     }
 
-    private String composeObjectId() {
-        return EventKeyComposer.composeObjectId(event, logType);
+    private EventKey composeKey() {
+        return EventKeyComposer.composeKey(event, logType);
     }
 
     public void evict() {
-        CacheManager.getTimeoutBaseCache().computeIfPresent(composeObjectId(), (k, v) -> null);
+        EventFloodRegistry.getInstance().end(composeKey());
     }
 
     private void setEndTime(long value) {
@@ -0,0 +1,80 @@
+package org.ovirt.engine.core.dal.dbbroker.auditloghandling;
+
+import java.util.Objects;
+
+import org.apache.commons.lang.StringUtils;
+import org.ovirt.engine.core.common.AuditLogType;
+import org.ovirt.engine.core.compat.Guid;
+
+/**
+ * Identifies the occurrences of an event by the same entities, like the object id composed by
+ * {@link EventKeyComposer#composeObjectId}, without building a string for each event.
+ */
+public final class EventKey {
+
+    private final AuditLogType logType;
+    private final Guid storageDomainId;
+    private final Guid storagePoolId;
+    private final Guid userId;
+    private final Guid clusterId;
+    private final Guid vdsId;
+    private final Guid vmId;
+    private final Guid vmTemplateId;
+    private final String customId;
+    private final int hash;
+
+    EventKey(AuditLogable event, AuditLogType logType) {
+        this.logType = logType;
+        this.storageDomainId = emptyGuidToNull(event.getStorageDomainId());
+        this.storagePoolId = emptyGuidToNull(event.getStoragePoolId());
+        this.userId = emptyGuidToNull(event.getUserId());
+        this.clusterId = emptyGuidToNull(event.getClusterId());
+        this.vdsId = emptyGuidToNull(event.getVdsId());
+        this.vmId = emptyGuidToNull(event.getVmId());
+        this.vmTemplateId = emptyGuidToNull(event.getVmTemplateId());
+        this.customId = StringUtils.defaultString(event.getCustomId());
+        this.hash = Objects.hash(logType,
+                storageDomainId,
+                storagePoolId,
+                userId,
+                clusterId,
+                vdsId,
+                vmId,
+                vmTemplateId,
+                customId);
+    }
+
+    public AuditLogType getLogType() {
+        return logType;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof EventKey)) {
+            return false;
+        }
+        EventKey other = (EventKey) obj;
+        return hash == other.hash
+                && logType == other.logType
+                && Objects.equals(storageDomainId, other.storageDomainId)
+                && Objects.equals(storagePoolId, other.storagePoolId)
+                && Objects.equals(userId, other.userId)
+                && Objects.equals(clusterId, other.clusterId)
+                && Objects.equals(vdsId, other.vdsId)
+                && Objects.equals(vmId, other.vmId)
+                && Objects.equals(vmTemplateId, other.vmTemplateId)
+                && customId.equals(other.customId);
+    }
+
+    private static Guid emptyGuidToNull(Guid guid) {
+        return Guid.Empty.equals(guid) ? null : guid;
+    }
+}
@@ -37,6 +37,19 @@ public class EventKeyComposer {
         return builder.toString();
     }
 
+    /**
+     * Composes a key identifying the same instances as {@link #composeObjectId}, to be used as a map key.
+     *
+     * @param event
+     *            the event entity that its attributes will be used to created the key
+     * @param logType
+     *            the log type associated with the event
+     * @return unique key
+     */
+    public static EventKey composeKey(AuditLogable event, AuditLogType logType) {
+        return new EventKey(event, logType);
+    }
+
     private static void compose(StringBuilder builder, String key, String value) {
         if (builder.length() > 0) {
             builder.append(KEY_PARTS_DELIMITER);
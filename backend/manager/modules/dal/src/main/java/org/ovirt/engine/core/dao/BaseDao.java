@@ -5,9 +5,11 @@ import java.sql.Array;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 import javax.inject.Inject;
@@ -19,6 +21,7 @@ import org.ovirt.engine.core.dal.dbbroker.DbEngineDialect;
 import org.ovirt.engine.core.dal.dbbroker.SimpleJdbcCallsHandler;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.SqlParameterValue;
 
 public abstract class BaseDao {
     protected static final String SEPARATOR = ",";
@@ -68,6 +71,17 @@ public abstract class BaseDao {
         return (rs, rowNum) -> new Guid((UUID) rs.getObject(1));
     }
 
+    /**
+     * Runs a search query. Its parameters are bound without a type, so the database infers their types from the
+     * context, the same way it does for literals.
+     */
+    protected <T> List<T> searchWithQuery(String query, RowMapper<T> rowMapper, Object... parameters) {
+        Object[] untypedParameters = Arrays.stream(parameters)
+                .map(parameter -> new SqlParameterValue(Types.OTHER, parameter))
+                .toArray();
+        return getJdbcTemplate().query(query, rowMapper, untypedParameters);
+    }
+
     protected SimpleJdbcCallsHandler getCallsHandler() {
         return callsHandler;
     }
@@ -1,11 +1,14 @@
 package org.ovirt.engine.core.dao;
 
 import java.sql.Types;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
+import javax.annotation.PostConstruct;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
@@ -38,6 +41,30 @@ import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 @Singleton
 public class ClusterDaoImpl extends BaseDao implements ClusterDao {
 
+    @PostConstruct
+    private void registerReadCache() {
+        getCallsHandler().getReadCache().registerRegion("Cluster",
+                true,
+                Collections.singletonList("GetClusterByClusterId"),
+                // cluster_view joins the names of the storage pool and of the cluster policy
+                Arrays.asList("InsertCluster",
+                        "UpdateCluster",
+                        "UpdateClusterEmulatedMachine",
+                        "UpdateClusterUpgradeProgress",
+                        "SetClusterUpgradeRunning",
+                        "ClearClusterUpgradeRunning",
+                        "ClearAllClusterUpgradeRunning",
+                        "DeleteCluster",
+                        "inst_update_service_type",
+                        "Insertstorage_pool",
+                        "Updatestorage_pool",
+                        "Updatestorage_pool_partial",
+                        "Deletestorage_pool",
+                        "InsertClusterPolicy",
+                        "UpdateClusterPolicy",
+                        "DeleteClusterPolicy"));
+    }
+
     @Override
     public Cluster get(Guid id) {
         return get(id, null, false);
@@ -109,8 +136,8 @@ public class ClusterDaoImpl extends BaseDao implements ClusterDao {
     }
 
     @Override
-    public List<Cluster> getAllWithQuery(String query) {
-        List<Cluster> clusters = getJdbcTemplate().query(query, clusterRowMapper);
+    public List<Cluster> getAllWithQuery(String query, Object... parameters) {
+        List<Cluster> clusters = searchWithQuery(query, clusterRowMapper, parameters);
         return getHostsAndVmsForClusters(clusters);
     }
 
@@ -21,6 +21,8 @@ public interface CommandEntityDao extends GenericDao<CommandEntity, Guid> {
 
     void removeAllBeforeDate(Date cutoff);
 
+    List<Guid> getIdsBeforeDate(Date cutoff);
+
     List<CommandEntity> getCmdEntitiesByParentCmdId(Guid parentId);
 
     List<Guid> getCommandIdsByEntity(Guid entityId);
@@ -28,4 +30,6 @@ public interface CommandEntityDao extends GenericDao<CommandEntity, Guid> {
     void insertCommandAssociatedEntities(Collection<CommandAssociatedEntity> cmdAssociatedEntities);
 
     List<CommandAssociatedEntity> getAllCommandAssociatedEntities(Guid cmdId);
+
+    List<CommandAssociatedEntity> getAllCommandAssociatedEntities();
 }
@@ -171,6 +171,15 @@ public class CommandEntityDaoImpl extends DefaultGenericDao<CommandEntity, Guid>
         getCallsHandler().executeModification("DeleteCommandEntitiesOlderThanDate", parameterSource);
     }
 
+    @Override
+    public List<Guid> getIdsBeforeDate(Date cutoff) {
+        MapSqlParameterSource parameterSource = getCustomMapSqlParameterSource()
+                .addValue("date", cutoff);
+        return getCallsHandler().executeReadList("GetCommandEntityIdsOlderThanDate",
+                idRowMapper,
+                parameterSource);
+    }
+
     @Override
     public List<CommandEntity> getCmdEntitiesByParentCmdId(Guid parentId) {
         MapSqlParameterSource parameterSource = getCustomMapSqlParameterSource()
@@ -204,4 +213,11 @@ public class CommandEntityDaoImpl extends DefaultGenericDao<CommandEntity, Guid>
                 parameterSource);
     }
 
+    @Override
+    public List<CommandAssociatedEntity> getAllCommandAssociatedEntities() {
+        return getCallsHandler().executeReadList("GetAllCommandAssociatedEntities",
+                coCoCmdEntityRowMapper,
+                getCustomMapSqlParameterSource());
+    }
+
 }
@@ -129,8 +129,8 @@ public class DbUserDaoImpl extends BaseDao implements DbUserDao {
     }
 
     @Override
-    public List<DbUser> getAllWithQuery(String query) {
-        return getJdbcTemplate().query(query, dbUserRowMapper);
+    public List<DbUser> getAllWithQuery(String query, Object... parameters) {
+        return searchWithQuery(query, dbUserRowMapper, parameters);
     }
 
     @Override
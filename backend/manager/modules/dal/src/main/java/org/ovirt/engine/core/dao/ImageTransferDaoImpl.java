@@ -141,8 +141,8 @@ public class ImageTransferDaoImpl extends DefaultGenericDao<ImageTransfer, Guid>
     }
 
     @Override
-    public List<ImageTransfer> getAllWithQuery(String query) {
-        return getJdbcTemplate().query(query, createEntityRowMapper());
+    public List<ImageTransfer> getAllWithQuery(String query, Object... parameters) {
+        return searchWithQuery(query, createEntityRowMapper(), parameters);
     }
 
     @Override
@@ -150,7 +150,7 @@ public class JobDaoImpl extends DefaultGenericDao<Job, Guid> implements JobDao {
     }
 
     @Override
-    public List<Job> getAllWithQuery(String query) {
-        return getJdbcTemplate().query(query, createEntityRowMapper());
+    public List<Job> getAllWithQuery(String query, Object... parameters) {
+        return searchWithQuery(query, createEntityRowMapper(), parameters);
     }
 }
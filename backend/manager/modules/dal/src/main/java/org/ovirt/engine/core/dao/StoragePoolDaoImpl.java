@@ -1,7 +1,10 @@
 package org.ovirt.engine.core.dao;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
+import javax.annotation.PostConstruct;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
@@ -38,6 +41,20 @@ public class StoragePoolDaoImpl extends BaseDao implements StoragePoolDao {
         return entity;
     };
 
+    @PostConstruct
+    private void registerReadCache() {
+        getCallsHandler().getReadCache().registerRegion("StoragePool",
+                true,
+                Collections.singletonList("Getstorage_poolByid"),
+                Arrays.asList("Insertstorage_pool",
+                        "Updatestorage_pool",
+                        "Updatestorage_pool_partial",
+                        "Updatestorage_pool_status",
+                        "IncreaseStoragePoolMasterVersion",
+                        "Deletestorage_pool",
+                        "inst_update_default_storage_pool_type"));
+    }
+
     @Override
     public StoragePool get(Guid id) {
         return get(id, null, false);
@@ -110,8 +127,8 @@ public class StoragePoolDaoImpl extends BaseDao implements StoragePoolDao {
     }
 
     @Override
-    public List<StoragePool> getAllWithQuery(String query) {
-        return getJdbcTemplate().query(query, mapper);
+    public List<StoragePool> getAllWithQuery(String query, Object... parameters) {
+        return searchWithQuery(query, mapper, parameters);
     }
 
     @Override
@@ -1,6 +1,8 @@
 package org.ovirt.engine.core.dao;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import org.ovirt.engine.core.common.businessentities.Tags;
 import org.ovirt.engine.core.common.businessentities.TagsTemplateMap;
@@ -76,6 +78,15 @@ public interface TagDao extends Dao {
      */
     List<Tags> getAllForVm(String ids);
 
+    /**
+     * Retrieves the tags of each of the given VMs.
+     *
+     * @param vmIds
+     *            the VM ids
+     * @return the tags by the ids of the VMs, VMs without tags are absent
+     */
+    Map<Guid, List<Tags>> getAllForVms(Collection<Guid> vmIds);
+
     /**
      * Retrieves the list of tags for the given Template ids.
      *
@@ -2,7 +2,11 @@ package org.ovirt.engine.core.dao;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.inject.Named;
 import javax.inject.Singleton;
@@ -14,6 +18,7 @@ import org.ovirt.engine.core.common.businessentities.TagsUserGroupMap;
 import org.ovirt.engine.core.common.businessentities.TagsUserMap;
 import org.ovirt.engine.core.common.businessentities.TagsVdsMap;
 import org.ovirt.engine.core.common.businessentities.TagsVmMap;
+import org.ovirt.engine.core.common.utils.Pair;
 import org.ovirt.engine.core.compat.Guid;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
@@ -127,6 +132,20 @@ public class TagDaoImpl extends BaseDao implements TagDao {
                 .executeReadList("GetTagsByVmId", tagRowMapper, parameterSource);
     }
 
+    @Override
+    public Map<Guid, List<Tags>> getAllForVms(Collection<Guid> vmIds) {
+        MapSqlParameterSource parameterSource = getCustomMapSqlParameterSource()
+                .addValue("vm_ids", createArrayOfUUIDs(vmIds));
+
+        Map<Guid, List<Tags>> tagsByVmId = new HashMap<>();
+        getCallsHandler().executeReadList("GetTagsByVmIds",
+                (rs, rowNum) -> new Pair<>(getGuidDefaultEmpty(rs, "vm_id"), tagRowMapper.mapRow(rs, rowNum)),
+                parameterSource)
+                .forEach(pair -> tagsByVmId.computeIfAbsent(pair.getFirst(), id -> new ArrayList<>())
+                        .add(pair.getSecond()));
+        return tagsByVmId;
+    }
+
     /**
      * In the database both TemplateTags and VmTags share the same tables and
      * functions
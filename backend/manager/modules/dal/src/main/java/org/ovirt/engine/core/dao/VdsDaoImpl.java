@@ -142,8 +142,8 @@ public class VdsDaoImpl extends BaseDao implements VdsDao {
     }
 
     @Override
-    public List<VDS> getAllWithQuery(String query) {
-        return getJdbcTemplate().query(query, vdsRowMapper);
+    public List<VDS> getAllWithQuery(String query, Object... parameters) {
+        return searchWithQuery(query, vdsRowMapper, parameters);
     }
 
     @Override
@@ -25,6 +25,7 @@ import org.ovirt.engine.core.compat.RpmVersion;
 import org.ovirt.engine.core.dao.network.DnsResolverConfigurationDao;
 import org.ovirt.engine.core.utils.JsonHelper;
 import org.ovirt.engine.core.utils.SerializationFactory;
+import org.ovirt.engine.core.utils.metrics.EntityStatusCounter;
 import org.ovirt.engine.core.utils.serialization.json.JsonObjectDeserializer;
 import org.ovirt.engine.core.utils.serialization.json.JsonObjectSerializer;
 import org.slf4j.Logger;
@@ -157,11 +158,13 @@ public class VdsDynamicDaoImpl extends MassOperationsGenericDao<VdsDynamic, Guid
     @Override
     public void save(VdsDynamic vds) {
         getCallsHandler().executeModification("InsertVdsDynamic", createFullParametersMapperForSave(vds));
+        EntityStatusCounter.HOSTS.update(vds.getId(), vds.getStatus());
     }
 
     @Override
     public void update(VdsDynamic vds) {
         getCallsHandler().executeModification("UpdateVdsDynamic", createFullParametersMapper(vds));
+        EntityStatusCounter.HOSTS.update(vds.getId(), vds.getStatus());
     }
 
     public void updateDnsResolverConfiguration(Guid vdsId, DnsResolverConfiguration reportedDnsResolverConfiguration) {
@@ -186,6 +189,7 @@ public class VdsDynamicDaoImpl extends MassOperationsGenericDao<VdsDynamic, Guid
                 .addValue("vds_id", id);
 
         getCallsHandler().executeModification("DeleteVdsDynamic", parameterSource);
+        EntityStatusCounter.HOSTS.remove(id);
     }
 
     @Override
@@ -198,6 +202,7 @@ public class VdsDynamicDaoImpl extends MassOperationsGenericDao<VdsDynamic, Guid
         MapSqlParameterSource parameterSource = getStatusSqlParameterSource(id, status);
 
         getCallsHandler().executeModification("UpdateVdsDynamicStatus", parameterSource);
+        EntityStatusCounter.HOSTS.update(id, status);
     }
 
     @Override
@@ -207,6 +212,7 @@ public class VdsDynamicDaoImpl extends MassOperationsGenericDao<VdsDynamic, Guid
                 .addValue("maintenance_reason", host.getMaintenanceReason());
 
         getCallsHandler().executeModification("UpdateVdsDynamicStatusAndReasons", parameterSource);
+        EntityStatusCounter.HOSTS.update(host.getId(), host.getStatus());
     }
 
     @Override
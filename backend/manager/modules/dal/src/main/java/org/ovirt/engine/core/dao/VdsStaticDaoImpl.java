@@ -1,8 +1,11 @@
 package org.ovirt.engine.core.dao;
 
 import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
+import javax.annotation.PostConstruct;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
@@ -14,6 +17,7 @@ import org.ovirt.engine.core.common.businessentities.VdsStatic;
 import org.ovirt.engine.core.common.utils.pm.FenceProxySourceTypeHelper;
 import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.utils.SerializationException;
+import org.ovirt.engine.core.utils.metrics.EntityStatusCounter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.jdbc.core.RowMapper;
@@ -36,12 +40,30 @@ public class VdsStaticDaoImpl extends BaseDao implements VdsStaticDao {
 
     private static final Logger log = LoggerFactory.getLogger(VdsStaticDaoImpl.class);
 
+    @PostConstruct
+    private void registerReadCache() {
+        // hosts change too often to share them, they are only kept for the current request
+        getCallsHandler().getReadCache().registerRegion("VdsStatic",
+                false,
+                Collections.singletonList("GetVdsStaticByVdsId"),
+                Arrays.asList("InsertVdsStatic",
+                        "UpdateVdsStatic",
+                        "UpdateVdsReinstallRequired",
+                        "UpdateVdsStaticKernelCmdlines",
+                        "UpdateVdsStaticLastStoredKernelCmdline",
+                        "DeleteVdsStatic",
+                        "DeleteVds"));
+    }
+
     @Override
     public VdsStatic get(Guid id) {
         return getCallsHandler().executeRead("GetVdsStaticByVdsId",
                 vdsStaticRowMapper,
-                getCustomMapSqlParameterSource()
-                        .addValue("vds_id", id));
+                createIdParameterMapper(id));
+    }
+
+    private MapSqlParameterSource createIdParameterMapper(Guid id) {
+        return getCustomMapSqlParameterSource().addValue("vds_id", id);
     }
 
     @Override
@@ -123,6 +145,7 @@ public class VdsStaticDaoImpl extends BaseDao implements VdsStaticDao {
                 .addValue("vds_id", id);
 
         getCallsHandler().executeModification("DeleteVdsStatic", parameterSource);
+        EntityStatusCounter.HOSTS.remove(id);
     }
 
     @Override
@@ -220,9 +243,11 @@ public class VdsStaticDaoImpl extends BaseDao implements VdsStaticDao {
 
     @Override
     public List<VdsStatic> getByIds(List<Guid> ids) {
-        return getCallsHandler().executeReadList("GetVdsStaticByVdsIds",
+        List<VdsStatic> hosts = getCallsHandler().executeReadList("GetVdsStaticByVdsIds",
                 vdsStaticRowMapper,
                 getCustomMapSqlParameterSource().addValue("vds_ids", createArrayOfUUIDs(ids)));
+        getCallsHandler().addToReadScope("GetVdsStaticByVdsId", hosts, host -> createIdParameterMapper(host.getId()));
+        return hosts;
     }
 
     /**
@@ -179,9 +179,11 @@ public interface VmDao extends Dao {
      *
      * @param query
      *            the SQL query
+     * @param parameters
+     *            the values of the query placeholders, their types are inferred by the database
      * @return the list of VMs
      */
-    List<VM> getAllUsingQuery(String query);
+    List<VM> getAllUsingQuery(String query, Object... parameters);
 
     /**
      * Retrieves the list of VMs for the given storage domain.
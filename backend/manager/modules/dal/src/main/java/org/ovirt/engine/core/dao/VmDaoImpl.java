@@ -186,8 +186,8 @@ public class VmDaoImpl extends BaseDao implements VmDao {
     }
 
     @Override
-    public List<VM> getAllUsingQuery(String query) {
-        return getJdbcTemplate().query(query, vmRowMapper);
+    public List<VM> getAllUsingQuery(String query, Object... parameters) {
+        return searchWithQuery(query, vmRowMapper, parameters);
     }
 
     @Override
@@ -143,4 +143,16 @@ public interface VmDynamicDao extends GenericDao<VmDynamic, Guid>, StatusAwareDa
      * @return the list of VmDynamics
      */
     List<VmDynamic> getAllRunningForUserAndActionGroup(Guid userID, ActionGroup actionGroup);
+
+    /**
+     * Returns the number of modifications of the dynamic VM made through this DAO since the engine started, a
+     * modification done in a transaction is counted again once the transaction completes. A copy of the dynamic VM
+     * read or written while the count did not change is up to date as long as the count stays the same. The count of
+     * a removed dynamic VM is not kept, but it never goes back to a value the count had before the removal.
+     *
+     * @param vmId
+     *            the vm id
+     * @return the number of modifications, or -1 while a transaction modifying the dynamic vm is running
+     */
+    long getModificationCount(Guid vmId);
 }
@@ -3,12 +3,22 @@ package org.ovirt.engine.core.dao;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.inject.Named;
 import javax.inject.Singleton;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.Transaction;
 
 import org.ovirt.engine.core.common.businessentities.ActionGroup;
 import org.ovirt.engine.core.common.businessentities.BootSequence;
@@ -26,7 +36,12 @@ import org.ovirt.engine.core.common.businessentities.VmPauseStatus;
 import org.ovirt.engine.core.common.utils.Pair;
 import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.dal.dbbroker.DbFacadeUtils;
+import org.ovirt.engine.core.dal.dbbroker.MapSqlParameterMapper;
 import org.ovirt.engine.core.utils.SerializationFactory;
+import org.ovirt.engine.core.utils.metrics.EntityStatusCounter;
+import org.ovirt.engine.core.utils.transaction.TransactionSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.SingleColumnRowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
@@ -39,6 +54,16 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 public class VmDynamicDaoImpl extends MassOperationsGenericDao<VmDynamic, Guid>
         implements VmDynamicDao {
 
+    private static final Logger log = LoggerFactory.getLogger(VmDynamicDaoImpl.class);
+
+    private final ConcurrentMap<Guid, Modifications> modifications = new ConcurrentHashMap<>();
+    /**
+     * The highest count of the modifications dropped with their removed dynamic VMs. It is the count of the dynamic VMs
+     * without modifications, and the counts of the new modifications start from it, so the count of a removed and
+     * added again dynamic VM does not repeat the values copies of its data may have been taken at
+     */
+    private final AtomicLong droppedCount = new AtomicLong();
+
     public VmDynamicDaoImpl() {
         super("VmDynamic");
         setProcedureNameForGet("GetVmDynamicByVmGuid");
@@ -71,6 +96,54 @@ public class VmDynamicDaoImpl extends MassOperationsGenericDao<VmDynamic, Guid>
                 .addValue("status", status);
 
         getCallsHandler().executeModification("UpdateVmDynamicStatus", parameterSource);
+        modified(vmGuid);
+        EntityStatusCounter.VMS.update(vmGuid, status);
+    }
+
+    @Override
+    public void save(VmDynamic vm) {
+        super.save(vm);
+        modified(vm.getId());
+        EntityStatusCounter.VMS.update(vm.getId(), vm.getStatus());
+    }
+
+    @Override
+    protected void update(VmDynamic vm, String procedureName) {
+        super.update(vm, procedureName);
+        modified(vm.getId());
+        EntityStatusCounter.VMS.update(vm.getId(), vm.getStatus());
+    }
+
+    @Override
+    protected void updateAllInBatch(String procedureName,
+            Collection<VmDynamic> paramValues,
+            MapSqlParameterMapper<VmDynamic> mapper) {
+        super.updateAllInBatch(procedureName, paramValues, mapper);
+        modified(paramValues.stream().map(VmDynamic::getId));
+        paramValues.forEach(vm -> EntityStatusCounter.VMS.update(vm.getId(), vm.getStatus()));
+    }
+
+    @Override
+    public void saveAllInBatch(Collection<VmDynamic> entities) {
+        super.saveAllInBatch(entities);
+        modified(entities.stream().map(VmDynamic::getId));
+        entities.forEach(vm -> EntityStatusCounter.VMS.update(vm.getId(), vm.getStatus()));
+    }
+
+    @Override
+    protected void removeAllInBatch(String procedureName,
+            Collection<VmDynamic> paramValues,
+            MapSqlParameterMapper<VmDynamic> mapper) {
+        super.removeAllInBatch(procedureName, paramValues, mapper);
+        modified(paramValues.stream().map(VmDynamic::getId), true);
+        paramValues.forEach(vm -> EntityStatusCounter.VMS.remove(vm.getId()));
+    }
+
+    @Override
+    public void remove(Guid id) {
+        super.remove(id);
+        modified(Stream.of(id), true);
+        EntityStatusCounter.VMS.remove(id);
     }
 
     @Override
@@ -79,6 +152,7 @@ public class VmDynamicDaoImpl extends MassOperationsGenericDao<VmDynamic, Guid>
                 .addValue("vm_guid", id);
 
         getCallsHandler().executeModification("ClearMigratingToVds", parameterSource);
+        modified(id);
     }
 
     @Override
@@ -89,6 +163,7 @@ public class VmDynamicDaoImpl extends MassOperationsGenericDao<VmDynamic, Guid>
                 .addValue("current_numa_pinning", currentNumaPinning);
 
         getCallsHandler().executeModification("ClearMigratingToVdsAndSetDynamicPinning", parameterSource);
+        modified(id);
     }
 
     @Override
@@ -104,6 +179,7 @@ public class VmDynamicDaoImpl extends MassOperationsGenericDao<VmDynamic, Guid>
                 getCustomMapSqlParameterSource()
                         .addValue("vm_guid", vmId)
                         .addValue("ovirt_guest_agent_status", ovirtGuestAgentStatus.getValue()));
+        modified(vmId);
     }
 
     @Override
@@ -112,6 +188,7 @@ public class VmDynamicDaoImpl extends MassOperationsGenericDao<VmDynamic, Guid>
                 getCustomMapSqlParameterSource()
                         .addValue("vm_guid", vmId)
                         .addValue("qemu_guest_agent_status", qemuGuestAgentStatus.getValue()));
+        modified(vmId);
     }
 
     @Override
@@ -121,6 +198,8 @@ public class VmDynamicDaoImpl extends MassOperationsGenericDao<VmDynamic, Guid>
                 .addValue("status", VMStatus.Unknown);
 
         getCallsHandler().executeModification("SetToUnknown", parameterSource);
+        modified(vmIds.stream());
+        vmIds.forEach(vmId -> EntityStatusCounter.VMS.update(vmId, VMStatus.Unknown));
     }
 
     @Override
@@ -146,6 +225,7 @@ public class VmDynamicDaoImpl extends MassOperationsGenericDao<VmDynamic, Guid>
                 pair -> getCustomMapSqlParameterSource()
                         .addValue("vm_guid", pair.getFirst())
                         .addValue("hash", pair.getSecond()));
+        modified(vmHashes.stream().map(Pair::getFirst));
     }
 
     @Override
@@ -154,6 +234,119 @@ public class VmDynamicDaoImpl extends MassOperationsGenericDao<VmDynamic, Guid>
                 getCustomMapSqlParameterSource()
                         .addValue("vm_guid", vmId)
                         .addValue("lease_info", SerializationFactory.getSerializer().serialize(leaseInfo)));
+        modified(vmId);
+    }
+
+    @Override
+    public long getModificationCount(Guid vmId) {
+        Modifications vmModifications = modifications.get(vmId);
+        if (vmModifications == null) {
+            return droppedCount.get();
+        }
+        return vmModifications.transactions.get() > 0 ? -1 : vmModifications.count.get();
+    }
+
+    private void modified(Guid vmId) {
+        modified(Stream.of(vmId), false);
+    }
+
+    private void modified(Stream<Guid> vmIds) {
+        modified(vmIds, false);
+    }
+
+    /**
+     * Counts a modification of the given dynamic VMs, and once more when the current transaction completes so copies
+     * of the data taken before the commit or the rollback are not considered up to date. The modifications of removed
+     * dynamic VMs are dropped once no transaction modifying them is running.
+     */
+    private void modified(Stream<Guid> vmIds, boolean removed) {
+        List<Modifications> modified = vmIds
+                .map(vmId -> modifications.computeIfAbsent(vmId, id -> new Modifications(id, droppedCount.get())))
+                .collect(Collectors.toList());
+        Transaction transaction = getActiveTransaction();
+        if (transaction == null) {
+            modified.forEach(vmModifications -> {
+                vmModifications.removed = removed;
+                vmModifications.count.incrementAndGet();
+                dropIfRemoved(vmModifications);
+            });
+            return;
+        }
+
+        modified.forEach(vmModifications -> {
+            vmModifications.removed = removed;
+            vmModifications.transactions.incrementAndGet();
+            vmModifications.count.incrementAndGet();
+        });
+        try {
+            transaction.registerSynchronization(new Synchronization() {
+                @Override
+                public void beforeCompletion() {
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    modified.forEach(VmDynamicDaoImpl.this::transactionCompleted);
+                }
+            });
+        } catch (Exception e) {
+            // like when there is no transaction, copies read until the commit may be considered up to date
+            modified.forEach(this::transactionCompleted);
+            log.warn("Cannot track the transaction modifying {} dynamic VMs: {}", modified.size(), e.getMessage());
+            log.debug("Exception", e);
+        }
+    }
+
+    private void transactionCompleted(Modifications vmModifications) {
+        vmModifications.transactionCompleted();
+        dropIfRemoved(vmModifications);
+    }
+
+    /**
+     * Drops the modifications of a removed dynamic VM, unless a transaction modifying it is still running or it was
+     * modified again meanwhile
+     */
+    private void dropIfRemoved(Modifications vmModifications) {
+        if (!vmModifications.removed) {
+            return;
+        }
+        modifications.computeIfPresent(vmModifications.vmId, (vmId, current) -> {
+            if (current != vmModifications || !current.removed || current.transactions.get() > 0) {
+                return current;
+            }
+            droppedCount.accumulateAndGet(current.count.get(), Math::max);
+            return null;
+        });
+    }
+
+    private static Transaction getActiveTransaction() {
+        try {
+            Transaction transaction = TransactionSupport.current();
+            return transaction != null && transaction.getStatus() == Status.STATUS_ACTIVE ? transaction : null;
+        } catch (Exception e) {
+            log.debug("Cannot get the current transaction: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static class Modifications {
+
+        private final Guid vmId;
+        private final AtomicLong count;
+        /** Number of the running transactions which modified the dynamic VM **/
+        private final AtomicInteger transactions = new AtomicInteger();
+        /** Whether the last modification of the dynamic VM removed it **/
+        private volatile boolean removed;
+
+        private Modifications(Guid vmId, long count) {
+            this.vmId = vmId;
+            this.count = new AtomicLong(count);
+        }
+
+        private void transactionCompleted() {
+            count.incrementAndGet();
+            transactions.decrementAndGet();
+        }
     }
 
     @Override
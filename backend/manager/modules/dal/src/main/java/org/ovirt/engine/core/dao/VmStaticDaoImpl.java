@@ -2,14 +2,18 @@ package org.ovirt.engine.core.dao;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import javax.annotation.PostConstruct;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
 import org.ovirt.engine.core.common.businessentities.VmStatic;
 import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.utils.metrics.EntityStatusCounter;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.SingleColumnRowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
@@ -25,6 +29,39 @@ public class VmStaticDaoImpl extends VmBaseDao<VmStatic> implements VmStaticDao
         setProcedureNameForGet("GetVmStaticByVmGuid");
     }
 
+    @PostConstruct
+    private void registerReadCache() {
+        // VMs change too often to share them, they are only kept for the current request
+        getCallsHandler().getReadCache().registerRegion("VmStatic",
+                false,
+                Collections.singletonList(getProcedureNameForGet()),
+                // vm_static_view joins the dedicated hosts, which are dropped with their host
+                Arrays.asList("InsertVmStatic",
+                        "UpdateVmStatic",
+                        "UpdateIsInitialized",
+                        "UpdateOriginalTemplateName",
+                        "UpdateVmCpuProfileIdForClusterId",
+                        "UpdateVmLeaseStorageDomainId",
+                        "IncrementDbGeneration",
+                        "IncrementDbGenerationForVms",
+                        "IncrementDbGenerationForAllInStoragePool",
+                        "DeleteVmStatic",
+                        "DeleteVm",
+                        "InsertVmTemplate",
+                        "UpdateVmTemplate",
+                        "UpdateVmTemplateShiftBaseTemplate",
+                        "UpdateVmTemplateStatus",
+                        "DeleteVmTemplates",
+                        "Remove_Entities_From_storage_domain",
+                        "Deletestorage_pool",
+                        "InsertDedicatedHostsToVm",
+                        "UpdateDedicatedHostsToVm",
+                        "DeleteVdsStatic",
+                        "DeleteVds",
+                        "fn_db_unlock_entity",
+                        "fn_db_unlock_all"));
+    }
+
     @Override
     public List<VmStatic> getAll() {
         throw new UnsupportedOperationException();
@@ -61,6 +98,8 @@ public class VmStaticDaoImpl extends VmBaseDao<VmStatic> implements VmStaticDao
         getCallsHandler().executeModification("DeleteVmStatic",
                 createIdParameterMapper(id)
                         .addValue("remove_permissions", removePermissions));
+        // The dynamic data of the VM is removed with it
+        EntityStatusCounter.VMS.remove(id);
     }
 
 
@@ -201,9 +240,11 @@ public class VmStaticDaoImpl extends VmBaseDao<VmStatic> implements VmStaticDao
 
     @Override
     public List<VmStatic> getByIds(List<Guid> ids) {
-        return getCallsHandler().executeReadList("GetVmStaticByVmGuids",
+        List<VmStatic> vms = getCallsHandler().executeReadList("GetVmStaticByVmGuids",
                 getRowMapper(),
                 getCustomMapSqlParameterSource().addValue("vm_guids", createArrayOfUUIDs(ids)));
+        getCallsHandler().addToReadScope(getProcedureNameForGet(), vms, vm -> createIdParameterMapper(vm.getId()));
+        return vms;
     }
 
     /**
@@ -125,8 +125,8 @@ public class VmTemplateDaoImpl extends VmBaseDao<VmTemplate> implements VmTempla
     }
 
     @Override
-    public List<VmTemplate> getAllWithQuery(String query) {
-        return getJdbcTemplate().query(query, VMTemplateRowMapper.instance);
+    public List<VmTemplate> getAllWithQuery(String query, Object... parameters) {
+        return searchWithQuery(query, VMTemplateRowMapper.instance, parameters);
     }
 
     @Override
@@ -23,7 +23,7 @@ public interface GlusterVolumeSnapshotDao extends Dao, SearchDao<GlusterVolumeSn
     public List<GlusterVolumeSnapshotEntity> getAllByClusterId(Guid clusterId);
 
     @Override
-    public List<GlusterVolumeSnapshotEntity> getAllWithQuery(String query);
+    public List<GlusterVolumeSnapshotEntity> getAllWithQuery(String query, Object... parameters);
 
     public void remove(Guid id);
 
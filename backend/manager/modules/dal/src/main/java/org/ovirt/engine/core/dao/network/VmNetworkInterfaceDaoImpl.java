@@ -2,6 +2,7 @@ package org.ovirt.engine.core.dao.network;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
@@ -54,6 +55,19 @@ public class VmNetworkInterfaceDaoImpl extends DefaultReadDao<VmNetworkInterface
                 parameterSource);
     }
 
+    @Override
+    public List<VmNetworkInterface> getAllForVms(Collection<Guid> ids, Guid userId, boolean filtered) {
+        MapSqlParameterSource parameterSource = getCustomMapSqlParameterSource()
+                .addValue("vm_ids", createArrayOfUUIDs(ids)).addValue("user_id", userId).addValue("is_filtered", filtered);
+
+        List<VmNetworkInterface> results =
+                getCallsHandler().executeReadList("GetVmNetworkInterfaceViewByVmIds",
+                        VmNetworkInterfaceRowMapper.INSTANCE,
+                        parameterSource);
+        Collections.sort(results, Comparator.comparing(VmNetworkInterface::getMacAddress));
+        return results;
+    }
+
     @Override
     public List<Guid> getAllWithVnicOutOfSync(Set<Guid> vmIds) {
         MapSqlParameterSource parameterSource = getCustomMapSqlParameterSource().addValue("ids", createArrayOfUUIDs(vmIds));
@@ -130,8 +130,8 @@ public class VnicProfileViewDaoImpl extends DefaultReadDao<VnicProfileView, Guid
     }
 
     @Override
-    public List<VnicProfileView> getAllWithQuery(String query) {
-        return getJdbcTemplate().query(query, VnicProfileViewRowMapper.INSTANCE);
+    public List<VnicProfileView> getAllWithQuery(String query, Object... parameters) {
+        return searchWithQuery(query, VnicProfileViewRowMapper.INSTANCE, parameters);
     }
 
 }
@@ -203,7 +203,7 @@ public class ProviderDaoImpl extends DefaultGenericDao<Provider<?>, Guid> implem
                                                          Arrays.stream(providerTypes).map(ProviderType::name).toArray())));
     }
 
-    public List<Provider<?>> getAllWithQuery(String query) {
-        return getJdbcTemplate().query(query, ProviderRowMapper.INSTANCE);
+    public List<Provider<?>> getAllWithQuery(String query, Object... parameters) {
+        return searchWithQuery(query, ProviderRowMapper.INSTANCE, parameters);
     }
 }
@@ -0,0 +1,194 @@
+package org.ovirt.engine.core.dal.dbbroker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.common.utils.Pair;
+import org.ovirt.engine.core.compat.Guid;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+
+public class ReadCacheTest {
+
+    private static final String GET = "GetEntityById";
+    private static final String SHARED_GET = "GetSharedEntityById";
+
+    private ReadCache readCache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    public void setUp() {
+        readCache = new ReadCache();
+        readCache.registerRegion("Entity",
+                false,
+                Collections.singletonList(GET),
+                Arrays.asList("UpdateEntity", "UpdateAllEntities"));
+        readCache.registerRegion("SharedEntity",
+                true,
+                Collections.singletonList(SHARED_GET),
+                Collections.singletonList("UpdateSharedEntity"));
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    public void testNotCachedWithoutScope() {
+        MapSqlParameterSource parameters = parameters(Guid.newGuid());
+
+        readCache.read(GET, parameters, loader("a"));
+        readCache.read(GET, parameters, loader("a"));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testCachedInScope() {
+        Guid id = Guid.newGuid();
+        List<Entity> first;
+        List<Entity> second;
+        try (ReadScope scope = ReadScope.open()) {
+            first = readCache.read(GET, parameters(id), loader("a"));
+            second = readCache.read(GET, parameters(id), loader("b"));
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals("a", second.get(0).name);
+        assertNotSame(first.get(0), second.get(0));
+
+        readCache.read(GET, parameters(id), loader("c"));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testNestedScopes() {
+        Guid id = Guid.newGuid();
+        try (ReadScope scope = ReadScope.open()) {
+            try (ReadScope nested = ReadScope.open()) {
+                readCache.read(GET, parameters(id), loader("a"));
+            }
+            readCache.read(GET, parameters(id), loader("a"));
+        }
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testModificationInvalidatesScope() {
+        Guid id = Guid.newGuid();
+        try (ReadScope scope = ReadScope.open()) {
+            readCache.read(GET, parameters(id), loader("a"));
+            readCache.invalidate("UpdateEntity");
+            List<Entity> result = readCache.read(GET, parameters(id), loader("b"));
+
+            assertEquals("b", result.get(0).name);
+        }
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testOnlyRegisteredModificationsInvalidate() {
+        Guid id = Guid.newGuid();
+        try (ReadScope scope = ReadScope.open()) {
+            readCache.read(GET, parameters(id), loader("a"));
+            // the name of the procedure contains the name of the region, yet it does not modify its entities
+            readCache.invalidate("UpdateEntityOwner");
+            readCache.read(GET, parameters(id), loader("b"));
+            readCache.invalidate("updateallentities");
+            List<Entity> result = readCache.read(GET, parameters(id), loader("c"));
+
+            assertEquals("c", result.get(0).name);
+        }
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testBulkReadKeptInScope() {
+        Guid id = Guid.newGuid();
+        try (ReadScope scope = ReadScope.open()) {
+            readCache.putScoped(GET, Collections.singletonList(new Pair<>(parameters(id), new Entity("a"))));
+            List<Entity> result = readCache.read(GET, parameters(id), loader("b"));
+
+            assertEquals("a", result.get(0).name);
+        }
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    public void testEmptyResultsNotCached() {
+        Guid id = Guid.newGuid();
+        try (ReadScope scope = ReadScope.open()) {
+            readCache.read(GET, parameters(id), () -> {
+                loads.incrementAndGet();
+                return new ArrayList<Entity>();
+            });
+            readCache.read(GET, parameters(id), loader("a"));
+        }
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testSharedOnlyWhenEnabled() {
+        Guid id = Guid.newGuid();
+        readCache.read(SHARED_GET, parameters(id), loader("a"));
+        readCache.configure(60, 100);
+        readCache.read(SHARED_GET, parameters(id), loader("a"));
+        List<Entity> result = readCache.read(SHARED_GET, parameters(id), loader("b"));
+
+        assertEquals(2, loads.get());
+        assertEquals("a", result.get(0).name);
+    }
+
+    @Test
+    public void testSharedInvalidated() {
+        readCache.configure(60, 100);
+        Guid id = Guid.newGuid();
+        readCache.read(SHARED_GET, parameters(id), loader("a"));
+        readCache.invalidate("UpdateSharedEntity");
+        List<Entity> result = readCache.read(SHARED_GET, parameters(id), loader("b"));
+
+        assertEquals(2, loads.get());
+        assertEquals("b", result.get(0).name);
+    }
+
+    @Test
+    public void testSharedEviction() {
+        readCache.configure(60, 1);
+        Guid id = Guid.newGuid();
+        readCache.read(SHARED_GET, parameters(id), loader("a"));
+        readCache.read(SHARED_GET, parameters(Guid.newGuid()), loader("b"));
+        readCache.read(SHARED_GET, parameters(id), loader("a"));
+
+        assertEquals(3, loads.get());
+    }
+
+    private Supplier<List<Entity>> loader(String name) {
+        return () -> {
+            loads.incrementAndGet();
+            return new ArrayList<>(Collections.singletonList(new Entity(name)));
+        };
+    }
+
+    private static MapSqlParameterSource parameters(Guid id) {
+        return new MapSqlParameterSource().addValue("id", id);
+    }
+
+    private static class Entity implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String name;
+
+        private Entity(String name) {
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package org.ovirt.engine.core.dal.dbbroker.auditloghandling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import javax.enterprise.concurrent.ManagedScheduledExecutorService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.ovirt.engine.core.common.businessentities.AuditLog;
+import org.ovirt.engine.core.dal.dbbroker.auditloghandling.AuditLogWriter.OverflowPolicy;
+import org.ovirt.engine.core.dao.AuditLogDao;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class AuditLogWriterTest {
+
+    @Mock
+    private AuditLogDao auditLogDao;
+
+    @Mock
+    private ManagedScheduledExecutorService executor;
+
+    @Spy
+    @InjectMocks
+    private AuditLogWriter writer;
+
+    private final List<Integer> batchSizes = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        }).when(writer).inNewTransaction(any());
+        doAnswer(invocation -> {
+            batchSizes.add(invocation.<Collection<?>> getArgument(0).size());
+            return null;
+        }).when(auditLogDao).saveAllInBatch(anyCollection());
+    }
+
+    @Test
+    public void testEventsWrittenInBatches() {
+        writer.configure(10, 2, 0, OverflowPolicy.WRITE);
+        for (int i = 0; i < 5; i++) {
+            writer.write(new AuditLog());
+        }
+        verify(auditLogDao, never()).saveAllInBatch(anyCollection());
+
+        writer.flush();
+
+        assertEquals(List.of(2, 2, 1), batchSizes);
+        verify(auditLogDao, never()).save(any());
+    }
+
+    @Test
+    public void testFlushRequestedWhenBatchQueued() {
+        writer.configure(10, 2, 0, OverflowPolicy.WRITE);
+        writer.write(new AuditLog());
+        writer.write(new AuditLog());
+        writer.write(new AuditLog());
+
+        // Only one flush is requested until it runs:
+        verify(executor, times(1)).execute(any());
+    }
+
+    @Test
+    public void testEventWrittenNowWhenQueueFull() {
+        writer.configure(1, 10, 0, OverflowPolicy.WRITE);
+        writer.write(new AuditLog());
+        writer.write(new AuditLog());
+
+        verify(auditLogDao).save(any());
+        writer.flush();
+        assertEquals(List.of(1), batchSizes);
+    }
+
+    @Test
+    public void testEventDiscardedWhenQueueFull() {
+        writer.configure(1, 10, 0, OverflowPolicy.DISCARD);
+        writer.write(new AuditLog());
+        writer.write(new AuditLog());
+        writer.flush();
+
+        verify(auditLogDao, never()).save(any());
+        assertEquals(List.of(1), batchSizes);
+    }
+
+    @Test
+    public void testEventsWrittenNowWhenNotQueued() {
+        writer.configure(0, 10, 0, OverflowPolicy.WRITE);
+        writer.write(new AuditLog());
+
+        verify(auditLogDao).save(any());
+        verify(executor, never()).execute(any());
+    }
+
+    @Test
+    public void testEventsWrittenOneAtATimeWhenBatchFails() {
+        doThrow(new IllegalStateException()).when(auditLogDao).saveAllInBatch(anyCollection());
+        writer.configure(10, 10, 0, OverflowPolicy.WRITE);
+        writer.write(new AuditLog());
+        writer.write(new AuditLog());
+        writer.flush();
+
+        verify(auditLogDao, times(2)).save(any());
+    }
+}
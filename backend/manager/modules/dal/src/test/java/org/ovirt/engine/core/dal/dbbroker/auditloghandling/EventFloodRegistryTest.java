@@ -0,0 +1,82 @@
+package org.ovirt.engine.core.dal.dbbroker.auditloghandling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.common.AuditLogType;
+import org.ovirt.engine.core.compat.Guid;
+
+public class EventFloodRegistryTest {
+
+    private static final long PERIOD = 30000;
+
+    private final AtomicLong now = new AtomicLong(1000000);
+    private EventFloodRegistry registry;
+
+    @BeforeEach
+    public void setUp() {
+        registry = new EventFloodRegistry(now::get);
+    }
+
+    @Test
+    public void testEventSuppressedDuringPeriod() {
+        EventKey key = key(AuditLogType.VDS_DETECTED, Guid.newGuid());
+
+        assertTrue(registry.tryStart(key, PERIOD));
+        now.addAndGet(PERIOD - 1);
+        assertFalse(registry.tryStart(key, PERIOD));
+        assertEquals(1, registry.getSuppressedCount(AuditLogType.VDS_DETECTED));
+    }
+
+    @Test
+    public void testEventLoggedAfterPeriod() {
+        EventKey key = key(AuditLogType.VDS_DETECTED, Guid.newGuid());
+
+        assertTrue(registry.tryStart(key, PERIOD));
+        now.addAndGet(PERIOD);
+        assertTrue(registry.tryStart(key, PERIOD));
+        assertEquals(0, registry.getSuppressedCount(AuditLogType.VDS_DETECTED));
+    }
+
+    @Test
+    public void testEventsOfOtherEntitiesNotSuppressed() {
+        assertTrue(registry.tryStart(key(AuditLogType.VDS_DETECTED, Guid.newGuid()), PERIOD));
+        assertTrue(registry.tryStart(key(AuditLogType.VDS_DETECTED, Guid.newGuid()), PERIOD));
+    }
+
+    @Test
+    public void testEndedEventLogged() {
+        Guid vdsId = Guid.newGuid();
+
+        assertTrue(registry.tryStart(key(AuditLogType.VDS_DETECTED, vdsId), PERIOD));
+        registry.end(key(AuditLogType.VDS_DETECTED, vdsId));
+        assertTrue(registry.tryStart(key(AuditLogType.VDS_DETECTED, vdsId), PERIOD));
+    }
+
+    @Test
+    public void testPeriodsExpired() {
+        registry.tryStart(key(AuditLogType.VDS_DETECTED, Guid.newGuid()), PERIOD);
+        registry.tryStart(key(AuditLogType.VDS_DETECTED, Guid.newGuid()), 10 * PERIOD);
+        assertEquals(2, registry.getRegulatedEventsCount());
+
+        now.addAndGet(PERIOD + 1000);
+        registry.tryStart(key(AuditLogType.VDS_DETECTED, Guid.newGuid()), PERIOD);
+        assertEquals(2, registry.getRegulatedEventsCount());
+
+        // Longer than the timer wheel:
+        now.addAndGet(1000000);
+        registry.tryStart(key(AuditLogType.VDS_DETECTED, Guid.newGuid()), PERIOD);
+        assertEquals(1, registry.getRegulatedEventsCount());
+    }
+
+    private static EventKey key(AuditLogType logType, Guid vdsId) {
+        AuditLogableImpl event = new AuditLogableImpl();
+        event.setVdsId(vdsId);
+        return EventKeyComposer.composeKey(event, logType);
+    }
+}
@@ -7,6 +7,7 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.text.SimpleDateFormat;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 
@@ -271,6 +272,23 @@ public class AuditLogDaoTest extends BaseDaoTestCase<AuditLogDao> {
         assertEquals(newAuditLog, result);
     }
 
+    @Test
+    public void testSaveAllInBatch() {
+        AuditLog otherAuditLog = new AuditLog();
+        otherAuditLog.setLogTime(newAuditLog.getLogTime());
+        otherAuditLog.setLogType(AuditLogType.VM_DOWN);
+        otherAuditLog.setSeverity(AuditLogSeverity.NORMAL);
+        otherAuditLog.setMessage("VM is down");
+        otherAuditLog.setVmId(VM_ID);
+        otherAuditLog.setVmName(VM_NAME);
+
+        dao.saveAllInBatch(Arrays.asList(newAuditLog, otherAuditLog));
+
+        List<AuditLog> result = dao.getAllByVMId(VM_ID);
+        assertTrue(result.stream().anyMatch(a -> newAuditLog.getMessage().equals(a.getMessage())));
+        assertTrue(result.stream().anyMatch(a -> otherAuditLog.getMessage().equals(a.getMessage())));
+    }
+
     @Test
     public void testSaveExternalEvent() {
         AuditLog newExternalEvent = new AuditLog();
@@ -80,6 +80,12 @@ public class CommandEntityDaoTest extends BaseGenericDaoTestCase<Guid, CommandEn
         assertTrue(cmds.size() > 0);
     }
 
+    @Test
+    public void testGetIdsBeforeDate() {
+        assertThat(dao.getIdsBeforeDate(new Date(0)), hasSize(0));
+        assertThat(dao.getIdsBeforeDate(new Date()), hasItems(getExistingEntityId()));
+    }
+
     @Test
     public void testGetCommandIdsByEntity() {
         Guid storageId = Guid.newGuid();
@@ -116,4 +122,17 @@ public class CommandEntityDaoTest extends BaseGenericDaoTestCase<Guid, CommandEn
         assertEquals(2, entities.size());
         assertThat(entities, hasItems(cocoCmdEntities.toArray(new CommandAssociatedEntity[cocoCmdEntities.size()])));
     }
+
+    @Test
+    public void testGetAllCommandAssociatedEntities() {
+        CommandEntity cmdEntity = generateNewEntity();
+        dao.save(cmdEntity);
+        Set<CommandAssociatedEntity> cocoCmdEntities = new HashSet<>();
+        cocoCmdEntities.add(new CommandAssociatedEntity(cmdEntity.getId(), VdcObjectType.Storage, Guid.newGuid()));
+        cocoCmdEntities.add(new CommandAssociatedEntity(cmdEntity.getId(), VdcObjectType.Disk, Guid.newGuid()));
+        dao.insertCommandAssociatedEntities(cocoCmdEntities);
+        List<CommandAssociatedEntity> entities = dao.getAllCommandAssociatedEntities();
+        assertNotNull(entities);
+        assertThat(entities, hasItems(cocoCmdEntities.toArray(new CommandAssociatedEntity[cocoCmdEntities.size()])));
+    }
 }
@@ -6,7 +6,9 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -270,6 +272,17 @@ public class TagDaoTest extends BaseDaoTestCase<TagDao> {
     }
 
 
+    /**
+     * Ensures that the tags are returned by the ids of the VMs that have them.
+     */
+    @Test
+    public void testGetAllForVms() {
+        Map<Guid, List<Tags>> result = dao.getAllForVms(Arrays.asList(EXISTING_VM_ID, Guid.newGuid()));
+
+        assertEquals(1, result.size());
+        assertEquals(dao.getAllForVm(EXISTING_VM_ID.toString()).size(), result.get(EXISTING_VM_ID).size());
+    }
+
     /**
      * Ensures that a collection of tags is returned.
      */
@@ -8,6 +8,7 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import org.junit.jupiter.api.Test;
@@ -84,6 +85,49 @@ public class VmDynamicDaoTest extends BaseGenericDaoTestCase<Guid, VmDynamic, Vm
         assertEquals(existingEntity, after);
     }
 
+    @Test
+    public void testModificationCount() {
+        long vm1Count = dao.getModificationCount(existingEntity.getId());
+        long vm2Count = dao.getModificationCount(FixturesTool.VM_RHEL5_POOL_51);
+
+        dao.updateStatus(existingEntity.getId(), VMStatus.Down);
+        assertEquals(vm1Count + 1, dao.getModificationCount(existingEntity.getId()));
+        assertEquals(vm2Count, dao.getModificationCount(FixturesTool.VM_RHEL5_POOL_51));
+
+        dao.updateAllInBatch(Arrays.asList(existingEntity, dao.get(FixturesTool.VM_RHEL5_POOL_51)));
+        assertEquals(vm1Count + 2, dao.getModificationCount(existingEntity.getId()));
+        assertEquals(vm2Count + 1, dao.getModificationCount(FixturesTool.VM_RHEL5_POOL_51));
+    }
+
+    @Test
+    public void testModificationCountOfBatchRemoveAndSave() {
+        VmDynamic vm = dao.get(existingEntity.getId());
+        long count = dao.getModificationCount(vm.getId());
+
+        dao.removeAllInBatch(Collections.singletonList(vm));
+        assertEquals(count + 1, dao.getModificationCount(vm.getId()));
+
+        dao.saveAllInBatch(Collections.singletonList(vm));
+        assertEquals(count + 2, dao.getModificationCount(vm.getId()));
+    }
+
+    @Test
+    public void testModificationCountGrowsOverRemovals() {
+        VmDynamic vm = dao.get(existingEntity.getId());
+        long count = dao.getModificationCount(vm.getId());
+
+        // the modifications of the removed VM are dropped, but its count must not repeat the values it had
+        for (int i = 0; i < 2; i++) {
+            dao.remove(vm.getId());
+            assertTrue(dao.getModificationCount(vm.getId()) > count);
+            count = dao.getModificationCount(vm.getId());
+
+            dao.save(vm);
+            assertTrue(dao.getModificationCount(vm.getId()) > count);
+            count = dao.getModificationCount(vm.getId());
+        }
+    }
+
     @Test
     public void testUpdateAll() {
         VmDynamic existingVm2 = dao.get(FixturesTool.VM_RHEL5_POOL_51);
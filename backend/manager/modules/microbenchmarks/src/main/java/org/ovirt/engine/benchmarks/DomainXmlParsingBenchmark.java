@@ -0,0 +1,172 @@
+package org.ovirt.engine.benchmarks;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.ovirt.engine.core.utils.ovf.xml.XmlDocument;
+import org.ovirt.engine.core.utils.ovf.xml.XmlNamespaceManager;
+import org.ovirt.engine.core.utils.ovf.xml.XmlNode;
+import org.ovirt.engine.core.vdsbroker.builder.vminfo.LibvirtVmXmlBuilder;
+import org.ovirt.engine.core.vdsbroker.libvirt.DomainXml;
+import org.ovirt.engine.core.vdsbroker.libvirt.DomainXmlElement;
+import org.ovirt.engine.core.vdsbroker.libvirt.VmDevicesConverter;
+
+/**
+ * <p> Benchmark's the reading of the devices and of the oVirt metadata of a libvirt domain XML, the way the
+ * {@link VmDevicesConverter} does it when the devices of a VM are refreshed.</p>
+ * <p> The DOM benchmark builds documents of the devices and of the whole domain and selects the devices of each type by
+ * XPath, the streaming one reads the domain once by {@link DomainXml}. Both read the alias of each device and the disk
+ * mapping of the metadata, so the results only differ by the way the XML is accessed.</p>
+ *
+ * @see DomainXml
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class DomainXmlParsingBenchmark {
+
+    private static final List<String> DEVICE_TYPES = Arrays.asList(
+            "memballoon", "rng", "watchdog", "smartcard", "sound", "console", "channel", "controller", "video",
+            "interface", "disk", "redirdev", "memory", "hostdev");
+
+    @Param({"1", "8", "32"})
+    private int disksCount;
+
+    @Param({"1", "8"})
+    private int nicsCount;
+
+    private String xml;
+
+    @Setup
+    public void setup() {
+        xml = createDomainXml();
+    }
+
+    @Benchmark
+    public int dom() throws Exception {
+        int aliases = 0;
+        String devicesXml = xml.substring(xml.indexOf("<devices>"), xml.indexOf("</devices>") + "</devices>".length());
+        XmlDocument devices = new XmlDocument(devicesXml);
+        for (String type : DEVICE_TYPES) {
+            for (XmlNode node : devices.selectNodes("//*/" + type)) {
+                XmlNode alias = node.selectSingleNode("alias");
+                aliases += alias != null ? alias.attributes.get("name").getValue().length() : 0;
+            }
+        }
+
+        XmlNamespaceManager xmlNS = new XmlNamespaceManager();
+        xmlNS.addNamespace(LibvirtVmXmlBuilder.OVIRT_VM_PREFIX, LibvirtVmXmlBuilder.OVIRT_VM_URI);
+        XmlNode vm = new XmlDocument(xml).selectSingleNode("domain/metadata").selectSingleNode("ovirt-vm:vm", xmlNS);
+        for (XmlNode node : vm.selectNodes("ovirt-vm:device", xmlNS)) {
+            XmlNode guestName = node.selectSingleNode("ovirt-vm:guestName", xmlNS);
+            aliases += guestName != null ? guestName.innerText.length() : 0;
+        }
+        return aliases;
+    }
+
+    @Benchmark
+    public int streaming() throws Exception {
+        int aliases = 0;
+        DomainXml domainXml = DomainXml.parse(xml);
+        for (String type : DEVICE_TYPES) {
+            for (DomainXmlElement element : domainXml.getDevices(type)) {
+                aliases += VmDevicesConverter.parseAlias(element).length();
+            }
+        }
+
+        for (DomainXmlElement element : domainXml.getOvirtVmMetadata().getChildren("device")) {
+            DomainXmlElement guestName = element.getChild("guestName");
+            aliases += guestName != null ? guestName.getText().length() : 0;
+        }
+        return aliases;
+    }
+
+    private String createDomainXml() {
+        StringBuilder metadata = new StringBuilder();
+        StringBuilder devices = new StringBuilder();
+        for (int i = 0; i < disksCount; i++) {
+            String imageId = String.format("b75eef2b-c96c-4ac9-a720-%012d", i);
+            String path = "/rhev/data-center/mnt/192.168.122.1:_home_exports_data/"
+                    + "a568e7d5-3938-4229-9d5c-1e022ba92a80/images/" + imageId + "/";
+            metadata.append("<ovirt-vm:device devtype='disk' name='sd").append(i).append("'>")
+                    .append("<ovirt-vm:domainID>a568e7d5-3938-4229-9d5c-1e022ba92a80</ovirt-vm:domainID>")
+                    .append("<ovirt-vm:guestName>/dev/sd").append(i).append("</ovirt-vm:guestName>")
+                    .append("<ovirt-vm:imageID>").append(imageId).append("</ovirt-vm:imageID>")
+                    .append("<ovirt-vm:volumeID>011046ce-312a-42e6-bcb7-764fd332da02</ovirt-vm:volumeID>")
+                    .append("</ovirt-vm:device>\n");
+            devices.append("<disk type='file' device='disk' snapshot='no'>")
+                    .append("<driver name='qemu' type='qcow2' cache='none' error_policy='stop' io='threads'/>")
+                    .append("<source file='").append(path).append("011046ce-312a-42e6-bcb7-764fd332da02'/>")
+                    .append("<backingStore type='file' index='1'><format type='qcow2'/>")
+                    .append("<source file='").append(path).append("fff3c995-e7c3-4a2c-96a3-f0ce569a57c2'/>")
+                    .append("<backingStore/></backingStore>")
+                    .append("<target dev='sd").append(i).append("' bus='scsi'/>")
+                    .append("<serial>").append(imageId).append("</serial>")
+                    .append("<alias name='ua-").append(imageId).append("'/>")
+                    .append("<address type='drive' controller='0' bus='0' target='0' unit='").append(i).append("'/>")
+                    .append("</disk>\n");
+        }
+        for (int i = 0; i < nicsCount; i++) {
+            String deviceId = String.format("c0a9d379-6798-4859-ab3b-%012d", i);
+            devices.append("<interface type='bridge'>")
+                    .append("<mac address='56:6f:1a:2b:00:").append(String.format("%02x", i)).append("'/>")
+                    .append("<source bridge='ovirtmgmt'/><target dev='vnet").append(i).append("'/>")
+                    .append("<model type='virtio'/><filterref filter='vdsm-no-mac-spoofing'/>")
+                    .append("<link state='up'/><mtu size='1500'/>")
+                    .append("<alias name='ua-").append(deviceId).append("'/>")
+                    .append("<address type='pci' domain='0x0000' bus='0x01' slot='0x").append(String.format("%02x", i))
+                    .append("' function='0x0'/></interface>\n");
+        }
+        for (int i = 0; i < 16; i++) {
+            devices.append("<controller type='pci' index='").append(i + 1).append("' model='pcie-root-port'>")
+                    .append("<model name='pcie-root-port'/><target chassis='").append(i + 1).append("' port='0x")
+                    .append(Integer.toHexString(0x10 + i)).append("'/><alias name='pci.").append(i + 1).append("'/>")
+                    .append("<address type='pci' domain='0x0000' bus='0x00' slot='0x02' function='0x")
+                    .append(Integer.toHexString(i % 8)).append("'/></controller>\n");
+        }
+
+        return "<domain type='kvm' id='1' xmlns:ovirt-vm='http://ovirt.org/vm/1.0'>\n"
+                + "<name>vm1</name><uuid>8f0a1d0c-7a4c-4bbd-b9a4-7b6ed4b1e2d5</uuid>\n"
+                + "<metadata xmlns:ns1='http://ovirt.org/vm/tune/1.0'><ns1:qos/>\n"
+                + "<ovirt-vm:vm><ovirt-vm:clusterVersion>4.4</ovirt-vm:clusterVersion>\n"
+                + metadata
+                + "</ovirt-vm:vm></metadata>\n"
+                + "<maxMemory slots='16' unit='KiB'>16777216</maxMemory><memory unit='KiB'>4194304</memory>\n"
+                + "<vcpu placement='static' current='4'>16</vcpu>\n"
+                + "<cputune><vcpupin vcpu='0' cpuset='0'/><vcpupin vcpu='1' cpuset='1'/></cputune>\n"
+                + "<os><type arch='x86_64' machine='pc-q35-rhel8.1.0'>hvm</type><smbios mode='sysinfo'/></os>\n"
+                + "<features><acpi/><vmcoreinfo state='on'/></features>\n"
+                + "<cpu mode='custom' match='exact'><model>Skylake-Client</model>"
+                + "<topology sockets='16' cores='1' threads='1'/><numa><cell id='0' cpus='0-15' memory='4194304'/>"
+                + "</numa></cpu>\n"
+                + "<devices>\n<emulator>/usr/libexec/qemu-kvm</emulator>\n"
+                + devices
+                + "<channel type='unix'>"
+                + "<source mode='bind' path='/var/lib/libvirt/qemu/channels/vm1.ovirt-guest-agent'/>"
+                + "<target type='virtio' name='ovirt-guest-agent.0'/><alias name='channel0'/>"
+                + "<address type='virtio-serial' controller='0' bus='0' port='1'/></channel>\n"
+                + "<video><model type='qxl' ram='65536' vram='8192' vgamem='16384' heads='1' primary='yes'/>"
+                + "<alias name='ua-4c3b4e4b-7fc2-4c4b-8b4a-7a1b9e8c2d3f'/>"
+                + "<address type='pci' domain='0x0000' bus='0x00' slot='0x01' function='0x0'/></video>\n"
+                + "<memballoon model='virtio'><stats period='5'/>"
+                + "<alias name='ua-5d7e3c2a-1b4f-4e6d-9c8a-2f3e4d5c6b7a'/>"
+                + "<address type='pci' domain='0x0000' bus='0x05' slot='0x00' function='0x0'/></memballoon>\n"
+                + "</devices>\n"
+                + "<seclabel type='dynamic' model='selinux' relabel='yes'><label>system_u:system_r:svirt_t:s0</label>"
+                + "</seclabel>\n"
+                + "</domain>";
+    }
+}
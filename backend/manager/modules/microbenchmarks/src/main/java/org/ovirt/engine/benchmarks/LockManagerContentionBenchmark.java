@@ -0,0 +1,90 @@
+package org.ovirt.engine.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.ovirt.engine.core.bll.lock.InMemoryLockManager;
+import org.ovirt.engine.core.common.utils.Pair;
+import org.ovirt.engine.core.utils.lock.EngineLock;
+
+/**
+ * <p> Benchmark's the contention of ovirt engine's {@link InMemoryLockManager}.</p>
+ * <p> Every thread acquires and releases locks on its own entities, the way commands running on different VMs and the
+ * host monitoring cycles of different hosts do. The throughput should scale with the number of threads, as
+ * operations on unrelated keys do not contend with each other.<br/>
+ * The <b>sharedOnSharedEntity</b> benchmark is the worst case, where all threads compete on a single key.</p>
+ *
+ * @see InMemoryLockManager
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Threads(16)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class LockManagerContentionBenchmark {
+
+    @Benchmark
+    public void exclusiveOnDistinctEntities(ManagerState manager, ThreadLocks locks, Blackhole blackhole) {
+        blackhole.consume(manager.lockManager.acquireLock(locks.exclusiveLock));
+        manager.lockManager.releaseLock(locks.exclusiveLock);
+    }
+
+    @Benchmark
+    public void sharedAndExclusiveOnDistinctEntities(ManagerState manager, ThreadLocks locks, Blackhole blackhole) {
+        blackhole.consume(manager.lockManager.acquireLock(locks.sharedAndExclusiveLock));
+        manager.lockManager.releaseLock(locks.sharedAndExclusiveLock);
+    }
+
+    @Benchmark
+    public void sharedOnSharedEntity(ManagerState manager, Blackhole blackhole) {
+        blackhole.consume(manager.lockManager.acquireLock(manager.sharedLock));
+        manager.lockManager.releaseLock(manager.sharedLock);
+    }
+
+    @State(Scope.Benchmark)
+    public static class ManagerState {
+
+        private InMemoryLockManager lockManager;
+        private EngineLock sharedLock;
+
+        @Setup
+        public void setup() {
+            lockManager = new InMemoryLockManager();
+            sharedLock = new EngineLock(null, lockMap(UUID.randomUUID().toString(), "TEMPLATE"));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadLocks {
+
+        private EngineLock exclusiveLock;
+        private EngineLock sharedAndExclusiveLock;
+
+        @Setup
+        public void setup() {
+            String vmId = UUID.randomUUID().toString();
+            String diskId = UUID.randomUUID().toString();
+            exclusiveLock = new EngineLock(lockMap(vmId, "VM"), null);
+            sharedAndExclusiveLock = new EngineLock(lockMap(vmId, "VM"), lockMap(diskId, "DISK"));
+        }
+    }
+
+    private static Map<String, Pair<String, String>> lockMap(String id, String group) {
+        Map<String, Pair<String, String>> locks = new HashMap<>();
+        locks.put(id, new Pair<>(group, "ACTION_TYPE_FAILED_OBJECT_LOCKED"));
+        return locks;
+    }
+}
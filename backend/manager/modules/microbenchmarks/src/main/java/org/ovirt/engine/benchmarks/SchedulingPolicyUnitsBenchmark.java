@@ -0,0 +1,157 @@
+package org.ovirt.engine.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.ovirt.engine.core.bll.scheduling.ParallelPolicyUnitsEvaluator;
+import org.ovirt.engine.core.bll.scheduling.PolicyUnitImpl;
+import org.ovirt.engine.core.bll.scheduling.SchedulingContext;
+import org.ovirt.engine.core.bll.scheduling.pending.PendingResourceManager;
+import org.ovirt.engine.core.bll.scheduling.policyunits.CompatibilityVersionFilterPolicyUnit;
+import org.ovirt.engine.core.bll.scheduling.policyunits.HugePagesFilterPolicyUnit;
+import org.ovirt.engine.core.bll.scheduling.policyunits.NumaPolicyUnit;
+import org.ovirt.engine.core.common.businessentities.Cluster;
+import org.ovirt.engine.core.common.businessentities.HugePage;
+import org.ovirt.engine.core.common.businessentities.NumaNodeStatistics;
+import org.ovirt.engine.core.common.businessentities.NumaTuneMode;
+import org.ovirt.engine.core.common.businessentities.VDS;
+import org.ovirt.engine.core.common.businessentities.VM;
+import org.ovirt.engine.core.common.businessentities.VdsNumaNode;
+import org.ovirt.engine.core.common.businessentities.VmNumaNode;
+import org.ovirt.engine.core.common.scheduling.PerHostMessages;
+import org.ovirt.engine.core.compat.Guid;
+
+/**
+ * <p> Benchmark's the evaluation of the scheduling filters over all the hosts of a cluster, sequentially the way
+ * the scheduler does it by default and in parallel by the {@link ParallelPolicyUnitsEvaluator}.</p>
+ * <p> The VM has its virtual NUMA nodes pinned to all the physical NUMA nodes of the hosts, so the NUMA filter has to
+ * search for an assignment on every host, like it does for big NUMA aware VMs.</p>
+ *
+ * @see ParallelPolicyUnitsEvaluator
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class SchedulingPolicyUnitsBenchmark {
+
+    private static final int HOST_NUMA_NODES = 4;
+    private static final int VM_NUMA_NODES = 8;
+
+    @Param({"50", "200", "1000"})
+    private int hostsCount;
+
+    @Param({"8"})
+    private int parallelism;
+
+    private List<PolicyUnitImpl> filters;
+    private SchedulingContext context;
+    private List<VDS> hosts;
+    private List<VM> vmGroup;
+    private ExecutorService executor;
+    private ParallelPolicyUnitsEvaluator evaluator;
+
+    @Setup
+    public void setup() {
+        PendingResourceManager pendingResourceManager = new PendingResourceManager();
+        filters = Arrays.asList(
+                new CompatibilityVersionFilterPolicyUnit(null, pendingResourceManager),
+                new HugePagesFilterPolicyUnit(null, pendingResourceManager),
+                new NumaPolicyUnit(null, pendingResourceManager));
+        context = new SchedulingContext(new Cluster(), new HashMap<>());
+
+        hosts = new ArrayList<>(hostsCount);
+        for (int i = 0; i < hostsCount; i++) {
+            hosts.add(createHost());
+        }
+        vmGroup = Collections.singletonList(createVm());
+
+        executor = Executors.newFixedThreadPool(parallelism);
+        evaluator = new ParallelPolicyUnitsEvaluator(executor, parallelism);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public List<VDS> sequentialFilters() {
+        List<VDS> result = hosts;
+        PerHostMessages messages = new PerHostMessages();
+        for (PolicyUnitImpl filter : filters) {
+            result = filter.filter(context, result, vmGroup, messages);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<VDS> parallelFilters() {
+        return evaluator.filter(filters, context, hosts, vmGroup, new PerHostMessages(), (f, before, after) -> {});
+    }
+
+    private static VDS createHost() {
+        VDS host = new VDS();
+        host.setId(Guid.newGuid());
+        host.setNumaSupport(true);
+
+        List<VdsNumaNode> nodes = new ArrayList<>(HOST_NUMA_NODES);
+        for (int i = 0; i < HOST_NUMA_NODES; i++) {
+            NumaNodeStatistics statistics = new NumaNodeStatistics();
+            statistics.setMemFree(64 * 1024);
+            statistics.setHugePages(Collections.singletonList(new HugePage(2048, 0, 0)));
+
+            VdsNumaNode node = new VdsNumaNode();
+            node.setId(Guid.newGuid());
+            node.setIndex(i);
+            node.setMemTotal(64 * 1024);
+            node.setCpuIds(Arrays.asList(i * 4, i * 4 + 1, i * 4 + 2, i * 4 + 3));
+            node.setNumaNodeStatistics(statistics);
+            nodes.add(node);
+        }
+        host.setNumaNodeList(nodes);
+        return host;
+    }
+
+    private static VM createVm() {
+        VM vm = new VM();
+        vm.setId(Guid.newGuid());
+
+        List<Integer> allHostNodes = new ArrayList<>(HOST_NUMA_NODES);
+        for (int i = 0; i < HOST_NUMA_NODES; i++) {
+            allHostNodes.add(i);
+        }
+
+        List<VmNumaNode> nodes = new ArrayList<>(VM_NUMA_NODES);
+        for (int i = 0; i < VM_NUMA_NODES; i++) {
+            VmNumaNode node = new VmNumaNode();
+            node.setId(Guid.newGuid());
+            node.setIndex(i);
+            node.setMemTotal(30 * 1024);
+            node.setCpuIds(Collections.singletonList(i));
+            node.setNumaTuneMode(NumaTuneMode.STRICT);
+            node.setVdsNumaNodeList(allHostNodes);
+            nodes.add(node);
+        }
+        vm.setvNumaNodeList(nodes);
+        return vm;
+    }
+}
@@ -0,0 +1,185 @@
+package org.ovirt.engine.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.ovirt.engine.core.common.businessentities.VDS;
+import org.ovirt.engine.core.common.businessentities.VmStatistics;
+import org.ovirt.engine.core.common.businessentities.network.VdsNetworkInterface;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.vdsbroker.vdsbroker.StructDecoder;
+import org.ovirt.engine.core.vdsbroker.vdsbroker.VdsBrokerObjectsBuilder;
+import org.ovirt.engine.core.vdsbroker.vdsbroker.VdsProperties;
+
+/**
+ * <p> Benchmark's the decoding of the statistics VDSM reports on every polling cycle, the host statistics by
+ * {@link VdsBrokerObjectsBuilder#updateVDSStatisticsData} and the statistics of a VM, its disks and its interfaces the
+ * way the VM monitoring decodes them.</p>
+ * <p> The payloads mix numbers and strings like the JSON-RPC responses of VDSM do. Run it with {@code -prof gc} to
+ * also report the allocation per payload.</p>
+ *
+ * @see StructDecoder
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class VdsStatisticsDecodingBenchmark {
+
+    @Param({"4", "32"})
+    private int nicsCount;
+
+    @Param({"16", "128"})
+    private int cpusCount;
+
+    private final VdsBrokerObjectsBuilder builder = new VdsBrokerObjectsBuilder();
+    private VDS vds;
+    private Map<String, Object> hostStats;
+    private Map<String, Object> vmStats;
+
+    @Setup
+    public void setup() {
+        vds = new VDS();
+        for (int i = 0; i < nicsCount; i++) {
+            VdsNetworkInterface nic = new VdsNetworkInterface();
+            nic.setName("eth" + i);
+            vds.getInterfaces().add(nic);
+        }
+        hostStats = createHostStats();
+        vmStats = createVmStats();
+    }
+
+    @Benchmark
+    public VDS hostStatistics() {
+        builder.updateVDSStatisticsData(vds, hostStats);
+        return vds;
+    }
+
+    @Benchmark
+    public int vmStatistics() {
+        VmStatistics statistics = new VmStatistics();
+        builder.updateVMStatisticsData(statistics, vmStats);
+        return builder.buildVmDiskStatistics(vmStats).size()
+                + builder.buildInterfaceStatisticsData(vmStats).size();
+    }
+
+    private Map<String, Object> createHostStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put(VdsProperties.cpu_sys, "1.25");
+        stats.put(VdsProperties.cpu_user, "3.50");
+        stats.put(VdsProperties.cpu_idle, "95.25");
+        stats.put(VdsProperties.cpu_load, "0.31");
+        stats.put(VdsProperties.memFree, 54321);
+        stats.put(VdsProperties.mem_shared, 0);
+        stats.put(VdsProperties.swap_free, 8191);
+        stats.put(VdsProperties.swap_total, 8191);
+        stats.put(VdsProperties.ksm_cpu_percent, 0);
+        stats.put(VdsProperties.ksm_pages, 100);
+        stats.put(VdsProperties.ksm_state, false);
+        stats.put(VdsProperties.netConfigDirty, "False");
+        stats.put(VdsProperties.images_last_check, 4.2);
+        stats.put(VdsProperties.images_last_delay, 0.05);
+        stats.put(VdsProperties.vm_count, 12);
+        stats.put(VdsProperties.vm_active, 12);
+        stats.put(VdsProperties.vm_migrating, 0);
+        stats.put(VdsProperties.INCOMING_VM_MIGRATIONS, 0);
+        stats.put(VdsProperties.OUTGOING_VM_MIGRATIONS, 0);
+        stats.put(VdsProperties.bootTime, "1589188843");
+
+        Map<String, Object> network = new HashMap<>();
+        for (int i = 0; i < nicsCount; i++) {
+            Map<String, Object> nic = new HashMap<>();
+            nic.put(VdsProperties.rx_dropped, "0");
+            nic.put(VdsProperties.rx_total, String.valueOf(2243888802L + i));
+            nic.put(VdsProperties.tx_dropped, "0");
+            nic.put(VdsProperties.tx_total, String.valueOf(2649267647L + i));
+            nic.put(VdsProperties.sample_time, 1589191325.73 + i);
+            nic.put(VdsProperties.INTERFACE_SPEED, "1000");
+            nic.put(VdsProperties.iface_status, "up");
+            network.put("eth" + i, nic);
+        }
+        stats.put(VdsProperties.NETWORK, network);
+
+        Map<String, Object> cpuStats = new HashMap<>();
+        for (int i = 0; i < cpusCount; i++) {
+            Map<String, Object> cpu = new HashMap<>();
+            cpu.put(VdsProperties.NUMA_NODE_INDEX, i % 2);
+            cpu.put(VdsProperties.NUMA_CPU_USER, "2.50");
+            cpu.put(VdsProperties.NUMA_CPU_SYS, "0.75");
+            cpu.put(VdsProperties.NUMA_CPU_IDLE, "96.75");
+            cpuStats.put(String.valueOf(i), cpu);
+        }
+        stats.put(VdsProperties.CPU_STATS, cpuStats);
+
+        Map<String, Object> numaMemStats = new HashMap<>();
+        for (int i = 0; i < 2; i++) {
+            Map<String, Object> node = new HashMap<>();
+            node.put(VdsProperties.NUMA_NODE_FREE_MEM, "27160");
+            node.put(VdsProperties.NUMA_NODE_MEM_PERCENT, 17);
+            numaMemStats.put(String.valueOf(i), node);
+        }
+        stats.put(VdsProperties.NUMA_NODE_FREE_MEM_STAT, numaMemStats);
+        return stats;
+    }
+
+    private Map<String, Object> createVmStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put(VdsProperties.vm_guid, Guid.newGuid().toString());
+        stats.put(VdsProperties.elapsed_time, "86400.0");
+        stats.put(VdsProperties.cpu_sys, "0.40");
+        stats.put(VdsProperties.cpu_user, "1.73");
+        stats.put(VdsProperties.vm_usage_mem_percent, 35);
+        stats.put(VdsProperties.vm_migration_progress_percent, 0);
+
+        Map<String, Object> guestMemoryStats = new HashMap<>();
+        guestMemoryStats.put(VdsProperties.vm_guest_mem_buffered, 43560);
+        guestMemoryStats.put(VdsProperties.vm_guest_mem_cached, 523772);
+        guestMemoryStats.put(VdsProperties.vm_guest_mem_free, 2876740);
+        guestMemoryStats.put(VdsProperties.vm_guest_mem_unused, 2876740);
+        stats.put(VdsProperties.vm_guest_mem_stats, guestMemoryStats);
+
+        Map<String, Object> disks = new HashMap<>();
+        for (int i = 0; i < 4; i++) {
+            Map<String, Object> disk = new HashMap<>();
+            disk.put(VdsProperties.image_group_id, Guid.newGuid().toString());
+            disk.put(VdsProperties.vm_disk_read_rate, "2048.0");
+            disk.put(VdsProperties.vm_disk_read_ops, "3");
+            disk.put(VdsProperties.vm_disk_write_rate, "40960.0");
+            disk.put(VdsProperties.vm_disk_write_ops, "12");
+            disk.put(VdsProperties.disk_true_size, "1073741824");
+            disk.put(VdsProperties.vm_disk_read_latency, "0.000412");
+            disk.put(VdsProperties.vm_disk_write_latency, "0.001205");
+            disk.put(VdsProperties.vm_disk_flush_latency, "0.000131");
+            disks.put("sd" + (char) ('a' + i), disk);
+        }
+        stats.put(VdsProperties.vm_disks, disks);
+
+        Map<String, Object> network = new HashMap<>();
+        for (int i = 0; i < 2; i++) {
+            Map<String, Object> nic = new HashMap<>();
+            nic.put(VdsProperties.VM_INTERFACE_NAME, "vnet" + i);
+            nic.put(VdsProperties.MAC_ADDR, "56:6f:1a:2b:00:0" + i);
+            nic.put(VdsProperties.rx_dropped, "0");
+            nic.put(VdsProperties.rx_total, "88213412");
+            nic.put(VdsProperties.tx_dropped, "0");
+            nic.put(VdsProperties.tx_total, "1823311");
+            nic.put(VdsProperties.sample_time, 1589191325.73);
+            nic.put(VdsProperties.INTERFACE_SPEED, "1000");
+            network.put("vnet" + i, nic);
+        }
+        stats.put(VdsProperties.VM_NETWORK, network);
+        return stats;
+    }
+}
@@ -28,6 +28,10 @@ public class LocalConfig {
     private static final String DEFAULT_VERSION = "ENGINE_API_DEFAULT_VERSION";
     private static final String FILTER_BY_DEFAULT = "ENGINE_API_FILTER_BY_DEFAULT";
     private static final String EXPLORER_DIRECTORY = "ENGINE_API_EXPLORER_DIRECTORY";
+    private static final String STREAMING_COLLECTION_SIZE = "ENGINE_API_STREAMING_COLLECTION_SIZE";
+
+    // The default values of the properties:
+    private static final int DEFAULT_STREAMING_COLLECTION_SIZE = 1000;
 
     // Reference to the engine local configuration, as that is what is used to actually read the configuration:
     private EngineLocalConfig config;
@@ -98,4 +102,12 @@ public class LocalConfig {
     public String getExplorerDirectory() {
         return config.getProperty(EXPLORER_DIRECTORY);
     }
+
+    /**
+     * Returns the number of entities from which collections are mapped while they are written to the response, instead
+     * of before. Zero or a negative value disables streaming.
+     */
+    public int getStreamingCollectionSize() {
+        return config.getInteger(STREAMING_COLLECTION_SIZE, DEFAULT_STREAMING_COLLECTION_SIZE);
+    }
 }
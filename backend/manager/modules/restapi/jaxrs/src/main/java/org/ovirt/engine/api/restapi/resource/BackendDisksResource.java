@@ -14,6 +14,7 @@ import org.ovirt.engine.api.restapi.logging.Messages;
 import org.ovirt.engine.api.restapi.resource.utils.DiskResourceUtils;
 import org.ovirt.engine.api.restapi.types.DiskMapper;
 import org.ovirt.engine.api.restapi.util.LinkHelper;
+import org.ovirt.engine.api.restapi.util.StreamingHelper;
 import org.ovirt.engine.core.common.action.ActionType;
 import org.ovirt.engine.core.common.action.AddDiskParameters;
 import org.ovirt.engine.core.common.interfaces.SearchType;
@@ -127,6 +128,10 @@ public class BackendDisksResource
 
     protected Disks mapCollection(List<org.ovirt.engine.core.common.businessentities.storage.Disk> entities) {
         Disks collection = new Disks();
+        if (StreamingHelper.isStreamed(httpHeaders, uriInfo, entities.size())) {
+            StreamingHelper.setStreamedMembers(collection, entities, disk -> addLinks(populate(map(disk), disk)));
+            return collection;
+        }
         for (org.ovirt.engine.core.common.businessentities.storage.Disk disk : entities) {
             collection.getDisks().add(addLinks(populate(map(disk), disk)));
         }
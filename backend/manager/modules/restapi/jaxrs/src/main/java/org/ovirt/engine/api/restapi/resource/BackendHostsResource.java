@@ -13,6 +13,7 @@ import org.ovirt.engine.api.model.Hosts;
 import org.ovirt.engine.api.resource.HostResource;
 import org.ovirt.engine.api.resource.HostsResource;
 import org.ovirt.engine.api.restapi.util.ParametersHelper;
+import org.ovirt.engine.api.restapi.util.StreamingHelper;
 import org.ovirt.engine.core.common.action.ActionType;
 import org.ovirt.engine.core.common.action.VdsOperationActionParameters;
 import org.ovirt.engine.core.common.action.hostdeploy.AddVdsActionParameters;
@@ -138,6 +139,12 @@ public class BackendHostsResource extends AbstractBackendCollectionResource<Host
 
     private Hosts mapCollection(List<VDS> entities) {
         Hosts collection = new Hosts();
+        // Populating the hosts runs backend queries for each host while it is mapped, so such collections are not
+        // streamed.
+        if (!isPopulate() && StreamingHelper.isStreamed(httpHeaders, uriInfo, entities.size())) {
+            StreamingHelper.setStreamedMembers(collection, entities, entity -> addLinks(populate(map(entity), entity)));
+            return collection;
+        }
         for (VDS entity : entities) {
             collection.getHosts().add(addLinks(populate(map(entity), entity)));
         }
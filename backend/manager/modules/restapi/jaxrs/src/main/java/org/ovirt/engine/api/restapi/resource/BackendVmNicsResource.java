@@ -18,16 +18,22 @@ import org.ovirt.engine.core.compat.Guid;
 
 public class BackendVmNicsResource extends AbstractBackendNicsResource implements VmNicsResource {
     private Guid vmId;
+    private List<VmNetworkInterface> interfaces;
 
     public BackendVmNicsResource(Guid vmId) {
         super(vmId, QueryType.GetVmInterfacesByVmId);
         this.vmId = vmId;
     }
 
+    protected BackendVmNicsResource(Guid vmId, List<VmNetworkInterface> interfaces) {
+        this(vmId);
+        this.interfaces = interfaces;
+    }
+
     @Override
     public Nics list() {
         Nics nics = new Nics();
-        List<VmNetworkInterface> entities = getBackendCollection(
+        List<VmNetworkInterface> entities = interfaces != null ? interfaces : getBackendCollection(
             QueryType.GetVmInterfacesByVmId,
             new IdQueryParameters(vmId)
         );
@@ -10,12 +10,19 @@ import org.ovirt.engine.core.common.queries.GetTagsByVmIdParameters;
 import org.ovirt.engine.core.common.queries.QueryType;
 
 public class BackendVmTagsResource extends AbstractBackendAssignedTagsResource {
+    private List<Tags> tags;
+
     public BackendVmTagsResource(String parentId) {
         super(Vm.class, parentId, ActionType.AttachVmsToTag);
     }
 
+    protected BackendVmTagsResource(String parentId, List<Tags> tags) {
+        this(parentId);
+        this.tags = tags;
+    }
+
     public List<Tags> getCollection() {
-        return getBackendCollection(QueryType.GetTagsByVmId, new GetTagsByVmIdParameters(parentId));
+        return tags != null ? tags : getBackendCollection(QueryType.GetTagsByVmId, new GetTagsByVmIdParameters(parentId));
     }
 
     @Override
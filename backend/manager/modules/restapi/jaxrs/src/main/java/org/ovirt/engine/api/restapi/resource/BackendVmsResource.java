@@ -16,6 +16,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -26,6 +27,7 @@ import org.apache.commons.lang.StringUtils;
 import org.ovirt.engine.api.common.util.DetailHelper;
 import org.ovirt.engine.api.model.ActionableResource;
 import org.ovirt.engine.api.model.AutoPinningPolicy;
+import org.ovirt.engine.api.model.Certificate;
 import org.ovirt.engine.api.model.Configuration;
 import org.ovirt.engine.api.model.ConfigurationType;
 import org.ovirt.engine.api.model.Disk;
@@ -36,6 +38,7 @@ import org.ovirt.engine.api.model.GraphicsConsoles;
 import org.ovirt.engine.api.model.Host;
 import org.ovirt.engine.api.model.HostDevices;
 import org.ovirt.engine.api.model.Initialization;
+import org.ovirt.engine.api.model.Nics;
 import org.ovirt.engine.api.model.Payload;
 import org.ovirt.engine.api.model.Snapshot;
 import org.ovirt.engine.api.model.Snapshots;
@@ -55,6 +58,7 @@ import org.ovirt.engine.api.restapi.util.DisplayHelper;
 import org.ovirt.engine.api.restapi.util.IconHelper;
 import org.ovirt.engine.api.restapi.util.ParametersHelper;
 import org.ovirt.engine.api.restapi.util.QueryHelper;
+import org.ovirt.engine.api.restapi.util.StreamingHelper;
 import org.ovirt.engine.api.restapi.util.VmHelper;
 import org.ovirt.engine.core.common.action.ActionType;
 import org.ovirt.engine.core.common.action.AddVmFromSnapshotParameters;
@@ -68,6 +72,7 @@ import org.ovirt.engine.core.common.businessentities.GraphicsDevice;
 import org.ovirt.engine.core.common.businessentities.GraphicsInfo;
 import org.ovirt.engine.core.common.businessentities.GraphicsType;
 import org.ovirt.engine.core.common.businessentities.InstanceType;
+import org.ovirt.engine.core.common.businessentities.Tags;
 import org.ovirt.engine.core.common.businessentities.VM;
 import org.ovirt.engine.core.common.businessentities.VmDevice;
 import org.ovirt.engine.core.common.businessentities.VmDeviceGeneralType;
@@ -77,8 +82,10 @@ import org.ovirt.engine.core.common.businessentities.VmRngDevice;
 import org.ovirt.engine.core.common.businessentities.VmStatic;
 import org.ovirt.engine.core.common.businessentities.VmTemplate;
 import org.ovirt.engine.core.common.businessentities.VmWatchdog;
+import org.ovirt.engine.core.common.businessentities.network.VmNetworkInterface;
 import org.ovirt.engine.core.common.businessentities.storage.BaseDisk;
 import org.ovirt.engine.core.common.businessentities.storage.DiskImage;
+import org.ovirt.engine.core.common.businessentities.storage.DiskVmElement;
 import org.ovirt.engine.core.common.interfaces.SearchType;
 import org.ovirt.engine.core.common.osinfo.OsRepository;
 import org.ovirt.engine.core.common.queries.GetFilteredAndSortedParameters;
@@ -114,6 +121,9 @@ public class BackendVmsResource extends
     private static final String HOST_DEVICES = "host_devices";
     private static final String WATCHDOGS = "watchdogs";
     private static final String SNAPSHOTS = "snapshots";
+    private static final String NICS = "nics";
+    private static final String DISK_ATTACHMENTS = "disk_attachments";
+    private static final String TAGS = "tags";
 
     private Map<String, VM> vmIdToVm = Collections.emptyMap();
 
@@ -731,8 +741,10 @@ public class BackendVmsResource extends
             // optimization of DB access: retrieve GraphicsDevices for all VMs at once
             Map<Guid, List<GraphicsDevice>> vmsGraphicsDevices =
                     DisplayHelper.getGraphicsDevicesForMultipleEntities(this, vmIds);
+            Function<Guid, Certificate> displayCertificateLookup = DisplayHelper.getDisplayCertificateLookup(this);
 
-            for (org.ovirt.engine.core.common.businessentities.VM entity : entities) {
+            Function<VM, Certificate> certificateLookup = entity -> displayCertificateLookup.apply(entity.getId());
+            BiFunction<VM, Certificate, Vm> mapper = (entity, certificate) -> {
                 Vm vm = map(entity);
                 if (includeCurrentGraphicsConsoles) {
                     GraphicsConsoles consoles = new GraphicsConsoles();
@@ -742,9 +754,20 @@ public class BackendVmsResource extends
                     vm.setGraphicsConsoles(consoles);
                 }
                 DisplayHelper.adjustDisplayData(this, vm, vmsGraphicsDevices, false);
-                DisplayHelper.addDisplayCertificate(this, vm);
+                DisplayHelper.setDisplayCertificate(vm, certificate);
                 removeRestrictedInfo(vm);
-                collection.getVms().add(addLinks(populate(vm, entity)));
+                return addLinks(populate(vm, entity));
+            };
+            // Populating the VMs and their statistics runs backend queries for each VM while it is mapped, so such
+            // collections are not streamed.
+            if (!isPopulate()
+                    && !details.contains("statistics")
+                    && StreamingHelper.isStreamed(httpHeaders, uriInfo, entities.size())) {
+                StreamingHelper.setStreamedMembers(collection, entities, certificateLookup, mapper);
+            } else {
+                for (org.ovirt.engine.core.common.businessentities.VM entity : entities) {
+                    collection.getVms().add(mapper.apply(entity, certificateLookup.apply(entity)));
+                }
             }
         }
         if (includeSize) {
@@ -794,16 +817,78 @@ public class BackendVmsResource extends
             vms.getVms().forEach(this::setSnapshots);
             node.setFollowed(true);
         });
+        // The nics, disk_attachments and tags links of VMs are fetched with one query each for all the VMs of a level
+        // of the links tree. The other links are fetched by the link follower href by href.
+        linkFollower.registerBatchFetcher(Vm.class, NICS, this::fetchNics);
+        linkFollower.registerBatchFetcher(Vm.class, DISK_ATTACHMENTS, this::fetchDiskAttachments);
+        linkFollower.registerBatchFetcher(Vm.class, TAGS, this::fetchTags);
+    }
+
+    private List<Nics> fetchNics(List<Vm> vms) {
+        Map<Guid, List<VmNetworkInterface>> interfaces = getVmInterfaces(vms).stream()
+                .collect(Collectors.groupingBy(VmNetworkInterface::getVmId));
+        vms.forEach(vm -> setNics(vm, interfaces.getOrDefault(asGuid(vm.getId()), Collections.emptyList())));
+        return vms.stream().map(Vm::getNics).collect(Collectors.toList());
+    }
+
+    private List<DiskAttachments> fetchDiskAttachments(List<Vm> vms) {
+        Map<Guid, List<DiskVmElement>> diskVmElements = getDiskVmElements(vms).stream()
+                .collect(Collectors.groupingBy(DiskVmElement::getVmId));
+        vms.forEach(vm -> setDiskAttachments(vm,
+                diskVmElements.getOrDefault(asGuid(vm.getId()), Collections.emptyList())));
+        return vms.stream().map(Vm::getDiskAttachments).collect(Collectors.toList());
+    }
+
+    private List<org.ovirt.engine.api.model.Tags> fetchTags(List<Vm> vms) {
+        Map<Guid, List<Tags>> tags = getTags(vms);
+        vms.forEach(vm -> setTags(vm, tags.getOrDefault(asGuid(vm.getId()), Collections.emptyList())));
+        return vms.stream().map(Vm::getTags).collect(Collectors.toList());
+    }
+
+    private List<Guid> getVmIds(List<Vm> vms) {
+        return vms.stream().map(Vm::getId).map(this::asGuid).collect(Collectors.toList());
     }
 
     private List<VmWatchdog> getWatchdogs(Vms vms) {
-        List<Guid> vmIds = vms.getVms().stream().map(Vm::getId).map(this::asGuid).collect(Collectors.toList());
         return getEntity(List.class,
                 QueryType.GetWatchdogs,
-                new IdsQueryParameters(vmIds),
+                new IdsQueryParameters(getVmIds(vms.getVms())),
                 "GetWatchdogs", true);
     }
 
+    private List<VmNetworkInterface> getVmInterfaces(List<Vm> vms) {
+        return getEntity(List.class,
+                QueryType.GetVmInterfacesByVmIds,
+                new IdsQueryParameters(getVmIds(vms)),
+                "GetVmInterfacesByVmIds", true);
+    }
+
+    private List<DiskVmElement> getDiskVmElements(List<Vm> vms) {
+        return getEntity(List.class,
+                QueryType.GetDiskVmElementsByVmIds,
+                new IdsQueryParameters(getVmIds(vms)),
+                "GetDiskVmElementsByVmIds", true);
+    }
+
+    private Map<Guid, List<Tags>> getTags(List<Vm> vms) {
+        return getEntity(Map.class,
+                QueryType.GetTagsByVmIds,
+                new IdsQueryParameters(getVmIds(vms)),
+                "GetTagsByVmIds", true);
+    }
+
+    private void setNics(Vm vm, List<VmNetworkInterface> interfaces) {
+        vm.setNics(inject(new BackendVmNicsResource(asGuid(vm.getId()), interfaces)).list());
+    }
+
+    private void setDiskAttachments(Vm vm, List<DiskVmElement> diskVmElements) {
+        vm.setDiskAttachments(inject(new BackendDiskAttachmentsResource(asGuid(vm.getId()), diskVmElements)).list());
+    }
+
+    private void setTags(Vm vm, List<Tags> tags) {
+        vm.setTags(inject(new BackendVmTagsResource(vm.getId(), tags)).list());
+    }
+
     private void setWatchdogs(Vm vm, List<VmWatchdog> watchdogs) {
         vm.setWatchdogs(getBackendVmWatchdogsResource(vm.getId(), watchdogs).list());
     }
@@ -2,9 +2,13 @@ package org.ovirt.engine.api.restapi.resource.utils;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 import javax.ws.rs.GET;
@@ -21,6 +25,7 @@ import org.ovirt.engine.api.utils.ReflectionHelper;
 public class LinkFollower {
 
     private ResourceLocator resourceLocator;
+    private final Map<String, BatchFetcher<?>> batchFetchers = new HashMap<>();
 
     public LinkFollower() {
         this.resourceLocator = ResourceLocator.getInstance();
@@ -30,9 +35,33 @@ public class LinkFollower {
         this.resourceLocator = resourceLocator;
     }
 
+    /**
+     * Fetches a link for all the entities of a level of the links-tree at once, e.g: the nics of all the VMs of a
+     * listing with a single query, instead of following the href of each VM separately.
+     */
+    @FunctionalInterface
+    public interface BatchFetcher<T extends BaseResource> {
+        /**
+         * Fetches the link for all the provided entities and sets the fetched data in each of them.
+         *
+         * @return the fetched entities, in which the child-links of the link are followed
+         */
+        List<? extends ActionableResource> fetch(List<T> entities);
+    }
+
+    /**
+     * Registers a fetcher that follows the provided link for all the entities of the provided type of a level of the
+     * links-tree at once, at any depth of the tree. Links without a registered fetcher are followed href by href.
+     */
+    public <T extends BaseResource> void registerBatchFetcher(Class<T> type, String link, BatchFetcher<T> fetcher) {
+        batchFetchers.put(batchFetcherKey(type, link), fetcher);
+    }
+
     /**
      * Follow all links in the links-tree. Each node in the tree (except ROOT) is a link, and
-     * links should be followed in a pre-order DFS (Depth-First-Search) manner. For example,
+     * links should be followed in a pre-order DFS (Depth-First-Search) manner. Each link is
+     * followed for all the entities it applies to at once, so that every distinct href is
+     * fetched only once per level of the tree. For example,
      * in the tree:
      *
      * ROOT
@@ -100,7 +129,7 @@ public class LinkFollower {
 
     /**
      * For all the provided business-entities (whether single (e.g: Nic) or collection (e.g: Nics) types)
-     * follow all links in the provided links-tree, recursively.
+     * follow all links in the provided links-tree, one level of the tree at a time.
      *
      * For example, for a list of three 'Nics' entities:
      *
@@ -116,8 +145,9 @@ public class LinkFollower {
      *         networkfilter
      *         qos
      *
-     * This method will fetch the vnic-profiles of nic11, nic12, nic13, nic21, nic22, nic23,
-     * set them in the respected Nic objects, and store them in a list.
+     * This method will fetch the vnic-profiles of nic11, nic12, nic21, nic22, nic31, nic32 - each distinct
+     * vnic-profile only once, however many nics refer to it - set them in the respected Nic objects, and
+     * store them in a list.
      *
      * Then the method will recursively run on the list of vnic-profiles with the sub-tree
      *
@@ -128,35 +158,44 @@ public class LinkFollower {
      *    qos
      */
     private void followLinks(List<ActionableResource> entities, LinksTreeNode node) {
-        for (ActionableResource entity : entities) {
-            followLink(entity, node);
-        }
+        List<ActionableResource> nextStepEntities = fetchData(getMembers(entities, node), node);
         node.setFollowed(true);
+        for (LinksTreeNode child : node.getChildren()) {
+            followLinks(nextStepEntities, child);
+        }
     }
 
     /**
-     * For the provided business entity (whether single (e.g: Nic) or collection (e.g: Nics) type,
-     * follow all links in the provided links-tree, recursively.
+     * Returns the single entities the link represented by the provided node should be followed for: the
+     * members of collection-type entities (e.g: for Nics the List<Nic>) and the single entities themselves.
      */
-    private void followLink(ActionableResource entity, LinksTreeNode node) {
-        List<ActionableResource> nextStepEntities = new LinkedList<>();
-        if (EntityHelper.isCollection(entity)) {
-            nextStepEntities.addAll(fetchData((BaseResources) entity, node));
-        } else {
-            nextStepEntities.add(fetchData((BaseResource) entity, node));
-        }
-        for (LinksTreeNode child : node.getChildren()) {
-            followLinks(nextStepEntities, child);
+    @SuppressWarnings("unchecked")
+    private List<BaseResource> getMembers(List<ActionableResource> entities, LinksTreeNode node) {
+        List<BaseResource> members = new ArrayList<>();
+        for (ActionableResource entity : entities) {
+            if (EntityHelper.isCollection(entity)) {
+                Method collectionGetter = EntityHelper.getCollectionGetter((BaseResources) entity);
+                try {
+                    //get the actual list of entities in the collection-type, e.g for Nics get List<Nic>
+                    //(by invoking nics.getNics() using reflection)
+                    members.addAll((List<BaseResource>) collectionGetter.invoke(entity));
+                } catch (Exception e) {
+                    throw new IllegalStateException("Problem following '" + node.getElement() + "' link in " + entity.getClass().getSimpleName() + " entity.", e);
+                }
+            } else {
+                members.add((BaseResource) entity);
+            }
         }
+        return members;
     }
 
     /**
-     * For the provided collection-type entity (e.g: Nics), follow the link represented by the
+     * For the provided single-type entities (e.g: Nic), follow the link represented by the
      * provided node. Do not follow child-links of this node.
      *
-     * For example, for a Nics object:
+     * For example, for the Nic objects:
      *
-     *   nics [nic1, nic2]
+     *   [nic1, nic2]
      *
      * and the tree:
      *
@@ -164,58 +203,85 @@ public class LinkFollower {
      *        networkfilter
      *        qos
      *
-     * This method fetches all vnicprofiles of nic1, nic2, and sets them in these Nic objects.
-     * The method will return the fetched vnic-profile objects. The child links networkfilter, qos
-     * are purposely ignored.
+     * This method fetches the vnicprofiles of nic1, nic2 and sets them in these Nic objects. Entities that
+     * link to the same href share the result of a single fetch. The method returns the fetched vnic-profile
+     * objects, each one once. The child links networkfilter, qos are purposely ignored.
+     *
+     * If the link was already followed, e.g by a resource that fetched it for all the entities at once,
+     * the data is taken from the entities as is. If a batch fetcher is registered for the link and the type
+     * of the entities, it fetches the data of all the entities at once.
      */
     @SuppressWarnings("unchecked")
-    private List<ActionableResource> fetchData(BaseResources collectionEntity, LinksTreeNode node) {
-        List<ActionableResource> results = new LinkedList<>();
-        Method collectionGetter = EntityHelper.getCollectionGetter(collectionEntity);
-        try {
-            //get the actual list of entities in the collection-type, e.g for Nics get List<Nic>
-            //(by invoking nics.getNics() using reflection)
-            List<BaseResource> entities = (List<BaseResource>) collectionGetter.invoke(collectionEntity);
-            //for each entity in the list, fetch link data.
+    private List<ActionableResource> fetchData(List<BaseResource> entities, LinksTreeNode link) {
+        List<ActionableResource> results = new ArrayList<>();
+        String element = underscoreToCamelCase(link.getElement());
+        if (link.isFollowed()) {
             for (BaseResource entity : entities) {
-                results.add(fetchData(entity, node));
+                try {
+                    Method getter = ReflectionHelper.getGetter(entity, element);
+                    ActionableResource result = (ActionableResource) getter.invoke(entity);
+                    if (result != null) {
+                        results.add(result);
+                    }
+                } catch (Exception e) {
+                    throw new IllegalStateException("Problem fetching '" + link.getElement() +
+                            "' from " + entity.getClass().getSimpleName(), e);
+                }
+            }
+            return results;
+        }
+
+        BatchFetcher<BaseResource> batchFetcher = (BatchFetcher<BaseResource>) getBatchFetcher(entities, link);
+        if (batchFetcher != null) {
+            batchFetcher.fetch(entities).stream().filter(Objects::nonNull).forEach(results::add);
+            return results;
+        }
+
+        Map<String, List<BaseResource>> entitiesByHref = new LinkedHashMap<>();
+        for (BaseResource entity : entities) {
+            try {
+                String href = getHref(entity, link.getElement());
+                entitiesByHref.computeIfAbsent(href, k -> new ArrayList<>()).add(entity);
+            } catch (Exception e) {
+                throw new IllegalStateException("Problem fetching '" + link.getElement() +
+                        "' from " + entity.getClass().getSimpleName(), e);
+            }
+        }
+        for (Map.Entry<String, List<BaseResource>> entry : entitiesByHref.entrySet()) {
+            ActionableResource result = fetch(entry.getKey());
+            for (BaseResource entity : entry.getValue()) {
+                try {
+                    Method setter = ReflectionHelper.getSetter(entity, element);
+                    setter.invoke(entity, result);
+                } catch (Exception e) {
+                    throw new IllegalStateException("Problem fetching '" + link.getElement() +
+                            "' from " + entity.getClass().getSimpleName(), e);
+                }
+            }
+            if (result != null) {
+                results.add(result);
             }
-        } catch (Exception e) {
-            throw new IllegalStateException("Problem following '" + node.getElement() + "' link in " + collectionEntity.getClass().getSimpleName() + " entity.", e);
         }
         return results;
     }
 
     /**
-     * For the provided single-entity type (e.g: Nic), follow the link represented by the
-     * provided node. Do not follow child-links of this node.
-     *
-     * For example, for a Nic object and the tree:
-     *
-     *   vnicprofiles
-     *        networkfilter
-     *        qos
-     *
-     * This method fetches all vnicprofiles of this nic object and sets them in it. The method
-     * then returns the fetched vnic-profiles. The child links networkfilter, qos are purposely ignored.
+     * Returns the batch fetcher registered for the link and the type of the entities, or null if there is none or
+     * the entities are of several types.
      */
-    private ActionableResource fetchData(BaseResource entity, LinksTreeNode link) {
-        try {
-            String element = underscoreToCamelCase(link.getElement());
-            if (link.isFollowed()) {
-                Method getter = ReflectionHelper.getGetter(entity, element);
-                return (ActionableResource) getter.invoke(entity);
-            } else {
-                String href = getHref((BaseResource) entity, link.getElement());
-                ActionableResource result = fetch(href);
-                Method setter = ReflectionHelper.getSetter(entity, element);
-                setter.invoke(entity, result);
-                return result;
-            }
-        } catch (Exception e) {
-            throw new IllegalStateException("Problem fetching '" + link.getElement() +
-                    "' from " + entity.getClass().getSimpleName(), e);
+    private BatchFetcher<?> getBatchFetcher(List<BaseResource> entities, LinksTreeNode link) {
+        if (entities.isEmpty() || batchFetchers.isEmpty()) {
+            return null;
         }
+        Class<?> type = entities.get(0).getClass();
+        if (entities.stream().anyMatch(entity -> entity.getClass() != type)) {
+            return null;
+        }
+        return batchFetchers.get(batchFetcherKey(type, link.getElement()));
+    }
+
+    private String batchFetcherKey(Class<?> type, String link) {
+        return type.getName() + '.' + toRelFormat(link);
     }
 
     private String underscoreToCamelCase(String element) {
@@ -3,6 +3,7 @@ package org.ovirt.engine.api.restapi.util;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 import org.ovirt.engine.api.model.BaseResource;
 import org.ovirt.engine.api.model.Certificate;
@@ -137,23 +138,23 @@ public class DisplayHelper {
     }
 
     public static void addDisplayCertificate(BackendResource res, Vm vm) {
-        QueryReturnValue result =
-                res.runQuery(QueryType.GetVdsCertificateSubjectByVmId,
-                             new IdQueryParameters(new Guid(vm.getId())));
+        setDisplayCertificate(vm, getDisplayCertificateLookup(res).apply(new Guid(vm.getId())));
+    }
+
+    /**
+     * Returns a function that queries the display certificate of a VM by the id of the VM, or returns null if the VM
+     * has none. The certificate of the CA is queried only once, for the first VM having a display certificate.
+     */
+    public static Function<Guid, Certificate> getDisplayCertificateLookup(BackendResource res) {
+        return new DisplayCertificateLookup(res);
+    }
 
-        if (result != null && result.getSucceeded() && result.getReturnValue() != null) {
+    public static void setDisplayCertificate(Vm vm, Certificate certificate) {
+        if (certificate != null) {
             if (!vm.isSetDisplay()) {
                 vm.setDisplay(new Display());
             }
-            vm.getDisplay().setCertificate(new Certificate());
-            vm.getDisplay().getCertificate().setSubject(result.getReturnValue().toString());
-            vm.getDisplay().getCertificate().setOrganization(CertificateSubjectHelper.getOrganizationName());
-
-            final QueryReturnValue caCertificateReturnValue =
-                    res.runQuery(QueryType.GetCACertificate, new QueryParametersBase());
-            if (caCertificateReturnValue.getSucceeded()) {
-                vm.getDisplay().getCertificate().setContent(caCertificateReturnValue.getReturnValue());
-            }
+            vm.getDisplay().setCertificate(certificate);
         }
     }
 
@@ -176,4 +177,37 @@ public class DisplayHelper {
         }
     }
 
+    private static class DisplayCertificateLookup implements Function<Guid, Certificate> {
+        private final BackendResource res;
+        private boolean caCertificateQueried;
+        private String caCertificate;
+
+        private DisplayCertificateLookup(BackendResource res) {
+            this.res = res;
+        }
+
+        @Override
+        public Certificate apply(Guid vmId) {
+            QueryReturnValue result =
+                    res.runQuery(QueryType.GetVdsCertificateSubjectByVmId, new IdQueryParameters(vmId));
+            if (result == null || !result.getSucceeded() || result.getReturnValue() == null) {
+                return null;
+            }
+            Certificate certificate = new Certificate();
+            certificate.setSubject(result.getReturnValue().toString());
+            certificate.setOrganization(CertificateSubjectHelper.getOrganizationName());
+            if (!caCertificateQueried) {
+                QueryReturnValue caCertificateReturnValue =
+                        res.runQuery(QueryType.GetCACertificate, new QueryParametersBase());
+                if (caCertificateReturnValue != null && caCertificateReturnValue.getSucceeded()) {
+                    caCertificate = caCertificateReturnValue.getReturnValue();
+                }
+                caCertificateQueried = true;
+            }
+            if (caCertificate != null) {
+                certificate.setContent(caCertificate);
+            }
+            return certificate;
+        }
+    }
 }
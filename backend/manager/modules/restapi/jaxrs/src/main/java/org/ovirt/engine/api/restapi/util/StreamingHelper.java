@@ -0,0 +1,150 @@
+/*
+ * Copyright oVirt Authors
+ * SPDX-License-Identifier: Apache-2.0
+*/
+
+package org.ovirt.engine.api.restapi.util;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.UriInfo;
+
+import org.apache.commons.lang.StringUtils;
+import org.ovirt.engine.api.model.BaseResources;
+import org.ovirt.engine.api.restapi.LocalConfig;
+import org.ovirt.engine.api.restapi.resource.BaseBackendResource;
+
+/**
+ * This class contains the methods used to stream large collections: instead of mapping all the backend entities of
+ * the collection before it is returned, the entities are mapped one at a time while the collection is written to the
+ * response by the XML or JSON provider. The mapped model objects become garbage as soon as they are written, so the
+ * memory used doesn't depend on the number of entities in the collection.
+ * <p>
+ * Once the provider starts writing the collection the status of the response is already sent, so a failure while
+ * mapping an entity can only truncate the response. Anything that may fail, like backend queries, is therefore done by
+ * a lookup function that runs for all the entities before the collection is returned, and the mapper that runs while
+ * writing should only convert the entity and the result of its lookup to the model.
+ * </p>
+ */
+public class StreamingHelper {
+
+    /**
+     * An index of the fields that hold the members of the collection types, e.g. the {@code vms} field of
+     * {@code Vms}.
+     */
+    private static final ConcurrentMap<Class<?>, Field> membersFields = new ConcurrentHashMap<>();
+
+    private StreamingHelper() {
+        // No instances allowed.
+    }
+
+    /**
+     * Checks if a collection with the given number of entities should be streamed. Collections are streamed only
+     * when they are large enough and when no links are followed, as following links modifies the members of the
+     * collection after it has been populated.
+     */
+    public static boolean isStreamed(HttpHeaders httpHeaders, UriInfo uriInfo, int size) {
+        int threshold = LocalConfig.getInstance().getStreamingCollectionSize();
+        return threshold > 0
+                && size >= threshold
+                && StringUtils.isEmpty(ParametersHelper.getParameter(httpHeaders, uriInfo, BaseBackendResource.FOLLOW));
+    }
+
+    /**
+     * Replaces the members of the given collection with a list that maps the given entities when they are accessed.
+     * The list is read only. The mapper shouldn't run backend queries, see
+     * {@link #setStreamedMembers(BaseResources, List, Function, BiFunction)} for entities that need them.
+     */
+    public static <E, M> void setStreamedMembers(BaseResources collection, List<E> entities, Function<E, M> mapper) {
+        setMembers(collection, new MappedList<>(entities.size(), index -> mapper.apply(entities.get(index))));
+    }
+
+    /**
+     * Replaces the members of the given collection with a list that maps the given entities when they are accessed.
+     * The lookup runs for all the entities right away, so its failures fail the request as usual, and its results are
+     * passed to the mapper along with the entities. The list is read only.
+     */
+    public static <E, L, M> void setStreamedMembers(BaseResources collection, List<E> entities,
+            Function<E, L> lookup, BiFunction<E, L, M> mapper) {
+        List<L> lookups = new ArrayList<>(entities.size());
+        for (E entity : entities) {
+            lookups.add(lookup.apply(entity));
+        }
+        setMembers(collection,
+                new MappedList<>(entities.size(), index -> mapper.apply(entities.get(index), lookups.get(index))));
+    }
+
+    private static void setMembers(BaseResources collection, List<?> members) {
+        Field field = membersFields.computeIfAbsent(collection.getClass(), StreamingHelper::findMembersField);
+        try {
+            field.set(collection, members);
+        } catch (IllegalAccessException exception) {
+            throw new IllegalStateException("Can't set the members of collection type \"" +
+                    collection.getClass().getName() + "\".", exception);
+        }
+    }
+
+    /**
+     * Finds the field that holds the members of the given collection type. Like
+     * {@link org.ovirt.engine.api.utils.EntityHelper#getCollectionGetter}, this relies on collection types having
+     * only one list of entities.
+     */
+    private static Field findMembersField(Class<?> type) {
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (List.class.isAssignableFrom(field.getType())) {
+                    field.setAccessible(true);
+                    return field;
+                }
+            }
+        }
+        throw new IllegalStateException("Collection type \"" + type.getName() + "\" doesn't contain a list.");
+    }
+
+    /**
+     * A read only list that maps its elements by their index when they are accessed. Each mapped element is kept
+     * as long as it is referenced from elsewhere, e.g. by the provider writing it, so accessing it again returns the
+     * same object instead of mapping it once more, while the elements already written can still be collected.
+     */
+    private static class MappedList<M> extends AbstractList<M> implements RandomAccess {
+        private final int size;
+        private final IntFunction<M> mapper;
+        private final WeakReference<M>[] mapped;
+
+        @SuppressWarnings("unchecked")
+        private MappedList(int size, IntFunction<M> mapper) {
+            this.size = size;
+            this.mapper = mapper;
+            this.mapped = new WeakReference[size];
+        }
+
+        @Override
+        public M get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            M element = mapped[index] != null ? mapped[index].get() : null;
+            if (element == null) {
+                element = mapper.apply(index);
+                mapped[index] = new WeakReference<>(element);
+            }
+            return element;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
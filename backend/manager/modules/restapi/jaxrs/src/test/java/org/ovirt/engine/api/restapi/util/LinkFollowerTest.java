@@ -3,8 +3,14 @@ package org.ovirt.engine.api.restapi.util;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -17,7 +23,9 @@ import org.ovirt.engine.api.model.DiskAttachments;
 import org.ovirt.engine.api.model.Link;
 import org.ovirt.engine.api.model.Nic;
 import org.ovirt.engine.api.model.Nics;
+import org.ovirt.engine.api.model.Template;
 import org.ovirt.engine.api.model.Vm;
+import org.ovirt.engine.api.model.Vms;
 import org.ovirt.engine.api.restapi.resource.BackendVmNicsResource;
 import org.ovirt.engine.api.restapi.resource.ResourceLocator;
 import org.ovirt.engine.api.restapi.resource.utils.LinkFollower;
@@ -75,6 +83,57 @@ public class LinkFollowerTest {
         assertNotNull(vm.getDiskAttachments().getDiskAttachments().get(2).getDisk());
     }
 
+    @Test
+    public void testFollowLinksFetchesSharedHrefOnce() {
+        List<String> fetched = new ArrayList<>();
+        LinkFollower countingFollower = new LinkFollower(resourceLocator) {
+            protected ActionableResource fetch(String href) {
+                fetched.add(href);
+                return new Template();
+            }
+        };
+        Vms vms = new Vms();
+        vms.getVms().add(createVmWithTemplate("/ovirt-engine/api/templates/aaa"));
+        vms.getVms().add(createVmWithTemplate("/ovirt-engine/api/templates/aaa"));
+        vms.getVms().add(createVmWithTemplate("/ovirt-engine/api/templates/bbb"));
+
+        countingFollower.followLinks(vms, countingFollower.createLinksTree(Vm.class, "template"));
+
+        assertEquals(Arrays.asList("/ovirt-engine/api/templates/aaa", "/ovirt-engine/api/templates/bbb"), fetched);
+        assertSame(vms.getVms().get(0).getTemplate(), vms.getVms().get(1).getTemplate());
+        assertNotNull(vms.getVms().get(2).getTemplate());
+    }
+
+    @Test
+    public void testFollowLinksUsesBatchFetcherAtNestedLevel() {
+        List<List<DiskAttachment>> batches = new ArrayList<>();
+        linkFollower.registerBatchFetcher(DiskAttachment.class, "disk", attachments -> {
+            batches.add(new ArrayList<>(attachments));
+            List<Disk> disks = new ArrayList<>();
+            for (DiskAttachment attachment : attachments) {
+                Disk disk = new Disk();
+                attachment.setDisk(disk);
+                disks.add(disk);
+            }
+            return disks;
+        });
+        Vm vm = createVm();
+
+        linkFollower.followLinks(vm, linkFollower.createLinksTree(Vm.class, "disk_attachments.disk"));
+
+        assertEquals(1, batches.size());
+        assertEquals(vm.getDiskAttachments().getDiskAttachments(), batches.get(0));
+        vm.getDiskAttachments().getDiskAttachments().forEach(attachment -> assertNull(attachment.getDisk().getHref()));
+    }
+
+    private Vm createVmWithTemplate(String href) {
+        Vm vm = new Vm();
+        Template template = new Template();
+        template.setHref(href);
+        vm.setTemplate(template);
+        return vm;
+    }
+
     private Vm createVm() {
         Vm vm = new Vm();
         //add an irrelevant link
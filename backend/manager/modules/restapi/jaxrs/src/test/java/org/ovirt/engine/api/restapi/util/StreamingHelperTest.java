@@ -0,0 +1,121 @@
+package org.ovirt.engine.api.restapi.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.api.model.Vm;
+import org.ovirt.engine.api.model.Vms;
+import org.ovirt.engine.api.restapi.json.JSONProvider;
+import org.ovirt.engine.api.restapi.xml.JAXBProvider;
+
+public class StreamingHelperTest {
+
+    @Test
+    public void testMembersMappedOnAccess() {
+        AtomicInteger mapped = new AtomicInteger();
+        Vms vms = createVms(Arrays.asList("aaa", "bbb"), mapped);
+
+        assertEquals(0, mapped.get());
+        assertEquals(2, vms.getVms().size());
+        assertEquals("bbb", vms.getVms().get(1).getId());
+        assertEquals(1, mapped.get());
+    }
+
+    @Test
+    public void testMemberMappedOnce() {
+        AtomicInteger mapped = new AtomicInteger();
+        Vms vms = createVms(Arrays.asList("aaa", "bbb"), mapped);
+
+        Vm vm = vms.getVms().get(0);
+
+        assertSame(vm, vms.getVms().get(0));
+        assertEquals(1, mapped.get());
+    }
+
+    @Test
+    public void testLookupsRunBeforeMapping() {
+        List<String> lookedUp = new ArrayList<>();
+        Vms vms = new Vms();
+        StreamingHelper.setStreamedMembers(vms, Arrays.asList("aaa", "bbb"), id -> {
+            lookedUp.add(id);
+            return id.toUpperCase();
+        }, (id, name) -> {
+            Vm vm = new Vm();
+            vm.setId(id);
+            vm.setName(name);
+            return vm;
+        });
+
+        assertEquals(Arrays.asList("aaa", "bbb"), lookedUp);
+        assertEquals("BBB", vms.getVms().get(1).getName());
+    }
+
+    @Test
+    public void testFailedLookupFailsBeforeWriting() {
+        Vms vms = new Vms();
+
+        assertThrows(IllegalStateException.class,
+                () -> StreamingHelper.setStreamedMembers(vms, Arrays.asList("aaa", "bbb"), id -> {
+                    throw new IllegalStateException();
+                }, (id, lookup) -> new Vm()));
+    }
+
+    @Test
+    public void testMembersReadOnly() {
+        Vms vms = createVms(Arrays.asList("aaa"), new AtomicInteger());
+
+        assertThrows(UnsupportedOperationException.class, () -> vms.getVms().add(new Vm()));
+    }
+
+    @Test
+    public void testMembersWritten() throws IOException {
+        Vms vms = createVms(Arrays.asList("aaa", "bbb", "ccc"), new AtomicInteger());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new JAXBProvider().writeTo(vms, Vms.class, null, null, MediaType.APPLICATION_XML_TYPE, null, out);
+
+        String xml = out.toString(StandardCharsets.UTF_8);
+        assertTrue(xml.contains("id=\"aaa\""));
+        assertTrue(xml.contains("id=\"ccc\""));
+    }
+
+    @Test
+    public void testMembersWrittenAsJson() throws IOException {
+        Vms vms = createVms(Arrays.asList("aaa", "bbb", "ccc"), new AtomicInteger());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new JSONProvider().writeTo(vms, Vms.class, Vms.class, new Annotation[0], MediaType.APPLICATION_JSON_TYPE,
+                new MultivaluedHashMap<>(), out);
+
+        String json = out.toString(StandardCharsets.UTF_8);
+        assertTrue(json.contains("\"aaa\""));
+        assertTrue(json.contains("\"bbb\""));
+        assertTrue(json.contains("\"ccc\""));
+    }
+
+    private Vms createVms(List<String> ids, AtomicInteger mapped) {
+        Vms vms = new Vms();
+        StreamingHelper.setStreamedMembers(vms, ids, id -> {
+            mapped.incrementAndGet();
+            Vm vm = new Vm();
+            vm.setId(id);
+            return vm;
+        });
+        return vms;
+    }
+}
@@ -15,6 +15,7 @@ import java.util.Set;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import javax.xml.stream.XMLStreamException;
 
 import org.ovirt.engine.core.common.businessentities.ArchitectureType;
 import org.ovirt.engine.core.common.businessentities.OriginType;
@@ -27,9 +28,11 @@ import org.ovirt.engine.core.common.osinfo.OsRepository;
 import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.utils.archivers.tar.TarInMemoryExport;
 import org.ovirt.engine.core.utils.ovf.OvfInfoFileConstants;
+import org.ovirt.engine.core.utils.ovf.OvfSummary;
 import org.ovirt.engine.core.utils.ovf.xml.XmlDocument;
 import org.ovirt.engine.core.utils.ovf.xml.XmlNode;
 import org.ovirt.engine.core.utils.ovf.xml.XmlNodeList;
+import org.ovirt.engine.core.utils.threadpool.ThreadPoolUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.w3c.dom.Node;
@@ -75,6 +78,22 @@ public class OvfUtils {
         return disksIds;
     }
 
+    /**
+     * Returns the disks of the given OVF like {@link #fetchVmDisks(XmlDocument)}, reading it by {@link OvfSummary}
+     * without building its DOM.
+     */
+    public Set<Guid> fetchVmDisks(String ovfData) throws XMLStreamException {
+        return OvfSummary.parse(ovfData).getDiskIds();
+    }
+
+    /**
+     * Returns the number of threads parsing the OVFs of a storage domain concurrently, e.g. the OVF files of an OVF
+     * store or the OVFs of the unregistered entities of a domain
+     */
+    public static int getOvfParsingParallelism() {
+        return EngineLocalConfig.getInstance().getInteger("ENGINE_OVF_PARSING_PARALLELISM", 4);
+    }
+
     private static Guid getEntityId(String fileName) {
         return Guid.createGuidFromString(fileName.substring(0, fileName.length() - OVF_FILE_EXT.length()));
     }
@@ -111,15 +130,30 @@ public class OvfUtils {
         }
 
         Entry<String, ByteBuffer> metaDataFileEntry = null;
+        List<Entry<String, ByteBuffer>> ovfFileEntries = new ArrayList<>();
         for (Entry<String, ByteBuffer> fileEntry : filesFromTar.entrySet()) {
             if (fileEntry.getKey().endsWith(OVF_FILE_EXT)) {
-                analyzeOvfFile(unregisteredDisks, storageDomainId, ovfEntityDataFromTar, fileEntry);
+                ovfFileEntries.add(fileEntry);
             } else if (fileEntry.getKey().equals(OvfInfoFileConstants.MetaDataFileName)) {
                 metaDataFileEntry = fileEntry;
             } else {
                 log.info("File '{}' is not an OVF file, will be ignored.", fileEntry.getKey());
             }
         }
+        // the OVF files are parsed concurrently, and their entities are then added in the order of the files
+        List<OvfFile> ovfFiles = ThreadPoolUtil.mapConcurrently(ovfFileEntries,
+                fileEntry -> analyzeOvfFile(storageDomainId, fileEntry),
+                getOvfParsingParallelism());
+        Map<Guid, UnregisteredDisk> unregisteredDisksById = mapByDiskId(unregisteredDisks);
+        for (OvfFile ovfFile : ovfFiles) {
+            if (ovfFile != null) {
+                updateUnregisteredDisksWithVMs(unregisteredDisksById,
+                        ovfFile.ovfEntityData.getEntityId(),
+                        ovfFile.ovfEntityData.getEntityName(),
+                        ovfFile.diskIds);
+                ovfEntityDataFromTar.add(ovfFile.ovfEntityData);
+            }
+        }
         analyzeOvfMetaDataFile(storageDomainId, ovfEntityDataFromTar, metaDataFileEntry);
         log.info("Finish to fetch OVF files from tar file. The number of OVF entities are {}",
                 ovfEntityDataFromTar.size());
@@ -196,19 +230,22 @@ public class OvfUtils {
         ovfEntityDataFromTar.forEach(ovfEntity -> ovfEntity.setStatus(vmsStatusesMap.get(ovfEntity.getEntityId())));
     }
 
-    private void analyzeOvfFile(List<UnregisteredDisk> unregisteredDisks,
-            Guid storageDomainId,
-            List<OvfEntityData> ovfEntityDataFromTar,
-            Entry<String, ByteBuffer> fileEntry) {
+    /**
+     * Parses an OVF file of an OVF store, this may be called concurrently for the files of the store.
+     *
+     * @return the entity of the OVF and its disks, or {@code null} if the OVF is ignored
+     */
+    private OvfFile analyzeOvfFile(Guid storageDomainId, Entry<String, ByteBuffer> fileEntry) {
         String ovfData = new String(fileEntry.getValue().array());
         VmEntityType vmType = getVmEntityType(ovfData);
         ArchitectureType archType = null;
         Guid entityId = getEntityId(fileEntry.getKey());
         String vmName = getEntityName(ovfData);
+        Set<Guid> diskIds;
         try {
-            XmlDocument xmlDocument = new XmlDocument(ovfData);
-            archType = getOsSection(xmlDocument);
-            if (isExternalVM(xmlDocument)) {
+            OvfSummary ovfSummary = OvfSummary.parse(ovfData);
+            archType = getArchitecture(ovfSummary);
+            if (ovfSummary.isExternal()) {
                 log.warn(
                         "Retrieve an external OVF Entity from storage domain ID '{}' for entity ID '{}'," +
                                 " entity name '{}' and VM Type of '{}'." +
@@ -217,16 +254,16 @@ public class OvfUtils {
                         getEntityId(fileEntry.getKey()),
                         getEntityName(ovfData),
                         vmType.name());
-                return;
+                return null;
             }
-            updateUnregisteredDisksWithVMs(unregisteredDisks, entityId, vmName, xmlDocument);
+            diskIds = ovfSummary.getDiskIds();
         } catch (Exception e) {
             log.error("Could not parse VM's disks or architecture, file name: {}, content size: {}, error: {}",
                     fileEntry.getKey(),
                     ovfData.length(),
                     e.getMessage());
             log.debug("Exception", e);
-            return;
+            return null;
         }
         // Creates an OVF entity data.
         OvfEntityData ovfEntityData =
@@ -242,7 +279,7 @@ public class OvfUtils {
                 getEntityId(fileEntry.getKey()),
                 getEntityName(ovfData),
                 vmType.name());
-        ovfEntityDataFromTar.add(ovfEntityData);
+        return new OvfFile(ovfEntityData, diskIds);
     }
 
     public boolean isExternalVM(XmlDocument xmlDocument) {
@@ -276,44 +313,54 @@ public class OvfUtils {
             Guid entityId,
             String vmName,
             XmlDocument xmlDocument) {
-        for (Guid diskId : fetchVmDisks(xmlDocument)) {
-            UnregisteredDisk unregisterDisk = unregisteredDisks.stream()
-                    .filter(unregrDisk -> diskId.equals(unregrDisk.getDiskId()))
-                    .findAny()
-                    .orElse(null);
-            VmBase vm = new VmBase();
-            vm.setId(entityId);
-            vm.setName(vmName);
+        updateUnregisteredDisksWithVMs(mapByDiskId(unregisteredDisks), entityId, vmName, fetchVmDisks(xmlDocument));
+    }
+
+    /**
+     * Adds the given entity to the unregistered disks of the given disk IDs.
+     *
+     * @param unregisteredDisksById
+     *            the unregistered disks, as mapped by {@link #mapByDiskId(List)}
+     */
+    public void updateUnregisteredDisksWithVMs(Map<Guid, UnregisteredDisk> unregisteredDisksById,
+            Guid entityId,
+            String vmName,
+            Set<Guid> diskIds) {
+        for (Guid diskId : diskIds) {
+            UnregisteredDisk unregisterDisk = unregisteredDisksById.get(diskId);
             if (unregisterDisk != null) {
+                VmBase vm = new VmBase();
+                vm.setId(entityId);
+                vm.setName(vmName);
                 unregisterDisk.getVms().add(vm);
             }
         }
     }
 
-    private ArchitectureType getOsSection(XmlDocument xmlDocument) {
-        ArchitectureType archType = null;
-        XmlNode content = xmlDocument.selectSingleNode("//*/Content");
-        XmlNodeList nodeList = content.selectNodes("Section");
-        XmlNode selectedSection = null;
-        if (nodeList != null) {
-            for (XmlNode section : nodeList) {
-                String value = section.attributes.get("xsi:type").getValue();
+    public static Map<Guid, UnregisteredDisk> mapByDiskId(List<UnregisteredDisk> unregisteredDisks) {
+        Map<Guid, UnregisteredDisk> unregisteredDisksById = new HashMap<>();
+        unregisteredDisks.forEach(disk -> unregisteredDisksById.putIfAbsent(disk.getDiskId(), disk));
+        return unregisteredDisksById;
+    }
 
-                if (value.equals("ovf:OperatingSystemSection_Type")) {
-                    selectedSection = section;
-                    break;
-                }
-            }
-            if (selectedSection != null) {
-                XmlNode node = selectedSection.selectSingleNode("Description");
-                if (node != null) {
-                    int osId = osRepository.getOsIdByUniqueName(node.innerText);
-                    archType = osRepository.getArchitectureFromOS(osId);
-                } else {
-                    archType = ArchitectureType.undefined;
-                }
-            }
+    private ArchitectureType getArchitecture(OvfSummary ovfSummary) {
+        if (!ovfSummary.hasOperatingSystemSection()) {
+            return null;
+        }
+        if (ovfSummary.getOperatingSystem() == null) {
+            return ArchitectureType.undefined;
+        }
+        int osId = osRepository.getOsIdByUniqueName(ovfSummary.getOperatingSystem());
+        return osRepository.getArchitectureFromOS(osId);
+    }
+
+    private static class OvfFile {
+        private final OvfEntityData ovfEntityData;
+        private final Set<Guid> diskIds;
+
+        private OvfFile(OvfEntityData ovfEntityData, Set<Guid> diskIds) {
+            this.ovfEntityData = ovfEntityData;
+            this.diskIds = diskIds;
         }
-        return archType;
     }
 }
@@ -0,0 +1,141 @@
+package org.ovirt.engine.core.utils.metrics;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.ovirt.engine.core.common.businessentities.Identifiable;
+import org.ovirt.engine.core.compat.Guid;
+
+/**
+ * Counts the entities of a kind by their status, as the statuses are written, so the counts are read in a time which
+ * doesn't depend on the number of entities.
+ * <p>
+ * The counters of the hosts and of the VMs are shared by all the deployments of the engine, they are updated by the
+ * DAOs writing the statuses and read by the dashboard. A status written by a transaction which is rolled back is
+ * counted until the counter is reconciled with the database, which the reader does periodically. The statuses written
+ * while the database is read are newer than the ones read, so they are kept by the reconciliation.
+ * </p>
+ */
+public class EntityStatusCounter {
+
+    public static final EntityStatusCounter HOSTS = new EntityStatusCounter();
+    public static final EntityStatusCounter VMS = new EntityStatusCounter();
+
+    private final ConcurrentMap<Guid, Integer> statuses = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, AtomicInteger> counts = new ConcurrentHashMap<>();
+    /** Number of updates and removals so far, each one is stamped with it **/
+    private final AtomicLong modifications = new AtomicLong();
+    /** The stamp of the last update or removal of each entity, since the last reconciliation **/
+    private final ConcurrentMap<Guid, Long> modifiedAt = new ConcurrentHashMap<>();
+    private long reconciledStamp = -1;
+    private volatile boolean reconciled;
+
+    /**
+     * Records the status of the given entity, unless it is unknown.
+     */
+    public void update(Guid id, Identifiable status) {
+        if (id != null && status != null) {
+            update(id, status.getValue());
+        }
+    }
+
+    /**
+     * Records the status value of the given entity.
+     */
+    public void update(Guid id, int status) {
+        statuses.compute(id, (k, oldStatus) -> {
+            modifiedAt.put(id, modifications.incrementAndGet());
+            return changeStatus(oldStatus, status);
+        });
+    }
+
+    /**
+     * Forgets the given entity, which was removed.
+     */
+    public void remove(Guid id) {
+        statuses.compute(id, (k, oldStatus) -> {
+            modifiedAt.put(id, modifications.incrementAndGet());
+            return changeStatus(oldStatus, null);
+        });
+    }
+
+    private Integer changeStatus(Integer oldStatus, Integer status) {
+        if (!Objects.equals(oldStatus, status)) {
+            if (oldStatus != null) {
+                counts.get(oldStatus).decrementAndGet();
+            }
+            if (status != null) {
+                counts.computeIfAbsent(status, s -> new AtomicInteger()).incrementAndGet();
+            }
+        }
+        return status;
+    }
+
+    /**
+     * Returns the stamp to pass to {@link #reconcile(Map, long)}, it must be taken before the statuses are read from
+     * the database.
+     */
+    public long getModificationStamp() {
+        return modifications.get();
+    }
+
+    /**
+     * Replaces the recorded statuses by the given ones, read from the database after the given stamp was taken. The
+     * entities updated or removed since the stamp was taken keep their recorded status, as the given one may be older.
+     * A reconciliation older than the last one is ignored.
+     */
+    public synchronized void reconcile(Map<Guid, Integer> currentStatuses, long stamp) {
+        if (stamp < reconciledStamp) {
+            return;
+        }
+        Set<Guid> ids = new HashSet<>(statuses.keySet());
+        ids.addAll(currentStatuses.keySet());
+        for (Guid id : ids) {
+            statuses.compute(id, (k, oldStatus) -> isModifiedSince(id, stamp)
+                    ? oldStatus
+                    : changeStatus(oldStatus, currentStatuses.get(id)));
+        }
+        // The modifications done before the stamp are reflected by the database from now on
+        modifiedAt.values().removeIf(modification -> modification <= stamp);
+        reconciledStamp = stamp;
+        reconciled = true;
+    }
+
+    private boolean isModifiedSince(Guid id, long stamp) {
+        Long modification = modifiedAt.get(id);
+        return modification != null && modification > stamp;
+    }
+
+    /**
+     * Returns whether the counter was reconciled with the database, so it counts all the entities and not only the
+     * ones whose status was written since the engine started.
+     */
+    public boolean isReconciled() {
+        return reconciled;
+    }
+
+    public int getTotalCount() {
+        return statuses.size();
+    }
+
+    /**
+     * Returns the number of entities in each status, the statuses without entities are omitted.
+     */
+    public Map<Integer, Integer> getCounts() {
+        Map<Integer, Integer> result = new HashMap<>();
+        counts.forEach((status, count) -> {
+            int value = count.get();
+            if (value > 0) {
+                result.put(status, value);
+            }
+        });
+        return result;
+    }
+}
@@ -0,0 +1,91 @@
+package org.ovirt.engine.core.utils.metrics;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * A bounded, lock free sketch of the most frequently hit keys.
+ * <p>
+ * Keys are counted in a concurrent map. Once the map grows beyond its capacity the least hit half of the keys is
+ * evicted by a single thread while the others keep counting, so the counts are approximate but the memory is bounded
+ * and the heavy hitters survive. A key is not evicted before half the capacity of hits of any key happened since it was
+ * added, so a new key gets the time to build up its count instead of being evicted as the coldest key right away.
+ * </p>
+ */
+public class HotKeysCounter {
+
+    private final int capacity;
+    /** Number of hits since its addition before a key may be evicted **/
+    private final long minAge;
+    private final Map<String, KeyCounter> counters = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    /** Number of hits of all keys, the age of the keys is measured by **/
+    private final AtomicLong hits = new AtomicLong();
+
+    public HotKeysCounter(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.minAge = capacity / 2;
+    }
+
+    public void hit(String key) {
+        long now = hits.incrementAndGet();
+        counters.computeIfAbsent(key, k -> new KeyCounter(now)).count.increment();
+        if (counters.size() > capacity && evicting.compareAndSet(false, true)) {
+            try {
+                evictColdKeys(now);
+            } finally {
+                evicting.set(false);
+            }
+        }
+    }
+
+    private void evictColdKeys(long now) {
+        // the keys too young to be evicted are left out first, so the evicted keys bring the map down to half its
+        // capacity even when the coldest keys are the new ones
+        counters.entrySet()
+                .stream()
+                .filter(e -> now - e.getValue().addedAt >= minAge)
+                .map(e -> Map.entry(e.getKey(), e.getValue().count.sum()))
+                .sorted(Map.Entry.comparingByValue())
+                .limit(counters.size() - capacity / 2)
+                .map(Map.Entry::getKey)
+                .forEach(counters::remove);
+    }
+
+    /**
+     * Returns up to {@code limit} keys with the highest counts, formatted as {@code key=count}, hottest first
+     */
+    public List<String> getTopKeys(int limit) {
+        return counters.entrySet()
+                .stream()
+                .map(e -> Map.entry(e.getKey(), e.getValue().count.sum()))
+                .sorted(Map.Entry.<String, Long> comparingByValue(Comparator.reverseOrder()))
+                .limit(limit)
+                .map(e -> e.getKey() + '=' + e.getValue())
+                .collect(Collectors.toList());
+    }
+
+    public void reset() {
+        counters.clear();
+    }
+
+    private static class KeyCounter {
+
+        private final LongAdder count = new LongAdder();
+        /** The number of hits of all keys when the key was added **/
+        private final long addedAt;
+
+        private KeyCounter(long addedAt) {
+            this.addedAt = addedAt;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package org.ovirt.engine.core.utils.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock free histogram of durations with fixed, exponentially growing millisecond buckets.
+ * <p>
+ * Recording a value only touches striped {@link LongAdder}s, so it is cheap enough to be called on hot paths by many
+ * threads at once. Reads never block the writers and return a best effort snapshot.
+ * </p>
+ */
+public class LatencyHistogram {
+
+    /** Upper bounds (inclusive) of the buckets in milliseconds, the last bucket holds everything above **/
+    private static final long[] BUCKET_BOUNDS_MILLIS = { 1, 5, 10, 50, 100, 500, 1000, 5000, 10000, 60000 };
+
+    private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS_MILLIS.length + 1];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0L);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long durationNanos) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(Math.max(durationNanos, 0L));
+        int bucket = 0;
+        while (bucket < BUCKET_BOUNDS_MILLIS.length && millis > BUCKET_BOUNDS_MILLIS[bucket]) {
+            bucket++;
+        }
+        buckets[bucket].increment();
+        count.increment();
+        totalNanos.add(durationNanos);
+        maxNanos.accumulate(durationNanos);
+    }
+
+    /**
+     * Records the time elapsed since the given {@link System#nanoTime()} value
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getMeanMillis() {
+        long samples = count.sum();
+        return samples == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalNanos.sum() / samples);
+    }
+
+    public long getMaxMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxNanos.get());
+    }
+
+    /**
+     * Returns an estimate of the given percentile, as the upper bound of the bucket it falls into
+     * @param percentile
+     *            - a number between 0 and 100
+     */
+    public long getPercentileMillis(double percentile) {
+        long samples = count.sum();
+        if (samples == 0) {
+            return 0;
+        }
+        long threshold = (long) Math.ceil(samples * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_BOUNDS_MILLIS.length; i++) {
+            seen += buckets[i].sum();
+            if (seen >= threshold) {
+                return BUCKET_BOUNDS_MILLIS[i];
+            }
+        }
+        return getMaxMillis();
+    }
+
+    public void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        count.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("count=").append(getCount())
+                .append(", mean=").append(getMeanMillis()).append("ms")
+                .append(", p50<=").append(getPercentileMillis(50)).append("ms")
+                .append(", p99<=").append(getPercentileMillis(99)).append("ms")
+                .append(", max=").append(getMaxMillis()).append("ms")
+                .append(", buckets=[");
+        for (int i = 0; i < buckets.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(i < BUCKET_BOUNDS_MILLIS.length ? "<=" + BUCKET_BOUNDS_MILLIS[i] : ">" + BUCKET_BOUNDS_MILLIS[i - 1])
+                    .append("ms:")
+                    .append(buckets[i].sum());
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,42 @@
+package org.ovirt.engine.core.utils.metrics;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.ObjectName;
+
+/**
+ * Registers the MBeans exposing the statistics of the engine in the platform MBean server.
+ */
+public final class MBeanRegistration {
+
+    private MBeanRegistration() {
+    }
+
+    /**
+     * Registers the given MBean under the given object name
+     *
+     * @throws IllegalStateException
+     *             if the name is malformed or the MBean can't be registered
+     */
+    public static void register(Object mbean, String name) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(mbean, new ObjectName(name));
+        } catch (Exception e) {
+            throw new IllegalStateException("Problem during registration of Monitoring into JMX:" + e);
+        }
+    }
+
+    /**
+     * Unregisters the MBean registered under the given object name
+     *
+     * @throws IllegalStateException
+     *             if the name is malformed or no MBean is registered under it
+     */
+    public static void unregister(String name) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(new ObjectName(name));
+        } catch (Exception e) {
+            throw new IllegalStateException("Problem during unregistration of Monitoring into JMX:" + e);
+        }
+    }
+}
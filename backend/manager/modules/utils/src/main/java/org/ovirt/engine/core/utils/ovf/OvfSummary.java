@@ -0,0 +1,300 @@
+package org.ovirt.engine.core.utils.ovf;
+
+import java.io.StringReader;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.ovirt.engine.core.common.businessentities.OriginType;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.uutils.xml.SecureXMLInputFactory;
+
+/**
+ * The parts of an oVirt OVF which are needed to list its entity as an unregistered entity of a storage domain, read in
+ * a single streaming pass.
+ * <p>
+ * Only the disk references, the origin and the operating system and snapshots sections of the content are kept, the
+ * other subtrees (e.g. the hardware section) are skipped without being built. The elements are selected as
+ * {@link org.ovirt.engine.core.utils.OvfUtils} selected them by XPath over a DOM of the whole OVF, so reading the full
+ * {@code VM} or {@code VmTemplate} of an OVF still requires an {@link OvfReader}.
+ * </p>
+ */
+public class OvfSummary {
+
+    private static final String REFERENCES = "References";
+    private static final String FILE = "File";
+    private static final String CONTENT = "Content";
+    private static final String ORIGIN = "Origin";
+    private static final String SECTION = "Section";
+    private static final String DESCRIPTION = "Description";
+    private static final String SNAPSHOT = "Snapshot";
+    private static final String MEMORY = "Memory";
+    private static final String OVF_PREFIX = "ovf";
+    private static final String HREF = "href";
+    private static final String XSI_PREFIX = "xsi";
+    private static final String TYPE = "type";
+    private static final String OPERATING_SYSTEM_SECTION_TYPE = "ovf:OperatingSystemSection_Type";
+    private static final String SNAPSHOTS_SECTION_TYPE = "ovf:SnapshotsSection_Type";
+    private static final int GUID_LENGTH = Guid.Empty.toString().length();
+
+    private static final XMLInputFactory xmlInputFactory = SecureXMLInputFactory.newXMLInputFactory();
+
+    private boolean referencesRead;
+    private boolean contentRead;
+    private final Set<Guid> fileDiskIds = new HashSet<>();
+    private final Set<Guid> memoryDiskIds = new HashSet<>();
+    private Integer origin;
+    private boolean operatingSystemSectionRead;
+    private String operatingSystem;
+
+    private OvfSummary() {
+    }
+
+    /**
+     * Reads the summary of the given OVF.
+     *
+     * @throws XMLStreamException
+     *             if the OVF isn't well formed, or lacks its references or content
+     */
+    public static OvfSummary parse(String ovf) throws XMLStreamException {
+        XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(new StringReader(ovf));
+        try {
+            OvfSummary summary = new OvfSummary();
+            reader.nextTag();
+            summary.readDescendants(reader);
+            if (!summary.referencesRead) {
+                throw new XMLStreamException("The OVF has no " + REFERENCES + " element");
+            }
+            if (!summary.contentRead) {
+                throw new XMLStreamException("The OVF has no " + CONTENT + " element");
+            }
+            return summary;
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Returns the IDs of the disks referenced by the files of the OVF, all of them are disks in OVFs generated by
+     * oVirt, and of the memory disks of its snapshots.
+     */
+    public Set<Guid> getDiskIds() {
+        Set<Guid> diskIds = new HashSet<>(fileDiskIds);
+        diskIds.addAll(memoryDiskIds);
+        return diskIds;
+    }
+
+    /**
+     * Returns the IDs of the memory and metadata disks of the snapshots of the OVF.
+     */
+    public Set<Guid> getMemoryDiskIds() {
+        return memoryDiskIds;
+    }
+
+    /**
+     * Returns whether the OVF is of an entity which originates from an external system.
+     */
+    public boolean isExternal() {
+        return origin != null && OriginType.EXTERNAL == OriginType.forValue(origin);
+    }
+
+    /**
+     * Returns whether the content of the OVF has an operating system section.
+     */
+    public boolean hasOperatingSystemSection() {
+        return operatingSystemSectionRead;
+    }
+
+    /**
+     * Returns the unique name of the operating system of the OVF, or {@code null} if its operating system section has
+     * no description.
+     */
+    public String getOperatingSystem() {
+        return operatingSystem;
+    }
+
+    /**
+     * Reads the descendants of the current element, looking for the first references and content elements below the
+     * root of the OVF.
+     */
+    private void readDescendants(XMLStreamReader reader) throws XMLStreamException {
+        while (nextChildElement(reader)) {
+            if (!referencesRead && isElement(reader, REFERENCES)) {
+                readReferences(reader);
+            } else if (!contentRead && isElement(reader, CONTENT)) {
+                readContent(reader);
+            } else {
+                readDescendants(reader);
+            }
+        }
+    }
+
+    private void readReferences(XMLStreamReader reader) throws XMLStreamException {
+        referencesRead = true;
+        while (nextChildElement(reader)) {
+            if (isElement(reader, FILE)) {
+                String href = getAttribute(reader, OVF_PREFIX, HREF);
+                if (href == null) {
+                    throw new XMLStreamException("A file of the OVF has no " + OVF_PREFIX + ':' + HREF + " attribute",
+                            reader.getLocation());
+                }
+                fileDiskIds.add(Guid.createGuidFromString(href.substring(0, GUID_LENGTH)));
+            }
+            skipElement(reader);
+        }
+    }
+
+    private void readContent(XMLStreamReader reader) throws XMLStreamException {
+        contentRead = true;
+        boolean originRead = false;
+        while (nextChildElement(reader)) {
+            if (!originRead && isElement(reader, ORIGIN)) {
+                // an empty origin element is ignored, as if there was none
+                String text = reader.getElementText();
+                if (!text.isEmpty()) {
+                    origin = Integer.valueOf(text);
+                    originRead = true;
+                }
+            } else if (isElement(reader, SECTION)) {
+                readSection(reader);
+            } else {
+                skipElement(reader);
+            }
+        }
+    }
+
+    private void readSection(XMLStreamReader reader) throws XMLStreamException {
+        String type = getAttribute(reader, XSI_PREFIX, TYPE);
+        if (type == null) {
+            throw new XMLStreamException("A section of the OVF content has no " + XSI_PREFIX + ':' + TYPE
+                    + " attribute", reader.getLocation());
+        }
+        if (!operatingSystemSectionRead && OPERATING_SYSTEM_SECTION_TYPE.equals(type)) {
+            readOperatingSystemSection(reader);
+        } else if (SNAPSHOTS_SECTION_TYPE.equals(type)) {
+            readSnapshotsSection(reader);
+        } else {
+            skipElement(reader);
+        }
+    }
+
+    private void readOperatingSystemSection(XMLStreamReader reader) throws XMLStreamException {
+        operatingSystemSectionRead = true;
+        while (nextChildElement(reader)) {
+            if (operatingSystem == null && isElement(reader, DESCRIPTION)) {
+                operatingSystem = readText(reader);
+            } else {
+                skipElement(reader);
+            }
+        }
+    }
+
+    private void readSnapshotsSection(XMLStreamReader reader) throws XMLStreamException {
+        while (nextChildElement(reader)) {
+            if (isElement(reader, SNAPSHOT)) {
+                readSnapshot(reader);
+            } else {
+                skipElement(reader);
+            }
+        }
+    }
+
+    private void readSnapshot(XMLStreamReader reader) throws XMLStreamException {
+        boolean memoryRead = false;
+        while (nextChildElement(reader)) {
+            if (!memoryRead && isElement(reader, MEMORY)) {
+                // the memory of a snapshot lists its storage domain, pool, memory disk and volume, and metadata
+                // disk and volume
+                List<Guid> guids = Guid.createGuidListFromString(readText(reader));
+                memoryDiskIds.add(guids.get(2));
+                memoryDiskIds.add(guids.get(4));
+                memoryRead = true;
+            } else {
+                skipElement(reader);
+            }
+        }
+    }
+
+    /**
+     * Returns whether the reader is on the start of an element of the given name and of no namespace, like the
+     * elements the OVF readers select by XPath expressions without a prefix.
+     */
+    private static boolean isElement(XMLStreamReader reader, String name) {
+        String namespaceUri = reader.getNamespaceURI();
+        return name.equals(reader.getLocalName()) && (namespaceUri == null || namespaceUri.isEmpty());
+    }
+
+    private static String getAttribute(XMLStreamReader reader, String prefix, String name) {
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            if (name.equals(reader.getAttributeLocalName(i)) && prefix.equals(reader.getAttributePrefix(i))) {
+                return reader.getAttributeValue(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Moves the reader, positioned on the start of an element or on the end of one of its children, to the start of
+     * the next child element. Returns {@code false} when the reader reached the end of the element instead.
+     */
+    private static boolean nextChildElement(XMLStreamReader reader) throws XMLStreamException {
+        while (true) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    return true;
+                case XMLStreamConstants.END_ELEMENT:
+                case XMLStreamConstants.END_DOCUMENT:
+                    return false;
+                default:
+                    // text, comments and processing instructions between the elements
+            }
+        }
+    }
+
+    /**
+     * Reads the text of the current element and of its descendants, and moves the reader to the end of the element.
+     */
+    private static String readText(XMLStreamReader reader) throws XMLStreamException {
+        StringBuilder text = new StringBuilder();
+        int depth = 1;
+        while (depth > 0) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    depth++;
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    depth--;
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    text.append(reader.getText());
+                    break;
+                default:
+                    // comments and processing instructions within the element
+            }
+        }
+        return text.toString();
+    }
+
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    depth++;
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    depth--;
+                    break;
+                default:
+                    // the content of the skipped element
+            }
+        }
+    }
+}
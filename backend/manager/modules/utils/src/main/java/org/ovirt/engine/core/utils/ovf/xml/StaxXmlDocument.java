@@ -0,0 +1,149 @@
+package org.ovirt.engine.core.utils.ovf.xml;
+
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.ovirt.engine.core.uutils.xml.SecureXMLInputFactory;
+import org.w3c.dom.Element;
+
+/**
+ * A document read in a single StAX pass, without building a DOM. The elements are kept with the names, attributes and
+ * texts a DOM has, and the nodes are selected by {@link XmlPath}, which covers the XPath expressions of the OVF
+ * readers. The document is read only.
+ */
+public class StaxXmlDocument extends XmlDocument {
+
+    /**
+     * Makes the JDK reader report a CDATA section as such instead of as characters, since it is a node of its own in a
+     * DOM
+     */
+    private static final String REPORT_CDATA = "http://java.sun.com/xml/stream/properties/report-cdata-event";
+
+    private static final XMLInputFactory xmlInputFactory = newXmlInputFactory();
+
+    private final String outerXml;
+    private final StaxXmlNode document;
+    private int elementsCount;
+
+    public StaxXmlDocument(String xml) throws XMLStreamException {
+        XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(new StringReader(xml));
+        try {
+            document = new StaxXmlNode(null, elementsCount++, null, null, null, Collections.emptyMap());
+            reader.nextTag();
+            document.addChildElement(readElement(reader));
+            // a DOM fails on content which isn't well formed after the root element as well
+            while (reader.hasNext()) {
+                reader.next();
+            }
+            document.complete(null, 1, false, elementsCount - 1);
+        } finally {
+            reader.close();
+        }
+        outerXml = xml;
+    }
+
+    private static XMLInputFactory newXmlInputFactory() {
+        XMLInputFactory factory = SecureXMLInputFactory.newXMLInputFactory();
+        if (factory.isPropertySupported(REPORT_CDATA)) {
+            factory.setProperty(REPORT_CDATA, true);
+        }
+        return factory;
+    }
+
+    private StaxXmlNode readElement(XMLStreamReader reader) throws XMLStreamException {
+        StaxXmlNode element = new StaxXmlNode(document,
+                elementsCount++,
+                reader.getNamespaceURI(),
+                reader.getLocalName(),
+                qualifiedName(reader.getPrefix(), reader.getLocalName()),
+                readAttributes(reader));
+        StringBuilder text = new StringBuilder();
+        int childNodesCount = 0;
+        int lastChildType = -1;
+        while (true) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                StaxXmlNode child = readElement(reader);
+                element.addChildElement(child);
+                text.append(child.innerText);
+            } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.SPACE) {
+                text.append(reader.getText());
+                // adjacent characters are a single text node in a DOM
+                if (lastChildType == XMLStreamConstants.CHARACTERS) {
+                    continue;
+                }
+                event = XMLStreamConstants.CHARACTERS;
+            } else if (event == XMLStreamConstants.CDATA) {
+                text.append(reader.getText());
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                element.complete(text.toString(),
+                        childNodesCount,
+                        childNodesCount == 1 && lastChildType == XMLStreamConstants.CHARACTERS,
+                        elementsCount - 1);
+                return element;
+            } else if (event != XMLStreamConstants.COMMENT && event != XMLStreamConstants.PROCESSING_INSTRUCTION) {
+                continue;
+            }
+            childNodesCount++;
+            lastChildType = event;
+        }
+    }
+
+    private static Map<String, String> readAttributes(XMLStreamReader reader) {
+        if (reader.getAttributeCount() == 0) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> attributes = new HashMap<>();
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            attributes.put(qualifiedName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i)),
+                    reader.getAttributeValue(i));
+        }
+        return attributes;
+    }
+
+    private static String qualifiedName(String prefix, String localName) {
+        return prefix == null || prefix.isEmpty() ? localName : prefix + ":" + localName;
+    }
+
+    @Override
+    public XmlNode selectSingleNode(String string) {
+        return document.selectSingleNode(string);
+    }
+
+    @Override
+    public XmlNode selectSingleNode(String string, XmlNamespaceManager _xmlns) {
+        return document.selectSingleNode(string, _xmlns);
+    }
+
+    @Override
+    public XmlNodeList selectNodes(String string) {
+        return document.selectNodes(string);
+    }
+
+    @Override
+    public XmlNodeList selectNodes(String string, XmlNamespaceManager _xmlns) {
+        return document.selectNodes(string, _xmlns);
+    }
+
+    @Override
+    public Element createElement(String name) {
+        throw new UnsupportedOperationException("The document is read only");
+    }
+
+    @Override
+    public String getOuterXml() {
+        return outerXml;
+    }
+
+    @Override
+    public String convertToString() {
+        throw new UnsupportedOperationException("The document is read only");
+    }
+}
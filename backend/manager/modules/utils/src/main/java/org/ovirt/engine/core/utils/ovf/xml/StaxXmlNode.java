@@ -0,0 +1,162 @@
+package org.ovirt.engine.core.utils.ovf.xml;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+/**
+ * An element of a {@link StaxXmlDocument}. It keeps the names, attributes, texts and child elements a DOM would have,
+ * so the nodes are selected by walking the elements instead of evaluating XPath over a DOM.
+ */
+final class StaxXmlNode extends XmlNode {
+
+    private final StaxXmlNode document;
+    private final int index;
+    private int lastIndex;
+    private final String namespaceUri;
+    private final String localName;
+    private final String name;
+    private final List<StaxXmlNode> childElements = new ArrayList<>();
+    private int childNodesCount;
+    private boolean textOnly;
+
+    /**
+     * @param document
+     *            the document node the element belongs to, or {@code null} for the document node itself
+     */
+    StaxXmlNode(StaxXmlNode document,
+            int index,
+            String namespaceUri,
+            String localName,
+            String name,
+            Map<String, String> attributeValues) {
+        this.document = document != null ? document : this;
+        this.index = index;
+        this.namespaceUri = namespaceUri == null || namespaceUri.isEmpty() ? null : namespaceUri;
+        this.localName = localName;
+        this.name = name;
+        attributes = new Attributes(attributeValues);
+    }
+
+    void addChildElement(StaxXmlNode child) {
+        childElements.add(child);
+    }
+
+    /**
+     * Completes the element once all of its content was read
+     *
+     * @param lastIndex
+     *            the index of the last element of the subtree of this element
+     */
+    void complete(String innerText, int childNodesCount, boolean textOnly, int lastIndex) {
+        this.innerText = innerText;
+        this.childNodesCount = childNodesCount;
+        this.textOnly = textOnly;
+        this.lastIndex = lastIndex;
+    }
+
+    StaxXmlNode getDocument() {
+        return document;
+    }
+
+    /**
+     * Returns the position of the element in document order
+     */
+    int getIndex() {
+        return index;
+    }
+
+    int getLastIndex() {
+        return lastIndex;
+    }
+
+    String getNamespaceUri() {
+        return namespaceUri;
+    }
+
+    String getLocalName() {
+        return localName;
+    }
+
+    List<StaxXmlNode> getChildElementList() {
+        return childElements;
+    }
+
+    @Override
+    public XmlNode selectSingleNode(String string, XmlNamespaceManager _xmlns) {
+        List<StaxXmlNode> nodes = select(string, _xmlns);
+        return nodes.isEmpty() ? null : nodes.get(0);
+    }
+
+    @Override
+    public XmlNode selectSingleNode(String string) {
+        return selectSingleNode(string, null);
+    }
+
+    @Override
+    public XmlNodeList selectNodes(String string) {
+        return selectNodes(string, null);
+    }
+
+    @Override
+    public XmlNodeList selectNodes(String string, XmlNamespaceManager xmlns) {
+        return new XmlNodeList(select(string, xmlns));
+    }
+
+    private List<StaxXmlNode> select(String string, XmlNamespaceManager xmlns) {
+        try {
+            return XmlPath.compile(string).evaluate(this, xmlns);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to evaluate xpath: " + string, e);
+        }
+    }
+
+    @Override
+    public NodeList getChildNodes() {
+        throw new UnsupportedOperationException("The node isn't part of a DOM");
+    }
+
+    @Override
+    public XmlNode appendChild(Node child) {
+        throw new UnsupportedOperationException("The node isn't part of a DOM");
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public XmlNodeList getChildElements() {
+        return new XmlNodeList(childElements);
+    }
+
+    @Override
+    public int getChildNodesCount() {
+        return childNodesCount;
+    }
+
+    @Override
+    public boolean isTextOnly() {
+        return textOnly;
+    }
+
+    private static final class Attributes extends XmlAttributeCollection {
+
+        private final Map<String, String> values;
+
+        Attributes(Map<String, String> values) {
+            super(null);
+            this.values = values;
+        }
+
+        @Override
+        public XmlAttribute get(String nodeName) {
+            String value = values.get(nodeName);
+            return value != null ? new XmlAttribute(value) : null;
+        }
+    }
+}
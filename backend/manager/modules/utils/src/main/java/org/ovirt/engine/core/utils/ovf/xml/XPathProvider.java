@@ -0,0 +1,34 @@
+package org.ovirt.engine.core.utils.ovf.xml;
+
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathFactory;
+
+/**
+ * Provides the XPath evaluators of the documents and nodes. Creating an XPath factory looks its implementation up
+ * each time, which costs more than evaluating most of the expressions of an OVF, so each thread reuses its evaluators.
+ * Resetting an evaluator doesn't forget the prefixes of its former namespace context, so the expressions without one
+ * use an evaluator which is never given any.
+ */
+final class XPathProvider {
+
+    private static final ThreadLocal<XPath> xPath =
+            ThreadLocal.withInitial(() -> XPathFactory.newInstance().newXPath());
+    private static final ThreadLocal<XPath> namespacesXPath =
+            ThreadLocal.withInitial(() -> XPathFactory.newInstance().newXPath());
+
+    private XPathProvider() {
+    }
+
+    static XPath getXPath() {
+        XPath result = xPath.get();
+        result.reset();
+        return result;
+    }
+
+    static XPath getXPath(XmlNamespaceManager xmlns) {
+        XPath result = namespacesXPath.get();
+        result.reset();
+        result.setNamespaceContext(xmlns);
+        return result;
+    }
+}
@@ -8,7 +8,11 @@ public class XmlAttribute extends XmlNode {
         super(node);
     }
 
+    XmlAttribute(String value) {
+        innerText = value;
+    }
+
     public String getValue() {
-        return node.getTextContent();
+        return innerText;
     }
 }
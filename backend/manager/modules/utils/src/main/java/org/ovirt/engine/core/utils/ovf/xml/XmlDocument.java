@@ -12,7 +12,6 @@ import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathFactory;
 
 import org.ovirt.engine.core.uutils.xml.SecureDocumentBuilderFactory;
 import org.w3c.dom.Document;
@@ -24,7 +23,6 @@ import org.xml.sax.InputSource;
 public class XmlDocument {
 
     private String outerXml;
-    public XmlNode[] childNodes;
 
     private Document doc;
 
@@ -41,21 +39,12 @@ public class XmlDocument {
         fact.setNamespaceAware(true);
         DocumentBuilder builder = fact.newDocumentBuilder();
         doc = builder.parse(new InputSource(new StringReader(ovfstring)));
-
-        // initialize all the child nodes
-        NodeList list = doc.getElementsByTagName("*");
-        childNodes = new XmlNode[list.getLength()];
-        for (int i = 0; i < list.getLength(); i++) {
-            childNodes[i] = new XmlNode(list.item(i));
-        }
-
         outerXml = ovfstring;
     }
 
     public XmlNode selectSingleNode(String string) {
         try {
-            XPathFactory factory = XPathFactory.newInstance();
-            XPath xPath = factory.newXPath();
+            XPath xPath = XPathProvider.getXPath();
             Object o = xPath.evaluate(string, doc, XPathConstants.NODE);
             return o != null ? new XmlNode((Node) o) : null;
         } catch (Exception e) {
@@ -65,9 +54,7 @@ public class XmlDocument {
 
     public XmlNode selectSingleNode(String string, XmlNamespaceManager _xmlns) {
         try {
-            XPathFactory factory = XPathFactory.newInstance();
-            XPath xPath = factory.newXPath();
-            xPath.setNamespaceContext(_xmlns);
+            XPath xPath = XPathProvider.getXPath(_xmlns);
             Object o = xPath.evaluate(string, doc, XPathConstants.NODE);
             return o != null ? new XmlNode((Node) o) : null;
         } catch (Exception e) {
@@ -77,8 +64,7 @@ public class XmlDocument {
 
     public XmlNodeList selectNodes(String string) {
         try {
-            XPathFactory factory = XPathFactory.newInstance();
-            XPath xPath = factory.newXPath();
+            XPath xPath = XPathProvider.getXPath();
             Object o = xPath.evaluate(string, doc, XPathConstants.NODESET);
             return new XmlNodeList((NodeList) o);
         } catch (Exception e) {
@@ -88,9 +74,7 @@ public class XmlDocument {
 
     public XmlNodeList selectNodes(String string, XmlNamespaceManager _xmlns) {
         try {
-            XPathFactory factory = XPathFactory.newInstance();
-            XPath xPath = factory.newXPath();
-            xPath.setNamespaceContext(_xmlns);
+            XPath xPath = XPathProvider.getXPath(_xmlns);
             Object o = xPath.evaluate(string, doc, XPathConstants.NODESET);
             return new XmlNodeList((NodeList) o);
         } catch (Exception e) {
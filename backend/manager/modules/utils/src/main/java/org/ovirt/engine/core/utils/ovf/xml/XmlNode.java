@@ -1,8 +1,10 @@
 package org.ovirt.engine.core.utils.ovf.xml;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathFactory;
 
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
@@ -20,11 +22,12 @@ public class XmlNode {
 
     }
 
+    protected XmlNode() {
+    }
+
     public XmlNode selectSingleNode(String string, XmlNamespaceManager _xmlns) {
         try {
-            XPathFactory factory = XPathFactory.newInstance();
-            XPath xPath = factory.newXPath();
-            xPath.setNamespaceContext(_xmlns);
+            XPath xPath = XPathProvider.getXPath(_xmlns);
             Object o = xPath.evaluate(string, node, XPathConstants.NODE);
             return o != null ? new XmlNode((Node) o) : null;
         } catch (Exception e) {
@@ -34,8 +37,7 @@ public class XmlNode {
 
     public XmlNode selectSingleNode(String string) {
         try {
-            XPathFactory factory = XPathFactory.newInstance();
-            XPath xPath = factory.newXPath();
+            XPath xPath = XPathProvider.getXPath();
             Object o = xPath.evaluate(string, node, XPathConstants.NODE);
             return o != null ? new XmlNode((Node) o) : null;
         } catch (Exception e) {
@@ -45,8 +47,7 @@ public class XmlNode {
 
     public XmlNodeList selectNodes(String string) {
         try {
-            XPathFactory factory = XPathFactory.newInstance();
-            XPath xPath = factory.newXPath();
+            XPath xPath = XPathProvider.getXPath();
             Object o = xPath.evaluate(string, node, XPathConstants.NODESET);
             return new XmlNodeList((NodeList) o);
         } catch (Exception e) {
@@ -56,9 +57,7 @@ public class XmlNode {
 
     public XmlNodeList selectNodes(String string, XmlNamespaceManager xmlns) {
         try {
-            XPathFactory factory = XPathFactory.newInstance();
-            XPath xPath = factory.newXPath();
-            xPath.setNamespaceContext(xmlns);
+            XPath xPath = XPathProvider.getXPath(xmlns);
             Object o = xPath.evaluate(string, node, XPathConstants.NODESET);
             return new XmlNodeList((NodeList) o);
         } catch (Exception e) {
@@ -70,6 +69,42 @@ public class XmlNode {
         return node.getChildNodes();
     }
 
+    /**
+     * Returns the qualified name of the node, as it is written in the document
+     */
+    public String getName() {
+        return node.getNodeName();
+    }
+
+    /**
+     * Returns the child elements of the node, in document order
+     */
+    public XmlNodeList getChildElements() {
+        List<XmlNode> elements = new ArrayList<>();
+        NodeList list = node.getChildNodes();
+        for (int index = 0; index < list.getLength(); ++index) {
+            if (list.item(index).getNodeType() == Node.ELEMENT_NODE) {
+                elements.add(new XmlNode(list.item(index)));
+            }
+        }
+        return new XmlNodeList(elements);
+    }
+
+    /**
+     * Returns the number of child nodes of the node, including the texts and comments
+     */
+    public int getChildNodesCount() {
+        return node.getChildNodes().getLength();
+    }
+
+    /**
+     * Returns whether the only child node of the node is a text, which is then its {@link #innerText}
+     */
+    public boolean isTextOnly() {
+        NodeList list = node.getChildNodes();
+        return list.getLength() == 1 && list.item(0).getNodeType() == Node.TEXT_NODE;
+    }
+
     public XmlNode appendChild(Node child) {
         return new XmlNode(node.appendChild(child));
     }
@@ -1,25 +1,47 @@
 package org.ovirt.engine.core.utils.ovf.xml;
 
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.IntFunction;
 
 import org.w3c.dom.NodeList;
 
 public class XmlNodeList implements Iterable<XmlNode> {
 
-    private NodeList nodeList;
+    private final int length;
+    private final IntFunction<XmlNode> items;
 
     public XmlNodeList(NodeList nodeList) {
-        this.nodeList = nodeList;
+        this(nodeList.getLength(), index -> new XmlNode(nodeList.item(index)));
+    }
+
+    XmlNodeList(List<? extends XmlNode> nodes) {
+        this(nodes.size(), nodes::get);
+    }
+
+    private XmlNodeList(int length, IntFunction<XmlNode> items) {
+        this.length = length;
+        this.items = items;
     }
 
     @Override
     public Iterator<XmlNode> iterator() {
-        List<XmlNode> list = new LinkedList<>();
-        for (int i = 0; i < nodeList.getLength(); i++) {
-            list.add(new XmlNode(nodeList.item(i)));
-        }
-        return list.iterator();
+        return new Iterator<XmlNode>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return index < length;
+            }
+
+            @Override
+            public XmlNode next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return items.apply(index++);
+            }
+        };
     }
 }
@@ -0,0 +1,220 @@
+package org.ovirt.engine.core.utils.ovf.xml;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * The subset of XPath which selects the nodes of an OVF, evaluated over the nodes of a {@link StaxXmlDocument}.
+ * <p>
+ * An expression is a location path of child steps, which may start with and be separated by {@code //}. A path
+ * starting with {@code /} is evaluated from the document, like XPath does. A step is either {@code *} or an element
+ * name, optionally followed by a {@code [name=value]} predicate comparing the text of the child elements of that name
+ * to a number or a quoted string. The prefixes of the names are resolved by the namespace manager the expression is
+ * evaluated with, and a prefixed name matches nothing when there is no manager, like XPath does.
+ * </p>
+ */
+final class XmlPath {
+
+    private static final String WILDCARD = "*";
+    private static final Pattern NAME = Pattern.compile("[A-Za-z_][\\w.-]*(:[A-Za-z_][\\w.-]*)?");
+    private static final Pattern NUMBER = Pattern.compile("-?(\\d+(\\.\\d*)?|\\.\\d+)");
+
+    private final boolean absolute;
+    private final List<Step> steps;
+
+    private XmlPath(boolean absolute, List<Step> steps) {
+        this.absolute = absolute;
+        this.steps = steps;
+    }
+
+    /**
+     * Parses the given expression
+     *
+     * @throws IllegalArgumentException
+     *             if the expression isn't in the supported subset of XPath
+     */
+    static XmlPath compile(String expression) {
+        boolean absolute = expression.startsWith("/");
+        List<Step> steps = new ArrayList<>();
+        int index = 0;
+        do {
+            boolean descendant = expression.startsWith("//", index);
+            if (descendant) {
+                index += 2;
+            } else if (index > 0 || absolute) {
+                if (expression.charAt(index) != '/') {
+                    throw new IllegalArgumentException("Unsupported expression: " + expression);
+                }
+                index++;
+            }
+            int end = index;
+            while (end < expression.length() && expression.charAt(end) != '/' && expression.charAt(end) != '[') {
+                end++;
+            }
+            String name = expression.substring(index, end);
+            String predicate = null;
+            if (end < expression.length() && expression.charAt(end) == '[') {
+                int predicateEnd = expression.indexOf(']', end);
+                if (predicateEnd < 0) {
+                    throw new IllegalArgumentException("Unterminated predicate in " + expression);
+                }
+                predicate = expression.substring(end + 1, predicateEnd);
+                end = predicateEnd + 1;
+            }
+            steps.add(new Step(descendant, name, predicate));
+            index = end;
+        } while (index < expression.length());
+        return new XmlPath(absolute, steps);
+    }
+
+    /**
+     * Selects the nodes of the expression from the given context node, in document order
+     *
+     * @throws IllegalArgumentException
+     *             if a prefix of the expression isn't resolved by the given namespace manager
+     */
+    List<StaxXmlNode> evaluate(StaxXmlNode context, XmlNamespaceManager xmlns) {
+        List<StaxXmlNode> nodes = Collections.singletonList(absolute ? context.getDocument() : context);
+        for (Step step : steps) {
+            nodes = step.select(step.descendant ? descendantsOrSelf(nodes) : nodes, xmlns);
+        }
+        return nodes;
+    }
+
+    private static List<StaxXmlNode> descendantsOrSelf(List<StaxXmlNode> nodes) {
+        List<StaxXmlNode> result = new ArrayList<>();
+        int lastIndex = -1;
+        for (StaxXmlNode node : nodes) {
+            // the subtree of a node was already added with the subtree of its ancestor
+            if (node.getIndex() > lastIndex) {
+                addSubtree(node, result);
+                lastIndex = node.getLastIndex();
+            }
+        }
+        return result;
+    }
+
+    private static void addSubtree(StaxXmlNode node, List<StaxXmlNode> result) {
+        result.add(node);
+        for (StaxXmlNode child : node.getChildElementList()) {
+            addSubtree(child, result);
+        }
+    }
+
+    private static String resolve(String prefix, XmlNamespaceManager xmlns) {
+        if (prefix == null) {
+            return null;
+        }
+        String namespaceUri = xmlns.getNamespaceURI(prefix);
+        if (namespaceUri == null) {
+            throw new IllegalArgumentException("Prefix must resolve to a namespace: " + prefix);
+        }
+        return namespaceUri;
+    }
+
+    private static boolean matches(StaxXmlNode element, String namespaceUri, String localName) {
+        return localName.equals(element.getLocalName())
+                && (namespaceUri == null ? element.getNamespaceUri() == null
+                        : namespaceUri.equals(element.getNamespaceUri()));
+    }
+
+    private static final class Step {
+
+        private final boolean descendant;
+        private final String prefix;
+        private final String localName;
+        private final String predicatePrefix;
+        private final String predicateLocalName;
+        private final String predicateString;
+        private final Double predicateNumber;
+
+        Step(boolean descendant, String name, String predicate) {
+            this.descendant = descendant;
+            if (WILDCARD.equals(name)) {
+                prefix = null;
+                localName = null;
+            } else {
+                String[] parts = splitName(name);
+                prefix = parts[0];
+                localName = parts[1];
+            }
+            if (predicate == null) {
+                predicatePrefix = null;
+                predicateLocalName = null;
+                predicateString = null;
+                predicateNumber = null;
+                return;
+            }
+            int equals = predicate.indexOf('=');
+            if (equals < 0) {
+                throw new IllegalArgumentException("Unsupported predicate: " + predicate);
+            }
+            String[] parts = splitName(predicate.substring(0, equals).trim());
+            predicatePrefix = parts[0];
+            predicateLocalName = parts[1];
+            String value = predicate.substring(equals + 1).trim();
+            if (value.length() >= 2 && (value.charAt(0) == '\'' || value.charAt(0) == '"')
+                    && value.charAt(value.length() - 1) == value.charAt(0)) {
+                predicateString = value.substring(1, value.length() - 1);
+                predicateNumber = null;
+            } else if (NUMBER.matcher(value).matches()) {
+                predicateString = null;
+                predicateNumber = Double.valueOf(value);
+            } else {
+                throw new IllegalArgumentException("Unsupported predicate value: " + value);
+            }
+        }
+
+        private static String[] splitName(String name) {
+            if (!NAME.matcher(name).matches()) {
+                throw new IllegalArgumentException("Unsupported step: " + name);
+            }
+            int colon = name.indexOf(':');
+            return colon < 0 ? new String[] { null, name }
+                    : new String[] { name.substring(0, colon), name.substring(colon + 1) };
+        }
+
+        List<StaxXmlNode> select(List<StaxXmlNode> contexts, XmlNamespaceManager xmlns) {
+            if (xmlns == null && (prefix != null || predicatePrefix != null)) {
+                return Collections.emptyList();
+            }
+            String namespaceUri = resolve(prefix, xmlns);
+            String predicateNamespaceUri = resolve(predicatePrefix, xmlns);
+            List<StaxXmlNode> selected = new ArrayList<>();
+            for (StaxXmlNode context : contexts) {
+                for (StaxXmlNode child : context.getChildElementList()) {
+                    if ((localName == null || matches(child, namespaceUri, localName))
+                            && (predicateLocalName == null || matchesPredicate(child, predicateNamespaceUri))) {
+                        selected.add(child);
+                    }
+                }
+            }
+            // the children of different contexts may interleave in document order
+            if (contexts.size() > 1) {
+                selected.sort(Comparator.comparingInt(StaxXmlNode::getIndex));
+            }
+            return selected;
+        }
+
+        private boolean matchesPredicate(StaxXmlNode element, String namespaceUri) {
+            for (StaxXmlNode child : element.getChildElementList()) {
+                if (matches(child, namespaceUri, predicateLocalName) && matchesValue(child.innerText)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean matchesValue(String text) {
+            if (predicateString != null) {
+                return predicateString.equals(text);
+            }
+            // compared like the XPath number() of the text, which is NaN unless the text is a number
+            String trimmed = text.trim();
+            return NUMBER.matcher(trimmed).matches() && Double.parseDouble(trimmed) == predicateNumber;
+        }
+    }
+}
@@ -7,11 +7,14 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import javax.enterprise.concurrent.ManagedExecutorService;
 import javax.enterprise.concurrent.ManagedTask;
@@ -199,6 +202,54 @@ public class ThreadPoolUtil {
         return null;
     }
 
+    /**
+     * Maps the given items concurrently. The items are split to contiguous partitions, one for each of the given
+     * parallel mappings, and the calling thread maps every partition no other thread started yet, so a saturated
+     * thread pool only makes the mapping sequential. An exception thrown by the mapper is rethrown to the caller.
+     *
+     * @return the mapped items, in the order of the given items
+     */
+    public static <T, R> List<R> mapConcurrently(List<T> items, Function<T, R> mapper, int parallelism) {
+        parallelism = Math.min(parallelism, items.size());
+        if (parallelism <= 1 || getExecutorService() == null) {
+            return items.stream().map(mapper).collect(Collectors.toList());
+        }
+
+        int partitionSize = (items.size() + parallelism - 1) / parallelism;
+        List<FutureTask<List<R>>> partitions = new ArrayList<>(parallelism);
+        for (int from = 0; from < items.size(); from += partitionSize) {
+            List<T> partition = items.subList(from, Math.min(from + partitionSize, items.size()));
+            partitions.add(new FutureTask<>(() -> partition.stream().map(mapper).collect(Collectors.toList())));
+        }
+
+        // the first partition is always mapped by the calling thread
+        for (FutureTask<List<R>> partition : partitions.subList(1, partitions.size())) {
+            try {
+                execute((Runnable) partition);
+            } catch (RejectedExecutionException e) {
+                break;
+            }
+        }
+        // running a partition which already started or finished does nothing
+        partitions.forEach(FutureTask::run);
+
+        List<R> results = new ArrayList<>(items.size());
+        for (FutureTask<List<R>> partition : partitions) {
+            try {
+                results.addAll(partition.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while mapping items concurrently", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        return results;
+    }
+
     public static void setExecutorService(ExecutorService managedExecutorService) {
         executor = managedExecutorService;
     }
@@ -15,6 +15,8 @@ public @interface ThreadPools {
     enum ThreadPoolType {
         CoCo,
         HostUpdatesChecker,
+        HostMonitoring,
+        Scheduling,
         EngineScheduledThreadPool,
         EngineThreadMonitoringThreadPool }
 
@@ -0,0 +1,104 @@
+package org.ovirt.engine.core.utils.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.common.businessentities.VMStatus;
+import org.ovirt.engine.core.compat.Guid;
+
+public class EntityStatusCounterTest {
+
+    @Test
+    public void testStatusChanges() {
+        EntityStatusCounter counter = new EntityStatusCounter();
+        Guid vm1 = Guid.newGuid();
+        Guid vm2 = Guid.newGuid();
+        counter.update(vm1, VMStatus.Up);
+        counter.update(vm2, VMStatus.Up);
+        counter.update(vm2, VMStatus.Up);
+        assertEquals(Map.of(VMStatus.Up.getValue(), 2), counter.getCounts());
+
+        counter.update(vm1, VMStatus.Down);
+        assertEquals(Map.of(VMStatus.Up.getValue(), 1, VMStatus.Down.getValue(), 1), counter.getCounts());
+        assertEquals(2, counter.getTotalCount());
+    }
+
+    @Test
+    public void testUnknownStatusIgnored() {
+        EntityStatusCounter counter = new EntityStatusCounter();
+        counter.update(Guid.newGuid(), null);
+        assertEquals(0, counter.getTotalCount());
+    }
+
+    @Test
+    public void testRemove() {
+        EntityStatusCounter counter = new EntityStatusCounter();
+        Guid vm = Guid.newGuid();
+        counter.update(vm, VMStatus.Up);
+        counter.remove(vm);
+        counter.remove(vm);
+        assertEquals(0, counter.getTotalCount());
+        assertTrue(counter.getCounts().isEmpty());
+    }
+
+    @Test
+    public void testReconcile() {
+        EntityStatusCounter counter = new EntityStatusCounter();
+        Guid kept = Guid.newGuid();
+        Guid rolledBack = Guid.newGuid();
+        Guid added = Guid.newGuid();
+        counter.update(kept, VMStatus.Up);
+        counter.update(rolledBack, VMStatus.Up);
+        assertFalse(counter.isReconciled());
+
+        long stamp = counter.getModificationStamp();
+        Map<Guid, Integer> statuses = new HashMap<>();
+        statuses.put(kept, VMStatus.Paused.getValue());
+        statuses.put(added, VMStatus.Down.getValue());
+        counter.reconcile(statuses, stamp);
+
+        assertTrue(counter.isReconciled());
+        assertEquals(Map.of(VMStatus.Paused.getValue(), 1, VMStatus.Down.getValue(), 1), counter.getCounts());
+    }
+
+    @Test
+    public void testReconcileKeepsStatusesModifiedWhileReading() {
+        EntityStatusCounter counter = new EntityStatusCounter();
+        Guid updated = Guid.newGuid();
+        Guid removed = Guid.newGuid();
+        counter.update(updated, VMStatus.Down);
+        counter.update(removed, VMStatus.Up);
+
+        long stamp = counter.getModificationStamp();
+        // the statuses read from the database before these ones were written
+        Map<Guid, Integer> statuses = Map.of(updated, VMStatus.Down.getValue(), removed, VMStatus.Up.getValue());
+        counter.update(updated, VMStatus.Up);
+        counter.remove(removed);
+        counter.reconcile(statuses, stamp);
+
+        assertEquals(Map.of(VMStatus.Up.getValue(), 1), counter.getCounts());
+        assertEquals(1, counter.getTotalCount());
+
+        // once read again, the database is trusted for these entities as well
+        counter.reconcile(Map.of(updated, VMStatus.Paused.getValue()), counter.getModificationStamp());
+        assertEquals(Map.of(VMStatus.Paused.getValue(), 1), counter.getCounts());
+    }
+
+    @Test
+    public void testOlderReconcileIgnored() {
+        EntityStatusCounter counter = new EntityStatusCounter();
+        Guid vm = Guid.newGuid();
+        long olderStamp = counter.getModificationStamp();
+        counter.update(vm, VMStatus.Up);
+
+        counter.reconcile(Map.of(vm, VMStatus.Up.getValue()), counter.getModificationStamp());
+        counter.reconcile(Map.of(), olderStamp);
+
+        assertEquals(Map.of(VMStatus.Up.getValue(), 1), counter.getCounts());
+    }
+}
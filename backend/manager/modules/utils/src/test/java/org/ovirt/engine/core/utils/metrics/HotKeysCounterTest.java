@@ -0,0 +1,84 @@
+package org.ovirt.engine.core.utils.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class HotKeysCounterTest {
+
+    @Test
+    public void testTopKeys() {
+        HotKeysCounter counter = new HotKeysCounter(10);
+        hit(counter, "a", 5);
+        hit(counter, "b", 10);
+        hit(counter, "c", 1);
+        assertEquals(Arrays.asList("b=10", "a=5"), counter.getTopKeys(2));
+    }
+
+    @Test
+    public void testColdKeysEvicted() {
+        HotKeysCounter counter = new HotKeysCounter(10);
+        hit(counter, "hot", 100);
+        for (int i = 0; i < 100; i++) {
+            counter.hit("cold" + i);
+        }
+        List<String> topKeys = counter.getTopKeys(100);
+        assertTrue(topKeys.size() <= 11);
+        assertEquals("hot=100", topKeys.get(0));
+    }
+
+    @Test
+    public void testNewKeyNotEvictedBeforeNextRound() {
+        HotKeysCounter counter = new HotKeysCounter(4);
+        for (String key : Arrays.asList("a", "b", "c", "d")) {
+            hit(counter, key, 3);
+        }
+        // exceeds the capacity, the new key is the coldest one but is too young to be evicted
+        counter.hit("new");
+        hit(counter, "new", 5);
+        assertEquals("new=6", counter.getTopKeys(1).get(0));
+    }
+
+    @Test
+    public void testFloodOfNewKeysEvictedDownToHalfCapacity() {
+        HotKeysCounter counter = new HotKeysCounter(10);
+        for (int i = 0; i < 6; i++) {
+            hit(counter, "warm" + i, 3);
+        }
+        // the new keys are the coldest ones, but being too young they must not keep the older keys from eviction
+        int minSize = Integer.MAX_VALUE;
+        for (int i = 0; i < 100; i++) {
+            counter.hit("new" + i);
+            int size = counter.getTopKeys(Integer.MAX_VALUE).size();
+            assertTrue(size <= 10);
+            if (i >= 90) {
+                minSize = Math.min(minSize, size);
+            }
+        }
+        assertEquals(5, minSize);
+    }
+
+    @Test
+    public void testReset() {
+        HotKeysCounter counter = new HotKeysCounter(10);
+        hit(counter, "a", 5);
+        counter.reset();
+        assertTrue(counter.getTopKeys(10).isEmpty());
+    }
+
+    @Test
+    public void testInvalidCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new HotKeysCounter(0));
+    }
+
+    private void hit(HotKeysCounter counter, String key, int times) {
+        for (int i = 0; i < times; i++) {
+            counter.hit(key);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package org.ovirt.engine.core.utils.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public class LatencyHistogramTest {
+
+    private LatencyHistogram histogram = new LatencyHistogram();
+
+    @Test
+    public void testEmpty() {
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMeanMillis());
+        assertEquals(0, histogram.getPercentileMillis(99));
+    }
+
+    @Test
+    public void testRecord() {
+        for (int i = 0; i < 99; i++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(3));
+        }
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(700));
+        assertEquals(100, histogram.getCount());
+        assertEquals(5, histogram.getPercentileMillis(50));
+        assertEquals(5, histogram.getPercentileMillis(99));
+        assertEquals(1000, histogram.getPercentileMillis(100));
+        assertEquals(700, histogram.getMaxMillis());
+        assertEquals(9, histogram.getMeanMillis());
+    }
+
+    @Test
+    public void testOverflowBucket() {
+        histogram.record(TimeUnit.MINUTES.toNanos(5));
+        assertEquals(TimeUnit.MINUTES.toMillis(5), histogram.getPercentileMillis(50));
+    }
+
+    @Test
+    public void testReset() {
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(3));
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMaxMillis());
+    }
+}
@@ -0,0 +1,50 @@
+package org.ovirt.engine.core.utils.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.Test;
+
+public class MBeanRegistrationTest {
+
+    private static final String NAME = "MBeanRegistrationTest:type=" + MBeanRegistrationTest.class.getName();
+
+    @Test
+    public void testRegisterAndUnregister() throws Exception {
+        MBeanRegistration.register(new Counter(), NAME);
+        try {
+            assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(new ObjectName(NAME)));
+            // a name is registered once
+            assertThrows(IllegalStateException.class, () -> MBeanRegistration.register(new Counter(), NAME));
+        } finally {
+            MBeanRegistration.unregister(NAME);
+        }
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(new ObjectName(NAME)));
+    }
+
+    @Test
+    public void testUnregisterNotRegistered() {
+        assertThrows(IllegalStateException.class, () -> MBeanRegistration.unregister(NAME));
+    }
+
+    @Test
+    public void testMalformedName() {
+        assertThrows(IllegalStateException.class, () -> MBeanRegistration.register(new Counter(), "malformed"));
+    }
+
+    public interface CounterMXBean {
+        long getCount();
+    }
+
+    public static class Counter implements CounterMXBean {
+        @Override
+        public long getCount() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package org.ovirt.engine.core.utils.ovf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Set;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.compat.Guid;
+
+public class OvfSummaryTest {
+
+    private static final String ENVELOPE_START = "<ovf:Envelope xmlns:ovf=\"http://schemas.dmtf.org/ovf/envelope/1/\""
+            + " xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" ovf:version=\"4.1.0.0\">";
+    private static final String ENVELOPE_END = "</ovf:Envelope>";
+
+    private final Guid diskId = Guid.newGuid();
+    private final Guid lunId = Guid.newGuid();
+    private final Guid memoryDiskId = Guid.newGuid();
+    private final Guid metadataDiskId = Guid.newGuid();
+
+    @Test
+    public void testDiskIds() throws Exception {
+        OvfSummary summary = OvfSummary.parse(ENVELOPE_START
+                + references()
+                + "<Content xsi:type=\"ovf:VirtualSystem_Type\">"
+                + "<Name>vm</Name>"
+                + snapshotsSection()
+                + "</Content>"
+                + ENVELOPE_END);
+
+        assertEquals(Set.of(diskId, lunId, memoryDiskId, metadataDiskId), summary.getDiskIds());
+        assertEquals(Set.of(memoryDiskId, metadataDiskId), summary.getMemoryDiskIds());
+    }
+
+    @Test
+    public void testOperatingSystem() throws Exception {
+        OvfSummary summary = OvfSummary.parse(ENVELOPE_START
+                + references()
+                + "<Content xsi:type=\"ovf:VirtualSystem_Type\">"
+                + "<Description>not the operating system</Description>"
+                + "<Section xsi:type=\"ovf:OperatingSystemSection_Type\">"
+                + "<Info>Guest Operating System</Info>"
+                + "<Description>rhel_8x64</Description>"
+                + "</Section>"
+                + "</Content>"
+                + ENVELOPE_END);
+
+        assertTrue(summary.hasOperatingSystemSection());
+        assertEquals("rhel_8x64", summary.getOperatingSystem());
+    }
+
+    @Test
+    public void testOperatingSystemSectionWithoutDescription() throws Exception {
+        OvfSummary summary = OvfSummary.parse(ENVELOPE_START
+                + references()
+                + "<Content xsi:type=\"ovf:VirtualSystem_Type\">"
+                + "<Section xsi:type=\"ovf:OperatingSystemSection_Type\"><Info>Guest Operating System</Info></Section>"
+                + "</Content>"
+                + ENVELOPE_END);
+
+        assertTrue(summary.hasOperatingSystemSection());
+        assertNull(summary.getOperatingSystem());
+    }
+
+    @Test
+    public void testNoOperatingSystemSection() throws Exception {
+        OvfSummary summary = OvfSummary.parse(ENVELOPE_START
+                + references()
+                + "<Content xsi:type=\"ovf:VirtualSystem_Type\"><Name>vm</Name></Content>"
+                + ENVELOPE_END);
+
+        assertFalse(summary.hasOperatingSystemSection());
+        assertFalse(summary.isExternal());
+    }
+
+    @Test
+    public void testExternalOrigin() throws Exception {
+        assertTrue(OvfSummary.parse(ovfOfOrigin("<Origin>4</Origin>")).isExternal());
+        assertFalse(OvfSummary.parse(ovfOfOrigin("<Origin>0</Origin>")).isExternal());
+        // the first origin which isn't empty counts
+        assertTrue(OvfSummary.parse(ovfOfOrigin("<Origin/><Origin>4</Origin><Origin>0</Origin>")).isExternal());
+    }
+
+    @Test
+    public void testElementsOfOtherNamespacesIgnored() throws Exception {
+        OvfSummary summary = OvfSummary.parse(ENVELOPE_START
+                + "<ovf:References><File ovf:href=\"" + Guid.newGuid() + "\"/></ovf:References>"
+                + references()
+                + "<Content xsi:type=\"ovf:VirtualSystem_Type\"><ovf:Origin>4</ovf:Origin></Content>"
+                + ENVELOPE_END);
+
+        assertEquals(Set.of(diskId, lunId), summary.getDiskIds());
+        assertFalse(summary.isExternal());
+    }
+
+    @Test
+    public void testNoReferences() {
+        assertThrows(XMLStreamException.class, () -> OvfSummary.parse(ENVELOPE_START
+                + "<Content xsi:type=\"ovf:VirtualSystem_Type\"><Name>vm</Name></Content>"
+                + ENVELOPE_END));
+    }
+
+    @Test
+    public void testNoContent() {
+        assertThrows(XMLStreamException.class, () -> OvfSummary.parse(ENVELOPE_START + references() + ENVELOPE_END));
+    }
+
+    @Test
+    public void testMalformedOvf() {
+        assertThrows(XMLStreamException.class, () -> OvfSummary.parse(ENVELOPE_START + references()));
+    }
+
+    private String references() {
+        return "<References>"
+                + "<File ovf:href=\"" + diskId + "/" + Guid.newGuid() + "\" ovf:id=\"" + Guid.newGuid() + "\"/>"
+                + "<File ovf:id=\"" + lunId + "\" ovf:href=\"" + lunId + "\" ovf:disk_storage_type=\"LUN\"/>"
+                + "</References>";
+    }
+
+    private String snapshotsSection() {
+        return "<Section xsi:type=\"ovf:SnapshotsSection_Type\">"
+                + "<Snapshot ovf:id=\"" + Guid.newGuid() + "\"><Type>ACTIVE</Type></Snapshot>"
+                + "<Snapshot ovf:id=\"" + Guid.newGuid() + "\"><Type>REGULAR</Type>"
+                + "<Memory>" + Guid.newGuid() + "," + Guid.newGuid() + "," + memoryDiskId + "," + Guid.newGuid()
+                + "," + metadataDiskId + "," + Guid.newGuid() + "</Memory>"
+                + "</Snapshot>"
+                + "</Section>";
+    }
+
+    private String ovfOfOrigin(String origins) {
+        return ENVELOPE_START
+                + references()
+                + "<Content xsi:type=\"ovf:VirtualSystem_Type\">" + origins + "</Content>"
+                + ENVELOPE_END;
+    }
+}
@@ -0,0 +1,148 @@
+package org.ovirt.engine.core.utils.ovf.xml;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public class StaxXmlDocumentTest {
+
+    private static final String OVF_URI = "http://schemas.dmtf.org/ovf/envelope/1/";
+    private static final String RASD_URI =
+            "http://schemas.dmtf.org/wbem/wscim/1/cim-schema/2/CIM_ResourceAllocationSettingData";
+
+    private static final String XML = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+            + "<!-- exported -->"
+            + "<ovf:Envelope xmlns:ovf=\"" + OVF_URI + "\" xmlns:rasd=\"" + RASD_URI + "\""
+            + " xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" ovf:version=\"4.1.0.0\">\n"
+            + "  <References><File ovf:href=\"a/b\" ovf:id=\"b\"/><File ovf:href=\"c/d\"/></References>\n"
+            + "  <Section xsi:type=\"ovf:DiskSection_Type\">"
+            + "<Disk ovf:diskId=\"b\"/><Disk ovf:diskId=\"d\"/></Section>\n"
+            + "  <Content ovf:id=\"out\" xsi:type=\"ovf:VirtualSystem_Type\">\n"
+            + "    <Name>vm &amp; <![CDATA[<co>]]></Name>\n"
+            + "    <Description><!-- none --></Description>\n"
+            + "    <Section xsi:type=\"ovf:VirtualHardwareSection_Type\">\n"
+            + "      <Item><rasd:ResourceType>3</rasd:ResourceType><rasd:Sockets>2</rasd:Sockets></Item>\n"
+            + "      <Item><rasd:ResourceType> 10.0 </rasd:ResourceType><rasd:Name>nic1</rasd:Name></Item>\n"
+            + "      <Item><rasd:ResourceType>10</rasd:ResourceType><rasd:Name>nic2</rasd:Name>\n"
+            + "        <SpecParams><vram>32</vram><cd><![CDATA[x]]></cd><empty/><mixed>a<!-- c -->b</mixed>"
+            + "<nested><path>/dev</path></nested><single><x>1</x></single></SpecParams></Item>\n"
+            + "      <Item><rasd:ResourceType>10a</rasd:ResourceType><ResourceType>10</ResourceType></Item>\n"
+            + "    </Section>\n"
+            + "    <Nic ovf:id=\"n\"><Name>nic1</Name></Nic>\n"
+            + "    <Content><Nested>inner</Nested></Content>\n"
+            + "  </Content>\n"
+            + "</ovf:Envelope>\n"
+            + "<?done?>";
+
+    private XmlDocument dom;
+    private XmlDocument stax;
+    private XmlNamespaceManager xmlns;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        dom = new XmlDocument(XML);
+        stax = new StaxXmlDocument(XML);
+        xmlns = new XmlNamespaceManager();
+        xmlns.addNamespace("ovf", OVF_URI);
+        xmlns.addNamespace("rasd", RASD_URI);
+        xmlns.addNamespace("xsi", "http://www.w3.org/2001/XMLSchema-instance");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "//ovf:Envelope", "//Envelope", "ovf:Envelope", "ovf:Envelope/Content", "//*/Content",
+            "//Content", "//*/File", "//*/Section/Disk", "//*/Nic", "//*/Item[rasd:ResourceType=10]",
+            "//Item[rasd:ResourceType=\"10\"]", "//*/Item[ResourceType=10]", "//*/Content/Section", "//*/Content//Name",
+            "//Section//*", "//*", "ovf:Envelope/Content/Name", "/ovf:Envelope/Content/Nic", "//rasd:Name",
+            "//Missing", "//ovf:Missing/Name" })
+    public void testSelectNodes(String expression) {
+        assertEquals(describe(dom.selectNodes(expression, xmlns)), describe(stax.selectNodes(expression, xmlns)));
+        assertEquals(describe(dom.selectSingleNode(expression, xmlns)),
+                describe(stax.selectSingleNode(expression, xmlns)));
+    }
+
+    @Test
+    public void testSelectNodesFromNode() {
+        String expression = "//*/Item[rasd:ResourceType=10]";
+        XmlNode domItem = dom.selectNodes(expression, xmlns).iterator().next();
+        XmlNode staxItem = stax.selectNodes(expression, xmlns).iterator().next();
+        assertEquals(describe(domItem.selectNodes("rasd:Name", xmlns)),
+                describe(staxItem.selectNodes("rasd:Name", xmlns)));
+        assertEquals(describe(domItem.selectSingleNode("//Nested")), describe(staxItem.selectSingleNode("//Nested")));
+        assertNull(staxItem.selectSingleNode("Name"));
+    }
+
+    @Test
+    public void testPrefixWithoutNamespaces() {
+        // the prefixes of a former evaluation with namespaces are not used
+        dom.selectNodes("//ovf:Envelope", xmlns);
+        assertEquals(describe(dom.selectNodes("//ovf:Envelope")), describe(stax.selectNodes("//ovf:Envelope")));
+        assertEquals(describe(dom.selectNodes("//*/Item[rasd:ResourceType=10]")),
+                describe(stax.selectNodes("//*/Item[rasd:ResourceType=10]")));
+        assertNull(stax.selectSingleNode("//ovf:Envelope"));
+    }
+
+    @Test
+    public void testUnresolvedPrefix() {
+        assertThrows(RuntimeException.class, () -> dom.selectNodes("//vssd:Envelope", xmlns));
+        assertThrows(RuntimeException.class, () -> stax.selectNodes("//vssd:Envelope", xmlns));
+    }
+
+    @Test
+    public void testUnsupportedExpression() {
+        assertThrows(RuntimeException.class, () -> stax.selectNodes("//Item[1]", xmlns));
+        assertThrows(RuntimeException.class, () -> stax.selectNodes("../Item", xmlns));
+        assertThrows(RuntimeException.class, () -> stax.selectNodes("//Item[Name=nic1]x", xmlns));
+    }
+
+    @Test
+    public void testMalformedXml() {
+        assertThrows(XMLStreamException.class, () -> new StaxXmlDocument("<a><b></a>"));
+        assertThrows(XMLStreamException.class, () -> new StaxXmlDocument("<a></a><b/>"));
+    }
+
+    @Test
+    public void testDoctypeRejected() {
+        assertThrows(XMLStreamException.class,
+                () -> new StaxXmlDocument("<!DOCTYPE a [<!ENTITY e \"x\">]><a>&e;</a>"));
+    }
+
+    @Test
+    public void testReadOnly() {
+        assertEquals(XML, stax.getOuterXml());
+        assertThrows(UnsupportedOperationException.class, () -> stax.createElement("a"));
+        assertThrows(UnsupportedOperationException.class, () -> stax.convertToString());
+    }
+
+    private static List<String> describe(XmlNodeList nodes) {
+        List<String> descriptions = new ArrayList<>();
+        for (XmlNode node : nodes) {
+            descriptions.add(describe(node));
+        }
+        return descriptions;
+    }
+
+    private static String describe(XmlNode node) {
+        if (node == null) {
+            return null;
+        }
+        StringBuilder description = new StringBuilder(node.getName())
+                .append(" text=").append(node.innerText)
+                .append(" children=").append(node.getChildNodesCount())
+                .append(" textOnly=").append(node.isTextOnly());
+        for (String attribute : new String[] { "ovf:id", "ovf:href", "ovf:diskId", "xsi:type", "id", "missing" }) {
+            XmlAttribute value = node.attributes.get(attribute);
+            description.append(' ').append(attribute).append('=').append(value != null ? value.getValue() : null);
+        }
+        return description.append(' ').append(describe(node.getChildElements())).toString();
+    }
+}
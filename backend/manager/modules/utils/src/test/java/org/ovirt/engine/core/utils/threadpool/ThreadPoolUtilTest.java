@@ -0,0 +1,124 @@
+package org.ovirt.engine.core.utils.threadpool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ThreadPoolUtilTest {
+
+    private static final int PARALLELISM = 4;
+
+    private ExecutorService origExecutorService;
+    private ExecutorService executorService;
+
+    @BeforeEach
+    public void setUp() {
+        origExecutorService = ThreadPoolUtil.getExecutorService();
+        executorService = Executors.newFixedThreadPool(PARALLELISM);
+        ThreadPoolUtil.setExecutorService(executorService);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ThreadPoolUtil.setExecutorService(origExecutorService);
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void testMapConcurrentlyKeepsOrderOfItems() {
+        List<Integer> items = IntStream.range(0, 100).boxed().collect(Collectors.toList());
+
+        List<Integer> results = ThreadPoolUtil.mapConcurrently(items, item -> item * 2, PARALLELISM);
+
+        assertEquals(items.stream().map(item -> item * 2).collect(Collectors.toList()), results);
+    }
+
+    @Test
+    public void testMapConcurrentlyMapsPartitionsConcurrently() {
+        // the first partition, mapped by the calling thread, waits for the second one to be mapped by the pool
+        CountDownLatch secondPartitionMapped = new CountDownLatch(1);
+        Function<Integer, Boolean> mapper = item -> {
+            if (item == 0) {
+                try {
+                    return secondPartitionMapped.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            secondPartitionMapped.countDown();
+            return true;
+        };
+
+        assertEquals(Arrays.asList(true, true), ThreadPoolUtil.mapConcurrently(Arrays.asList(0, 1), mapper, 2));
+    }
+
+    @Test
+    public void testMapConcurrentlyMapsRejectedPartitionsByCallingThread() {
+        executorService.shutdown();
+        Set<Thread> mappingThreads = ConcurrentHashMap.newKeySet();
+        List<Integer> items = IntStream.range(0, 10).boxed().collect(Collectors.toList());
+
+        List<Integer> results = ThreadPoolUtil.mapConcurrently(items, item -> {
+            mappingThreads.add(Thread.currentThread());
+            return item + 1;
+        }, PARALLELISM);
+
+        assertEquals(items.stream().map(item -> item + 1).collect(Collectors.toList()), results);
+        assertEquals(Set.of(Thread.currentThread()), mappingThreads);
+    }
+
+    @Test
+    public void testMapConcurrentlyWithoutExecutorService() {
+        ThreadPoolUtil.setExecutorService(null);
+        List<Integer> items = Arrays.asList(3, 1, 2);
+
+        assertEquals(Arrays.asList("3", "1", "2"), ThreadPoolUtil.mapConcurrently(items, String::valueOf, PARALLELISM));
+    }
+
+    @Test
+    public void testMapConcurrentlyRethrowsExceptionOfPoolThread() {
+        List<Integer> items = IntStream.range(0, 8).boxed().collect(Collectors.toList());
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> ThreadPoolUtil.mapConcurrently(items, item -> {
+                    if (item == items.size() - 1) {
+                        throw new IllegalArgumentException("last item");
+                    }
+                    return item;
+                }, PARALLELISM));
+        assertEquals("last item", e.getMessage());
+    }
+
+    @Test
+    public void testMapConcurrentlyRethrowsExceptionOfCallingThread() {
+        List<Integer> items = IntStream.range(0, 8).boxed().collect(Collectors.toList());
+
+        assertThrows(IllegalStateException.class, () -> ThreadPoolUtil.mapConcurrently(items, item -> {
+            if (item == 0) {
+                throw new IllegalStateException();
+            }
+            return item;
+        }, PARALLELISM));
+    }
+
+    @Test
+    public void testMapConcurrentlyOfNoItems() {
+        assertTrue(ThreadPoolUtil.mapConcurrently(List.<Integer> of(), item -> item, PARALLELISM).isEmpty());
+    }
+}
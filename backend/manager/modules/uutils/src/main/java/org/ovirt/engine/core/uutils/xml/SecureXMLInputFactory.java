@@ -0,0 +1,15 @@
+package org.ovirt.engine.core.uutils.xml;
+
+import javax.xml.stream.XMLInputFactory;
+
+public class SecureXMLInputFactory {
+
+    public static XMLInputFactory newXMLInputFactory() {
+        XMLInputFactory xmlInputFactory = XMLInputFactory.newInstance();
+        xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        xmlInputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        return xmlInputFactory;
+    }
+
+}
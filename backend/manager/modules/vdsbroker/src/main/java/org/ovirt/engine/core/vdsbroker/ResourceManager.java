@@ -54,6 +54,7 @@ import org.ovirt.engine.core.di.Injector;
 import org.ovirt.engine.core.utils.ReflectionUtils;
 import org.ovirt.engine.core.utils.threadpool.ThreadPools;
 import org.ovirt.engine.core.vdsbroker.monitoring.HostMonitoringWatchdog;
+import org.ovirt.engine.core.vdsbroker.monitoring.VmStatisticsChangeTracker;
 import org.ovirt.engine.core.vdsbroker.vdsbroker.FutureVDSCommand;
 import org.ovirt.engine.core.vdsbroker.vdsbroker.VdsCommandExecutor;
 import org.ovirt.vdsm.jsonrpc.client.events.EventSubscriber;
@@ -94,6 +95,9 @@ public class ResourceManager implements BackendService {
     @Inject
     private VmNetworkStatisticsDao vmNetworkStatisticsDao;
 
+    @Inject
+    private VmStatisticsChangeTracker vmStatisticsChangeTracker;
+
     @Inject
     Instance<VdsCommandExecutor> commandExecutor;
 
@@ -299,6 +303,8 @@ public class ResourceManager implements BackendService {
             resetVmAttributes(vm);
 
             if (isVmNotRunning) {
+                // the statistics of the vm are reset by others, so they are saved again once it runs
+                vmStatisticsChangeTracker.forget(Collections.singletonList(vm.getId()));
                 vm.setRunOnVds(null);
                 vm.setPauseStatus(VmPauseStatus.NONE);
                 vm.setLastStopTime(new Date());
@@ -73,6 +73,7 @@ import org.ovirt.engine.core.utils.transaction.TransactionSupport;
 import org.ovirt.engine.core.vdsbroker.irsbroker.IRSErrorException;
 import org.ovirt.engine.core.vdsbroker.irsbroker.IrsProxy;
 import org.ovirt.engine.core.vdsbroker.irsbroker.IrsProxyManager;
+import org.ovirt.engine.core.vdsbroker.jsonrpc.JsonRpcMonitor;
 import org.ovirt.engine.core.vdsbroker.kubevirt.PrometheusUrlResolver;
 import org.ovirt.engine.core.vdsbroker.monitoring.HostConnectionRefresherInterface;
 import org.ovirt.engine.core.vdsbroker.monitoring.HostMonitoring;
@@ -154,6 +155,9 @@ public class VdsManager {
     @Inject
     private PrometheusUrlResolver prometheusUrlResolver;
 
+    @Inject
+    private JsonRpcMonitor jsonRpcMonitor;
+
     private final AtomicInteger unrespondedAttempts;
     private final Guid vdsId;
     private final VdsMonitor vdsMonitor = new VdsMonitor();
@@ -274,7 +278,8 @@ public class VdsManager {
                 connectionTimeOut,
                 clientRetries,
                 heartbeat,
-                resourceManager.getExecutor());
+                resourceManager.getExecutor(),
+                jsonRpcMonitor);
     }
 
     public void refresh() {
@@ -88,6 +88,9 @@ public class VmManager {
 
     private Set<Guid> devicesBeingHotUnplugged;
 
+    /** The last known dynamic data of the VM, as long as it is identical to the data in the database **/
+    private volatile VmDynamicSnapshot vmDynamicSnapshot;
+
     @Inject
     private VmDeviceDao vmDeviceDao;
     @Inject
@@ -122,7 +125,7 @@ public class VmManager {
         if (vmStatic != null) {
             updateStaticFields(vmStatic);
         }
-        VmDynamic vmDynamic = vmDynamicDao.get(vmId);
+        VmDynamic vmDynamic = loadVmDynamic();
         if (vmDynamic != null) {
             updateDynamicFields(vmDynamic);
         }
@@ -184,8 +187,49 @@ public class VmManager {
     }
 
     public void update(VmDynamic dynamic) {
+        long modificationCount = vmDynamicDao.getModificationCount(vmId);
         vmDynamicDao.update(dynamic);
         updateDynamicFields(dynamic);
+        setVmDynamic(dynamic, modificationCount);
+    }
+
+    /**
+     * Returns a copy of the dynamic data of the VM, which is read from the database only when the data kept by the
+     * manager may be out of date since it was modified by others
+     *
+     * @return the dynamic data, or {@code null} if the VM has no dynamic data in the database
+     */
+    public VmDynamic getVmDynamic() {
+        VmDynamicSnapshot snapshot = vmDynamicSnapshot;
+        if (snapshot != null && snapshot.modificationCount == vmDynamicDao.getModificationCount(vmId)) {
+            return new VmDynamic(snapshot.vmDynamic);
+        }
+        return loadVmDynamic();
+    }
+
+    /**
+     * Keeps the given dynamic data of the VM, which was just written to the database
+     *
+     * @param dynamic
+     *            the written data
+     * @param modificationCount
+     *            the modification count of the dynamic data before it was written, the data is kept only if no other
+     *            modification was made meanwhile
+     */
+    public void setVmDynamic(VmDynamic dynamic, long modificationCount) {
+        if (modificationCount >= 0 && vmDynamicDao.getModificationCount(vmId) == modificationCount + 1) {
+            vmDynamicSnapshot = new VmDynamicSnapshot(new VmDynamic(dynamic), modificationCount + 1);
+        }
+    }
+
+    private VmDynamic loadVmDynamic() {
+        long modificationCount = vmDynamicDao.getModificationCount(vmId);
+        VmDynamic vmDynamic = vmDynamicDao.get(vmId);
+        if (vmDynamic != null && modificationCount >= 0
+                && vmDynamicDao.getModificationCount(vmId) == modificationCount) {
+            vmDynamicSnapshot = new VmDynamicSnapshot(new VmDynamic(vmDynamic), modificationCount);
+        }
+        return vmDynamic;
     }
 
     public void update(VmStatistics statistics) {
@@ -397,6 +441,17 @@ public class VmManager {
         }
     }
 
+    private static class VmDynamicSnapshot {
+
+        private final VmDynamic vmDynamic;
+        private final long modificationCount;
+
+        private VmDynamicSnapshot(VmDynamic vmDynamic, long modificationCount) {
+            this.vmDynamic = vmDynamic;
+            this.modificationCount = modificationCount;
+        }
+    }
+
     private class VmDevicesLock extends ReentrantLock {
         protected Logger log = LoggerFactory.getLogger(getClass());
 
@@ -75,6 +75,22 @@ public class FutureMap implements Map<String, Object> {
         }
     }
 
+    /**
+     * During creation request is sent, possibly within a batch, and <code>Future</code> for a response is held.
+     *
+     * @param batcher - Batcher of the host used to send request.
+     * @param request - Request to be sent.
+     * @throws TransportRunTimeException when there are connection issues.
+     */
+    public FutureMap(JsonRpcRequestBatcher batcher, JsonRpcRequest request) {
+        try {
+            this.response = batcher.call(request);
+            this.client = batcher.getClient();
+        } catch (ClientConnectionException e) {
+            throw new TransportRunTimeException("Connection issues during send request", e);
+        }
+    }
+
     /**
      * During creation request is sent and <code>Future</code> for a response is held.
      *
@@ -0,0 +1,63 @@
+package org.ovirt.engine.core.vdsbroker.jsonrpc;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.ovirt.engine.core.utils.metrics.LatencyHistogram;
+
+/**
+ * The following class holds the JSON-RPC counters of a single host, it is updated without any locking
+ */
+class JsonRpcHostStatistics {
+
+    /** Number of requests sent to the host **/
+    private final LongAdder requests = new LongAdder();
+    /** Number of frames sent to the host, each holding a single request or a batch of requests **/
+    private final LongAdder frames = new LongAdder();
+    /** Number of requests which were sent within a batch of several requests **/
+    private final LongAdder batchedRequests = new LongAdder();
+    /** Number of calls which waited for responses because of the in-flight limit **/
+    private final LongAdder throttled = new LongAdder();
+    /** Number of calls which were sent over the in-flight limit after waiting for the response timeout **/
+    private final LongAdder overLimit = new LongAdder();
+    /** Time elapsed between sending a request and its caller reading the response **/
+    private final LatencyHistogram responseReadTime = new LatencyHistogram();
+
+    public void frameSent(int requestsCount) {
+        requests.add(requestsCount);
+        frames.increment();
+        if (requestsCount > 1) {
+            batchedRequests.add(requestsCount);
+        }
+    }
+
+    public void callThrottled() {
+        throttled.increment();
+    }
+
+    public void callOverLimit() {
+        overLimit.increment();
+    }
+
+    public LatencyHistogram getResponseReadTime() {
+        return responseReadTime;
+    }
+
+    public void reset() {
+        requests.reset();
+        frames.reset();
+        batchedRequests.reset();
+        throttled.reset();
+        overLimit.reset();
+        responseReadTime.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "requests=" + requests.sum()
+                + ", frames=" + frames.sum()
+                + ", batched requests=" + batchedRequests.sum()
+                + ", throttled=" + throttled.sum()
+                + ", over limit=" + overLimit.sum()
+                + ", response read time {" + responseReadTime + '}';
+    }
+}
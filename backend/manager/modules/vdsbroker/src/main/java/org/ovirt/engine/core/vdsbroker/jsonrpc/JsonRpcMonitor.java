@@ -0,0 +1,62 @@
+package org.ovirt.engine.core.vdsbroker.jsonrpc;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Singleton;
+
+import org.ovirt.engine.core.utils.metrics.MBeanRegistration;
+import org.ovirt.vdsm.jsonrpc.client.JsonRpcClient;
+
+/**
+ * The following class creates the {@link JsonRpcRequestBatcher} of each host and exposes their statistics via JMX.
+ */
+@Singleton
+public class JsonRpcMonitor implements JsonRpcMonitorMXBean {
+
+    private static final String MBEAN_NAME = "JsonRpcMonitor:type=" + JsonRpcMonitor.class.getName();
+
+    private final Set<JsonRpcRequestBatcher> batchers = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void registerInJMX() {
+        MBeanRegistration.register(this, MBEAN_NAME);
+    }
+
+    @PreDestroy
+    public void unregisterFromJMX() {
+        MBeanRegistration.unregister(MBEAN_NAME);
+    }
+
+    /**
+     * Creates the batcher of the host of the given client, whose statistics are exposed until it is closed.
+     */
+    public JsonRpcRequestBatcher createBatcher(JsonRpcClient client, int responseTimeoutMillis) {
+        JsonRpcRequestBatcher batcher = new JsonRpcRequestBatcher(client, responseTimeoutMillis, this);
+        batchers.add(batcher);
+        return batcher;
+    }
+
+    void unregister(JsonRpcRequestBatcher batcher) {
+        batchers.remove(batcher);
+    }
+
+    @Override
+    public List<String> showHostStatistics() {
+        return batchers.stream()
+                .map(b -> "The host is : " + b.getHostname()
+                        + (b.isInFlightLimited() ? " in-flight=" + b.getInFlightRequests() + "," : "")
+                        + " " + b.getStatistics())
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void resetStatistics() {
+        batchers.forEach(b -> b.getStatistics().reset());
+    }
+}
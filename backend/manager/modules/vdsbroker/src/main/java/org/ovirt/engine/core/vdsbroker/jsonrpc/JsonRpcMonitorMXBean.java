@@ -0,0 +1,21 @@
+package org.ovirt.engine.core.vdsbroker.jsonrpc;
+
+import java.util.List;
+
+/**
+ * The following interface is used as interface for JMX bean
+ */
+public interface JsonRpcMonitorMXBean {
+
+    /**
+     * The following method will return the JSON-RPC statistics of each host: sent requests and frames, batched and
+     * throttled requests, the requests waiting for a response when they are limited and the histogram of the time
+     * until the responses were read
+     */
+    List<String> showHostStatistics();
+
+    /**
+     * The following method will reset all the statistics
+     */
+    void resetStatistics();
+}
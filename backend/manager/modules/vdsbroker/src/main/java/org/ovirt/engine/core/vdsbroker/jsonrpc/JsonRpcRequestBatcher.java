@@ -0,0 +1,418 @@
+package org.ovirt.engine.core.vdsbroker.jsonrpc;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.ovirt.engine.core.utils.EngineLocalConfig;
+import org.ovirt.vdsm.jsonrpc.client.ClientConnectionException;
+import org.ovirt.vdsm.jsonrpc.client.JsonRpcClient;
+import org.ovirt.vdsm.jsonrpc.client.JsonRpcRequest;
+import org.ovirt.vdsm.jsonrpc.client.JsonRpcResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends the JSON-RPC requests of a single host.
+ * <p>
+ * When batching is enabled, the requests issued while a frame is being sent to the host are grouped, up to the maximal
+ * batch size, into a single JSON-RPC batch frame, and the response of each request is taken from the response of the
+ * batch by its ID. The frame is sent by the caller of its first request, which then hands the sending over to the
+ * caller of the next pending request, so a request only waits for the frames before it and every call still returns
+ * once its request was sent. VDSM replies to a batch once all its requests are done, so batching trades the latency of
+ * the fast requests of a batch for fewer frames, and is disabled by default.
+ * </p>
+ * <p>
+ * The number of requests waiting for a response of the host may be limited, the requests are then tracked until their
+ * responses arrive. A caller over the limit waits for responses to arrive, up to the response timeout of the host, and
+ * then sends its request anyway, so the limit is a soft one. The time it takes the callers to read the responses of
+ * their requests is recorded and exposed with the other statistics of the host by {@link JsonRpcMonitor}.
+ * </p>
+ */
+public class JsonRpcRequestBatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(JsonRpcRequestBatcher.class);
+
+    /**
+     * Interval of checking whether the responses of the in-flight requests arrived, when over the limit. The callers
+     * over the limit are woken once a response is read, this only catches the responses no caller reads.
+     */
+    private static final long IN_FLIGHT_RECHECK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final JsonRpcClient client;
+    private final JsonRpcMonitor monitor;
+    private final int maxBatchSize;
+    private final long batchWindowMillis;
+    private final int maxInFlight;
+    private final long maxInFlightWaitNanos;
+    private final JsonRpcHostStatistics statistics = new JsonRpcHostStatistics();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition frameSent = lock.newCondition();
+    private final Condition responseRead = lock.newCondition();
+    /** The requests waiting to be sent, guarded by the lock **/
+    private final Deque<PendingRequest> pendingRequests = new ArrayDeque<>();
+    /** Whether a caller is sending a frame or was handed the sending over, guarded by the lock **/
+    private boolean sending;
+
+    /** The frames waiting for a response, tracked only when the in-flight requests are limited **/
+    private final Queue<InFlightFrame> inFlightFrames = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger inFlightRequests = new AtomicInteger();
+    /** Number of callers waiting for in-flight capacity, modified under the lock **/
+    private volatile int capacityWaiters;
+
+    JsonRpcRequestBatcher(JsonRpcClient client, int responseTimeoutMillis, JsonRpcMonitor monitor) {
+        this(client,
+                EngineLocalConfig.getInstance().getInteger("ENGINE_JSONRPC_BATCH_SIZE", 1),
+                EngineLocalConfig.getInstance().getInteger("ENGINE_JSONRPC_BATCH_WINDOW", 0),
+                EngineLocalConfig.getInstance().getInteger("ENGINE_JSONRPC_MAX_IN_FLIGHT", 0),
+                responseTimeoutMillis,
+                monitor);
+    }
+
+    JsonRpcRequestBatcher(JsonRpcClient client,
+            int maxBatchSize,
+            long batchWindowMillis,
+            int maxInFlight,
+            long responseTimeoutMillis,
+            JsonRpcMonitor monitor) {
+        this.client = client;
+        this.monitor = monitor;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.batchWindowMillis = batchWindowMillis;
+        this.maxInFlight = maxInFlight;
+        this.maxInFlightWaitNanos = TimeUnit.MILLISECONDS.toNanos(responseTimeoutMillis);
+    }
+
+    public JsonRpcClient getClient() {
+        return client;
+    }
+
+    public String getHostname() {
+        return client.getHostname();
+    }
+
+    /**
+     * Sends the given request, returning once it was sent.
+     *
+     * @throws ClientConnectionException when the frame of the request could not be sent.
+     */
+    public Future<JsonRpcResponse> call(JsonRpcRequest request) throws ClientConnectionException {
+        awaitInFlightCapacity();
+        if (maxBatchSize == 1) {
+            return send(Collections.singletonList(request)).get(0);
+        }
+
+        PendingRequest pending = new PendingRequest(request);
+        lock.lock();
+        try {
+            pendingRequests.add(pending);
+            if (!sending) {
+                sending = true;
+                pending.sender = true;
+            }
+            while (!pending.sender && !pending.sent) {
+                frameSent.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (!pending.sent) {
+            sendFrame();
+        }
+        return pending.getResponse();
+    }
+
+    /**
+     * Returns whether the requests waiting for a response of the host are limited, and so tracked.
+     */
+    public boolean isInFlightLimited() {
+        return maxInFlight > 0;
+    }
+
+    /**
+     * Returns the number of requests waiting for a response of the host, which is always 0 when they are not limited.
+     */
+    public int getInFlightRequests() {
+        if (isInFlightLimited()) {
+            reapInFlightFrames();
+        }
+        return inFlightRequests.get();
+    }
+
+    JsonRpcHostStatistics getStatistics() {
+        return statistics;
+    }
+
+    public void close() {
+        monitor.unregister(this);
+    }
+
+    /**
+     * Sends the first pending requests, the one of the caller included, in a frame and hands the sending over to the
+     * caller of the next pending request, if any.
+     */
+    private void sendFrame() {
+        if (batchWindowMillis > 0) {
+            sleep(batchWindowMillis);
+        }
+        List<PendingRequest> frame = new ArrayList<>();
+        lock.lock();
+        try {
+            while (frame.size() < maxBatchSize && !pendingRequests.isEmpty()) {
+                frame.add(pendingRequests.poll());
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        List<JsonRpcRequest> requests = new ArrayList<>(frame.size());
+        frame.forEach(pending -> requests.add(pending.request));
+        try {
+            List<Future<JsonRpcResponse>> responses = send(requests);
+            for (int i = 0; i < frame.size(); i++) {
+                frame.get(i).response = responses.get(i);
+            }
+        } catch (ClientConnectionException | RuntimeException e) {
+            frame.forEach(pending -> pending.failure = e);
+        } finally {
+            lock.lock();
+            try {
+                frame.forEach(pending -> pending.sent = true);
+                PendingRequest next = pendingRequests.peek();
+                if (next != null) {
+                    next.sender = true;
+                } else {
+                    sending = false;
+                }
+                frameSent.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private List<Future<JsonRpcResponse>> send(List<JsonRpcRequest> requests) throws ClientConnectionException {
+        long sentNanos = System.nanoTime();
+        Future<?> frame;
+        List<Future<JsonRpcResponse>> responses;
+        if (requests.size() == 1) {
+            Future<JsonRpcResponse> response = client.call(requests.get(0));
+            frame = response;
+            responses = Collections.singletonList(new SentRequest(response, null, sentNanos));
+        } else {
+            Future<List<JsonRpcResponse>> batchResponse = client.batchCall(requests);
+            frame = batchResponse;
+            responses = new ArrayList<>(requests.size());
+            for (JsonRpcRequest request : requests) {
+                responses.add(new SentRequest(batchResponse, request.getId(), sentNanos));
+            }
+        }
+        if (isInFlightLimited()) {
+            inFlightRequests.addAndGet(requests.size());
+            inFlightFrames.add(new InFlightFrame(frame, requests.size()));
+        }
+        statistics.frameSent(requests.size());
+        return responses;
+    }
+
+    private void awaitInFlightCapacity() {
+        if (!isInFlightLimited()) {
+            return;
+        }
+        reapInFlightFrames();
+        if (inFlightRequests.get() < maxInFlight) {
+            return;
+        }
+
+        statistics.callThrottled();
+        long deadline = System.nanoTime() + maxInFlightWaitNanos;
+        lock.lock();
+        try {
+            capacityWaiters++;
+            try {
+                while (true) {
+                    // a response read from now on signals this caller, so it is either reaped here or awaited
+                    reapInFlightFrames();
+                    if (inFlightRequests.get() < maxInFlight) {
+                        return;
+                    }
+                    long remainingNanos = deadline - System.nanoTime();
+                    if (remainingNanos <= 0) {
+                        break;
+                    }
+                    responseRead.awaitNanos(Math.min(remainingNanos, IN_FLIGHT_RECHECK_NANOS));
+                }
+            } finally {
+                capacityWaiters--;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } finally {
+            lock.unlock();
+        }
+
+        statistics.callOverLimit();
+        log.warn("Sending a request to host '{}' over the limit of {} requests waiting for a response",
+                getHostname(),
+                maxInFlight);
+    }
+
+    /**
+     * Wakes the callers waiting for in-flight capacity, once the response of a request was read.
+     */
+    private void signalResponseRead() {
+        if (capacityWaiters == 0) {
+            return;
+        }
+        lock.lock();
+        try {
+            responseRead.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops the frames whose responses arrived, or which were completed by the client on timeout, from the in-flight
+     * ones.
+     */
+    private void reapInFlightFrames() {
+        for (InFlightFrame frame : inFlightFrames) {
+            if (frame.response.isDone() && inFlightFrames.remove(frame)) {
+                inFlightRequests.addAndGet(-frame.requestsCount);
+            }
+        }
+    }
+
+    /**
+     * Returns {@code false} if the calling thread was interrupted while sleeping.
+     */
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * The following class holds a request waiting to be sent, its fields are guarded by the lock of the batcher
+     */
+    private static class PendingRequest {
+
+        private final JsonRpcRequest request;
+        /** Whether the caller of the request sends the next frame **/
+        private boolean sender;
+        private boolean sent;
+        private Future<JsonRpcResponse> response;
+        private Exception failure;
+
+        private PendingRequest(JsonRpcRequest request) {
+            this.request = request;
+        }
+
+        private Future<JsonRpcResponse> getResponse() throws ClientConnectionException {
+            if (failure instanceof ClientConnectionException) {
+                throw (ClientConnectionException) failure;
+            }
+            if (failure != null) {
+                throw (RuntimeException) failure;
+            }
+            return response;
+        }
+    }
+
+    private static class InFlightFrame {
+
+        private final Future<?> response;
+        private final int requestsCount;
+
+        private InFlightFrame(Future<?> response, int requestsCount) {
+            this.response = response;
+            this.requestsCount = requestsCount;
+        }
+    }
+
+    /**
+     * The following class is the response of a sent request, taken from the response of its batch when it was sent
+     * within one. The client doesn't report when a response arrives, so the time it took is recorded once the caller
+     * reads the response, which is when it arrives for the callers waiting for it.
+     */
+    private class SentRequest implements Future<JsonRpcResponse> {
+
+        private final Future<?> frame;
+        /** The ID of the request within its batch, {@code null} when it was sent alone **/
+        private final Object id;
+        private final long sentNanos;
+        private final AtomicBoolean recorded = new AtomicBoolean();
+
+        private SentRequest(Future<?> frame, Object id, long sentNanos) {
+            this.frame = frame;
+            this.id = id;
+            this.sentNanos = sentNanos;
+        }
+
+        @Override
+        public JsonRpcResponse get() throws InterruptedException, ExecutionException {
+            return received(frame.get());
+        }
+
+        @Override
+        public JsonRpcResponse get(long timeout, TimeUnit unit)
+                throws InterruptedException, ExecutionException, TimeoutException {
+            return received(frame.get(timeout, unit));
+        }
+
+        @SuppressWarnings("unchecked")
+        private JsonRpcResponse received(Object frameResponse) throws ExecutionException {
+            if (recorded.compareAndSet(false, true)) {
+                statistics.getResponseReadTime().recordSince(sentNanos);
+                signalResponseRead();
+            }
+            if (id == null) {
+                return (JsonRpcResponse) frameResponse;
+            }
+            for (JsonRpcResponse response : (List<JsonRpcResponse>) frameResponse) {
+                if (id.equals(response.getId())) {
+                    return response;
+                }
+            }
+            throw new ExecutionException(
+                    new IllegalStateException("The batch response lacks the response of request " + id));
+        }
+
+        /**
+         * A request sent within a batch can't be cancelled without cancelling the other requests of the batch.
+         */
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            return id == null && frame.cancel(mayInterruptIfRunning);
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return frame.isCancelled();
+        }
+
+        @Override
+        public boolean isDone() {
+            return frame.isDone();
+        }
+    }
+}
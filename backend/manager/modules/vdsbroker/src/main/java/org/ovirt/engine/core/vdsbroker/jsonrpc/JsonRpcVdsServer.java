@@ -112,14 +112,17 @@ public class JsonRpcVdsServer implements IVdsServer {
     private static final Logger logger = LoggerFactory.getLogger(JsonRpcVdsServer.class);
     private final JsonRpcClient client;
     private final CloseableHttpClient httpClient;
+    private final JsonRpcRequestBatcher batcher;
 
-    public JsonRpcVdsServer(JsonRpcClient client, CloseableHttpClient httpClient) {
+    public JsonRpcVdsServer(JsonRpcClient client, CloseableHttpClient httpClient, JsonRpcRequestBatcher batcher) {
         this.client = client;
         this.httpClient = httpClient;
+        this.batcher = batcher;
     }
 
     @Override
     public void close() {
+        this.batcher.close();
         HttpUtils.shutDownConnection(this.httpClient);
         this.client.close();
     }
@@ -153,7 +156,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("vmParams", createInfo)
                         .build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withResponseKey("vmList");
+                new FutureMap(this.batcher, request).withResponseKey("vmList");
         return new OneVmReturn(response);
     }
 
@@ -168,7 +171,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("copy_bitmaps", copyBitmaps)
                         .withParameter("legal", legal)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -180,7 +183,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("vol_info", volumeInfo)
                         .withParameter("vol_attr", volumeAttributes)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -191,7 +194,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("job_id", jobId)
                         .withParameter("move_params", moveParams)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -203,7 +206,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("job_id", jobId)
                         .withParameter("reduce_params", reduceParams)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -215,14 +218,14 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("subchain_info", subchainInfo)
                         .withParameter("merge_bitmaps", mergeBitmaps)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
     @Override
     public StatusOnlyReturn destroy(String vmId) {
         JsonRpcRequest request = new RequestBuilder("VM.destroy").withParameter("vmID", vmId).build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -233,7 +236,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withOptionalParameter("delay", timeout)
                         .withOptionalParameter("message", message)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -245,21 +248,21 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withOptionalParameter("message", message)
                         .withParameter("reboot", reboot)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
     @Override
     public StatusOnlyReturn reset(String vmId) {
         JsonRpcRequest request = new RequestBuilder("VM.reset").withParameter("vmID", vmId).build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
     @Override
     public StatusOnlyReturn setDestroyOnReboot(String vmId) {
         JsonRpcRequest request = new RequestBuilder("VM.setDestroyOnReboot").withParameter("vmID", vmId).build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -269,7 +272,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                 new RequestBuilder("VM.hibernate").withParameter("vmID", vmId)
                         .withParameter("hibernationVolHandle", hiberVolHandle)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -277,7 +280,7 @@ public class JsonRpcVdsServer implements IVdsServer {
     public OneVmReturn resume(String vmId) {
         JsonRpcRequest request = new RequestBuilder("VM.cont").withParameter("vmID", vmId).build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withResponseKey("vmList");
+                new FutureMap(this.batcher, request).withResponseKey("vmList");
         return new OneVmReturn(response);
     }
 
@@ -287,7 +290,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                 new RequestBuilder("Host.getVMList").withOptionalParameterAsList("vmList",
                         new ArrayList<>(Arrays.asList(new String[]{}))).withParameter("onlyUUID", false).build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withResponseKey("vmList")
+                new FutureMap(this.batcher, request).withResponseKey("vmList")
                         .withResponseType(Object[].class);
         return new VMListReturn(response);
     }
@@ -297,7 +300,7 @@ public class JsonRpcVdsServer implements IVdsServer {
         JsonRpcRequest request =
                 new RequestBuilder("Host.getVMFullList").withOptionalParameterAsList("vmList", vmIds).build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withResponseKey("vmList")
+                new FutureMap(this.batcher, request).withResponseKey("vmList")
                         .withResponseType(Object[].class);
         return new VMListReturn(response);
     }
@@ -306,7 +309,7 @@ public class JsonRpcVdsServer implements IVdsServer {
     public VDSInfoReturn getCapabilities() {
         JsonRpcRequest request = new RequestBuilder("Host.getCapabilities").build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withResponseKey("info");
+                new FutureMap(this.batcher, request).withResponseKey("info");
         return new VDSInfoReturn(response);
     }
 
@@ -324,7 +327,7 @@ public class JsonRpcVdsServer implements IVdsServer {
     public VDSInfoReturn getHardwareInfo() {
         JsonRpcRequest request = new RequestBuilder("Host.getHardwareInfo").build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withResponseKey("info");
+                new FutureMap(this.batcher, request).withResponseKey("info");
         return new VDSInfoReturn(response);
     }
 
@@ -342,7 +345,7 @@ public class JsonRpcVdsServer implements IVdsServer {
     public VDSInfoReturn getVdsStats() {
         JsonRpcRequest request = new RequestBuilder("Host.getStats").build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withResponseKey("info");
+                new FutureMap(this.batcher, request).withResponseKey("info");
         return new VDSInfoReturn(response);
     }
 
@@ -360,7 +363,7 @@ public class JsonRpcVdsServer implements IVdsServer {
     public StatusOnlyReturn setMOMPolicyParameters(Map<String, Object> values) {
         JsonRpcRequest request =
                 new RequestBuilder("Host.setMOMPolicyParameters").withParameter("key_value_store", values).build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -372,7 +375,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("username", user)
                         .withParameter("password", password)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -382,7 +385,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                 new RequestBuilder("VM.desktopLogoff").withParameter("vmID", vmId)
                         .withParameter("force", force)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -390,7 +393,7 @@ public class JsonRpcVdsServer implements IVdsServer {
     public VMInfoListReturn getVmStats(String vmId) {
         JsonRpcRequest request = new RequestBuilder("VM.getStats").withParameter("vmID", vmId).build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withResponseKey("statsList");
+                new FutureMap(this.batcher, request).withResponseKey("statsList");
         return new VMInfoListReturn(response);
     }
 
@@ -398,7 +401,7 @@ public class JsonRpcVdsServer implements IVdsServer {
     public VMInfoListReturn getAllVmStats() {
         JsonRpcRequest request = new RequestBuilder("Host.getAllVmStats").build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withResponseKey("statsList")
+                new FutureMap(this.batcher, request).withResponseKey("statsList")
                         .withResponseType(Object[].class);
         return new VMInfoListReturn(response);
     }
@@ -411,7 +414,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("forceUpdate", forceUpdate)
                         .build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withResponseKey("info");
+                new FutureMap(this.batcher, request).withResponseKey("info");
         return new VmExternalDataReturn(response);
     }
 
@@ -419,7 +422,7 @@ public class JsonRpcVdsServer implements IVdsServer {
     public HostDevListReturn hostDevListByCaps() {
         JsonRpcRequest request = new RequestBuilder("Host.hostdevListByCaps").build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withResponseKey("deviceList");
+                new FutureMap(this.batcher, request).withResponseKey("deviceList");
         return new HostDevListReturn(response);
     }
 
@@ -429,14 +432,14 @@ public class JsonRpcVdsServer implements IVdsServer {
                 new RequestBuilder("VM.migrate").withParameter("vmID", getVmId(migrationInfo))
                         .withParameter("params", migrationInfo)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
     @Override
     public MigrateStatusReturn migrateStatus(String vmId) {
         JsonRpcRequest request = new RequestBuilder("VM.getMigrationStatus").withParameter("vmID", vmId).build();
-        Map<String, Object> response = new FutureMap(this.client, request).withResponseKey("response")
+        Map<String, Object> response = new FutureMap(this.batcher, request).withResponseKey("response")
                 .withResponseType(Long.class);
         return new MigrateStatusReturn(response);
     }
@@ -444,7 +447,7 @@ public class JsonRpcVdsServer implements IVdsServer {
     @Override
     public StatusOnlyReturn migrateCancel(String vmId) {
         JsonRpcRequest request = new RequestBuilder("VM.migrateCancel").withParameter("vmID", vmId).build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -454,7 +457,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                 .withParameter("driveSpec", imageLocation)
                 .build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withResponseKey("vmList");
+                new FutureMap(this.batcher, request).withResponseKey("vmList");
         return new OneVmReturn(response);
     }
 
@@ -464,7 +467,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                 .withParameter("driveSpec", driveSpec)
                 .build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withResponseKey("vmList");
+                new FutureMap(this.batcher, request).withResponseKey("vmList");
         return new OneVmReturn(response);
     }
 
@@ -481,7 +484,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withOptionalParameterAsList("nics", new ArrayList<>(Arrays.asList(nics)))
                         .withOptionalParameterAsMap("options", options)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -493,7 +496,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                 .withOptionalParameter("bond", bond)
                 .withOptionalParameterAsList("nics", new ArrayList<>(Arrays.asList(nics)))
                 .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -512,7 +515,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withOptionalParameterAsList("nics", new ArrayList<>(Arrays.asList(nics)))
                         .withOptionalParameterAsMap("options", options)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -555,7 +558,7 @@ public class JsonRpcVdsServer implements IVdsServer {
             if (isPolicyReset) {
                 updateHeartbeatPolicy(client.getClientRetryPolicy().clone(), false);
             }
-            return new FutureMap(client, request).withResponseKey("status");
+            return new FutureMap(batcher, request).withResponseKey("status");
         });
         FutureTask<Map<String, Object>> future = new FutureTask<Map<String, Object>>(callable) {
 
@@ -583,7 +586,7 @@ public class JsonRpcVdsServer implements IVdsServer {
     @Override
     public StatusOnlyReturn setSafeNetworkConfig() {
         JsonRpcRequest request = new RequestBuilder("Host.setSafeNetworkConfig").build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -609,7 +612,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withOptionalParameterAsMap("policy", fencingPolicy)
                         .build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withIgnoreResponseKey();
+                new FutureMap(this.batcher, request).withIgnoreResponseKey();
 
         return new FenceStatusReturn(response);
     }
@@ -624,7 +627,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("connectionParams", args)
                         .build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withResponseKey("statuslist")
+                new FutureMap(this.batcher, request).withResponseKey("statuslist")
                         .withResponseType(Object[].class);
         return new ServerConnectionStatusReturn(response);
     }
@@ -639,7 +642,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("connectionParams", args)
                         .build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withResponseKey("statuslist")
+                new FutureMap(this.batcher, request).withResponseKey("statuslist")
                         .withResponseType(Object[].class);
         return new ServerConnectionStatusReturn(response);
     }
@@ -663,7 +666,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withOptionalParameter("blockSize", blockSize)
                         .withParameter("maxHosts", maxHosts)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -673,7 +676,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                 new RequestBuilder("StorageDomain.format").withParameter("storagedomainID", sdUUID)
                         .withParameter("autoDetach", false)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -692,7 +695,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("masterVersion", masterVersion)
                         .withOptionalParameterAsMap("domainDict", storageDomains)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -703,7 +706,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("hostID", hostSpmId)
                         .withParameter("scsiKey", SCSIKey)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -732,7 +735,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("ioOpTimeoutSec", ioOpTimeoutSec)
                         .withParameter("leaseRetries", leaseRetries)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -761,7 +764,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("ioOpTimeoutSec", ioOpTimeoutSec)
                         .withParameter("leaseRetries", leaseRetries)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -770,7 +773,7 @@ public class JsonRpcVdsServer implements IVdsServer {
         JsonRpcRequest request =
                 new RequestBuilder("StorageDomain.getStats").withParameter("storagedomainID", sdUUID).build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withResponseKey("stats");
+                new FutureMap(this.batcher, request).withResponseKey("stats");
         return new OneStorageDomainStatsReturn(response);
     }
 
@@ -779,7 +782,7 @@ public class JsonRpcVdsServer implements IVdsServer {
         JsonRpcRequest request =
                 new RequestBuilder("StorageDomain.getInfo").withParameter("storagedomainID", sdUUID).build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withResponseKey("info");
+                new FutureMap(this.batcher, request).withResponseKey("info");
         return new OneStorageDomainInfoReturn(response);
     }
 
@@ -795,7 +798,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("remotePath", path)
                         .build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withResponseKey("domlist")
+                new FutureMap(this.batcher, request).withResponseKey("domlist")
                         .withResponseType(Object[].class);
         return new StorageDomainListReturn(response);
     }
@@ -808,7 +811,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("force", force)
                         .build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withResponseKey("uuid");
+                new FutureMap(this.batcher, request).withResponseKey("uuid");
         return new OneUuidReturn(response);
     }
 
@@ -817,7 +820,7 @@ public class JsonRpcVdsServer implements IVdsServer {
         JsonRpcRequest request =
                 new RequestBuilder("LVMVolumeGroup.getInfo").withParameter("lvmvolumegroupID", vgUUID).build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withResponseKey("info");
+                new FutureMap(this.batcher, request).withResponseKey("info");
         return new OneVGReturn(response);
     }
 
@@ -832,7 +835,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("checkStatus", checkStatus)
                         .build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withResponseType(Object[].class)
+                new FutureMap(this.batcher, request).withResponseType(Object[].class)
                         .withResponseKey("devList");
         return new LUNListReturn(response);
     }
@@ -843,7 +846,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                 new RequestBuilder("Host.getDevicesVisibility").withParameter("guidList",
                         new ArrayList<>(Arrays.asList(devicesList))).build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withResponseKey("visible");
+                new FutureMap(this.batcher, request).withResponseKey("visible");
         return new DevicesVisibilityMapReturn(response);
     }
 
@@ -856,7 +859,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withOptionalParameter("password", args.get("password"))
                         .withOptionalParameter("ipv6_enabled", args.get("ipv6_enabled"))
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request).withResponseKey("fullTargets");
+        Map<String, Object> response = new FutureMap(this.batcher, request).withResponseKey("fullTargets");
         return new IQNListReturn(response);
     }
 
@@ -878,7 +881,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withOptionalParameter("domVersion", storagePoolFormatType)
                         .build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withResponseKey("uuid")
+                new FutureMap(this.batcher, request).withResponseKey("uuid")
                         .withResponseType(String.class);
         return new OneUuidReturn(response);
     }
@@ -887,7 +890,7 @@ public class JsonRpcVdsServer implements IVdsServer {
     public StatusOnlyReturn spmStop(String spUUID) {
         JsonRpcRequest request =
                 new RequestBuilder("StoragePool.spmStop").withParameter("storagepoolID", spUUID).build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -896,7 +899,7 @@ public class JsonRpcVdsServer implements IVdsServer {
         JsonRpcRequest request =
                 new RequestBuilder("StoragePool.getSpmStatus").withParameter("storagepoolID", spUUID).build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withResponseKey("spm_st");
+                new FutureMap(this.batcher, request).withResponseKey("spm_st");
         return new SpmStatusReturn(response);
     }
 
@@ -905,7 +908,7 @@ public class JsonRpcVdsServer implements IVdsServer {
         JsonRpcRequest request = new RequestBuilder("Host.getJobs").withOptionalParameter("job_type", jobType).
                 withOptionalParameterAsList("job_ids", jobIds).build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withResponseKey("jobs");
+                new FutureMap(this.batcher, request).withResponseKey("jobs");
         return new HostJobsReturn(response);
     }
 
@@ -913,7 +916,7 @@ public class JsonRpcVdsServer implements IVdsServer {
     public TaskStatusReturn getTaskStatus(String taskUUID) {
         JsonRpcRequest request = new RequestBuilder("Task.getStatus").withParameter("taskID", taskUUID).build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withResponseKey("taskStatus");
+                new FutureMap(this.batcher, request).withResponseKey("taskStatus");
         return new TaskStatusReturn(response);
     }
 
@@ -921,7 +924,7 @@ public class JsonRpcVdsServer implements IVdsServer {
     public TaskStatusListReturn getAllTasksStatuses() {
         JsonRpcRequest request = new RequestBuilder("Host.getAllTasksStatuses").build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withResponseKey("allTasksStatus");
+                new FutureMap(this.batcher, request).withResponseKey("allTasksStatus");
         return new TaskStatusListReturn(response);
     }
 
@@ -929,28 +932,28 @@ public class JsonRpcVdsServer implements IVdsServer {
     public TaskInfoListReturn getAllTasksInfo() {
         JsonRpcRequest request = new RequestBuilder("Host.getAllTasksInfo").build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withResponseKey("allTasksInfo");
+                new FutureMap(this.batcher, request).withResponseKey("allTasksInfo");
         return new TaskInfoListReturn(response);
     }
 
     @Override
     public StatusOnlyReturn stopTask(String taskUUID) {
         JsonRpcRequest request = new RequestBuilder("Task.stop").withParameter("taskID", taskUUID).build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
     @Override
     public StatusOnlyReturn clearTask(String taskUUID) {
         JsonRpcRequest request = new RequestBuilder("Task.clear").withParameter("taskID", taskUUID).build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
     @Override
     public StatusOnlyReturn revertTask(String taskUUID) {
         JsonRpcRequest request = new RequestBuilder("Task.revert").withParameter("taskID", taskUUID).build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -962,7 +965,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("force", true)
                         .build();
         Map<String, Object> response =
-                new FutureMap(this.client, request);
+                new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -973,7 +976,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                 new RequestBuilder("VM.hotplugDisk").withParameter("vmID", getVmId(info))
                         .withParameter("params", info)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -984,7 +987,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                 new RequestBuilder("VM.hotunplugDisk").withParameter("vmID", getVmId(info))
                         .withParameter("params", info)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -995,7 +998,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                 new RequestBuilder("VM.hotplugNic").withParameter("vmID", getVmId(info))
                         .withParameter("params", info)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new VmInfoReturn(response);
     }
 
@@ -1006,7 +1009,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                 new RequestBuilder("VM.hotunplugNic").withParameter("vmID", getVmId(info))
                         .withParameter("params", info)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -1017,7 +1020,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                 new RequestBuilder("VM.updateDevice").withParameter("vmID", vmId)
                         .withParameter("params", device)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -1091,7 +1094,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("jobUUID", jobUUID)
                         .withParameter(timeoutType, timeout)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -1103,7 +1106,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("newSize", newSize)
                         .build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withResponseKey("size");
+                new FutureMap(this.batcher, request).withResponseKey("size");
         return new ImageSizeReturn(response);
     }
 
@@ -1118,7 +1121,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("bandwidth", bandwidth)
                         .withParameter("jobUUID", jobUUID)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -1140,7 +1143,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("arbiter", isArbiter)
                         .build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withIgnoreResponseKey();
+                new FutureMap(this.batcher, request).withIgnoreResponseKey();
         return new OneUuidReturn(response);
     }
 
@@ -1151,13 +1154,13 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("option", key)
                         .withParameter("value", value)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
     public GlusterVolumeGlobalOptionsInfoReturn glusterVolumeGlobalOptionsGet() {
         JsonRpcRequest request = new RequestBuilder("GlusterVolume.globalVolumeOptions").build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new GlusterVolumeGlobalOptionsInfoReturn(response);
     }
 
@@ -1167,7 +1170,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                 new RequestBuilder("GlusterVolume.start").withParameter("volumeName", volumeName)
                         .withParameter("force", force)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -1177,7 +1180,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                 new RequestBuilder("GlusterVolume.stop").withParameter("volumeName", volumeName)
                         .withParameter("force", force)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -1185,7 +1188,7 @@ public class JsonRpcVdsServer implements IVdsServer {
     public StatusOnlyReturn glusterVolumeDelete(String volumeName) {
         JsonRpcRequest request =
                 new RequestBuilder("GlusterVolume.delete").withParameter("volumeName", volumeName).build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -1196,7 +1199,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("option", volumeOption)
                         .withParameter("force", force)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -1204,7 +1207,7 @@ public class JsonRpcVdsServer implements IVdsServer {
     public GlusterVolumeOptionsInfoReturn glusterVolumeSetOptionsList() {
         JsonRpcRequest request = new RequestBuilder("GlusterVolume.setOptionsList").build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withIgnoreResponseKey();
+                new FutureMap(this.batcher, request).withIgnoreResponseKey();
         return new GlusterVolumeOptionsInfoReturn(response);
     }
 
@@ -1222,7 +1225,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("replicaCount", replicaCount)
                         .build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withIgnoreResponseKey();
+                new FutureMap(this.batcher, request).withIgnoreResponseKey();
         return new GlusterTaskInfoReturn(response);
     }
 
@@ -1235,7 +1238,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("brickList", new ArrayList<>(Arrays.asList(brickList)))
                         .withParameter("replicaCount", replicaCount)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new GlusterVolumeTaskReturn(response);
     }
 
@@ -1248,7 +1251,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("brickList", new ArrayList<>(Arrays.asList(brickList)))
                         .withParameter("replicaCount", replicaCount)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -1265,7 +1268,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("stripeCount", stripeCount)
                         .withParameter("force", force)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -1279,21 +1282,21 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("force", force)
                         .build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withIgnoreResponseKey();
+                new FutureMap(this.batcher, request).withIgnoreResponseKey();
         return new GlusterTaskInfoReturn(response);
     }
 
     @Override
     public BooleanReturn glusterVolumeEmptyCheck(String volumeName) {
         JsonRpcRequest request = new RequestBuilder("GlusterVolume.volumeEmptyCheck").withParameter("volumeName", volumeName).build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new BooleanReturn(response, "volumeEmptyCheck");
     }
 
     @Override
     public GlusterHostsPubKeyReturn glusterGeoRepKeysGet() {
         JsonRpcRequest request = new RequestBuilder("GlusterVolume.geoRepKeysGet").build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new GlusterHostsPubKeyReturn(response);
     }
 
@@ -1303,7 +1306,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                 new RequestBuilder("GlusterVolume.geoRepKeysUpdate")
                         .withParameter("geoRepPubKeys", geoRepPubKeys)
                         .withOptionalParameter("userName", userName).build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -1314,7 +1317,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("partial", partial)
                         .withOptionalParameter("remoteUserName", userName)
                         .withOptionalParameter("remoteGroupName", remoteGroupName).build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -1326,7 +1329,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                 .withParameter("remoteVolumeName", remotVolumeName)
                 .withParameter("force", force)
                 .withOptionalParameter("remoteUserName", userName).build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -1341,7 +1344,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("remoteVolumeName", slaveVolumeName)
                         .withOptionalParameter("remoteUserName", userName)
                         .withParameter("force", force).build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -1350,7 +1353,7 @@ public class JsonRpcVdsServer implements IVdsServer {
         JsonRpcRequest request =
                 new RequestBuilder("GlusterVolume.rebalanceStop").withParameter("volumeName", volumeName).build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withIgnoreResponseKey();
+                new FutureMap(this.batcher, request).withIgnoreResponseKey();
         return new GlusterVolumeTaskReturn(response);
     }
 
@@ -1363,7 +1366,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("existingBrick", existingBrickDir)
                         .withParameter("newBrick", newBrickDir)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -1373,14 +1376,14 @@ public class JsonRpcVdsServer implements IVdsServer {
                 new RequestBuilder("GlusterHost.remove").withParameter("hostName", hostName)
                         .withParameter("force", force)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
     @Override
     public StatusOnlyReturn glusterHostAdd(String hostName) {
         JsonRpcRequest request = new RequestBuilder("GlusterHost.add").withParameter("hostName", hostName).build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -1396,7 +1399,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                 .withOptionalParameter("remoteUserName", userName)
                 .build();
 
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -1414,7 +1417,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                 .withParameter("force", force)
                 .build();
 
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -1422,7 +1425,7 @@ public class JsonRpcVdsServer implements IVdsServer {
     public GlusterServersListReturn glusterServersList() {
         JsonRpcRequest request = new RequestBuilder("GlusterHost.list").build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withIgnoreResponseKey();
+                new FutureMap(this.batcher, request).withIgnoreResponseKey();
         return new GlusterServersListReturn(response);
     }
 
@@ -1437,7 +1440,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("dstDisk", dstDisk)
                         .withParameter("needExtend", needExtend)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -1450,7 +1453,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                 .withParameter("srcDisk", srcDisk)
                 .withParameter("dstDisk", dstDisk)
                 .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -1458,7 +1461,7 @@ public class JsonRpcVdsServer implements IVdsServer {
     public StatusOnlyReturn glusterVolumeProfileStart(String volumeName) {
         JsonRpcRequest request =
                 new RequestBuilder("GlusterVolume.profileStart").withParameter("volumeName", volumeName).build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -1466,7 +1469,7 @@ public class JsonRpcVdsServer implements IVdsServer {
     public StatusOnlyReturn glusterVolumeProfileStop(String volumeName) {
         JsonRpcRequest request =
                 new RequestBuilder("GlusterVolume.profileStop").withParameter("volumeName", volumeName).build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -1481,7 +1484,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("remoteVolumeName", slaveVolumeName)
                         .withOptionalParameter("remoteUserName", userName)
                         .withParameter("force", force).build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -1496,7 +1499,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("remoteVolumeName", remoteVolumeName)
                         .withOptionalParameter("remoteUserName", userName)
                         .withParameter("force", force).build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -1514,7 +1517,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                 .withParameter("optionName", configKey)
                 .withParameter("optionValue", configValue)
                 .withOptionalParameter("remoteUserName", userName).build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -1532,7 +1535,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                 .withOptionalParameter("remoteUserName", userName)
                 .build();
 
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -1547,7 +1550,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                 .withParameter("remoteVolumeName", slaveVolumeName)
                 .withOptionalParameter("remoteUserName", userName)
                 .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new GlusterVolumeGeoRepConfigList(response);
     }
 
@@ -1562,7 +1565,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("statusOption", volumeStatusOption)
                         .build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withIgnoreResponseKey();
+                new FutureMap(this.batcher, request).withIgnoreResponseKey();
         return new GlusterVolumeStatusReturn(clusterId, response);
     }
 
@@ -1570,7 +1573,7 @@ public class JsonRpcVdsServer implements IVdsServer {
     public GlusterLocalLogicalVolumeListReturn glusterLogicalVolumeList() {
         JsonRpcRequest request = new RequestBuilder("GlusterHost.logicalVolumeList").build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withIgnoreResponseKey();
+                new FutureMap(this.batcher, request).withIgnoreResponseKey();
         return new GlusterLocalLogicalVolumeListReturn(response);
     }
 
@@ -1578,14 +1581,14 @@ public class JsonRpcVdsServer implements IVdsServer {
     public GlusterLocalPhysicalVolumeListReturn glusterPhysicalVolumeList() {
         JsonRpcRequest request = new RequestBuilder("GlusterHost.physicalVolumeList").build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withIgnoreResponseKey();
+                new FutureMap(this.batcher, request).withIgnoreResponseKey();
         return new GlusterLocalPhysicalVolumeListReturn(response);
     }
 
     @Override public GlusterVDOVolumeListReturn glusterVDOVolumeList() {
         JsonRpcRequest request = new RequestBuilder("GlusterHost.vdoVolumeList").build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withIgnoreResponseKey();
+                new FutureMap(this.batcher, request).withIgnoreResponseKey();
         return new GlusterVDOVolumeListReturn(response);
     }
 
@@ -1593,7 +1596,7 @@ public class JsonRpcVdsServer implements IVdsServer {
     public GlusterVolumesListReturn glusterVolumesList(Guid clusterId) {
         JsonRpcRequest request = new RequestBuilder("GlusterVolume.list").build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withIgnoreResponseKey();
+                new FutureMap(this.batcher, request).withIgnoreResponseKey();
         return new GlusterVolumesListReturn(clusterId, response);
     }
 
@@ -1602,7 +1605,7 @@ public class JsonRpcVdsServer implements IVdsServer {
         JsonRpcRequest request =
                 new RequestBuilder("GlusterVolume.list").withParameter("volumeName", volumeName).build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withIgnoreResponseKey();
+                new FutureMap(this.batcher, request).withIgnoreResponseKey();
         return new GlusterVolumesListReturn(clusterId, response);
     }
 
@@ -1611,7 +1614,7 @@ public class JsonRpcVdsServer implements IVdsServer {
         JsonRpcRequest request =
                 new RequestBuilder("GlusterVolume.healInfo").withParameter("volumeName", volumeName).build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withIgnoreResponseKey();
+                new FutureMap(this.batcher, request).withIgnoreResponseKey();
         return new GlusterVolumesHealInfoReturn(response);
     }
 
@@ -1621,7 +1624,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                 new RequestBuilder("GlusterVolume.profileInfo").withParameter("volumeName", volumeName)
                 .withParameter("nfs", nfs).build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withIgnoreResponseKey();
+                new FutureMap(this.batcher, request).withIgnoreResponseKey();
         return new GlusterVolumeProfileInfoReturn(clusterId, response);
     }
 
@@ -1632,7 +1635,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("hookLevel", stage)
                         .withParameter("hookName", hookName)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -1643,7 +1646,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("hookLevel", stage)
                         .withParameter("hookName", hookName)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -1651,7 +1654,7 @@ public class JsonRpcVdsServer implements IVdsServer {
     public GlusterHooksListReturn glusterHooksList() {
         JsonRpcRequest request = new RequestBuilder("GlusterHook.list").build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withIgnoreResponseKey();
+                new FutureMap(this.batcher, request).withIgnoreResponseKey();
         return new GlusterHooksListReturn(response);
     }
 
@@ -1659,7 +1662,7 @@ public class JsonRpcVdsServer implements IVdsServer {
     public OneUuidReturn glusterHostUUIDGet() {
         JsonRpcRequest request = new RequestBuilder("GlusterHost.uuid").build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withIgnoreResponseKey();
+                new FutureMap(this.batcher, request).withIgnoreResponseKey();
         return new OneUuidReturn(response);
     }
 
@@ -1669,7 +1672,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                 new RequestBuilder("GlusterService.get").withParameter("serviceNames",
                         new ArrayList<>(Arrays.asList(serviceNames))).build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withIgnoreResponseKey();
+                new FutureMap(this.batcher, request).withIgnoreResponseKey();
         return new GlusterServicesReturn(serverId, response);
     }
 
@@ -1681,7 +1684,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("hookName", hookName)
                         .build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withIgnoreResponseKey();
+                new FutureMap(this.batcher, request).withIgnoreResponseKey();
         return new GlusterHookContentInfoReturn(response);
     }
 
@@ -1698,7 +1701,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("hookData", content)
                         .withParameter("hookChecksum", checksum)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -1717,7 +1720,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("hookChecksum", checksum)
                         .withParameter("enable", enabled)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -1728,7 +1731,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("hookLevel", stage)
                         .withParameter("hookName", hookName)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -1740,7 +1743,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("action", actionType)
                         .build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withIgnoreResponseKey();
+                new FutureMap(this.batcher, request).withIgnoreResponseKey();
         return new GlusterServicesReturn(serverId, response);
     }
 
@@ -1749,7 +1752,7 @@ public class JsonRpcVdsServer implements IVdsServer {
         JsonRpcRequest request =
                 new RequestBuilder("StoragePool.getInfo").withParameter("storagepoolID", spUUID).build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withIgnoreResponseKey();
+                new FutureMap(this.batcher, request).withIgnoreResponseKey();
         return new StoragePoolInfo(response);
     }
 
@@ -1757,7 +1760,7 @@ public class JsonRpcVdsServer implements IVdsServer {
     public GlusterTasksListReturn glusterTasksList() {
         JsonRpcRequest request = new RequestBuilder("GlusterTask.list").build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withIgnoreResponseKey();
+                new FutureMap(this.batcher, request).withIgnoreResponseKey();
         return new GlusterTasksListReturn(response);
     }
 
@@ -1766,14 +1769,14 @@ public class JsonRpcVdsServer implements IVdsServer {
         JsonRpcRequest request =
                 new RequestBuilder("GlusterVolume.rebalanceStatus").withParameter("volumeName", volumeName).build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withIgnoreResponseKey();
+                new FutureMap(this.batcher, request).withIgnoreResponseKey();
         return new GlusterVolumeTaskReturn(response);
     }
 
     @Override
     public GlusterVolumeGeoRepStatus glusterVolumeGeoRepSessionList() {
         JsonRpcRequest request = new RequestBuilder("GlusterVolume.geoRepSessionList").build();
-        Map<String, Object> response = new FutureMap(this.client, request).withIgnoreResponseKey();
+        Map<String, Object> response = new FutureMap(this.batcher, request).withIgnoreResponseKey();
         return new GlusterVolumeGeoRepStatus(response);
     }
 
@@ -1782,7 +1785,7 @@ public class JsonRpcVdsServer implements IVdsServer {
         JsonRpcRequest request = new RequestBuilder("GlusterVolume.geoRepSessionList")
                 .withParameter("volumeName", volumeName)
                     .build();
-        Map<String, Object> response = new FutureMap(this.client, request).withIgnoreResponseKey();
+        Map<String, Object> response = new FutureMap(this.batcher, request).withIgnoreResponseKey();
         return new GlusterVolumeGeoRepStatus(response);
     }
 
@@ -1796,7 +1799,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("remoteHost", slaveHost)
                         .withParameter("remoteVolumeName", slaveVolumeName)
                         .withOptionalParameter("remoteUserName", userName).build();
-        Map<String, Object> response = new FutureMap(this.client, request).withIgnoreResponseKey();
+        Map<String, Object> response = new FutureMap(this.batcher, request).withIgnoreResponseKey();
         return new GlusterVolumeGeoRepStatus(response);
     }
 
@@ -1810,7 +1813,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("remoteHost", slaveHost)
                         .withParameter("remoteVolumeName", slaveVolumeName)
                         .withOptionalParameter("remoteUserName", userName).build();
-        Map<String, Object> response = new FutureMap(this.client, request).withIgnoreResponseKey();
+        Map<String, Object> response = new FutureMap(this.batcher, request).withIgnoreResponseKey();
         return new GlusterVolumeGeoRepStatusDetail(response);
     }
 
@@ -1821,7 +1824,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("brickList", new ArrayList<>(Arrays.asList(bricksList)))
                         .build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withIgnoreResponseKey();
+                new FutureMap(this.batcher, request).withIgnoreResponseKey();
         return new GlusterVolumeTaskReturn(response);
     }
 
@@ -1832,7 +1835,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("numberOfCpus", numberOfCpus)
                         .build();
         Map<String, Object> response =
-                new FutureMap(this.client, request);
+                new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -1845,7 +1848,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("params", info)
                         .build();
         Map<String, Object> response =
-                new FutureMap(this.client, request);
+                new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -1857,7 +1860,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("params", params)
                         .build();
         Map<String, Object> response =
-                new FutureMap(this.client, request);
+                new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -1869,7 +1872,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("params", params)
                         .build();
         Map<String, Object> response =
-                new FutureMap(this.client, request);
+                new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -1880,7 +1883,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("enabled", enabled)
                         .build();
         Map<String, Object> response =
-                new FutureMap(this.client, request);
+                new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -1892,7 +1895,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("ticket", ticket.toDict())
                         .build();
         Map<String, Object> response =
-                new FutureMap(this.client, request);
+                new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -1903,7 +1906,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("uuid", ticketId)
                         .build();
         Map<String, Object> response =
-                new FutureMap(this.client, request);
+                new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
 
     }
@@ -1916,7 +1919,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("timeout", timeout)
                         .build();
         Map<String, Object> response =
-                new FutureMap(this.client, request);
+                new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -1926,7 +1929,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                 new RequestBuilder("Host.get_image_ticket")
                         .withParameter("uuid", ticketId)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request)
+        Map<String, Object> response = new FutureMap(this.batcher, request)
                 .withResponseKey("result");
         return new ImageTicketInformationReturn(response);
     }
@@ -1943,7 +1946,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("allowIllegal", allowIllegal)
                         .build();
         Map<String, Object> response =
-                new FutureMap(this.client, request);
+                new FutureMap(this.batcher, request);
         return new PrepareImageReturn(response);
     }
 
@@ -1957,7 +1960,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("leafVolID", volumeID)
                         .build();
         Map<String, Object> response =
-                new FutureMap(this.client, request);
+                new FutureMap(this.batcher, request);
         return new StatusReturn(response);
     }
 
@@ -1971,7 +1974,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("volumeID", volumeID)
                         .build();
         Map<String, Object> response =
-                new FutureMap(this.client, request);
+                new FutureMap(this.batcher, request);
         return new StatusReturn(response);
     }
 
@@ -1985,7 +1988,7 @@ public class JsonRpcVdsServer implements IVdsServer {
         JsonRpcRequest request = requestBuilder.build();
 
         Map<String, Object> response =
-                new FutureMap(this.client, request).withResponseKey("vmList")
+                new FutureMap(this.batcher, request).withResponseKey("vmList")
                         .withResponseType(Object[].class);
         return new VMListReturn(response);
     }
@@ -1999,7 +2002,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("password", password)
                         .build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withResponseKey("vmNames")
+                new FutureMap(this.batcher, request).withResponseKey("vmNames")
                         .withResponseType(Object[].class);
         return new VMNamesListReturn(response);
     }
@@ -2009,7 +2012,7 @@ public class JsonRpcVdsServer implements IVdsServer {
         JsonRpcRequest request =
                 new RequestBuilder("GlusterVolume.snapshotList").withOptionalParameter("volumeName", volumeName)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request).withIgnoreResponseKey();
+        Map<String, Object> response = new FutureMap(this.batcher, request).withIgnoreResponseKey();
         return new GlusterVolumeSnapshotInfoReturn(clusterId, response);
     }
 
@@ -2017,7 +2020,7 @@ public class JsonRpcVdsServer implements IVdsServer {
     public GlusterVolumeSnapshotConfigReturn glusterSnapshotConfigList(Guid clusterId) {
         JsonRpcRequest request =
                 new RequestBuilder("GlusterSnapshot.configList").build();
-        Map<String, Object> response = new FutureMap(this.client, request).withIgnoreResponseKey();
+        Map<String, Object> response = new FutureMap(this.batcher, request).withIgnoreResponseKey();
         return new GlusterVolumeSnapshotConfigReturn(clusterId, response);
     }
 
@@ -2027,7 +2030,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                 new RequestBuilder("GlusterSnapshot.delete").withOptionalParameter("snapName", snapshotName)
                         .build();
         Map<String, Object> response =
-                new FutureMap(this.client, request);
+                new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -2036,7 +2039,7 @@ public class JsonRpcVdsServer implements IVdsServer {
         JsonRpcRequest request =
                 new RequestBuilder("GlusterVolume.snapshotDeleteAll").withParameter("volumeName", volumeName)
                     .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -2047,7 +2050,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("force", force)
                         .build();
         Map<String, Object> response =
-                new FutureMap(this.client, request);
+                new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -2057,7 +2060,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                 new RequestBuilder("GlusterSnapshot.deactivate").withParameter("snapName", snapshotName)
                         .build();
         Map<String, Object> response =
-                new FutureMap(this.client, request);
+                new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -2066,7 +2069,7 @@ public class JsonRpcVdsServer implements IVdsServer {
         JsonRpcRequest request =
                 new RequestBuilder("GlusterSnapshot.restore").withParameter("snapName", snapshotName)
                     .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -2082,7 +2085,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("force", force)
                         .build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withIgnoreResponseKey();
+                new FutureMap(this.batcher, request).withIgnoreResponseKey();
         return new GlusterVolumeSnapshotCreateReturn(response);
     }
 
@@ -2094,7 +2097,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("optionValue", configValue)
                         .build();
 
-        Map<String, Object> response = new FutureMap(this.client, request).withIgnoreResponseKey();
+        Map<String, Object> response = new FutureMap(this.batcher, request).withIgnoreResponseKey();
         return new StatusOnlyReturn(response);
     }
 
@@ -2105,14 +2108,14 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("optionValue", configValue)
                         .build();
 
-        Map<String, Object> response = new FutureMap(this.client, request).withIgnoreResponseKey();
+        Map<String, Object> response = new FutureMap(this.batcher, request).withIgnoreResponseKey();
         return new StatusOnlyReturn(response);
     }
 
     @Override
     public StorageDeviceListReturn glusterStorageDeviceList() {
         JsonRpcRequest request = new RequestBuilder("GlusterHost.storageDevicesList").build();
-        Map<String, Object> response = new FutureMap(this.client, request).withIgnoreResponseKey();
+        Map<String, Object> response = new FutureMap(this.batcher, request).withIgnoreResponseKey();
         return new StorageDeviceListReturn(response);
     }
 
@@ -2127,7 +2130,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                 .withParameter("fsType", fsType)
                 .withOptionalParameterAsMap("raidParams", raidParams).build();
 
-        Map<String, Object> response = new FutureMap(this.client, request).withIgnoreResponseKey();
+        Map<String, Object> response = new FutureMap(this.batcher, request).withIgnoreResponseKey();
         return new OneStorageDeviceReturn(response);
     }
 
@@ -2137,7 +2140,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                 new RequestBuilder("Host.hostdevChangeNumvfs").withParameter("deviceName", deviceName)
                         .withParameter("numvfs", numOfVfs)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -2155,7 +2158,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                 .withParameter("vminfo", vm)
                 .withParameter("jobid", jobUUID)
                 .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -2167,7 +2170,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                 .withParameter("vminfo", vm)
                 .withParameter("jobid", jobUUID)
                 .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -2178,7 +2181,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                 .withParameter("jobid", jobUUID)
                 .build();
         Map<String, Object> response =
-                new FutureMap(this.client, request)
+                new FutureMap(this.batcher, request)
                 .withResponseKey("ovf")
                 .withResponseType(String.class);
         return new OvfReturn(response);
@@ -2190,7 +2193,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                 new RequestBuilder("Host.deleteV2VJob")
                 .withParameter("jobid", jobUUID)
                 .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -2200,7 +2203,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                 new RequestBuilder("Host.abortV2VJob")
                 .withParameter("jobid", jobUUID)
                 .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -2209,7 +2212,7 @@ public class JsonRpcVdsServer implements IVdsServer {
         JsonRpcRequest request =
                 new RequestBuilder("GlusterVolume.snapshotScheduleOverride").withParameter("force", force).build();
 
-        Map<String, Object> response = new FutureMap(this.client, request).withIgnoreResponseKey();
+        Map<String, Object> response = new FutureMap(this.batcher, request).withIgnoreResponseKey();
         return new StatusOnlyReturn(response);
     }
 
@@ -2218,7 +2221,7 @@ public class JsonRpcVdsServer implements IVdsServer {
         JsonRpcRequest request =
                 new RequestBuilder("GlusterVolume.snapshotScheduleReset").build();
 
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -2228,7 +2231,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                 new RequestBuilder("Host.registerSecrets").withParameter("secrets", libvirtSecrets)
                         .withParameter("clear", clearUnusedSecrets)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -2237,7 +2240,7 @@ public class JsonRpcVdsServer implements IVdsServer {
         JsonRpcRequest request =
                 new RequestBuilder("Host.unregisterSecrets").withParameter("uuids", libvirtSecretsUuids)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -2246,7 +2249,7 @@ public class JsonRpcVdsServer implements IVdsServer {
         JsonRpcRequest request =
                 new RequestBuilder("VM.freeze").withParameter("vmID", vmId)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -2255,7 +2258,7 @@ public class JsonRpcVdsServer implements IVdsServer {
         JsonRpcRequest request =
                 new RequestBuilder("VM.thaw").withParameter("vmID", vmId)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -2266,7 +2269,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("vmID", vmId)
                         .withParameter("config", backupConfig)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request).withIgnoreResponseKey();
+        Map<String, Object> response = new FutureMap(this.batcher, request).withIgnoreResponseKey();
         return new VmBackupInfo(response);
     }
 
@@ -2277,7 +2280,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("vmID", vmId)
                         .withParameter("backup_id", backupId)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -2289,7 +2292,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("backup_id", backupId)
                         .withParameter("checkpoint_id", checkpointId)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request).withIgnoreResponseKey();
+        Map<String, Object> response = new FutureMap(this.batcher, request).withIgnoreResponseKey();
         return new VmBackupInfo(response);
     }
 
@@ -2300,7 +2303,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("vmID", vmId)
                         .withParameter("checkpoints", checkpoints)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request).withIgnoreResponseKey();
+        Map<String, Object> response = new FutureMap(this.batcher, request).withIgnoreResponseKey();
         return new VmCheckpointIds(response);
     }
 
@@ -2311,7 +2314,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("vmID", vmId)
                         .withParameter("checkpoint_ids", checkpointIds)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request).withIgnoreResponseKey();
+        Map<String, Object> response = new FutureMap(this.batcher, request).withIgnoreResponseKey();
         return new VmCheckpointIds(response);
     }
 
@@ -2321,7 +2324,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                 new RequestBuilder("VM.list_checkpoints")
                         .withParameter("vmID", vmId)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request).withResponseKey("uuidlist")
+        Map<String, Object> response = new FutureMap(this.batcher, request).withResponseKey("uuidlist")
                 .withResponseType(Object[].class);
         return new UUIDListReturn(response);
     }
@@ -2334,7 +2337,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("vol_info", volInfo)
                         .withParameter("bitmap", bitmapName)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -2346,7 +2349,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("vol_info", volInfo)
                         .withParameter("bitmap", bitmapName)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -2357,7 +2360,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("job_id", jobId)
                         .withParameter("vol_info", volInfo)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -2368,7 +2371,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("server_id", serverId)
                         .withParameter("config", nbdServerConfig)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new NbdServerURLReturn(response);
     }
 
@@ -2378,7 +2381,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                 new RequestBuilder("NBD.stop_server")
                         .withParameter("server_id", serverId)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -2391,7 +2394,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("dstImageID", dstImageID)
                         .withParameter("volumeID", volumeID).build();
         Map<String, Object> response =
-                new FutureMap(this.client, request);
+                new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -2404,7 +2407,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                 .withParameter("volumeID", volUUID)
                         .build();
         Map<String, Object> response =
-                new FutureMap(this.client, request);
+                new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -2415,7 +2418,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("ova_path", ovaPath)
                         .build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withResponseKey("vmList")
+                new FutureMap(this.batcher, request).withResponseKey("vmList")
                 .withResponseType(Object[].class);
         return new OneVmReturn(response);
     }
@@ -2429,7 +2432,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("imageID", imgUUID)
                         .withParameter("volumeID", volUUID)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -2442,7 +2445,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("imageID", imgUUID)
                         .withParameter("volumeID", volUUID)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new VolumeInfoReturn(response);
     }
 
@@ -2462,7 +2465,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("dstVolFormat", dstVolFormat)
                         .withParameter("backing_chain", withBacking)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new MeasureReturn(response);
     }
 
@@ -2475,7 +2478,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("imageID", imgUUID)
                         .withParameter("volumeID", volUUID)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new QemuImageInfoReturn(response);
     }
 
@@ -2483,7 +2486,7 @@ public class JsonRpcVdsServer implements IVdsServer {
     public StatusOnlyReturn glusterStopProcesses() {
         JsonRpcRequest request =
                 new RequestBuilder("GlusterHost.processesStop").build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -2494,7 +2497,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("job_id", jobId)
                         .withParameter("vol_info", volumeAddress)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -2506,7 +2509,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("vol_info", volInfo)
                         .withParameter("qcow2_attr", qcow2_attr)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -2519,7 +2522,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("sp_id", storagePoolId)
                         .withOptionalParameterAsList("images", images)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -2528,7 +2531,7 @@ public class JsonRpcVdsServer implements IVdsServer {
         JsonRpcRequest request =
                 new RequestBuilder("Host.dumpxmls").withOptionalParameterAsList("vmList", vmIds).build();
         Map<String, Object> response =
-                new FutureMap(this.client, request).withResponseKey("domxmls")
+                new FutureMap(this.batcher, request).withResponseKey("domxmls")
                         .withResponseType(Object[].class);
         return new DomainXmlListReturn(response);
     }
@@ -2539,7 +2542,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                 new RequestBuilder("VM.hotplugLease").withParameter("vmID", vmId.toString())
                         .withParameter("lease", createLeaseDict(vmId, storageDomainId))
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -2550,7 +2553,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                 .withParameter("url", url)
                 .withParameter("bearerToken", bearerToken)
                 .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -2560,7 +2563,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                 new RequestBuilder("VM.hotunplugLease").withParameter("vmID", vmId.toString())
                         .withParameter("lease", createLeaseDict(vmId, storageDomainId))
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -2568,7 +2571,7 @@ public class JsonRpcVdsServer implements IVdsServer {
     public StatusOnlyReturn glusterWebhookSync() {
         JsonRpcRequest request =
                 new RequestBuilder("GlusterEvent.webhookSync").build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -2587,7 +2590,7 @@ public class JsonRpcVdsServer implements IVdsServer {
 
         JsonRpcRequest request = new RequestBuilder("Host.getLldp")
                 .withParameter("filter", filter).build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new LldpReturn(response);
     }
 
@@ -2597,7 +2600,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                 new RequestBuilder("GlusterEvent.webhookDelete")
                 .withParameter("url", url)
                 .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -2608,7 +2611,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                 .withParameter("url", url)
                 .withParameter("bearerToken", bearerToken)
                 .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -2619,7 +2622,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                 new RequestBuilder("GlusterVolume.resetBrickStart").withParameter("volumeName", volumeName)
                         .withParameter("existingBrick", existingBrickDir)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -2630,7 +2633,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                 new RequestBuilder("GlusterVolume.resetBrickCommitForce").withParameter("volumeName", volumeName)
                         .withParameter("existingBrick", existingBrickDir)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -2642,7 +2645,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("connection_info", connectionInfo)
                         .withParameter("sd_id", sdUUID.toString())
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new DeviceInfoReturn(response);
     }
 
@@ -2653,7 +2656,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("vol_id", volumeId.toString())
                         .withParameter("sd_id", sdUUID.toString())
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -2667,7 +2670,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                 new RequestBuilder("Lease.status")
                         .withParameter("lease", leaseDict)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new VDSInfoReturn(response);
     }
 
@@ -2683,7 +2686,7 @@ public class JsonRpcVdsServer implements IVdsServer {
                         .withParameter("lease", leaseDict)
                         .withParameter("metadata", leaseMetadata)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request);
+        Map<String, Object> response = new FutureMap(this.batcher, request);
         return new StatusOnlyReturn(response);
     }
 
@@ -2692,7 +2695,7 @@ public class JsonRpcVdsServer implements IVdsServer {
         JsonRpcRequest request =
                 new RequestBuilder("VM.screenshot").withParameter("vmID", vmId)
                         .build();
-        Map<String, Object> response = new FutureMap(this.client, request).withIgnoreResponseKey();
+        Map<String, Object> response = new FutureMap(this.batcher, request).withIgnoreResponseKey();
         return new ScreenshotInfoReturn(response);
     }
 }
@@ -0,0 +1,187 @@
+package org.ovirt.engine.core.vdsbroker.libvirt;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.ovirt.engine.core.uutils.xml.SecureXMLInputFactory;
+import org.ovirt.engine.core.vdsbroker.builder.vminfo.LibvirtVmXmlBuilder;
+
+/**
+ * The parts of a libvirt domain XML which are converted by {@link VmConverter} and {@link VmDevicesConverter}, read in
+ * a single streaming pass.
+ * <p>
+ * Only the general elements of the domain which are needed by the converters, the devices and the oVirt metadata of
+ * the VM are kept, the other subtrees (e.g. cputune, features or numatune) are skipped without being built, and the
+ * elements are then selected without evaluating XPath expressions.
+ * </p>
+ */
+public class DomainXml {
+
+    private static final String DEVICES = "devices";
+    private static final String METADATA = "metadata";
+    private static final String OVIRT_VM = "vm";
+    private static final Set<String> DOMAIN_ELEMENTS = new HashSet<>(Arrays.asList(
+            "name", "uuid", "cpu", "vcpu", "memory", "maxMemory", "os"));
+
+    private static final XMLInputFactory xmlInputFactory = SecureXMLInputFactory.newXMLInputFactory();
+
+    private final Map<String, DomainXmlElement> domainElements = new HashMap<>();
+    private final Map<String, List<DomainXmlElement>> devices = new HashMap<>();
+    private DomainXmlElement ovirtVmMetadata;
+
+    private DomainXml() {
+    }
+
+    public static DomainXml parse(String xml) throws XMLStreamException {
+        XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(new StringReader(xml));
+        try {
+            DomainXml domainXml = new DomainXml();
+            reader.nextTag();
+            while (nextChildElement(reader)) {
+                domainXml.readDomainChild(reader);
+            }
+            return domainXml;
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Returns the first general element of the domain of the given name, e.g. name, memory or os, or {@code null} if
+     * there is none.
+     */
+    public DomainXmlElement getDomainElement(String name) {
+        return domainElements.get(name);
+    }
+
+    /**
+     * Returns the devices of the given element name, in their order in the domain XML.
+     */
+    public List<DomainXmlElement> getDevices(String name) {
+        return devices.getOrDefault(name, Collections.emptyList());
+    }
+
+    /**
+     * Returns the first device of the given element name, or {@code null} if there is none.
+     */
+    public DomainXmlElement getDevice(String name) {
+        List<DomainXmlElement> elements = getDevices(name);
+        return elements.isEmpty() ? null : elements.get(0);
+    }
+
+    /**
+     * Returns the vm element of the oVirt namespace within the metadata of the domain, or {@code null} if there is
+     * none.
+     */
+    public DomainXmlElement getOvirtVmMetadata() {
+        return ovirtVmMetadata;
+    }
+
+    private void readDomainChild(XMLStreamReader reader) throws XMLStreamException {
+        String name = reader.getLocalName();
+        if (DEVICES.equals(name)) {
+            while (nextChildElement(reader)) {
+                DomainXmlElement device = readElement(reader);
+                devices.computeIfAbsent(device.getName(), k -> new ArrayList<>()).add(device);
+            }
+        } else if (METADATA.equals(name)) {
+            while (nextChildElement(reader)) {
+                if (ovirtVmMetadata == null && OVIRT_VM.equals(reader.getLocalName())
+                        && LibvirtVmXmlBuilder.OVIRT_VM_URI.equals(reader.getNamespaceURI())) {
+                    ovirtVmMetadata = readElement(reader);
+                } else {
+                    skipElement(reader);
+                }
+            }
+        } else if (DOMAIN_ELEMENTS.contains(name) && !domainElements.containsKey(name)) {
+            domainElements.put(name, readElement(reader));
+        } else {
+            skipElement(reader);
+        }
+    }
+
+    /**
+     * Moves the reader, positioned on the start of an element or on the end of one of its children, to the start of
+     * the next child element. Returns {@code false} when the reader reached the end of the element instead.
+     */
+    private static boolean nextChildElement(XMLStreamReader reader) throws XMLStreamException {
+        while (true) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    return true;
+                case XMLStreamConstants.END_ELEMENT:
+                case XMLStreamConstants.END_DOCUMENT:
+                    return false;
+                default:
+                    // text, comments and processing instructions between the elements
+            }
+        }
+    }
+
+    private static DomainXmlElement readElement(XMLStreamReader reader) throws XMLStreamException {
+        String name = reader.getLocalName();
+        Map<String, String> attributes;
+        int attributeCount = reader.getAttributeCount();
+        if (attributeCount == 0) {
+            attributes = Collections.emptyMap();
+        } else {
+            attributes = new HashMap<>(attributeCount * 2);
+            for (int i = 0; i < attributeCount; i++) {
+                attributes.put(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+            }
+        }
+
+        List<DomainXmlElement> children = Collections.emptyList();
+        StringBuilder text = null;
+        while (true) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    if (children.isEmpty()) {
+                        children = new ArrayList<>();
+                    }
+                    children.add(readElement(reader));
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    if (text == null) {
+                        text = new StringBuilder();
+                    }
+                    text.append(reader.getText());
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    return new DomainXmlElement(name, attributes, children, text != null ? text.toString() : "");
+                default:
+                    // comments and processing instructions within the element
+            }
+        }
+    }
+
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    depth++;
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    depth--;
+                    break;
+                default:
+                    // the content of the skipped element
+            }
+        }
+    }
+}
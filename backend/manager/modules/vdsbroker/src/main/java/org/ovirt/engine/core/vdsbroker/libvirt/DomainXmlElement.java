@@ -0,0 +1,64 @@
+package org.ovirt.engine.core.vdsbroker.libvirt;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * An element of a libvirt domain XML, as read by {@link DomainXml}. The attributes and the elements are accessed by
+ * their local names.
+ */
+public class DomainXmlElement {
+
+    private final String name;
+    private final Map<String, String> attributes;
+    private final List<DomainXmlElement> children;
+    private final String text;
+
+    DomainXmlElement(String name, Map<String, String> attributes, List<DomainXmlElement> children, String text) {
+        this.name = name;
+        this.attributes = attributes;
+        this.children = children;
+        this.text = text;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getAttribute(String attribute) {
+        return attributes.get(attribute);
+    }
+
+    /**
+     * Returns the first child element of the given name, or {@code null} if there is none.
+     */
+    public DomainXmlElement getChild(String childName) {
+        for (DomainXmlElement child : children) {
+            if (child.name.equals(childName)) {
+                return child;
+            }
+        }
+        return null;
+    }
+
+    public List<DomainXmlElement> getChildren(String childName) {
+        if (children.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return children.stream().filter(child -> child.name.equals(childName)).collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the text of the element, not including the text of its child elements.
+     */
+    public String getText() {
+        return text;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
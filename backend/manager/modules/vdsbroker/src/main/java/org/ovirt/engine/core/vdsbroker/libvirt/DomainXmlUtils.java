@@ -7,8 +7,6 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
-import org.ovirt.engine.core.utils.ovf.xml.XmlAttribute;
-import org.ovirt.engine.core.utils.ovf.xml.XmlNode;
 import org.ovirt.engine.core.vdsbroker.vdsbroker.VdsProperties;
 
 public class DomainXmlUtils {
@@ -17,102 +15,101 @@ public class DomainXmlUtils {
     private static final List<String> ADDRESS_PROPERTIES = Arrays.asList(
             "type", "slot", "bus", "domain", "function", "controller", "target", "unit", "port", "multifunction", "base");
 
-    public static String parseMacAddress(XmlNode node) {
-        XmlNode macNode = node.selectSingleNode("mac");
-        return macNode.attributes.get("address").getValue();
+    public static String parseMacAddress(DomainXmlElement node) {
+        DomainXmlElement macNode = node.getChild("mac");
+        return macNode.getAttribute("address");
     }
 
-    public static String parseVideoType(XmlNode node) {
-        XmlNode videoModelNode = node.selectSingleNode("model");
-        return videoModelNode.attributes.get("type").getValue();
+    public static String parseVideoType(DomainXmlElement node) {
+        DomainXmlElement videoModelNode = node.getChild("model");
+        return videoModelNode.getAttribute("type");
     }
 
-    public static String parseAddress(XmlNode node) {
-        XmlNode addressNode = node.selectSingleNode("address");
+    public static String parseAddress(DomainXmlElement node) {
+        DomainXmlElement addressNode = node.getChild("address");
         if (addressNode == null) {
             return "";
         }
         String result = ADDRESS_PROPERTIES.stream()
                 .map(property -> {
-                    XmlAttribute val = addressNode.attributes.get(property);
-                    return val != null ? String.format("%s=%s", property, val.getValue()) : null;
+                    String val = addressNode.getAttribute(property);
+                    return val != null ? String.format("%s=%s", property, val) : null;
                 })
                 .filter(Objects::nonNull)
                 .collect(Collectors.joining(", "));
         return result.isEmpty() ? result : String.format("{%s}", result);
     }
 
-    public static Integer parseIoThreadId(XmlNode node) {
-        XmlNode driverNode = node.selectSingleNode("driver");
+    public static Integer parseIoThreadId(DomainXmlElement node) {
+        DomainXmlElement driverNode = node.getChild("driver");
         if (driverNode == null) {
             return null;
         }
 
-        XmlAttribute val = driverNode.attributes.get("iothread");
-        return val != null ? Integer.valueOf(val.getValue()) : null;
+        String val = driverNode.getAttribute("iothread");
+        return val != null ? Integer.valueOf(val) : null;
     }
 
-    public static String parseAttribute(XmlNode node, String attribute) {
-        XmlAttribute xmlAttribute = node.attributes.get(attribute);
-        return xmlAttribute != null ? xmlAttribute.getValue() : null;
+    public static String parseAttribute(DomainXmlElement node, String attribute) {
+        return node.getAttribute(attribute);
     }
 
-    public static String parseDiskPath(XmlNode node) {
-        XmlNode sourceNode = node.selectSingleNode("source");
+    public static String parseDiskPath(DomainXmlElement node) {
+        DomainXmlElement sourceNode = node.getChild("source");
         if (sourceNode == null) {
             return "";
         }
-        XmlAttribute attr = sourceNode.attributes.get("file");
+        String attr = sourceNode.getAttribute("file");
         if (attr != null) {
-            return attr.getValue();
+            return attr;
         }
-        attr = sourceNode.attributes.get("dev");
+        attr = sourceNode.getAttribute("dev");
         if (attr != null) {
-            return attr.getValue();
+            return attr;
         }
-        attr = sourceNode.attributes.get("name");
+        attr = sourceNode.getAttribute("name");
         if (attr != null) {
-            return attr.getValue();
+            return attr;
         }
         return "";
     }
 
-    public static String parseMemSize(XmlNode node) {
+    public static String parseMemSize(DomainXmlElement node) {
         return node != null ?
-                Integer.toString(Integer.parseInt(node.innerText) / 1024)
+                Integer.toString(Integer.parseInt(node.getText()) / 1024)
                 : "1024"; // should never get here, memory should be set
     }
 
-    public static Map<String, String> parseMaxMemSize(XmlNode node) {
+    public static Map<String, String> parseMaxMemSize(DomainXmlElement node) {
         return node != null ?
                 Collections.singletonMap(
                         VdsProperties.maxMemSize,
-                        Integer.toString(Integer.parseInt(node.innerText) / 1024))
+                        Integer.toString(Integer.parseInt(node.getText()) / 1024))
                 : Collections.emptyMap();
     }
 
-    public static String parseNicNetwork(XmlNode node) {
-        XmlNode videoModelNode = node.selectSingleNode("source");
-        return videoModelNode.attributes.get("bridge").getValue();
+    public static String parseNicNetwork(DomainXmlElement node) {
+        DomainXmlElement videoModelNode = node.getChild("source");
+        return videoModelNode.getAttribute("bridge");
     }
 
-    public static String parseNicType(XmlNode node) {
-        XmlNode videoModelNode = node.selectSingleNode("model");
-        return videoModelNode.attributes.get("type").getValue();
+    public static String parseNicType(DomainXmlElement node) {
+        DomainXmlElement videoModelNode = node.getChild("model");
+        return videoModelNode.getAttribute("type");
     }
 
-    public static String parseDiskDriver(XmlNode node) {
-        XmlNode videoModelNode = node.selectSingleNode("driver");
-        return videoModelNode.attributes.get("type").getValue();
+    public static String parseDiskDriver(DomainXmlElement node) {
+        DomainXmlElement videoModelNode = node.getChild("driver");
+        return videoModelNode.getAttribute("type");
     }
 
-    public static String parseDiskBus(XmlNode node) {
-        XmlNode videoModelNode = node.selectSingleNode("target");
-        return videoModelNode.attributes.get("bus").getValue();
+    public static String parseDiskBus(DomainXmlElement node) {
+        DomainXmlElement videoModelNode = node.getChild("target");
+        return videoModelNode.getAttribute("bus");
     }
 
-    public static String parseEmulatedMachine(XmlNode node) {
-        XmlNode osTypeNode = node.selectSingleNode("type");
-        return osTypeNode.attributes.get("machine").getValue();
+    public static String parseEmulatedMachine(DomainXmlElement node) {
+        DomainXmlElement osTypeNode = node.getChild("type");
+        return osTypeNode.getAttribute("machine");
     }
 }
@@ -15,8 +15,6 @@ import org.ovirt.engine.core.common.businessentities.VmDeviceGeneralType;
 import org.ovirt.engine.core.common.utils.ValidationUtils;
 import org.ovirt.engine.core.common.utils.VmDeviceType;
 import org.ovirt.engine.core.compat.Guid;
-import org.ovirt.engine.core.utils.ovf.xml.XmlDocument;
-import org.ovirt.engine.core.utils.ovf.xml.XmlNode;
 import org.ovirt.engine.core.vdsbroker.vdsbroker.VdsProperties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,38 +27,36 @@ public class VmConverter {
     @SuppressWarnings("unchecked")
     public Map<String, Object> convert(Guid vmId, String xml) throws Exception {
         Map<String, Object> result = new HashMap<>();
-        XmlDocument domainxml = new XmlDocument(xml);
-        XmlNode domain = domainxml.selectSingleNode("domain");
+        DomainXml domain = DomainXml.parse(xml);
         result.putAll(extractCoreGeneralInfo(domain));
         result.putAll(extractCoreDevices(domain));
         result.putAll(retrieveDefaultDisplayType((Map<String, Object>[]) result.get(VdsProperties.Devices)));
         return result;
     }
 
-    private Map<String, Object> extractCoreGeneralInfo(XmlNode domain) {
+    private Map<String, Object> extractCoreGeneralInfo(DomainXml domain) {
         Map<String, Object> info = new HashMap<>();
-        info.put(VdsProperties.vm_name, domain.selectSingleNode("name").innerText);
-        info.put(VdsProperties.vm_guid, domain.selectSingleNode("uuid").innerText);
-        XmlNode cpusTopology = domain.selectSingleNode("cpu").selectSingleNode("topology");
+        info.put(VdsProperties.vm_name, domain.getDomainElement("name").getText());
+        info.put(VdsProperties.vm_guid, domain.getDomainElement("uuid").getText());
+        DomainXmlElement cpusTopology = domain.getDomainElement("cpu").getChild("topology");
         if (cpusTopology != null) {
-            info.put(VdsProperties.num_of_cpus, cpusTopology.attributes.get("sockets").innerText);
+            info.put(VdsProperties.num_of_cpus, cpusTopology.getAttribute("sockets"));
         } else { // fallback when no topology is specified (ignoring offline CPUs)
-            info.put(VdsProperties.num_of_cpus, domain.selectSingleNode("vcpu").innerText);
+            info.put(VdsProperties.num_of_cpus, domain.getDomainElement("vcpu").getText());
         }
-        info.put(VdsProperties.mem_size_mb, DomainXmlUtils.parseMemSize(domain.selectSingleNode("memory")));
-        info.putAll(DomainXmlUtils.parseMaxMemSize(domain.selectSingleNode("maxMemory")));
-        info.put(VdsProperties.emulatedMachine, DomainXmlUtils.parseEmulatedMachine(domain.selectSingleNode("os")));
+        info.put(VdsProperties.mem_size_mb, DomainXmlUtils.parseMemSize(domain.getDomainElement("memory")));
+        info.putAll(DomainXmlUtils.parseMaxMemSize(domain.getDomainElement("maxMemory")));
+        info.put(VdsProperties.emulatedMachine, DomainXmlUtils.parseEmulatedMachine(domain.getDomainElement("os")));
         return info;
     }
 
-    private Map<String, Object> extractCoreDevices(XmlNode domain) {
+    private Map<String, Object> extractCoreDevices(DomainXml domain) {
         List<Map<String, Object>> result = new ArrayList<>();
-        XmlNode devicesNode = domain.selectSingleNode("devices");
-        devicesNode.selectNodes("console").forEach(dev -> result.add(parseConsole(dev)));
-        devicesNode.selectNodes("video").forEach(dev -> result.add(parseVideo(dev)));
-        devicesNode.selectNodes("graphics").forEach(dev -> result.add(parseGraphics(dev)));
-        devicesNode.selectNodes("interface").forEach(dev -> result.add(parseInterface(dev)));
-        devicesNode.selectNodes("disk").forEach(dev -> result.add(parseDisk(dev)));
+        domain.getDevices("console").forEach(dev -> result.add(parseConsole(dev)));
+        domain.getDevices("video").forEach(dev -> result.add(parseVideo(dev)));
+        domain.getDevices("graphics").forEach(dev -> result.add(parseGraphics(dev)));
+        domain.getDevices("interface").forEach(dev -> result.add(parseInterface(dev)));
+        domain.getDevices("disk").forEach(dev -> result.add(parseDisk(dev)));
         return Collections.singletonMap(
                 VdsProperties.Devices,
                 result.stream().filter(Objects::nonNull).toArray(Map[]::new));
@@ -75,7 +71,7 @@ public class VmConverter {
         return Collections.emptyMap();
     }
 
-    private Map<String, Object> parseConsole(XmlNode dev) {
+    private Map<String, Object> parseConsole(DomainXmlElement dev) {
         Map<String, Object> device = new HashMap<>();
         device.put(VdsProperties.Device, VmDeviceType.CONSOLE.getName());
         device.put(VdsProperties.Type, VmDeviceGeneralType.CONSOLE.getValue());
@@ -84,7 +80,7 @@ public class VmConverter {
         return device;
     }
 
-    private Map<String, Object> parseGraphics(XmlNode dev) {
+    private Map<String, Object> parseGraphics(DomainXmlElement dev) {
         Map<String, Object> device = new HashMap<>();
         device.put(VdsProperties.Device, DomainXmlUtils.parseAttribute(dev, "type"));
         device.put(VdsProperties.Type, VmDeviceGeneralType.GRAPHICS.getValue());
@@ -93,7 +89,7 @@ public class VmConverter {
         return device;
     }
 
-    private Map<String, Object> parseVideo(XmlNode dev) {
+    private Map<String, Object> parseVideo(DomainXmlElement dev) {
         Map<String, Object> device = new HashMap<>();
         device.put(VdsProperties.Device, DomainXmlUtils.parseVideoType(dev));
         device.put(VdsProperties.Type, VmDeviceGeneralType.VIDEO.getValue());
@@ -102,7 +98,7 @@ public class VmConverter {
         return device;
     }
 
-    private Map<String, Object> parseInterface(XmlNode dev) {
+    private Map<String, Object> parseInterface(DomainXmlElement dev) {
         switch (DomainXmlUtils.parseAttribute(dev, "type")) {
             case "bridge":
                 Map<String, Object> device = new HashMap<>();
@@ -120,7 +116,7 @@ public class VmConverter {
         }
     }
 
-    private Map<String, Object> parseDisk(XmlNode dev) {
+    private Map<String, Object> parseDisk(DomainXmlElement dev) {
         switch (DomainXmlUtils.parseAttribute(dev, "device")) {
             case "disk":
                 Map<String, String> uuids = parseDiskUuids(DomainXmlUtils.parseDiskPath(dev));
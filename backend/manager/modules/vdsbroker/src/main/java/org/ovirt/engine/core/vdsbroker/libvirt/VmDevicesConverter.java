@@ -27,13 +27,7 @@ import org.ovirt.engine.core.dao.DiskLunMapDao;
 import org.ovirt.engine.core.dao.HostDeviceDao;
 import org.ovirt.engine.core.dao.VmDeviceDao;
 import org.ovirt.engine.core.utils.MemoizingSupplier;
-import org.ovirt.engine.core.utils.ovf.xml.XmlAttribute;
-import org.ovirt.engine.core.utils.ovf.xml.XmlDocument;
-import org.ovirt.engine.core.utils.ovf.xml.XmlNamespaceManager;
-import org.ovirt.engine.core.utils.ovf.xml.XmlNode;
-import org.ovirt.engine.core.utils.ovf.xml.XmlNodeList;
 import org.ovirt.engine.core.vdsbroker.ResourceManager;
-import org.ovirt.engine.core.vdsbroker.builder.vminfo.LibvirtVmXmlBuilder;
 import org.ovirt.engine.core.vdsbroker.vdsbroker.VdsProperties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -59,52 +53,43 @@ public class VmDevicesConverter {
     private static final String IO_THREAD_ID = "ioThreadId";
     private static final String NODE = "node";
     private static final String SIZE = "size";
-    private static final String DEVICES_START_ELEMENT = "<devices>";
-    private static final String DEVICES_END_ELEMENT = "</devices>";
+    private static final String MEMORY = "memory";
+    private static final String NVDIMM = "nvdimm";
+    private static final String HOSTDEV = "hostdev";
 
     public Map<String, Object> convert(Guid vmId, Guid hostId, String xml) throws Exception {
-        String devicesXml = xml.substring(
-                xml.indexOf(DEVICES_START_ELEMENT),
-                xml.indexOf(DEVICES_END_ELEMENT) + DEVICES_END_ELEMENT.length());
-        XmlDocument document = new XmlDocument(devicesXml);
-        XmlNode metadata = new XmlDocument(xml).selectSingleNode("domain/metadata");
+        DomainXml domainXml = DomainXml.parse(xml);
         Map<String, Object> result = new HashMap<>();
         result.put(VdsProperties.vm_guid, vmId.toString());
-        result.put(VdsProperties.Devices, parseDevices(vmId, hostId, document));
-        result.put(VdsProperties.GuestDiskMapping, parseDiskMapping(metadata));
+        result.put(VdsProperties.Devices, parseDevices(vmId, hostId, domainXml));
+        result.put(VdsProperties.GuestDiskMapping, parseDiskMapping(domainXml.getOvirtVmMetadata()));
         return result;
     }
 
-    private Map<String, Object> parseDiskMapping(XmlNode metadata) throws Exception {
-        if (metadata == null) {
-            return null;
-        }
-        XmlNamespaceManager xmlNS = new XmlNamespaceManager();
-        xmlNS.addNamespace(LibvirtVmXmlBuilder.OVIRT_VM_PREFIX, LibvirtVmXmlBuilder.OVIRT_VM_URI);
-        XmlNode vm = metadata.selectSingleNode("ovirt-vm:vm", xmlNS);
+    private Map<String, Object> parseDiskMapping(DomainXmlElement vm) {
         if (vm == null) {
             return null;
         }
         Map<String, Object> result = new HashMap<>();
-        for (XmlNode node : vm.selectNodes("ovirt-vm:device", xmlNS)) {
+        for (DomainXmlElement node : vm.getChildren(DEVICE)) {
             if (!VmDeviceGeneralType.DISK.getValue().equals(DomainXmlUtils.parseAttribute(node, "devtype"))) {
                 continue;
             }
 
-            XmlNode guestNameNode = node.selectSingleNode("ovirt-vm:guestName", xmlNS);
+            DomainXmlElement guestNameNode = node.getChild("guestName");
             if (guestNameNode != null) {
                 // Both LUN and regular disk are having imageID. Therefore, we first check the LUN.
-                XmlNode lunId = node.selectSingleNode("ovirt-vm:GUID", xmlNS);
+                DomainXmlElement lunId = node.getChild("GUID");
                 if (lunId != null) {
                     // direct LUN
-                    result.put(diskLunMapDao.getDiskIdByLunId(lunId.innerText).getDiskId().toString(),
-                            Collections.singletonMap(VdsProperties.Name, guestNameNode.innerText));
+                    result.put(diskLunMapDao.getDiskIdByLunId(lunId.getText()).getDiskId().toString(),
+                            Collections.singletonMap(VdsProperties.Name, guestNameNode.getText()));
                 } else {
-                    XmlNode imageId = node.selectSingleNode("ovirt-vm:imageID", xmlNS);
+                    DomainXmlElement imageId = node.getChild("imageID");
                     if (imageId != null) {
                         // regular disk
-                        result.put(imageId.innerText,
-                                Collections.singletonMap(VdsProperties.Name, guestNameNode.innerText));
+                        result.put(imageId.getText(),
+                                Collections.singletonMap(VdsProperties.Name, guestNameNode.getText()));
                     }
                 }
             }
@@ -113,7 +98,7 @@ public class VmDevicesConverter {
     }
 
     @SuppressWarnings("unchecked")
-    private Map<String, Object>[] parseDevices(Guid vmId, Guid hostId, XmlDocument document) throws Exception {
+    private Map<String, Object>[] parseDevices(Guid vmId, Guid hostId, DomainXml document) throws Exception {
         List<VmDevice> devices = vmDeviceDao.getVmDeviceByVmId(vmId);
         OriginType vmOrigin = resourceManager.getVmManager(vmId).getOrigin();
         boolean isHostedEngine = OriginType.HOSTED_ENGINE == vmOrigin || OriginType.MANAGED_HOSTED_ENGINE == vmOrigin;
@@ -145,9 +130,9 @@ public class VmDevicesConverter {
                 .toArray(Map[]::new);
     }
 
-    private List<Map<String, Object>> parseChannels(XmlDocument document, List<VmDevice> devices) {
+    private List<Map<String, Object>> parseChannels(DomainXml document, List<VmDevice> devices) {
         List<Map<String, Object>> result = new ArrayList<>();
-        for (XmlNode node : selectNodes(document, VmDeviceGeneralType.CHANNEL)) {
+        for (DomainXmlElement node : selectNodes(document, VmDeviceGeneralType.CHANNEL)) {
             String address = DomainXmlUtils.parseAddress(node);
             // Ignore channel devices without address
             if (address.isEmpty()) {
@@ -170,14 +155,14 @@ public class VmDevicesConverter {
         return result;
     }
 
-    private List<Map<String, Object>> parseControllers(XmlDocument document, List<VmDevice> devices,
+    private List<Map<String, Object>> parseControllers(DomainXml document, List<VmDevice> devices,
             boolean isHostedEngine) {
         List<VmDevice> dbDevices = filterDevices(devices, VmDeviceGeneralType.CONTROLLER);
 
         // devices with spec params to appear first
         dbDevices.sort((d1, d2) -> d1.getSpecParams().isEmpty() && !d2.getSpecParams().isEmpty() ? 1 : 0);
         List<Map<String, Object>> result = new ArrayList<>();
-        for (XmlNode node : selectNodes(document, VmDeviceGeneralType.CONTROLLER)) {
+        for (DomainXmlElement node : selectNodes(document, VmDeviceGeneralType.CONTROLLER)) {
             String address = DomainXmlUtils.parseAddress(node);
             String index = DomainXmlUtils.parseAttribute(node, INDEX);
             String model = DomainXmlUtils.parseAttribute(node, MODEL);
@@ -231,18 +216,23 @@ public class VmDevicesConverter {
         return result;
     }
 
-    private List<Map<String, Object>> parseMemories(XmlDocument document, List<VmDevice> devices) {
+    private List<Map<String, Object>> parseMemories(DomainXml document, List<VmDevice> devices) {
         List<VmDevice> dbDevices = filterDevices(devices, VmDeviceGeneralType.MEMORY);
 
         List<Map<String, Object>> result = new ArrayList<>();
-        for (XmlNode node : document.selectNodes("//*/memory[@model != 'nvdimm']")) {
+        for (DomainXmlElement node : document.getDevices(MEMORY)) {
+            String model = DomainXmlUtils.parseAttribute(node, MODEL);
+            if (model == null || NVDIMM.equals(model)) {
+                continue;
+            }
+
             Map<String, Object> dev = new HashMap<>();
             dev.put(VdsProperties.Type, VmDeviceGeneralType.MEMORY.getValue());
             dev.put(VdsProperties.Device, VmDeviceGeneralType.MEMORY.getValue());
             dev.put(VdsProperties.Address, DomainXmlUtils.parseAddress(node));
             dev.put(VdsProperties.Alias, parseAlias(node));
 
-            XmlNode target = node.selectSingleNode("target");
+            DomainXmlElement target = node.getChild("target");
             if (target == null) {
                 continue;
             }
@@ -256,8 +246,8 @@ public class VmDevicesConverter {
             } else {
                 dev.put(VdsProperties.DeviceId, Guid.newGuid().toString());
                 Map<String, Object> specParams = new HashMap<>();
-                specParams.put(SPEC_PARAM_NODE, target.selectSingleNode(NODE).innerText);
-                specParams.put(SPEC_PARAM_SIZE, kiloBytesToMegaBytes(target.selectSingleNode(SIZE).innerText));
+                specParams.put(SPEC_PARAM_NODE, target.getChild(NODE).getText());
+                specParams.put(SPEC_PARAM_SIZE, kiloBytesToMegaBytes(target.getChild(SIZE).getText()));
                 dev.put(VdsProperties.SpecParams, specParams);
             }
 
@@ -270,24 +260,29 @@ public class VmDevicesConverter {
         return (String) hostDevice.getSpecParams().get(VdsProperties.DEVICE_PATH);
     }
 
-    private List<Map<String, Object>> parseNvdimms(XmlDocument document, List<VmDevice> devices, Guid hostId) {
+    private List<Map<String, Object>> parseNvdimms(DomainXml document, List<VmDevice> devices, Guid hostId) {
         List<VmDevice> dbDevices = filterDevices(devices, VmDeviceGeneralType.HOSTDEV);
         MemoizingSupplier<Map<String, HostDevice>> pathToHostDeviceSupplier =
                 new MemoizingSupplier<>(() -> hostDeviceDao.getHostDevicesByHostId(hostId)
                         .stream()
-                        .filter(device -> device.getCapability().equals("nvdimm"))
+                        .filter(device -> device.getCapability().equals(NVDIMM))
                         .collect(Collectors.toMap(device -> getDevicePath(device), device -> device)));
 
         List<Map<String, Object>> result = new ArrayList<>();
-        for (XmlNode node : document.selectNodes("//*/memory[@model='nvdimm']")) {
-            XmlNode path = node.selectSingleNode("./source/path");
+        for (DomainXmlElement node : document.getDevices(MEMORY)) {
+            if (!NVDIMM.equals(DomainXmlUtils.parseAttribute(node, MODEL))) {
+                continue;
+            }
+
+            DomainXmlElement source = node.getChild("source");
+            DomainXmlElement path = source != null ? source.getChild("path") : null;
             if (path == null) {
                 log.warn("No <path> found in NVDIMM device XML");
                 continue;
             }
-            HostDevice hostDevice = pathToHostDeviceSupplier.get().get(path.innerText);
+            HostDevice hostDevice = pathToHostDeviceSupplier.get().get(path.getText());
             if (hostDevice == null) {
-                log.warn("NVDIMM device of '{}' could not be matched with any known device", path);
+                log.warn("NVDIMM device of '{}' could not be matched with any known device", path.getText());
                 continue;
             }
 
@@ -318,12 +313,12 @@ public class VmDevicesConverter {
         return String.valueOf(intKbValue / 1024);
     }
 
-    private List<Map<String, Object>> parseUnmanagedHostDevices(XmlDocument document, List<VmDevice> devices,
+    private List<Map<String, Object>> parseUnmanagedHostDevices(DomainXml document, List<VmDevice> devices,
             MemoizingSupplier<Map<Map<String, String>, HostDevice>> addressToHostDeviceSupplier) {
         List<VmDevice> dbDevices = filterDevices(devices, VmDeviceGeneralType.HOSTDEV);
 
         List<Map<String, Object>> result = new ArrayList<>();
-        for (XmlNode node : document.selectNodes("//*/hostdev")) {
+        for (DomainXmlElement node : document.getDevices(HOSTDEV)) {
             Map<String, String> hostAddress = parseHostAddress(node);
             if (hostAddress == null) {
                 continue;
@@ -356,7 +351,7 @@ public class VmDevicesConverter {
      * with one of the devices of the host. Host devices that were designed to be added as
      * unmanaged devices, like mdev devices, are handled separately.
      */
-    private List<Map<String, Object>> parseManagedHostDevices(XmlDocument document, List<VmDevice> devices,
+    private List<Map<String, Object>> parseManagedHostDevices(DomainXml document, List<VmDevice> devices,
             MemoizingSupplier<Map<Map<String, String>, HostDevice>> addressToHostDeviceSupplier) {
         List<VmDevice> dbDevices = filterDevices(devices, VmDeviceGeneralType.HOSTDEV);
         if (dbDevices.isEmpty()) {
@@ -364,7 +359,7 @@ public class VmDevicesConverter {
         }
 
         List<Map<String, Object>> result = new ArrayList<>();
-        for (XmlNode node : document.selectNodes("//*/hostdev")) {
+        for (DomainXmlElement node : document.getDevices(HOSTDEV)) {
             Map<String, String> hostAddress = parseHostAddress(node);
             if (hostAddress == null) {
                 continue;
@@ -398,11 +393,11 @@ public class VmDevicesConverter {
         return result;
     }
 
-    private List<Map<String, Object>> parseRedirs(XmlDocument document, List<VmDevice> devices) {
+    private List<Map<String, Object>> parseRedirs(DomainXml document, List<VmDevice> devices) {
         List<VmDevice> dbDevices = filterDevices(devices, VmDeviceGeneralType.REDIR);
 
         List<Map<String, Object>> result = new ArrayList<>();
-        for (XmlNode node : document.selectNodes("//*/redirdev")) {
+        for (DomainXmlElement node : document.getDevices("redirdev")) {
             Map<String, Object> dev = new HashMap<>();
             dev.put(VdsProperties.Type, VmDeviceGeneralType.REDIR.getValue());
             dev.put(VdsProperties.Device, DomainXmlUtils.parseAttribute(node, TYPE));
@@ -424,11 +419,11 @@ public class VmDevicesConverter {
         return result;
     }
 
-    List<Map<String, Object>> parseDisks(XmlDocument document, List<VmDevice> devices, boolean isHostedEngine) {
+    List<Map<String, Object>> parseDisks(DomainXml document, List<VmDevice> devices, boolean isHostedEngine) {
         List<VmDevice> dbDevices = filterDevices(devices, VmDeviceGeneralType.DISK, VmDeviceGeneralType.HOSTDEV);
 
         List<Map<String, Object>> result = new ArrayList<>();
-        for (XmlNode node : selectNodes(document, VmDeviceGeneralType.DISK)) {
+        for (DomainXmlElement node : selectNodes(document, VmDeviceGeneralType.DISK)) {
             Map<String, Object> dev = new HashMap<>();
             dev.put(VdsProperties.Type, VmDeviceGeneralType.DISK.getValue());
             String diskType = DomainXmlUtils.parseAttribute(node, DEVICE);
@@ -460,13 +455,13 @@ public class VmDevicesConverter {
         return result;
     }
 
-    private List<Map<String, Object>> parseInterfaces(XmlDocument document, List<VmDevice> devices,
+    private List<Map<String, Object>> parseInterfaces(DomainXml document, List<VmDevice> devices,
             MemoizingSupplier<Map<Map<String, String>, HostDevice>> addressToHostDeviceSupplier,
             boolean isHostedEngine) {
         List<VmDevice> dbDevices = filterDevices(devices, VmDeviceGeneralType.INTERFACE);
 
         List<Map<String, Object>> result = new ArrayList<>();
-        for (XmlNode node : selectNodes(document, VmDeviceGeneralType.INTERFACE)) {
+        for (DomainXmlElement node : selectNodes(document, VmDeviceGeneralType.INTERFACE)) {
             String type = DomainXmlUtils.parseAttribute(node, TYPE);
             Map<String, Object> dev = new HashMap<>();
 
@@ -495,7 +490,7 @@ public class VmDevicesConverter {
         return result;
     }
 
-    private String getHostDeviceName(XmlNode hostDevInterfaceNode,
+    private String getHostDeviceName(DomainXmlElement hostDevInterfaceNode,
             MemoizingSupplier<Map<Map<String, String>, HostDevice>> addressToHostDeviceSupplier) {
         Map<String, String> hostAddress = parseHostAddress(hostDevInterfaceNode);
         if (hostAddress == null) {
@@ -508,12 +503,12 @@ public class VmDevicesConverter {
         return hostDevice.getDeviceName();
     }
 
-    private List<Map<String, Object>> parseVideos(XmlDocument document, List<VmDevice> devices,
+    private List<Map<String, Object>> parseVideos(DomainXml document, List<VmDevice> devices,
             boolean isHostedEngine) {
         List<VmDevice> dbDevices = filterDevices(devices, VmDeviceGeneralType.VIDEO);
 
         List<Map<String, Object>> result = new ArrayList<>();
-        for (XmlNode node : selectNodes(document, VmDeviceGeneralType.VIDEO)) {
+        for (DomainXmlElement node : selectNodes(document, VmDeviceGeneralType.VIDEO)) {
             Map<String, Object> dev = new HashMap<>();
             dev.put(VdsProperties.Type, VmDeviceGeneralType.VIDEO.getValue());
             dev.put(VdsProperties.Device, DomainXmlUtils.parseVideoType(node));
@@ -540,13 +535,13 @@ public class VmDevicesConverter {
     /**
      * This method should be used for managed devices with one instance per VM
      */
-    private Map<String, Object> parseDev(VmDeviceGeneralType devType, XmlDocument document, List<VmDevice> devices) {
+    private Map<String, Object> parseDev(VmDeviceGeneralType devType, DomainXml document, List<VmDevice> devices) {
         VmDevice dbDevice = filterDevice(devices, devType);
         if (dbDevice == null) {
             return Collections.emptyMap();
         }
 
-        XmlNode node = selectSingleNode(document, devType);
+        DomainXmlElement node = document.getDevice(devType.getValue());
         if (node == null) {
             return Collections.emptyMap();
         }
@@ -560,13 +555,13 @@ public class VmDevicesConverter {
         return result;
     }
 
-    private Map<String, Object> parseBalloon(XmlDocument document, List<VmDevice> devices) {
+    private Map<String, Object> parseBalloon(DomainXml document, List<VmDevice> devices) {
         VmDevice dbDevice = filterDevice(devices, VmDeviceGeneralType.BALLOON);
         if (dbDevice == null) {
             return Collections.emptyMap();
         }
 
-        XmlNode node = document.selectSingleNode("//*/memballoon");
+        DomainXmlElement node = document.getDevice("memballoon");
         if (node == null) {
             return Collections.emptyMap();
         }
@@ -580,7 +575,7 @@ public class VmDevicesConverter {
         return result;
     }
 
-    List<Map<String, Object>> parseVolumeChain(XmlNode xmlNode) {
+    List<Map<String, Object>> parseVolumeChain(DomainXmlElement xmlNode) {
         List<Map<String, Object>> chain = new ArrayList<>();
 
         while (true) {
@@ -592,7 +587,7 @@ public class VmDevicesConverter {
                 chain.add(0, Collections.singletonMap(VdsProperties.VolumeId, volumeId));
             }
 
-            xmlNode = xmlNode.selectSingleNode("backingStore");
+            xmlNode = xmlNode.getChild("backingStore");
             if (xmlNode == null) {
                 return chain;
             }
@@ -619,45 +614,40 @@ public class VmDevicesConverter {
         return pathSegments[pathSegments.length - index];
     }
 
-    public static String parseAlias(XmlNode node) {
-        XmlNode aliasNode = node.selectSingleNode("alias");
-        return aliasNode != null ? aliasNode.attributes.get("name").getValue() : "";
+    public static String parseAlias(DomainXmlElement node) {
+        DomainXmlElement aliasNode = node.getChild("alias");
+        return aliasNode != null ? aliasNode.getAttribute("name") : "";
     }
 
-    private Map<String, String> parseHostAddress(XmlNode node) {
-        XmlNode sourceNode = node.selectSingleNode("source");
+    private Map<String, String> parseHostAddress(DomainXmlElement node) {
+        DomainXmlElement sourceNode = node.getChild("source");
         if (sourceNode == null) {
             return null;
         }
 
-        XmlNode addressNode = sourceNode.selectSingleNode("address");
+        DomainXmlElement addressNode = sourceNode.getChild("address");
         if (addressNode == null) {
             return null;
         }
 
         Map<String, String> address = new HashMap<>();
         Arrays.asList("domain", "slot", "bus", "function", "device", "host", "target", "lun").forEach(key -> {
-            XmlAttribute attribute = addressNode.attributes.get(key);
-            if (attribute != null) {
-                String valStr = attribute.getValue();
+            String valStr = addressNode.getAttribute(key);
+            if (valStr != null) {
                 boolean hex = valStr.startsWith("0x");
                 int val = Integer.parseInt(hex ? valStr.substring(2) : valStr, hex ? 16 : 10);
                 address.put(key, String.valueOf(val));
             }
         });
-        XmlAttribute uuidAttribute = addressNode.attributes.get("uuid");
-        if (uuidAttribute != null) {
-            address.put("uuid", uuidAttribute.getValue());
+        String uuid = addressNode.getAttribute("uuid");
+        if (uuid != null) {
+            address.put("uuid", uuid);
         }
         return address;
     }
 
-    private XmlNodeList selectNodes(XmlDocument document, VmDeviceGeneralType devType) {
-        return document.selectNodes("//*/" + devType.getValue());
-    }
-
-    private XmlNode selectSingleNode(XmlDocument document, VmDeviceGeneralType devType) {
-        return document.selectSingleNode("//*/" + devType.getValue());
+    private List<DomainXmlElement> selectNodes(DomainXml document, VmDeviceGeneralType devType) {
+        return document.getDevices(devType.getValue());
     }
 
     private List<VmDevice> filterDevices(List<VmDevice> devices, VmDeviceGeneralType... devType) {
@@ -1,21 +1,28 @@
 package org.ovirt.engine.core.vdsbroker.monitoring;
 
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
+import javax.enterprise.concurrent.ManagedScheduledExecutorService;
 import javax.inject.Inject;
 
 import org.apache.commons.lang.exception.ExceptionUtils;
 import org.ovirt.engine.core.common.businessentities.VMStatus;
 import org.ovirt.engine.core.common.businessentities.VmDynamic;
+import org.ovirt.engine.core.common.config.Config;
+import org.ovirt.engine.core.common.config.ConfigValues;
 import org.ovirt.engine.core.common.utils.Pair;
 import org.ovirt.engine.core.compat.Guid;
-import org.ovirt.engine.core.dao.VmDynamicDao;
 import org.ovirt.engine.core.di.Injector;
 import org.ovirt.engine.core.utils.ObjectDescriptor;
+import org.ovirt.engine.core.utils.threadpool.ThreadPools;
 import org.ovirt.engine.core.vdsbroker.ResourceManager;
 import org.ovirt.engine.core.vdsbroker.VdsManager;
 import org.ovirt.engine.core.vdsbroker.vdsbroker.VdsBrokerObjectsBuilder;
@@ -23,17 +30,31 @@ import org.ovirt.vdsm.jsonrpc.client.events.EventSubscriber;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Monitors the VMs of a host by the VM status events it sends.
+ * <p>
+ * The events received during a short window are collected and processed together, the events of the same VM are
+ * merged so only its latest reported data is analyzed. The data of the VMs in the database is taken from their
+ * {@link org.ovirt.engine.core.vdsbroker.VmManager}s, which keep it in memory as long as it is up to date.
+ * </p>
+ */
 public class EventVmStatsRefresher extends VmStatsRefresher {
 
     private static final Logger log = LoggerFactory.getLogger(EventVmStatsRefresher.class);
     private Flow.Subscription subscription;
     @Inject
-    private VmDynamicDao vmDynamicDao;
-    @Inject
     private VdsBrokerObjectsBuilder vdsBrokerObjectsBuilder;
+    @Inject
+    @ThreadPools(ThreadPools.ThreadPoolType.EngineScheduledThreadPool)
+    private ManagedScheduledExecutorService schedulerService;
     private final ResourceManager resourceManager;
     private final PollVmStatsRefresher allVmStatsOnlyRefresher;
 
+    /** The data reported by the events which were not processed yet, by VM **/
+    private Map<Guid, ReportedVm> pendingVms = new LinkedHashMap<>();
+    private final Object pendingVmsLock = new Object();
+    private ScheduledFuture<?> pendingVmsProcessing;
+
     public EventVmStatsRefresher(VdsManager manager, ResourceManager resourceManager) {
         super(manager);
         // we still want to fetch GetAllVmStats as we did before
@@ -56,14 +77,8 @@ public class EventVmStatsRefresher extends VmStatsRefresher {
             @Override
             public void onNext(Map<String, Object> map) {
                 try {
-                    long fetchTime = System.nanoTime();
                     printEventInDebug(map);
-                    List<Pair<VmDynamic, VdsmVm>> vms = convertEvent(map);
-                    if (!vms.isEmpty()) {
-                        addVmsToVdsManager(vms); // Prevent missing VMs on VdsManager::lastVmsList
-                        getVmsMonitoring().perform(vms, fetchTime, vdsManager, false);
-                        processDevices(vms.stream().map(Pair::getSecond), fetchTime);
-                    }
+                    addPendingVms(map);
                 } catch (Throwable t) {
                     log.error("Error processing VM stats monitoring event: {}", ExceptionUtils.getRootCauseMessage(t));
                     log.debug("Exception", t);
@@ -82,52 +97,6 @@ public class EventVmStatsRefresher extends VmStatsRefresher {
                 log.debug("processing event for host {} data:\n{}", vdsManager.getVdsName(), sb);
             }
 
-            @SuppressWarnings("unchecked")
-            private List<Pair<VmDynamic, VdsmVm>> convertEvent(Map<String, Object> map) {
-                Double notifyTime = vdsBrokerObjectsBuilder.removeNotifyTimeFromVmStatusEvent(map);
-                return map.entrySet().stream()
-                        .map(idToMap -> toMonitoredVm(
-                                new Guid(idToMap.getKey()),
-                                (Map<String, Object>) idToMap.getValue(),
-                                notifyTime))
-                        .collect(Collectors.toList());
-            }
-
-            private Pair<VmDynamic, VdsmVm> toMonitoredVm(Guid vmId, Map<String, Object> vmMap, Double notifyTime) {
-                VmDynamic dbVm = vmDynamicDao.get(vmId);
-                VdsmVm vdsmVm = dbVm == null ?
-                        createVdsmVm(vmId, vmMap, notifyTime)
-                        : createVdsmVm(dbVm, vmMap, notifyTime);
-                return new Pair<>(dbVm, vdsmVm);
-            }
-
-            private VdsmVm createVdsmVm(Guid vmId, Map<String, Object> struct, Double notifyTime) {
-                VmDynamic fakeVm = new VmDynamic();
-                fakeVm.setId(vmId);
-                return createVdsmVm(fakeVm, struct, notifyTime);
-            }
-
-            private VdsmVm createVdsmVm(VmDynamic dbVmDynamic, Map<String, Object> struct, Double notifyTime) {
-                // send a clone of vm dynamic to be overridden with new data
-                VmDynamic clonedVmDynamic = new VmDynamic(dbVmDynamic);
-                vdsBrokerObjectsBuilder.updateVMDynamicData(clonedVmDynamic, struct, vdsManager.getCopyVds());
-                return new VdsmVm(notifyTime)
-                        .setVmDynamic(clonedVmDynamic)
-                        .setDevicesHash(vdsBrokerObjectsBuilder.getVmDevicesHash(struct));
-            }
-
-            private void addVmsToVdsManager(List<Pair<VmDynamic, VdsmVm>> vms) {
-                // We can assume that it's the first time the VMs will be on list in PoweringUp status.
-                Map<Guid, VMStatus> poweringUpVms = vms
-                        .stream()
-                        .map(Pair::getSecond)
-                        .filter(Objects::nonNull)
-                        .map(VdsmVm::getVmDynamic)
-                        .filter(v -> v.getStatus() == VMStatus.PoweringUp)
-                        .collect(Collectors.toMap(VmDynamic::getId, VmDynamic::getStatus));
-                vdsManager.addVmsToLastVmsList(poweringUpVms);
-            }
-
             @Override
             public void onError(Throwable t) {
                 // communication issue is delivered as a message so we need to request for more
@@ -144,6 +113,143 @@ public class EventVmStatsRefresher extends VmStatsRefresher {
     public void stopMonitoring() {
         allVmStatsOnlyRefresher.stopMonitoring();
         subscription.cancel();
+        synchronized (pendingVmsLock) {
+            if (pendingVmsProcessing != null) {
+                pendingVmsProcessing.cancel(false);
+                pendingVmsProcessing = null;
+            }
+            pendingVms.clear();
+        }
+    }
+
+    // Visible for testing
+    @SuppressWarnings("unchecked")
+    void addPendingVms(Map<String, Object> map) {
+        long fetchTime = System.nanoTime();
+        Double notifyTime = vdsBrokerObjectsBuilder.removeNotifyTimeFromVmStatusEvent(map);
+        synchronized (pendingVmsLock) {
+            map.forEach((vmId, vmMap) -> pendingVms.merge(
+                    new Guid(vmId),
+                    new ReportedVm((Map<String, Object>) vmMap, notifyTime, fetchTime),
+                    ReportedVm::merge));
+            if (pendingVmsProcessing == null) {
+                pendingVmsProcessing = schedulePendingVmsProcessing();
+            }
+        }
+    }
+
+    private ScheduledFuture<?> schedulePendingVmsProcessing() {
+        return schedulerService.schedule(
+                this::processPendingVms,
+                Config.<Integer> getValue(ConfigValues.VmStatusEventsCoalescingWindowInMillis),
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Processes the VMs pending since the processing was scheduled. The events received meanwhile are processed by
+     * the next run, which is scheduled only once this one is done, so the VMs of the host are never processed
+     * concurrently and a host sending events continuously doesn't hold a thread of the shared pool.
+     */
+    private void processPendingVms() {
+        Map<Guid, ReportedVm> reportedVms;
+        synchronized (pendingVmsLock) {
+            reportedVms = pendingVms;
+            pendingVms = new LinkedHashMap<>();
+        }
+
+        try {
+            if (!reportedVms.isEmpty()) {
+                processReportedVms(reportedVms);
+            }
+        } catch (Throwable t) {
+            log.error("Error processing VM stats monitoring events: {}", ExceptionUtils.getRootCauseMessage(t));
+            log.debug("Exception", t);
+        } finally {
+            synchronized (pendingVmsLock) {
+                // the processing is cancelled when the monitoring stops
+                if (pendingVmsProcessing != null) {
+                    pendingVmsProcessing = pendingVms.isEmpty() ? null : schedulePendingVmsProcessing();
+                }
+            }
+        }
+    }
+
+    private void processReportedVms(Map<Guid, ReportedVm> reportedVms) {
+        // the VM data changed by the engine after the earliest event was received is not overridden
+        long fetchTime = reportedVms.values().stream()
+                .mapToLong(reportedVm -> reportedVm.fetchTime)
+                .reduce((time1, time2) -> time1 - time2 <= 0 ? time1 : time2)
+                .getAsLong();
+        List<Pair<VmDynamic, VdsmVm>> vms = reportedVms.entrySet().stream()
+                .map(reportedVm -> toMonitoredVm(reportedVm.getKey(), reportedVm.getValue()))
+                .collect(Collectors.toList());
+        addVmsToVdsManager(vms); // Prevent missing VMs on VdsManager::lastVmsList
+        getVmsMonitoring().perform(vms, fetchTime, vdsManager, false);
+        processDevices(vms.stream().map(Pair::getSecond), fetchTime);
+    }
+
+    private Pair<VmDynamic, VdsmVm> toMonitoredVm(Guid vmId, ReportedVm reportedVm) {
+        VmDynamic dbVm = resourceManager.getVmManager(vmId).getVmDynamic();
+        VdsmVm vdsmVm = dbVm == null ?
+                createVdsmVm(vmId, reportedVm.vmMap, reportedVm.notifyTime)
+                : createVdsmVm(dbVm, reportedVm.vmMap, reportedVm.notifyTime);
+        return new Pair<>(dbVm, vdsmVm);
+    }
+
+    private VdsmVm createVdsmVm(Guid vmId, Map<String, Object> struct, Double notifyTime) {
+        VmDynamic fakeVm = new VmDynamic();
+        fakeVm.setId(vmId);
+        return createVdsmVm(fakeVm, struct, notifyTime);
+    }
+
+    private VdsmVm createVdsmVm(VmDynamic dbVmDynamic, Map<String, Object> struct, Double notifyTime) {
+        // send a clone of vm dynamic to be overridden with new data
+        VmDynamic clonedVmDynamic = new VmDynamic(dbVmDynamic);
+        vdsBrokerObjectsBuilder.updateVMDynamicData(clonedVmDynamic, struct, vdsManager.getCopyVds());
+        return new VdsmVm(notifyTime)
+                .setVmDynamic(clonedVmDynamic)
+                .setDevicesHash(vdsBrokerObjectsBuilder.getVmDevicesHash(struct));
+    }
+
+    private void addVmsToVdsManager(List<Pair<VmDynamic, VdsmVm>> vms) {
+        // We can assume that it's the first time the VMs will be on list in PoweringUp status.
+        Map<Guid, VMStatus> poweringUpVms = vms
+                .stream()
+                .map(Pair::getSecond)
+                .filter(Objects::nonNull)
+                .map(VdsmVm::getVmDynamic)
+                .filter(v -> v.getStatus() == VMStatus.PoweringUp)
+                .collect(Collectors.toMap(VmDynamic::getId, VmDynamic::getStatus));
+        vdsManager.addVmsToLastVmsList(poweringUpVms);
+    }
+
+    /**
+     * The data of a VM reported by one or more events
+     */
+    private static class ReportedVm {
+
+        private final Map<String, Object> vmMap;
+        private final Double notifyTime;
+        /** When the earliest of the events reporting the data was received **/
+        private final long fetchTime;
+
+        private ReportedVm(Map<String, Object> vmMap, Double notifyTime, long fetchTime) {
+            this.vmMap = vmMap;
+            this.notifyTime = notifyTime;
+            this.fetchTime = fetchTime;
+        }
+
+        /**
+         * Merges the data reported by a later event, the values it reports replace the earlier ones. The merged data
+         * still holds the values of the earlier events, so it keeps the earliest fetch time.
+         */
+        private ReportedVm merge(ReportedVm later) {
+            Map<String, Object> mergedVmMap = new HashMap<>(vmMap);
+            mergedVmMap.putAll(later.vmMap);
+            return new ReportedVm(mergedVmMap,
+                    later.notifyTime != null ? later.notifyTime : notifyTime,
+                    later.fetchTime - fetchTime < 0 ? later.fetchTime : fetchTime);
+        }
     }
 
 }
@@ -0,0 +1,233 @@
+package org.ovirt.engine.core.vdsbroker.monitoring;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.enterprise.event.Observes;
+import javax.inject.Singleton;
+
+import org.ovirt.engine.core.common.businessentities.VmStatistics;
+import org.ovirt.engine.core.common.businessentities.network.VmNetworkStatistics;
+import org.ovirt.engine.core.common.businessentities.storage.DiskImageDynamic;
+import org.ovirt.engine.core.common.config.Config;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.common.qualifiers.VmDeleted;
+import org.ovirt.engine.core.common.utils.Pair;
+import org.ovirt.engine.core.compat.Guid;
+
+/**
+ * Keeps the values of the VM statistics, VM network interface statistics and disk image dynamic data which were last
+ * persisted for every running VM, and filters out the ones which did not change enough to be worth a database write.
+ * <p>
+ * A numeric value is considered changed when it differs from the persisted one by more than
+ * {@link ConfigValues#VmStatisticsSaveThresholdPercent} percent of it, any other value when it is not equal to the
+ * persisted one. Unchanged statistics are still persisted once every {@link ConfigValues#VmStatisticsMaxSkippedSaves}
+ * cycles, so the database never falls too far behind.
+ * </p>
+ * <p>
+ * The statistics of a VM are only tracked while the VM is locked by its VmManager, so each VM is handled by a single
+ * thread at a time. The snapshots of a VM are dropped once it stops running or is removed.
+ * </p>
+ */
+@Singleton
+public class VmStatisticsChangeTracker {
+
+    private final Map<Guid, VmSnapshots> snapshotsByVm = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the statistics which should be persisted. The decision is only recorded in the given changes, which
+     * should be committed once the returned statistics were written.
+     */
+    public List<VmStatistics> filterChangedVmStatistics(List<VmStatistics> statistics, Changes changes) {
+        return statistics.stream()
+                .filter(stats -> isChanged(stats.getId(), s -> s.vmStatistics, stats.getId(), valuesOf(stats), changes))
+                .collect(Collectors.toList());
+    }
+
+    public List<VmNetworkStatistics> filterChangedVmNetworkStatistics(List<VmNetworkStatistics> statistics,
+            Changes changes) {
+        return statistics.stream()
+                .filter(stats -> stats.getVmId() == null
+                        || isChanged(stats.getVmId(), s -> s.interfaces, stats.getId(), valuesOf(stats), changes))
+                .collect(Collectors.toList());
+    }
+
+    public List<Pair<Guid, DiskImageDynamic>> filterChangedDiskImageDynamics(
+            Collection<Pair<Guid, DiskImageDynamic>> diskImageDynamics,
+            Changes changes) {
+        return diskImageDynamics.stream()
+                .filter(pair -> isChanged(pair.getFirst(),
+                        s -> s.disks,
+                        pair.getSecond().getId(),
+                        valuesOf(pair.getSecond()),
+                        changes))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Drops the snapshots of the given VMs, so their next statistics are persisted regardless of the previous ones.
+     * Should be called whenever the statistics of the VMs may be changed by others, e.g. when they go down.
+     */
+    public void forget(Collection<Guid> vmIds) {
+        vmIds.forEach(snapshotsByVm::remove);
+    }
+
+    void onVmDelete(@Observes @VmDeleted Guid vmId) {
+        snapshotsByVm.remove(vmId);
+    }
+
+    private boolean isChanged(Guid vmId,
+            Function<VmSnapshots, EntitySnapshots> entitySnapshotsOfVm,
+            Guid id,
+            Object[] values,
+            Changes changes) {
+        VmSnapshots vmSnapshots = snapshotsByVm.computeIfAbsent(vmId, k -> new VmSnapshots());
+        EntitySnapshots entitySnapshots = entitySnapshotsOfVm.apply(vmSnapshots);
+        Snapshot persisted = entitySnapshots.snapshots.get(id);
+        if (persisted != null
+                && persisted.skippedSaves < getMaxSkippedSaves()
+                && !isChanged(persisted.values, values, getThresholdPercent())) {
+            changes.add(() -> {
+                if (isTracked(vmId, vmSnapshots) && entitySnapshots.snapshots.get(id) == persisted) {
+                    persisted.skippedSaves++;
+                }
+            });
+            return false;
+        }
+        changes.add(() -> {
+            if (isTracked(vmId, vmSnapshots)) {
+                entitySnapshots.snapshots.put(id, new Snapshot(values));
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Returns whether the given snapshots are still the ones of the VM, i.e. the VM was not forgotten since they were
+     * compared, in which case the values being written are already stale
+     */
+    private boolean isTracked(Guid vmId, VmSnapshots vmSnapshots) {
+        return snapshotsByVm.get(vmId) == vmSnapshots;
+    }
+
+    private static Object[] valuesOf(VmStatistics stats) {
+        return new Object[] {
+                stats.getCpuSys(),
+                stats.getCpuUser(),
+                stats.getElapsedTime(),
+                stats.getUsageCpuPercent(),
+                stats.getUsageMemPercent(),
+                stats.getUsageNetworkPercent(),
+                stats.getMigrationProgressPercent(),
+                stats.getDisksUsage(),
+                stats.getGuestMemoryCached(),
+                stats.getGuestMemoryBuffered(),
+                stats.getGuestMemoryFree(),
+                stats.getGuestMemoryUnused() };
+    }
+
+    private static Object[] valuesOf(VmNetworkStatistics stats) {
+        return new Object[] {
+                stats.getStatus(),
+                stats.getReceiveRate(),
+                stats.getTransmitRate(),
+                stats.getReceiveDrops(),
+                stats.getTransmitDrops(),
+                stats.getReceivedBytes(),
+                stats.getTransmittedBytes(),
+                stats.getReceivedBytesOffset(),
+                stats.getTransmittedBytesOffset() };
+    }
+
+    private static Object[] valuesOf(DiskImageDynamic dynamic) {
+        return new Object[] {
+                dynamic.getReadRate(),
+                dynamic.getWriteRate(),
+                dynamic.getReadOps(),
+                dynamic.getWriteOps(),
+                dynamic.getReadLatency(),
+                dynamic.getWriteLatency(),
+                dynamic.getFlushLatency(),
+                dynamic.getActualSize() };
+    }
+
+    private static int getThresholdPercent() {
+        return Config.<Integer> getValue(ConfigValues.VmStatisticsSaveThresholdPercent);
+    }
+
+    private static int getMaxSkippedSaves() {
+        return Config.<Integer> getValue(ConfigValues.VmStatisticsMaxSkippedSaves);
+    }
+
+    /* visible for testing only */
+    static boolean isChanged(Object[] persisted, Object[] current, int thresholdPercent) {
+        for (int i = 0; i < current.length; i++) {
+            if (isChanged(persisted[i], current[i], thresholdPercent)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isChanged(Object persisted, Object current, int thresholdPercent) {
+        if (persisted instanceof Number && current instanceof Number) {
+            double persistedValue = ((Number) persisted).doubleValue();
+            double currentValue = ((Number) current).doubleValue();
+            return Math.abs(currentValue - persistedValue) > Math.abs(persistedValue) * thresholdPercent / 100.0
+                    || persistedValue == 0 && currentValue != 0;
+        }
+        return !Objects.equals(persisted, current);
+    }
+
+    /**
+     * The persisted values of all the tracked entities of a single VM
+     */
+    private static class VmSnapshots {
+
+        private final EntitySnapshots vmStatistics = new EntitySnapshots();
+        private final EntitySnapshots interfaces = new EntitySnapshots();
+        private final EntitySnapshots disks = new EntitySnapshots();
+    }
+
+    /**
+     * The persisted values of entities of one type, by entity id
+     */
+    private static class EntitySnapshots {
+
+        private final Map<Guid, Snapshot> snapshots = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * The decisions of a flush about which statistics are persisted, applied to the snapshots by {@link #commit()} once
+     * the statistics were written, so the snapshots never hold values whose write failed or is still to be retried
+     */
+    public static class Changes {
+
+        private final List<Runnable> updates = new ArrayList<>();
+
+        private void add(Runnable update) {
+            updates.add(update);
+        }
+
+        public void commit() {
+            updates.forEach(Runnable::run);
+            updates.clear();
+        }
+    }
+
+    private static class Snapshot {
+
+        private final Object[] values;
+        private int skippedSaves;
+
+        public Snapshot(Object[] values) {
+            this.values = values;
+        }
+    }
+}
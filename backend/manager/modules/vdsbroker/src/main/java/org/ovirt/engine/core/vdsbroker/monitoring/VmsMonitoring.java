@@ -5,9 +5,12 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
+import javax.annotation.PostConstruct;
+import javax.enterprise.concurrent.ManagedExecutorService;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
@@ -26,6 +29,8 @@ import org.ovirt.engine.core.dao.VmNumaNodeDao;
 import org.ovirt.engine.core.dao.VmStatisticsDao;
 import org.ovirt.engine.core.dao.network.VmNetworkInterfaceDao;
 import org.ovirt.engine.core.dao.network.VmNetworkStatisticsDao;
+import org.ovirt.engine.core.utils.EngineLocalConfig;
+import org.ovirt.engine.core.utils.threadpool.ThreadPools;
 import org.ovirt.engine.core.utils.transaction.TransactionSupport;
 import org.ovirt.engine.core.vdsbroker.ResourceManager;
 import org.ovirt.engine.core.vdsbroker.VdsManager;
@@ -51,6 +56,8 @@ public class VmsMonitoring {
     private LunDisksMonitoring lunDisksMonitoring;
     @Inject
     private VmJobsMonitoring vmJobsMonitoring;
+    @Inject
+    private VmStatisticsChangeTracker vmStatisticsChangeTracker;
 
     @Inject
     private DiskImageDynamicDao diskImageDynamicDao;
@@ -69,8 +76,22 @@ public class VmsMonitoring {
     @Inject
     private VmNumaNodeDao vmNumaNodeDao;
 
+    @Inject
+    @ThreadPools(ThreadPools.ThreadPoolType.HostMonitoring)
+    private ManagedExecutorService hostMonitoringExecutor;
+
+    private VmsMonitoringFlusher flusher;
+
     private static final Logger log = LoggerFactory.getLogger(VmsMonitoring.class);
 
+    @PostConstruct
+    void init() {
+        flusher = new VmsMonitoringFlusher(
+                hostMonitoringExecutor,
+                this::flush,
+                EngineLocalConfig.getInstance().getInteger("HOST_MONITORING_THREAD_POOL_SIZE", 1));
+    }
+
     /**
      * analyze and react upon changes on the monitoredVms. relevant changes would
      * be persisted and state transitions and internal commands would
@@ -97,7 +118,7 @@ public class VmsMonitoring {
             vmAnalyzers = analyzeVms(monitoredVms, fetchTime, vdsManager, updateStatistics);
             // It is important to add the unmanaged VMs before flushing the dynamic data into the database
             addUnmanagedVms(vmAnalyzers, vdsManager.getVdsId());
-            flush(vmAnalyzers);
+            flusher.flush(vmAnalyzers);
             postFlush(vmAnalyzers, vdsManager, fetchTime);
             vdsManager.vmsMonitoringInitFinished();
         } catch (RuntimeException ex) {
@@ -260,6 +281,9 @@ public class VmsMonitoring {
         // need to execute this before processOnVmStop that might remove unmanaged devices
         getVdsEventListener().refreshHostIfAnyVmHasHostDevices(succeededToRunVms, movedToDownVms, vdsManager.getVdsId());
 
+        // the statistics of vms that went down are reset by others, so they are saved again once the vms run
+        vmStatisticsChangeTracker.forget(movedToDownVms);
+
         // process all vms that went down
         getVdsEventListener().processOnVmStop(movedToDownVms, vdsManager.getVdsId());
 
@@ -287,41 +311,62 @@ public class VmsMonitoring {
     }
 
     private void flush(List<VmAnalyzer> vmAnalyzers) {
+        VmStatisticsChangeTracker.Changes statisticsChanges = new VmStatisticsChangeTracker.Changes();
         saveVmGuestAgentNetworkDevices(vmAnalyzers);
         saveVmDynamic(vmAnalyzers);
-        saveVmStatistics(vmAnalyzers);
-        saveVmInterfaceStatistics(vmAnalyzers);
-        saveVmDiskImageStatistics(vmAnalyzers);
+        saveVmStatistics(vmAnalyzers, statisticsChanges);
+        saveVmInterfaceStatistics(vmAnalyzers, statisticsChanges);
+        saveVmDiskImageStatistics(vmAnalyzers, statisticsChanges);
         clearVmNuma(vmAnalyzers);
+        // only now the statistics are known to be written, a failed flush is retried against the previous snapshots
+        statisticsChanges.commit();
     }
 
-    private void saveVmDiskImageStatistics(List<VmAnalyzer> vmAnalyzers) {
-        diskImageDynamicDao.updateAllDiskImageDynamicWithDiskIdByVmId(vmAnalyzers.stream()
-                .map(VmAnalyzer::getVmDiskImageDynamicToSave)
-                .flatMap(Collection::stream)
-                .collect(Collectors.toList()));
+    private void saveVmDiskImageStatistics(List<VmAnalyzer> vmAnalyzers,
+            VmStatisticsChangeTracker.Changes statisticsChanges) {
+        diskImageDynamicDao.updateAllDiskImageDynamicWithDiskIdByVmId(
+                vmStatisticsChangeTracker.filterChangedDiskImageDynamics(vmAnalyzers.stream()
+                        .map(VmAnalyzer::getVmDiskImageDynamicToSave)
+                        .flatMap(Collection::stream)
+                        .collect(Collectors.toList()), statisticsChanges));
     }
 
     private void saveVmDynamic(List<VmAnalyzer> vmAnalyzers) {
-        vmDynamicDao.updateAllInBatch(vmAnalyzers.stream()
+        List<VmDynamic> vmDynamics = vmAnalyzers.stream()
                 .map(VmAnalyzer::getVmDynamicToSave)
                 .filter(Objects::nonNull)
-                .collect(Collectors.toList()));
+                .collect(Collectors.toList());
+        Map<Guid, Long> modificationCounts = vmDynamics.stream()
+                .collect(Collectors.toMap(VmDynamic::getId,
+                        vmDynamic -> vmDynamicDao.getModificationCount(vmDynamic.getId()),
+                        (count1, count2) -> -1L));
+        vmDynamicDao.updateAllInBatch(vmDynamics);
+        // the VmManager keeps the saved data, so the status events of the VM are analyzed without reading it again
+        vmDynamics.forEach(vmDynamic -> {
+            VmManager vmManager = getVmManager(vmDynamic.getId(), false);
+            if (vmManager != null) {
+                vmManager.setVmDynamic(vmDynamic, modificationCounts.get(vmDynamic.getId()));
+            }
+        });
     }
 
-    private void saveVmInterfaceStatistics(List<VmAnalyzer> vmAnalyzers) {
-        vmNetworkStatisticsDao.updateAllInBatch(vmAnalyzers.stream()
-                .map(VmAnalyzer::getVmNetworkStatistics)
-                .flatMap(List::stream)
-                .collect(Collectors.toList()));
+    private void saveVmInterfaceStatistics(List<VmAnalyzer> vmAnalyzers,
+            VmStatisticsChangeTracker.Changes statisticsChanges) {
+        vmNetworkStatisticsDao.updateAllInBatch(
+                vmStatisticsChangeTracker.filterChangedVmNetworkStatistics(vmAnalyzers.stream()
+                        .map(VmAnalyzer::getVmNetworkStatistics)
+                        .flatMap(List::stream)
+                        .collect(Collectors.toList()), statisticsChanges));
     }
 
-    private void saveVmStatistics(List<VmAnalyzer> vmAnalyzers) {
+    private void saveVmStatistics(List<VmAnalyzer> vmAnalyzers, VmStatisticsChangeTracker.Changes statisticsChanges) {
         List<VmStatistics> statistics = vmAnalyzers.stream()
                 .map(VmAnalyzer::getVmStatisticsToSave)
                 .filter(Objects::nonNull)
                 .collect(Collectors.toList());
-        vmStatisticsDao.updateAllInBatch(statistics);
+        vmStatisticsDao.updateAllInBatch(
+                vmStatisticsChangeTracker.filterChangedVmStatistics(statistics, statisticsChanges));
+        // the VmManager holds the latest statistics, also the ones which did not change enough to be saved
         statistics.forEach(stats -> {
             VmManager vmManager = getVmManager(stats.getId(), false);
             if (vmManager != null) {
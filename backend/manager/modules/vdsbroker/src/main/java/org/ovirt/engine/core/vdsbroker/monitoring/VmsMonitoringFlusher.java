@@ -0,0 +1,203 @@
+package org.ovirt.engine.core.vdsbroker.monitoring;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Coalesces the flushes of the VM data analyzed by the monitoring of different hosts into shared batches.
+ * <p>
+ * Each host keeps analyzing its VMs on its own monitoring thread and then hands its analyzers over to this class.
+ * The analyzers of all the hosts which are waiting for a flush are merged and written to the database at once by one
+ * of at most {@code maxConcurrentFlushes} tasks running on a dedicated executor. While a batch is being written the
+ * next one accumulates, so the number of database round trips per monitoring interval depends on the number of batches
+ * rather than on the number of hosts, and a host with many VMs or a slow connection does not hold back the others.
+ * </p>
+ * <p>
+ * The calling monitoring thread blocks until the batch containing its analyzers is written, so the post flush
+ * processing of the host keeps seeing its data persisted. If a merged batch fails it is retried host by host, so that
+ * bad data reported by one host does not fail the monitoring of the others.
+ * </p>
+ */
+class VmsMonitoringFlusher {
+
+    private static final Logger log = LoggerFactory.getLogger(VmsMonitoringFlusher.class);
+
+    /** Maximal number of VMs written in a single batch **/
+    static final int MAX_BATCH_VMS = 5000;
+
+    private final ExecutorService executor;
+    private final Consumer<List<VmAnalyzer>> flushAction;
+    private final int maxConcurrentFlushes;
+
+    private final Queue<FlushRequest> pendingRequests = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger activeFlushes = new AtomicInteger();
+
+    private final LongAdder flushedRequests = new LongAdder();
+    private final LongAdder flushedBatches = new LongAdder();
+
+    /**
+     * @param executor
+     *            - the executor running the flushes, when {@code null} each host flushes on its own thread
+     * @param flushAction
+     *            - writes the data of the given analyzers to the database
+     * @param maxConcurrentFlushes
+     *            - maximal number of batches written concurrently
+     */
+    VmsMonitoringFlusher(ExecutorService executor, Consumer<List<VmAnalyzer>> flushAction, int maxConcurrentFlushes) {
+        this.executor = executor;
+        this.flushAction = flushAction;
+        this.maxConcurrentFlushes = Math.max(maxConcurrentFlushes, 1);
+    }
+
+    /**
+     * Writes the data of the given analyzers, possibly together with the data reported by other hosts, and waits
+     * until it is written
+     */
+    public void flush(List<VmAnalyzer> vmAnalyzers) {
+        if (executor == null) {
+            flushAction.accept(vmAnalyzers);
+            flushedRequests.increment();
+            flushedBatches.increment();
+            return;
+        }
+
+        FlushRequest request = new FlushRequest(vmAnalyzers);
+        pendingRequests.add(request);
+        scheduleFlushIfNeeded();
+        request.await();
+    }
+
+    private void scheduleFlushIfNeeded() {
+        int active;
+        while ((active = activeFlushes.get()) < maxConcurrentFlushes) {
+            if (activeFlushes.compareAndSet(active, active + 1)) {
+                try {
+                    executor.submit(this::flushPendingRequests);
+                } catch (RejectedExecutionException e) {
+                    log.warn("Host monitoring executor rejected the flush, flushing on the monitoring thread");
+                    flushPendingRequests();
+                }
+                return;
+            }
+        }
+    }
+
+    private void flushPendingRequests() {
+        try {
+            List<FlushRequest> batch;
+            while (!(batch = pollBatch()).isEmpty()) {
+                flushBatch(batch);
+            }
+        } finally {
+            activeFlushes.decrementAndGet();
+        }
+        // a request may have been queued after the last poll while all the flushes were still active
+        if (!pendingRequests.isEmpty()) {
+            scheduleFlushIfNeeded();
+        }
+    }
+
+    private List<FlushRequest> pollBatch() {
+        List<FlushRequest> batch = new ArrayList<>();
+        int vms = 0;
+        FlushRequest request;
+        while (vms < MAX_BATCH_VMS && (request = pendingRequests.poll()) != null) {
+            batch.add(request);
+            vms += request.vmAnalyzers.size();
+        }
+        return batch;
+    }
+
+    private void flushBatch(List<FlushRequest> batch) {
+        if (batch.size() == 1) {
+            flushRequest(batch.get(0));
+            return;
+        }
+
+        List<VmAnalyzer> vmAnalyzers = new ArrayList<>();
+        batch.forEach(request -> vmAnalyzers.addAll(request.vmAnalyzers));
+        // keep the rows ordered the same way single host flushes do in order to prevent deadlocks in the database
+        vmAnalyzers.sort(Comparator.comparing(VmAnalyzer::getVmId));
+        try {
+            flushAction.accept(vmAnalyzers);
+        } catch (RuntimeException ex) {
+            log.warn("Failed to flush the monitoring data of {} hosts in one batch, flushing each host separately: {}",
+                    batch.size(),
+                    ex.getMessage());
+            log.debug("Exception:", ex);
+            batch.forEach(this::flushRequest);
+            return;
+        }
+        flushedBatches.increment();
+        flushedRequests.add(batch.size());
+        batch.forEach(request -> request.result.complete(null));
+        log.debug("Flushed the monitoring data of {} hosts ({} VMs) in one batch", batch.size(), vmAnalyzers.size());
+    }
+
+    private void flushRequest(FlushRequest request) {
+        try {
+            flushAction.accept(request.vmAnalyzers);
+            flushedBatches.increment();
+            flushedRequests.increment();
+            request.result.complete(null);
+        } catch (RuntimeException ex) {
+            request.result.completeExceptionally(ex);
+        }
+    }
+
+    /* visible for testing only */
+    int getPendingRequests() {
+        return pendingRequests.size();
+    }
+
+    /**
+     * @return the number of host flushes handled so far
+     */
+    public long getFlushedRequests() {
+        return flushedRequests.sum();
+    }
+
+    /**
+     * @return the number of batches written to the database so far
+     */
+    public long getFlushedBatches() {
+        return flushedBatches.sum();
+    }
+
+    private static class FlushRequest {
+
+        private final List<VmAnalyzer> vmAnalyzers;
+        private final CompletableFuture<Void> result = new CompletableFuture<>();
+
+        public FlushRequest(List<VmAnalyzer> vmAnalyzers) {
+            this.vmAnalyzers = vmAnalyzers;
+        }
+
+        public void await() {
+            try {
+                result.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the monitoring data to be flushed", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package org.ovirt.engine.core.vdsbroker.vdsbroker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+/**
+ * Decodes the flat fields of a VDSM struct into an entity by a table of fields, built once per entity type, instead of
+ * looking up and converting the fields one by one on each polling cycle.
+ *
+ * @param <T>
+ *            the type of the decoded entity
+ */
+public final class StructDecoder<T> {
+
+    private final StructField<T, ?>[] fields;
+
+    @SuppressWarnings("unchecked")
+    private StructDecoder(List<StructField<T, ?>> fields) {
+        this.fields = fields.toArray(new StructField[0]);
+    }
+
+    /**
+     * Sets the fields of the given entity from the given struct, in the order they were added to the decoder.
+     */
+    public void decode(Map<String, Object> struct, T entity) {
+        for (StructField<T, ?> field : fields) {
+            field.decode(struct, entity);
+        }
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    public static final class Builder<T> {
+
+        private final List<StructField<T, ?>> fields = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Adds a field which is always set, to {@code null} when the struct doesn't report it.
+         */
+        public <V> Builder<T> field(String name,
+                BiFunction<Map<String, Object>, String, V> reader,
+                BiConsumer<T, V> setter) {
+            fields.add(new StructField<>(name, reader, setter, false));
+            return this;
+        }
+
+        /**
+         * Adds a field which is set only when the struct reports a value for it, keeping the current value otherwise.
+         */
+        public <V> Builder<T> optionalField(String name,
+                BiFunction<Map<String, Object>, String, V> reader,
+                BiConsumer<T, V> setter) {
+            fields.add(new StructField<>(name, reader, setter, true));
+            return this;
+        }
+
+        public StructDecoder<T> build() {
+            return new StructDecoder<>(fields);
+        }
+    }
+
+    private static final class StructField<T, V> {
+
+        private final String name;
+        private final BiFunction<Map<String, Object>, String, V> reader;
+        private final BiConsumer<T, V> setter;
+        private final boolean optional;
+
+        private StructField(String name,
+                BiFunction<Map<String, Object>, String, V> reader,
+                BiConsumer<T, V> setter,
+                boolean optional) {
+            this.name = name;
+            this.reader = reader;
+            this.setter = setter;
+            this.optional = optional;
+        }
+
+        private void decode(Map<String, Object> struct, T entity) {
+            V value = reader.apply(struct, name);
+            if (value != null || !optional) {
+                setter.accept(entity, value);
+            }
+        }
+    }
+}
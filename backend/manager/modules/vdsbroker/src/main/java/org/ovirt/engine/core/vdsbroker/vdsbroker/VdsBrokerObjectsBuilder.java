@@ -85,7 +85,6 @@ import org.ovirt.engine.core.common.businessentities.network.Ipv4BootProtocol;
 import org.ovirt.engine.core.common.businessentities.network.Ipv6BootProtocol;
 import org.ovirt.engine.core.common.businessentities.network.NameServer;
 import org.ovirt.engine.core.common.businessentities.network.NetworkInterface;
-import org.ovirt.engine.core.common.businessentities.network.NetworkStatistics;
 import org.ovirt.engine.core.common.businessentities.network.Nic;
 import org.ovirt.engine.core.common.businessentities.network.VdsInterfaceType;
 import org.ovirt.engine.core.common.businessentities.network.VdsNetworkInterface;
@@ -145,6 +144,84 @@ public class VdsBrokerObjectsBuilder {
     private static final Pattern IPV6_ADDRESS_CAPTURE_PREFIX_PATTERN = Pattern.compile("^.*?/(\\d+)?$");
     private static final Pattern IPV6_ADDRESS_CAPTURE_PATTERN = Pattern.compile("^([^/]+)(:?/\\d{1,3})?$");
 
+    // the flat statistics fields reported on every polling cycle, decoded by tables built once
+    private static final StructDecoder<VDS> vdsStatisticsDecoder = StructDecoder.<VDS>builder()
+            .field(VdsProperties.cpu_sys, VdsBrokerObjectsBuilder::assignDoubleValue, VDS::setCpuSys)
+            .field(VdsProperties.cpu_user, VdsBrokerObjectsBuilder::assignDoubleValue, VDS::setCpuUser)
+            .field(VdsProperties.cpu_idle, VdsBrokerObjectsBuilder::assignDoubleValue, VDS::setCpuIdle)
+            .field(VdsProperties.memFree, VdsBrokerObjectsBuilder::assignLongValue, VDS::setMemFree)
+            .field(VdsProperties.mem_shared, VdsBrokerObjectsBuilder::assignLongValue, VDS::setMemShared)
+            .field(VdsProperties.swap_free, VdsBrokerObjectsBuilder::assignLongValue, VDS::setSwapFree)
+            .field(VdsProperties.swap_total, VdsBrokerObjectsBuilder::assignLongValue, VDS::setSwapTotal)
+            .field(VdsProperties.ksm_cpu_percent, VdsBrokerObjectsBuilder::assignIntValue, VDS::setKsmCpuPercent)
+            .field(VdsProperties.ksm_pages, VdsBrokerObjectsBuilder::assignLongValue, VDS::setKsmPages)
+            .field(VdsProperties.ksm_state, VdsBrokerObjectsBuilder::assignBoolValue, VDS::setKsmState)
+            .field(VdsProperties.netConfigDirty, VdsBrokerObjectsBuilder::assignBoolValue, VDS::setNetConfigDirty)
+            .field(VdsProperties.images_last_check, VdsBrokerObjectsBuilder::assignDoubleValue, VDS::setImagesLastCheck)
+            .field(VdsProperties.images_last_delay, VdsBrokerObjectsBuilder::assignDoubleValue, VDS::setImagesLastDelay)
+            .field(VdsProperties.vm_active, VdsBrokerObjectsBuilder::assignIntValue, VDS::setVmActive)
+            .field(VdsProperties.vm_migrating, VdsBrokerObjectsBuilder::assignIntValue, VDS::setVmMigrating)
+            .field(VdsProperties.bootTime, VdsBrokerObjectsBuilder::assignLongValue, VDS::setBootTime)
+            .build();
+    private static final StructDecoder<NetworkInterface<?>> interfaceStatisticsDecoder =
+            StructDecoder.<NetworkInterface<?>>builder()
+                    .field(VdsProperties.rx_dropped,
+                            VdsBrokerObjectsBuilder::assignBigIntegerValueWithNullProtection,
+                            (iface, value) -> iface.getStatistics().setReceiveDrops(value))
+                    .field(VdsProperties.rx_total,
+                            VdsBrokerObjectsBuilder::assignBigIntegerValue,
+                            (iface, value) -> iface.getStatistics().setReceivedBytes(value))
+                    .field(VdsProperties.tx_dropped,
+                            VdsBrokerObjectsBuilder::assignBigIntegerValueWithNullProtection,
+                            (iface, value) -> iface.getStatistics().setTransmitDrops(value))
+                    .field(VdsProperties.tx_total,
+                            VdsBrokerObjectsBuilder::assignBigIntegerValue,
+                            (iface, value) -> iface.getStatistics().setTransmittedBytes(value))
+                    .field(VdsProperties.sample_time,
+                            VdsBrokerObjectsBuilder::assignDoubleValue,
+                            (iface, value) -> iface.getStatistics().setSampleTime(value))
+                    .field(VdsProperties.INTERFACE_SPEED,
+                            VdsBrokerObjectsBuilder::assignIntValue,
+                            NetworkInterface::setSpeed)
+                    .build();
+    private static final StructDecoder<VmStatistics> vmStatisticsDecoder = StructDecoder.<VmStatistics>builder()
+            .field(VdsProperties.elapsed_time, VdsBrokerObjectsBuilder::assignDoubleValue, VmStatistics::setElapsedTime)
+            .field(VdsProperties.cpu_sys, VdsBrokerObjectsBuilder::assignDoubleValue, VmStatistics::setCpuSys)
+            .field(VdsProperties.cpu_user, VdsBrokerObjectsBuilder::assignDoubleValue, VmStatistics::setCpuUser)
+            .field(VdsProperties.vm_usage_mem_percent,
+                    VdsBrokerObjectsBuilder::assignIntValue,
+                    VmStatistics::setUsageMemPercent)
+            .build();
+    private static final StructDecoder<VmStatistics> vmGuestMemoryDecoder = StructDecoder.<VmStatistics>builder()
+            .optionalField(VdsProperties.vm_guest_mem_buffered,
+                    VdsBrokerObjectsBuilder::assignLongValue,
+                    VmStatistics::setGuestMemoryBuffered)
+            .optionalField(VdsProperties.vm_guest_mem_cached,
+                    VdsBrokerObjectsBuilder::assignLongValue,
+                    VmStatistics::setGuestMemoryCached)
+            .optionalField(VdsProperties.vm_guest_mem_free,
+                    VdsBrokerObjectsBuilder::assignLongValue,
+                    VmStatistics::setGuestMemoryFree)
+            .optionalField(VdsProperties.vm_guest_mem_unused,
+                    VdsBrokerObjectsBuilder::assignLongValue,
+                    VmStatistics::setGuestMemoryUnused)
+            .build();
+    private static final StructDecoder<DiskImageDynamic> diskStatisticsDecoder =
+            StructDecoder.<DiskImageDynamic>builder()
+                    .field(VdsProperties.vm_disk_read_rate,
+                            VdsBrokerObjectsBuilder::assignLongValue,
+                            DiskImageDynamic::setReadRate)
+                    .field(VdsProperties.vm_disk_read_ops,
+                            VdsBrokerObjectsBuilder::assignLongValue,
+                            DiskImageDynamic::setReadOps)
+                    .field(VdsProperties.vm_disk_write_rate,
+                            VdsBrokerObjectsBuilder::assignLongValue,
+                            DiskImageDynamic::setWriteRate)
+                    .field(VdsProperties.vm_disk_write_ops,
+                            VdsBrokerObjectsBuilder::assignLongValue,
+                            DiskImageDynamic::setWriteOps)
+                    .build();
+
     @Inject
     private AuditLogDirector auditLogDirector;
     @Inject
@@ -860,33 +937,16 @@ public class VdsBrokerObjectsBuilder {
             vm.setId(new Guid((String) struct.get(VdsProperties.vm_guid)));
         }
 
-        vm.setElapsedTime(assignDoubleValue(struct, VdsProperties.elapsed_time));
-
         if (struct.containsKey(VdsProperties.VM_DISKS_USAGE)) {
             initDisksUsage(struct, vm);
         }
 
-        // ------------- vm cpu statistics -----------------------
-        vm.setCpuSys(assignDoubleValue(struct, VdsProperties.cpu_sys));
-        vm.setCpuUser(assignDoubleValue(struct, VdsProperties.cpu_user));
+        // ------------- vm elapsed time, cpu and memory statistics -----------------------
+        vmStatisticsDecoder.decode(struct, vm);
 
-        // ------------- vm memory statistics -----------------------
-        vm.setUsageMemPercent(assignIntValue(struct, VdsProperties.vm_usage_mem_percent));
-
-        if (struct.containsKey(VdsProperties.vm_guest_mem_stats)) {
-            Map<String, Object> sub = (Map<String, Object>) struct.get(VdsProperties.vm_guest_mem_stats);
-            if (sub.containsKey(VdsProperties.vm_guest_mem_buffered)) {
-                vm.setGuestMemoryBuffered(Long.parseLong(sub.get(VdsProperties.vm_guest_mem_buffered).toString()));
-            }
-            if (sub.containsKey(VdsProperties.vm_guest_mem_cached)) {
-                vm.setGuestMemoryCached(Long.parseLong(sub.get(VdsProperties.vm_guest_mem_cached).toString()));
-            }
-            if (sub.containsKey(VdsProperties.vm_guest_mem_free)) {
-                vm.setGuestMemoryFree(Long.parseLong(sub.get(VdsProperties.vm_guest_mem_free).toString()));
-            }
-            if (sub.containsKey(VdsProperties.vm_guest_mem_unused)) {
-                vm.setGuestMemoryUnused(Long.parseLong(sub.get(VdsProperties.vm_guest_mem_unused).toString()));
-            }
+        Map<String, Object> guestMemoryStats = (Map<String, Object>) struct.get(VdsProperties.vm_guest_mem_stats);
+        if (guestMemoryStats != null) {
+            vmGuestMemoryDecoder.decode(guestMemoryStats, vm);
         }
 
         // ------------- vm migration statistics -----------------------
@@ -1275,13 +1335,14 @@ public class VdsBrokerObjectsBuilder {
             int networkUsage = 0;
             Map<String, VdsNetworkInterface> nicsByName = Entities.entitiesByName(vds.getInterfaces());
             NetworkStatisticsBuilder statsBuilder = new NetworkStatisticsBuilder();
+            // all the decoded statistics are overwritten for each interface, so a single reported one is reused
+            VdsNetworkInterface reportedIface = new VdsNetworkInterface();
             for (Entry<String, Object> entry : interfaces.entrySet()) {
-                if (nicsByName.containsKey(entry.getKey())) {
-                    VdsNetworkInterface existingIface = nicsByName.get(entry.getKey());
+                VdsNetworkInterface existingIface = nicsByName.get(entry.getKey());
+                if (existingIface != null) {
                     existingIface.setVdsId(vds.getId());
 
                     Map<String, Object> dict = (Map<String, Object>) entry.getValue();
-                    VdsNetworkInterface reportedIface = new VdsNetworkInterface();
                     extractInterfaceStatistics(dict, reportedIface);
 
                     statsBuilder.updateExistingInterfaceStatistics(existingIface, reportedIface);
@@ -1299,9 +1360,8 @@ public class VdsBrokerObjectsBuilder {
             vds.setUsageNetworkPercent(networkUsage);
         }
 
-        // ----------- vds cpu statistics info ---------------------
-        vds.setCpuSys(assignDoubleValue(struct, VdsProperties.cpu_sys));
-        vds.setCpuUser(assignDoubleValue(struct, VdsProperties.cpu_user));
+        // ----------- vds cpu, memory, ksm and vm count statistics ---------------------
+        vdsStatisticsDecoder.decode(struct, vds);
         if (vds.getCpuSys() != null && vds.getCpuUser() != null) {
             vds.setUsageCpuPercent((int) (vds.getCpuSys() + vds.getCpuUser()));
         }
@@ -1311,15 +1371,6 @@ public class VdsBrokerObjectsBuilder {
         Double d = assignDoubleValue(struct, VdsProperties.cpu_load);
         d = (d != null) ? d : 0;
         vds.setCpuLoad(d * 100.0);
-        vds.setCpuIdle(assignDoubleValue(struct, VdsProperties.cpu_idle));
-        vds.setMemFree(assignLongValue(struct, VdsProperties.memFree));
-        vds.setMemShared(assignLongValue(struct, VdsProperties.mem_shared));
-
-        vds.setSwapFree(assignLongValue(struct, VdsProperties.swap_free));
-        vds.setSwapTotal(assignLongValue(struct, VdsProperties.swap_total));
-        vds.setKsmCpuPercent(assignIntValue(struct, VdsProperties.ksm_cpu_percent));
-        vds.setKsmPages(assignLongValue(struct, VdsProperties.ksm_pages));
-        vds.setKsmState(assignBoolValue(struct, VdsProperties.ksm_state));
 
         // dynamic data got from GetVdsStats
         if (struct.containsKey(VdsProperties.transparent_huge_pages_state)) {
@@ -1346,15 +1397,9 @@ public class VdsBrokerObjectsBuilder {
                 vds.setHugePages(parsedHugePages);
             }
         }
-        vds.setNetConfigDirty(assignBoolValue(struct, VdsProperties.netConfigDirty));
-
-        vds.setImagesLastCheck(assignDoubleValue(struct, VdsProperties.images_last_check));
-        vds.setImagesLastDelay(assignDoubleValue(struct, VdsProperties.images_last_delay));
 
         Integer vm_count = assignIntValue(struct, VdsProperties.vm_count);
         vds.setVmCount(vm_count == null ? 0 : vm_count);
-        vds.setVmActive(assignIntValue(struct, VdsProperties.vm_active));
-        vds.setVmMigrating(assignIntValue(struct, VdsProperties.vm_migrating));
 
         Integer inOutMigrations;
         inOutMigrations = assignIntValue(struct, VdsProperties.INCOMING_VM_MIGRATIONS);
@@ -1404,8 +1449,6 @@ public class VdsBrokerObjectsBuilder {
         vds.setHighlyAvailableGlobalMaintenance(haGlobalMaint != null ? haGlobalMaint : false);
         vds.setHighlyAvailableLocalMaintenance(haLocalMaint != null ? haLocalMaint : false);
 
-        vds.setBootTime(assignLongValue(struct, VdsProperties.bootTime));
-
         // this method needs to be called after the free memory and hugepages are set to vds
         updateMemoryUsage(vds);
         updateNumaStatisticsData(vds, struct);
@@ -1425,14 +1468,7 @@ public class VdsBrokerObjectsBuilder {
     }
 
     private static void extractInterfaceStatistics(Map<String, Object> dict, NetworkInterface<?> iface) {
-        NetworkStatistics stats = iface.getStatistics();
-        stats.setReceiveDrops(assignBigIntegerValueWithNullProtection(dict, VdsProperties.rx_dropped));
-        stats.setReceivedBytes(assignBigIntegerValue(dict, VdsProperties.rx_total));
-        stats.setTransmitDrops(assignBigIntegerValueWithNullProtection(dict, VdsProperties.tx_dropped));
-        stats.setTransmittedBytes(assignBigIntegerValue(dict, VdsProperties.tx_total));
-        stats.setSampleTime(assignDoubleValue(dict, VdsProperties.sample_time));
-
-        iface.setSpeed(assignIntValue(dict, VdsProperties.INTERFACE_SPEED));
+        interfaceStatisticsDecoder.decode(dict, iface);
     }
 
     private static Double computeInterfaceUsage(VdsNetworkInterface iface) {
@@ -1632,10 +1668,11 @@ public class VdsBrokerObjectsBuilder {
 
     private static InterfaceStatus assignInterfaceStatusValue(Map<String, Object> input, String name) {
         InterfaceStatus ifaceStatus = InterfaceStatus.NONE;
-        if (input.containsKey(name)) {
-            String stringValue = (String) ((input.get(name) instanceof String) ? input.get(name) : null);
-            if (!StringUtils.isEmpty(stringValue)) {
-                if (stringValue.toLowerCase().trim().equals("up")) {
+        Object value = input.get(name);
+        if (value instanceof String) {
+            String stringValue = (String) value;
+            if (!stringValue.isEmpty()) {
+                if (stringValue.trim().equalsIgnoreCase("up")) {
                     ifaceStatus = InterfaceStatus.UP;
                 } else {
                     ifaceStatus = InterfaceStatus.DOWN;
@@ -1667,15 +1704,16 @@ public class VdsBrokerObjectsBuilder {
     }
 
     private static Integer assignIntValue(Map input, String name) {
-        if (input.containsKey(name)) {
-            if (input.get(name) instanceof Integer) {
-                return (Integer) input.get(name);
+        Object value = input.get(name);
+        if (value != null) {
+            if (value instanceof Integer) {
+                return (Integer) value;
             }
-            String stringValue = (String) input.get(name);
+            String stringValue = (String) value;
             if (StringUtils.isNotEmpty(stringValue)) { // in case the input
                                                        // is decimal and we
                                                        // need int.
-                stringValue = stringValue.split("[.]", -1)[0];
+                stringValue = integerPart(stringValue);
 
                 try {
                     return Integer.parseInt(stringValue);
@@ -1688,15 +1726,16 @@ public class VdsBrokerObjectsBuilder {
     }
 
     private static Long assignLongValue(Map<String, Object> input, String name) {
-        if (input.containsKey(name)) {
-            if (input.get(name) instanceof Long || input.get(name) instanceof Integer) {
-                return Long.parseLong(input.get(name).toString());
+        Object value = input.get(name);
+        if (value != null) {
+            if (value instanceof Long || value instanceof Integer) {
+                return ((Number) value).longValue();
             }
-            String stringValue = (String) ((input.get(name) instanceof String) ? input.get(name) : null);
+            String stringValue = (String) ((value instanceof String) ? value : null);
             if (!StringUtils.isEmpty(stringValue)) { // in case the input
                                                      // is decimal and we
                                                      // need int.
-                stringValue = stringValue.split("[.]", -1)[0];
+                stringValue = integerPart(stringValue);
 
                 try {
                     return Long.parseLong(stringValue);
@@ -1714,16 +1753,16 @@ public class VdsBrokerObjectsBuilder {
     }
 
     private static BigInteger assignBigIntegerValue(Map<String, Object> input, String name) {
-        if (input.containsKey(name)) {
-            Object inputName = input.get(name);
+        Object inputName = input.get(name);
+        if (inputName != null) {
             if (inputName instanceof Long || inputName instanceof Integer) {
-                return new BigInteger(inputName.toString());
+                return BigInteger.valueOf(((Number) inputName).longValue());
             }
             String stringValue = (String) ((inputName instanceof String) ? inputName : null);
             if (!StringUtils.isEmpty(stringValue)) { // in case the input
                                                      // is decimal and we
                                                      // need int.
-                stringValue = stringValue.split("[.]", -1)[0];
+                stringValue = integerPart(stringValue);
 
                 try {
                     return new BigInteger(stringValue);
@@ -1736,10 +1775,16 @@ public class VdsBrokerObjectsBuilder {
     }
 
     private static String assignStringValue(Map<String, Object> input, String name) {
-        if (input.containsKey(name)) {
-            return (String) ((input.get(name) instanceof String) ? input.get(name) : null);
-        }
-        return null;
+        Object value = input.get(name);
+        return value instanceof String ? (String) value : null;
+    }
+
+    /**
+     * Returns the part of the given number before its decimal point, without compiling a split pattern per value.
+     */
+    private static String integerPart(String number) {
+        int point = number.indexOf('.');
+        return point < 0 ? number : number.substring(0, point);
     }
 
     private static String[] assignStringArrayValue(Map<String, Object> input, String name) {
@@ -1807,10 +1852,7 @@ public class VdsBrokerObjectsBuilder {
             if (!StringUtils.isEmpty(imageGroupIdString)) {
                 Guid imageGroupIdGuid = new Guid(imageGroupIdString);
                 diskData.setId(imageGroupIdGuid);
-                diskData.setReadRate(assignLongValue(disk, VdsProperties.vm_disk_read_rate));
-                diskData.setReadOps(assignLongValue(disk, VdsProperties.vm_disk_read_ops));
-                diskData.setWriteRate(assignLongValue(disk, VdsProperties.vm_disk_write_rate));
-                diskData.setWriteOps(assignLongValue(disk, VdsProperties.vm_disk_write_ops));
+                diskStatisticsDecoder.decode(disk, diskData);
 
                 if (disk.containsKey(VdsProperties.disk_true_size)) {
                     Long size = assignLongValue(disk, VdsProperties.disk_true_size);
@@ -0,0 +1,126 @@
+package org.ovirt.engine.core.vdsbroker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.ovirt.engine.core.common.businessentities.VMStatus;
+import org.ovirt.engine.core.common.businessentities.VmDynamic;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dao.VmDynamicDao;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class VmManagerTest {
+
+    private static final Guid VM_ID = Guid.newGuid();
+
+    @Mock
+    private VmDynamicDao vmDynamicDao;
+
+    @InjectMocks
+    private VmManager vmManager = new VmManager(VM_ID);
+
+    private VmDynamic dbVmDynamic;
+
+    @BeforeEach
+    public void setUp() {
+        dbVmDynamic = createVmDynamic(VMStatus.Up);
+        when(vmDynamicDao.get(VM_ID)).thenReturn(dbVmDynamic);
+        when(vmDynamicDao.getModificationCount(VM_ID)).thenReturn(3L);
+    }
+
+    @Test
+    public void testVmDynamicLoadedOnceWhileUnmodified() {
+        VmDynamic vmDynamic = vmManager.getVmDynamic();
+        assertEquals(VMStatus.Up, vmDynamic.getStatus());
+
+        VmDynamic cachedVmDynamic = vmManager.getVmDynamic();
+        assertEquals(VMStatus.Up, cachedVmDynamic.getStatus());
+        verify(vmDynamicDao, times(1)).get(VM_ID);
+
+        // each caller gets its own copy it may change
+        assertNotSame(vmDynamic, cachedVmDynamic);
+        assertNotSame(dbVmDynamic, cachedVmDynamic);
+    }
+
+    @Test
+    public void testVmDynamicReloadedWhenModified() {
+        vmManager.getVmDynamic();
+
+        when(vmDynamicDao.getModificationCount(VM_ID)).thenReturn(4L);
+        when(vmDynamicDao.get(VM_ID)).thenReturn(createVmDynamic(VMStatus.Paused));
+
+        assertEquals(VMStatus.Paused, vmManager.getVmDynamic().getStatus());
+        verify(vmDynamicDao, times(2)).get(VM_ID);
+    }
+
+    @Test
+    public void testVmDynamicNotCachedWithinTransaction() {
+        when(vmDynamicDao.getModificationCount(VM_ID)).thenReturn(-1L);
+
+        vmManager.getVmDynamic();
+        vmManager.getVmDynamic();
+
+        verify(vmDynamicDao, times(2)).get(VM_ID);
+    }
+
+    @Test
+    public void testWrittenVmDynamicIsCached() {
+        // the data was written by the modification following the given count
+        when(vmDynamicDao.getModificationCount(VM_ID)).thenReturn(4L);
+        vmManager.setVmDynamic(createVmDynamic(VMStatus.Paused), 3L);
+
+        assertEquals(VMStatus.Paused, vmManager.getVmDynamic().getStatus());
+        verify(vmDynamicDao, never()).get(VM_ID);
+    }
+
+    @Test
+    public void testWrittenVmDynamicIgnoredWhenModifiedMeanwhile() {
+        // another modification happened after the data was written
+        when(vmDynamicDao.getModificationCount(VM_ID)).thenReturn(5L);
+        vmManager.setVmDynamic(createVmDynamic(VMStatus.Paused), 3L);
+
+        assertEquals(VMStatus.Up, vmManager.getVmDynamic().getStatus());
+        verify(vmDynamicDao).get(VM_ID);
+    }
+
+    @Test
+    public void testWrittenVmDynamicIgnoredWithinTransaction() {
+        when(vmDynamicDao.getModificationCount(VM_ID)).thenReturn(-1L);
+        vmManager.setVmDynamic(createVmDynamic(VMStatus.Paused), -1L);
+
+        assertEquals(VMStatus.Up, vmManager.getVmDynamic().getStatus());
+        verify(vmDynamicDao).get(VM_ID);
+    }
+
+    @Test
+    public void testWrittenVmDynamicIsCopied() {
+        VmDynamic vmDynamic = createVmDynamic(VMStatus.Paused);
+        when(vmDynamicDao.getModificationCount(VM_ID)).thenReturn(4L);
+        vmManager.setVmDynamic(vmDynamic, 3L);
+
+        // changes made by the writer after it is cached don't leak into the cache
+        vmDynamic.setStatus(VMStatus.Down);
+
+        assertEquals(VMStatus.Paused, vmManager.getVmDynamic().getStatus());
+    }
+
+    private static VmDynamic createVmDynamic(VMStatus status) {
+        VmDynamic vmDynamic = new VmDynamic();
+        vmDynamic.setId(VM_ID);
+        vmDynamic.setStatus(status);
+        return vmDynamic;
+    }
+}
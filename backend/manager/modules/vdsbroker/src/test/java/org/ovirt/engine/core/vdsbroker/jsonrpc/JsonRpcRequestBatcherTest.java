@@ -0,0 +1,174 @@
+package org.ovirt.engine.core.vdsbroker.jsonrpc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.ovirt.vdsm.jsonrpc.client.JsonRpcClient;
+import org.ovirt.vdsm.jsonrpc.client.JsonRpcRequest;
+import org.ovirt.vdsm.jsonrpc.client.JsonRpcResponse;
+import org.ovirt.vdsm.jsonrpc.client.RequestBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class JsonRpcRequestBatcherTest {
+
+    private JsonRpcClient client;
+    private JsonRpcMonitor monitor;
+
+    @BeforeEach
+    public void setUp() {
+        client = mock(JsonRpcClient.class);
+        monitor = mock(JsonRpcMonitor.class);
+    }
+
+    @Test
+    public void testRequestSentAloneWhenBatchingDisabled() throws Exception {
+        JsonRpcRequestBatcher batcher = new JsonRpcRequestBatcher(client, 1, 0, 0, 1000, monitor);
+        JsonRpcRequest request = new RequestBuilder("Host.ping").build();
+        JsonRpcResponse response = responseTo(request);
+        when(client.call(request)).thenReturn(CompletableFuture.completedFuture(response));
+
+        assertSame(response, batcher.call(request).get());
+        verify(client, never()).batchCall(anyList());
+        assertEquals(0, batcher.getInFlightRequests());
+    }
+
+    @Test
+    public void testConcurrentRequestsSentInBatch() throws Exception {
+        // the window lets the second request join the frame of the first one
+        JsonRpcRequestBatcher batcher = new JsonRpcRequestBatcher(client, 8, 500, 0, 1000, monitor);
+        JsonRpcRequest request1 = new RequestBuilder("Host.ping").build();
+        JsonRpcRequest request2 = new RequestBuilder("Host.ping").build();
+        JsonRpcResponse response1 = responseTo(request1);
+        JsonRpcResponse response2 = responseTo(request2);
+        when(client.batchCall(anyList()))
+                .thenReturn(CompletableFuture.completedFuture(Arrays.asList(response2, response1)));
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            Future<Future<JsonRpcResponse>> call1 = executor.submit(() -> {
+                start.await();
+                return batcher.call(request1);
+            });
+            Future<Future<JsonRpcResponse>> call2 = executor.submit(() -> {
+                start.await();
+                return batcher.call(request2);
+            });
+            start.countDown();
+
+            assertSame(response1, call1.get(5, TimeUnit.SECONDS).get());
+            assertSame(response2, call2.get(5, TimeUnit.SECONDS).get());
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(client, times(1)).batchCall(anyList());
+        verify(client, never()).call(any());
+    }
+
+    @Test
+    public void testRequestSentOverInFlightLimitAfterWaiting() throws Exception {
+        JsonRpcRequestBatcher batcher = new JsonRpcRequestBatcher(client, 1, 0, 1, 50, monitor);
+        JsonRpcRequest request1 = new RequestBuilder("Host.ping").build();
+        JsonRpcRequest request2 = new RequestBuilder("Host.ping").build();
+        CompletableFuture<JsonRpcResponse> response1 = new CompletableFuture<>();
+        when(client.call(request1)).thenReturn(response1);
+        when(client.call(request2)).thenReturn(new CompletableFuture<>());
+
+        batcher.call(request1);
+        assertEquals(1, batcher.getInFlightRequests());
+        batcher.call(request2);
+        assertEquals(2, batcher.getInFlightRequests());
+
+        response1.complete(responseTo(request1));
+        assertEquals(1, batcher.getInFlightRequests());
+    }
+
+    @Test
+    public void testInFlightRequestsNotTrackedWithoutLimit() throws Exception {
+        JsonRpcRequestBatcher batcher = new JsonRpcRequestBatcher(client, 1, 0, 0, 1000, monitor);
+        JsonRpcRequest request = new RequestBuilder("Host.ping").build();
+        @SuppressWarnings("unchecked")
+        Future<JsonRpcResponse> response = mock(Future.class);
+        when(client.call(request)).thenReturn(response);
+
+        batcher.call(request);
+        batcher.call(request);
+
+        assertFalse(batcher.isInFlightLimited());
+        assertEquals(0, batcher.getInFlightRequests());
+        // the responses are never checked for arrival
+        verify(response, never()).isDone();
+    }
+
+    @Test
+    public void testThrottledCallSentOnceResponseRead() throws Exception {
+        // the response timeout is long enough for the test to fail if the call waited for it
+        JsonRpcRequestBatcher batcher = new JsonRpcRequestBatcher(client, 1, 0, 1, 60000, monitor);
+        JsonRpcRequest request1 = new RequestBuilder("Host.ping").build();
+        JsonRpcRequest request2 = new RequestBuilder("Host.ping").build();
+        CompletableFuture<JsonRpcResponse> response1 = new CompletableFuture<>();
+        when(client.call(request1)).thenReturn(response1);
+        when(client.call(request2)).thenReturn(new CompletableFuture<>());
+
+        Future<JsonRpcResponse> sent1 = batcher.call(request1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Future<JsonRpcResponse>> call2 = executor.submit(() -> batcher.call(request2));
+
+            response1.complete(responseTo(request1));
+            sent1.get();
+
+            call2.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, batcher.getInFlightRequests());
+        assertTrue(batcher.getStatistics().toString().contains("over limit=0"));
+    }
+
+    @Test
+    public void testResponseReadTimeRecordedOnce() throws Exception {
+        JsonRpcRequestBatcher batcher = new JsonRpcRequestBatcher(client, 1, 0, 0, 1000, monitor);
+        JsonRpcRequest request = new RequestBuilder("Host.ping").build();
+        when(client.call(request)).thenReturn(CompletableFuture.completedFuture(responseTo(request)));
+
+        Future<JsonRpcResponse> response = batcher.call(request);
+        assertEquals(0, batcher.getStatistics().getResponseReadTime().getCount());
+
+        response.get();
+        response.get(1, TimeUnit.SECONDS);
+        assertEquals(1, batcher.getStatistics().getResponseReadTime().getCount());
+    }
+
+    @Test
+    public void testCloseUnregistersFromMonitor() {
+        JsonRpcRequestBatcher batcher = new JsonRpcRequestBatcher(client, 1, 0, 0, 1000, monitor);
+        batcher.close();
+        verify(monitor).unregister(batcher);
+    }
+
+    private static JsonRpcResponse responseTo(JsonRpcRequest request) throws Exception {
+        String json = "{\"jsonrpc\": \"2.0\", \"id\": " + request.getId() + ", \"result\": true}";
+        return JsonRpcResponse.fromJsonNode(new ObjectMapper().readTree(json));
+    }
+}
@@ -0,0 +1,94 @@
+package org.ovirt.engine.core.vdsbroker.libvirt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class DomainXmlTest {
+
+    @Test
+    public void testDomainElements() throws Exception {
+        DomainXml domainXml = DomainXml.parse(DOMAIN_XML);
+        assertEquals("vm1", domainXml.getDomainElement("name").getText());
+        assertEquals("1048576", domainXml.getDomainElement("memory").getText());
+        assertEquals("2", domainXml.getDomainElement("cpu").getChild("topology").getAttribute("sockets"));
+        assertEquals("pc-q35-rhel8.1.0", DomainXmlUtils.parseEmulatedMachine(domainXml.getDomainElement("os")));
+        // skipped subtrees
+        assertNull(domainXml.getDomainElement("cputune"));
+        assertNull(domainXml.getDomainElement("vcpupin"));
+    }
+
+    @Test
+    public void testDevices() throws Exception {
+        DomainXml domainXml = DomainXml.parse(DOMAIN_XML);
+        List<DomainXmlElement> memories = domainXml.getDevices("memory");
+        assertEquals(2, memories.size());
+        assertEquals("nvdimm", memories.get(1).getAttribute("model"));
+        assertEquals("524288", memories.get(0).getChild("target").getChild("size").getText());
+        assertEquals("ua-1", VmDevicesConverter.parseAlias(domainXml.getDevice("interface")));
+        assertEquals("{type=pci, slot=0x03, bus=0x00, domain=0x0000, function=0x0}",
+                DomainXmlUtils.parseAddress(domainXml.getDevice("interface")));
+        assertEquals("", VmDevicesConverter.parseAlias(domainXml.getDevice("emulator")));
+        assertTrue(domainXml.getDevices("disk").isEmpty());
+        assertNull(domainXml.getDevice("disk"));
+    }
+
+    @Test
+    public void testOvirtVmMetadata() throws Exception {
+        DomainXmlElement vm = DomainXml.parse(DOMAIN_XML).getOvirtVmMetadata();
+        List<DomainXmlElement> devices = vm.getChildren("device");
+        assertEquals(1, devices.size());
+        assertEquals("disk", devices.get(0).getAttribute("devtype"));
+        assertEquals("sda", devices.get(0).getChild("guestName").getText());
+        assertNull(DomainXml.parse("<domain><name>vm2</name></domain>").getOvirtVmMetadata());
+    }
+
+    private static final String DOMAIN_XML = "<?xml version='1.0' encoding='UTF-8'?>\n" +
+            "<domain type='kvm' id='1' xmlns:ovirt-vm='http://ovirt.org/vm/1.0'>\n" +
+            "  <name>vm1</name>\n" +
+            "  <metadata xmlns:ns0='http://ovirt.org/vm/tune/1.0'>\n" +
+            "    <ns0:qos/>\n" +
+            "    <ovirt-vm:vm>\n" +
+            "      <ovirt-vm:clusterVersion>4.4</ovirt-vm:clusterVersion>\n" +
+            "      <ovirt-vm:device devtype='disk' name='sda'>\n" +
+            "        <ovirt-vm:guestName>sda</ovirt-vm:guestName>\n" +
+            "        <ovirt-vm:imageID>b75eef2b-c96c-4ac9-a720-90d3f8235249</ovirt-vm:imageID>\n" +
+            "      </ovirt-vm:device>\n" +
+            "    </ovirt-vm:vm>\n" +
+            "  </metadata>\n" +
+            "  <memory unit='KiB'>1048576</memory>\n" +
+            "  <cputune>\n" +
+            "    <vcpupin vcpu='0' cpuset='0'/>\n" +
+            "  </cputune>\n" +
+            "  <os>\n" +
+            "    <type arch='x86_64' machine='pc-q35-rhel8.1.0'>hvm</type>\n" +
+            "  </os>\n" +
+            "  <cpu mode='custom' match='exact'>\n" +
+            "    <topology sockets='2' cores='1' threads='1'/>\n" +
+            "  </cpu>\n" +
+            "  <devices>\n" +
+            "    <emulator>/usr/libexec/qemu-kvm</emulator>\n" +
+            "    <!-- a comment between the devices -->\n" +
+            "    <interface type='bridge'>\n" +
+            "      <mac address='56:6f:1a:2b:00:00'/>\n" +
+            "      <alias name='ua-1'/>\n" +
+            "      <address type='pci' domain='0x0000' bus='0x00' slot='0x03' function='0x0'/>\n" +
+            "    </interface>\n" +
+            "    <memory model='dimm'>\n" +
+            "      <target>\n" +
+            "        <size unit='KiB'>524288</size>\n" +
+            "        <node>0</node>\n" +
+            "      </target>\n" +
+            "    </memory>\n" +
+            "    <memory model='nvdimm'>\n" +
+            "      <source>\n" +
+            "        <path>/dev/pmem0</path>\n" +
+            "      </source>\n" +
+            "    </memory>\n" +
+            "  </devices>\n" +
+            "</domain>";
+}
@@ -11,7 +11,6 @@ import org.ovirt.engine.core.common.businessentities.VmDevice;
 import org.ovirt.engine.core.common.businessentities.VmDeviceGeneralType;
 import org.ovirt.engine.core.common.businessentities.VmDeviceId;
 import org.ovirt.engine.core.compat.Guid;
-import org.ovirt.engine.core.utils.ovf.xml.XmlDocument;
 import org.ovirt.engine.core.vdsbroker.vdsbroker.VdsProperties;
 
 public class VmDevicesConverterTest {
@@ -20,15 +19,15 @@ public class VmDevicesConverterTest {
 
     @Test
     public void parseVolumeChainNoItem() throws Exception {
-        XmlDocument devices = new XmlDocument(DEVICES_XML);
-        List<Map<String, Object>> res = converter.parseVolumeChain(devices.selectSingleNode("//*/disk[1]"));
+        DomainXml domainXml = DomainXml.parse(DOMAIN_XML);
+        List<Map<String, Object>> res = converter.parseVolumeChain(domainXml.getDevices("disk").get(0));
         assertEquals(0, res.size());
     }
 
     @Test
     public void parseVolumeChainMoreItems() throws Exception {
-        XmlDocument devices = new XmlDocument(DEVICES_XML);
-        List<Map<String, Object>> res = converter.parseVolumeChain(devices.selectSingleNode("//*/disk[2]"));
+        DomainXml domainXml = DomainXml.parse(DOMAIN_XML);
+        List<Map<String, Object>> res = converter.parseVolumeChain(domainXml.getDevices("disk").get(1));
         assertEquals(3, res.size());
         assertEquals("cc5beaf2-3265-4b36-b7be-4f23dc3b07af", res.get(0).get(VdsProperties.VolumeId));
         assertEquals("fff3c995-e7c3-4a2c-96a3-f0ce569a57c2", res.get(1).get(VdsProperties.VolumeId));
@@ -51,7 +50,7 @@ public class VmDevicesConverterTest {
 
     @Test
     void parseHostevDisk() throws Exception {
-        XmlDocument xmlDevices = new XmlDocument(DEVICES_XML);
+        DomainXml domainXml = DomainXml.parse(DOMAIN_XML);
         VmDevice disk = new VmDevice();
         disk.setAlias("ua-24f658ce-619b-47e1-a7d9-f19ed024c3fc");
         disk.setType(VmDeviceGeneralType.DISK);
@@ -64,13 +63,14 @@ public class VmDevicesConverterTest {
 
         List<VmDevice> devices = Arrays.asList(disk, hostdev);
 
-        List<Map<String, Object>> res = converter.parseDisks(xmlDevices, devices, false);
+        List<Map<String, Object>> res = converter.parseDisks(domainXml, devices, false);
         assertEquals(2, res.size());
         assertEquals("24f658ce-619b-47e1-a7d9-f19ed024c3fc", res.get(0).get(VdsProperties.DeviceId));
         assertEquals("c0a9d379-6798-4859-ab3b-7c04006dd82e", res.get(1).get(VdsProperties.DeviceId));
     }
 
-    private static String DEVICES_XML = "  <devices>\n" +
+    private static String DOMAIN_XML = "<domain type='kvm' id='1'>\n" +
+            "  <devices>\n" +
             "    <emulator>/usr/libexec/qemu-kvm</emulator>\n" +
             "    <disk type='file' device='cdrom'>\n" +
             "      <driver name='qemu' type='raw'/>\n" +
@@ -111,6 +111,7 @@ public class VmDevicesConverterTest {
             "      <alias name='ua-c0a9d379-6798-4859-ab3b-7c04006dd82e'/>\n" +
             "      <address type='drive' controller='100' bus='0' target='0' unit='2'/>\n" +
             "    </disk>\n" +
-            "</devices>";
+            "</devices>\n" +
+            "</domain>";
 
 }
@@ -0,0 +1,226 @@
+package org.ovirt.engine.core.vdsbroker.monitoring;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.enterprise.concurrent.ManagedScheduledExecutorService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.internal.configuration.plugins.Plugins;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.plugins.MemberAccessor;
+import org.mockito.quality.Strictness;
+import org.ovirt.engine.core.common.businessentities.VmDynamic;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.common.utils.Pair;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.utils.InjectorExtension;
+import org.ovirt.engine.core.utils.MockConfigDescriptor;
+import org.ovirt.engine.core.utils.MockConfigExtension;
+import org.ovirt.engine.core.vdsbroker.ResourceManager;
+import org.ovirt.engine.core.vdsbroker.VdsManager;
+import org.ovirt.engine.core.vdsbroker.VmManager;
+import org.ovirt.engine.core.vdsbroker.vdsbroker.VdsBrokerObjectsBuilder;
+
+@ExtendWith({ MockConfigExtension.class, InjectorExtension.class, MockitoExtension.class })
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class EventVmStatsRefresherTest {
+
+    private static final int COALESCING_WINDOW = 100;
+    private static final String NOTIFY_TIME = "notify_time";
+
+    private final Guid vmId1 = Guid.newGuid();
+    private final Guid vmId2 = Guid.newGuid();
+
+    private final MemberAccessor accessor = Plugins.getMemberAccessor();
+
+    @Mock
+    private VdsManager vdsManager;
+
+    @Mock
+    private ResourceManager resourceManager;
+
+    @Mock
+    private VmManager vmManager;
+
+    @Mock
+    private VdsBrokerObjectsBuilder vdsBrokerObjectsBuilder;
+
+    @Mock
+    private ManagedScheduledExecutorService schedulerService;
+
+    @Mock
+    private ScheduledFuture<?> scheduledFuture;
+
+    @Mock
+    private VmsMonitoring vmsMonitoring;
+
+    @Captor
+    private ArgumentCaptor<List<Pair<VmDynamic, VdsmVm>>> monitoredVmsCaptor;
+
+    private final List<Runnable> scheduledRuns = new ArrayList<>();
+
+    private final Map<Guid, Map<String, Object>> reportedVmMaps = new HashMap<>();
+
+    private EventVmStatsRefresher refresher;
+
+    public static Stream<MockConfigDescriptor<?>> mockConfiguration() {
+        return Stream.of(MockConfigDescriptor.of(ConfigValues.VmStatusEventsCoalescingWindowInMillis,
+                COALESCING_WINDOW));
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        refresher = spy(new EventVmStatsRefresher(vdsManager, resourceManager));
+        accessor.set(EventVmStatsRefresher.class.getDeclaredField("vdsBrokerObjectsBuilder"),
+                refresher,
+                vdsBrokerObjectsBuilder);
+        accessor.set(EventVmStatsRefresher.class.getDeclaredField("schedulerService"), refresher, schedulerService);
+        doReturn(vmsMonitoring).when(refresher).getVmsMonitoring();
+        doNothing().when(refresher).processDevices(any(), anyLong());
+
+        doAnswer(invocation -> {
+            scheduledRuns.add(invocation.getArgument(0));
+            return scheduledFuture;
+        }).when(schedulerService).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+        when(resourceManager.getVmManager(any())).thenReturn(vmManager);
+        doAnswer(invocation -> (Double) invocation.<Map<String, Object>> getArgument(0).remove(NOTIFY_TIME))
+                .when(vdsBrokerObjectsBuilder).removeNotifyTimeFromVmStatusEvent(anyMap());
+        doAnswer(invocation -> {
+            VmDynamic vmDynamic = invocation.getArgument(0);
+            reportedVmMaps.put(vmDynamic.getId(), invocation.getArgument(1));
+            return null;
+        }).when(vdsBrokerObjectsBuilder).updateVMDynamicData(any(), anyMap(), any());
+    }
+
+    @Test
+    public void testEventsOfSameVmAreMerged() {
+        refresher.addPendingVms(event(1.0, vmId1, Map.of("status", "Up", "cpuUser", "1")));
+        refresher.addPendingVms(event(2.0, vmId1, Map.of("cpuUser", "2", "cpuSys", "3")));
+
+        verify(schedulerService).schedule(any(Runnable.class), eq((long) COALESCING_WINDOW), eq(TimeUnit.MILLISECONDS));
+        runNextScheduled();
+
+        List<Pair<VmDynamic, VdsmVm>> monitoredVms = verifyPerformed(1).get(0);
+        assertEquals(1, monitoredVms.size());
+        assertEquals(vmId1, monitoredVms.get(0).getSecond().getId());
+        assertEquals(2.0, monitoredVms.get(0).getSecond().getTimestamp());
+        assertEquals(Map.of("status", "Up", "cpuUser", "2", "cpuSys", "3"), reportedVmMaps.get(vmId1));
+    }
+
+    @Test
+    public void testMergedEventsKeepEarliestFetchTime() {
+        refresher.addPendingVms(event(1.0, vmId1, Map.of("status", "Up")));
+        long betweenEvents = System.nanoTime();
+        refresher.addPendingVms(event(2.0, vmId1, Map.of("cpuUser", "2")));
+        runNextScheduled();
+
+        // the merged data still holds the status reported by the first event
+        ArgumentCaptor<Long> fetchTime = ArgumentCaptor.forClass(Long.class);
+        verify(vmsMonitoring).perform(any(), fetchTime.capture(), any(), eq(false));
+        assertTrue(fetchTime.getValue() - betweenEvents < 0);
+    }
+
+    @Test
+    public void testVmsOfBatchKeepTheirOrder() {
+        refresher.addPendingVms(event(1.0, vmId1, Map.of("status", "Up")));
+        refresher.addPendingVms(event(2.0, vmId2, Map.of("status", "Up")));
+        refresher.addPendingVms(event(3.0, vmId1, Map.of("status", "Paused")));
+        runNextScheduled();
+
+        List<Pair<VmDynamic, VdsmVm>> monitoredVms = verifyPerformed(1).get(0);
+        assertEquals(List.of(vmId1, vmId2),
+                monitoredVms.stream().map(vm -> vm.getSecond().getId()).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testEventsReceivedWhileProcessingAreProcessedByNextRun() {
+        doAnswer(invocation -> {
+            refresher.addPendingVms(event(2.0, vmId2, Map.of("status", "Up")));
+            return null;
+        }).doNothing().when(vmsMonitoring).perform(any(), anyLong(), any(), eq(false));
+
+        refresher.addPendingVms(event(1.0, vmId1, Map.of("status", "Up")));
+        runNextScheduled();
+
+        // the run processes a single batch and schedules the next one instead of looping
+        List<List<Pair<VmDynamic, VdsmVm>>> batches = verifyPerformed(1);
+        assertEquals(vmId1, batches.get(0).get(0).getSecond().getId());
+        assertEquals(1, scheduledRuns.size());
+
+        runNextScheduled();
+
+        batches = verifyPerformed(2);
+        assertEquals(1, batches.get(1).size());
+        assertEquals(vmId2, batches.get(1).get(0).getSecond().getId());
+        assertEquals(0, scheduledRuns.size());
+        verify(schedulerService, times(2)).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+    }
+
+    @Test
+    public void testFailedRunDoesNotStopProcessing() {
+        doAnswer(invocation -> {
+            refresher.addPendingVms(event(2.0, vmId2, Map.of("status", "Up")));
+            throw new IllegalStateException();
+        }).doNothing().when(vmsMonitoring).perform(any(), anyLong(), any(), eq(false));
+
+        refresher.addPendingVms(event(1.0, vmId1, Map.of("status", "Up")));
+        runNextScheduled();
+        runNextScheduled();
+
+        assertEquals(vmId2, verifyPerformed(2).get(1).get(0).getSecond().getId());
+    }
+
+    @Test
+    public void testNothingScheduledWithoutEvents() {
+        verify(schedulerService, never()).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+    }
+
+    private void runNextScheduled() {
+        scheduledRuns.remove(0).run();
+    }
+
+    /**
+     * Verifies the monitoring was performed the given number of times and returns the VMs of each time
+     */
+    private List<List<Pair<VmDynamic, VdsmVm>>> verifyPerformed(int times) {
+        verify(vmsMonitoring, times(times)).perform(monitoredVmsCaptor.capture(), anyLong(), any(), eq(false));
+        // the captor keeps the values captured by earlier verifications too
+        List<List<Pair<VmDynamic, VdsmVm>>> allValues = monitoredVmsCaptor.getAllValues();
+        return allValues.subList(allValues.size() - times, allValues.size());
+    }
+
+    private static Map<String, Object> event(Double notifyTime, Guid vmId, Map<String, Object> vmMap) {
+        Map<String, Object> event = new HashMap<>();
+        event.put(NOTIFY_TIME, notifyTime);
+        event.put(vmId.toString(), new HashMap<>(vmMap));
+        return event;
+    }
+}
@@ -0,0 +1,178 @@
+package org.ovirt.engine.core.vdsbroker.monitoring;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.ovirt.engine.core.common.businessentities.VmStatistics;
+import org.ovirt.engine.core.common.businessentities.network.InterfaceStatus;
+import org.ovirt.engine.core.common.businessentities.network.VmNetworkStatistics;
+import org.ovirt.engine.core.common.businessentities.storage.DiskImageDynamic;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.common.utils.Pair;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.utils.MockConfigDescriptor;
+import org.ovirt.engine.core.utils.MockConfigExtension;
+
+@ExtendWith(MockConfigExtension.class)
+public class VmStatisticsChangeTrackerTest {
+
+    private static final int MAX_SKIPPED_SAVES = 3;
+
+    private VmStatisticsChangeTracker tracker;
+    private Guid vmId;
+
+    public static Stream<MockConfigDescriptor<?>> mockConfiguration() {
+        return Stream.of(
+                MockConfigDescriptor.of(ConfigValues.VmStatisticsSaveThresholdPercent, 5),
+                MockConfigDescriptor.of(ConfigValues.VmStatisticsMaxSkippedSaves, MAX_SKIPPED_SAVES)
+        );
+    }
+
+    @BeforeEach
+    public void setup() {
+        tracker = new VmStatisticsChangeTracker();
+        vmId = Guid.newGuid();
+    }
+
+    @Test
+    public void testVmStatisticsSavedOnlyWhenChangedPastThreshold() {
+        assertSaved(vmStatistics(40));
+        assertNotSaved(vmStatistics(40));
+        assertNotSaved(vmStatistics(41));
+        assertSaved(vmStatistics(43));
+        assertNotSaved(vmStatistics(41));
+    }
+
+    @Test
+    public void testChangeFromZeroIsSaved() {
+        assertSaved(vmStatistics(0));
+        assertSaved(vmStatistics(1));
+    }
+
+    @Test
+    public void testUnchangedStatisticsSavedAfterMaxSkippedSaves() {
+        assertSaved(vmStatistics(40));
+        for (int i = 0; i < MAX_SKIPPED_SAVES; i++) {
+            assertNotSaved(vmStatistics(40));
+        }
+        assertSaved(vmStatistics(40));
+        assertNotSaved(vmStatistics(40));
+    }
+
+    @Test
+    public void testForgottenVmIsSaved() {
+        assertSaved(vmStatistics(40));
+        tracker.forget(Collections.singletonList(vmId));
+        assertSaved(vmStatistics(40));
+    }
+
+    @Test
+    public void testDeletedVmIsSaved() {
+        assertSaved(vmStatistics(40));
+        tracker.onVmDelete(vmId);
+        assertSaved(vmStatistics(40));
+    }
+
+    @Test
+    public void testUncommittedStatisticsSavedAgain() {
+        // the write of the statistics failed, so the changes are not committed
+        VmStatisticsChangeTracker.Changes changes = new VmStatisticsChangeTracker.Changes();
+        assertEquals(1, tracker.filterChangedVmStatistics(
+                Collections.singletonList(vmStatistics(40)), changes).size());
+        assertSaved(vmStatistics(40));
+    }
+
+    @Test
+    public void testChangesOfForgottenVmNotCommitted() {
+        VmStatisticsChangeTracker.Changes changes = new VmStatisticsChangeTracker.Changes();
+        tracker.filterChangedVmStatistics(Collections.singletonList(vmStatistics(40)), changes);
+        tracker.forget(Collections.singletonList(vmId));
+        changes.commit();
+        assertSaved(vmStatistics(40));
+    }
+
+    @Test
+    public void testNetworkStatistics() {
+        Guid nicId = Guid.newGuid();
+        assertEquals(1, filterChangedVmNetworkStatistics(networkStatistics(nicId, InterfaceStatus.UP, 100.0)).size());
+        assertTrue(filterChangedVmNetworkStatistics(networkStatistics(nicId, InterfaceStatus.UP, 102.0)).isEmpty());
+        assertEquals(1, filterChangedVmNetworkStatistics(networkStatistics(nicId, InterfaceStatus.DOWN, 102.0)).size());
+    }
+
+    @Test
+    public void testDiskImageDynamics() {
+        Guid diskId = Guid.newGuid();
+        assertEquals(1, filterChangedDiskImageDynamics(diskImageDynamic(diskId, 1000L)).size());
+        assertTrue(filterChangedDiskImageDynamics(diskImageDynamic(diskId, 1010L)).isEmpty());
+        assertEquals(1, filterChangedDiskImageDynamics(diskImageDynamic(diskId, 2000L)).size());
+    }
+
+    @Test
+    public void testStringValuesCompareByEquality() {
+        assertFalse(VmStatisticsChangeTracker.isChanged(new Object[] { "a", null }, new Object[] { "a", null }, 5));
+        assertTrue(VmStatisticsChangeTracker.isChanged(new Object[] { "a", null }, new Object[] { "b", null }, 5));
+        assertTrue(VmStatisticsChangeTracker.isChanged(new Object[] { "a", null }, new Object[] { "a", 1 }, 5));
+    }
+
+    private void assertSaved(VmStatistics statistics) {
+        assertEquals(1, filterChangedVmStatistics(statistics).size());
+    }
+
+    private void assertNotSaved(VmStatistics statistics) {
+        assertTrue(filterChangedVmStatistics(statistics).isEmpty());
+    }
+
+    private List<VmStatistics> filterChangedVmStatistics(VmStatistics statistics) {
+        VmStatisticsChangeTracker.Changes changes = new VmStatisticsChangeTracker.Changes();
+        List<VmStatistics> changed = tracker.filterChangedVmStatistics(Collections.singletonList(statistics), changes);
+        changes.commit();
+        return changed;
+    }
+
+    private List<VmNetworkStatistics> filterChangedVmNetworkStatistics(VmNetworkStatistics statistics) {
+        VmStatisticsChangeTracker.Changes changes = new VmStatisticsChangeTracker.Changes();
+        List<VmNetworkStatistics> changed =
+                tracker.filterChangedVmNetworkStatistics(Collections.singletonList(statistics), changes);
+        changes.commit();
+        return changed;
+    }
+
+    private List<Pair<Guid, DiskImageDynamic>> filterChangedDiskImageDynamics(
+            List<Pair<Guid, DiskImageDynamic>> diskImageDynamics) {
+        VmStatisticsChangeTracker.Changes changes = new VmStatisticsChangeTracker.Changes();
+        List<Pair<Guid, DiskImageDynamic>> changed = tracker.filterChangedDiskImageDynamics(diskImageDynamics, changes);
+        changes.commit();
+        return changed;
+    }
+
+    private VmStatistics vmStatistics(int cpuUsage) {
+        VmStatistics statistics = new VmStatistics(vmId);
+        statistics.setUsageCpuPercent(cpuUsage);
+        statistics.setUsageMemPercent(30);
+        return statistics;
+    }
+
+    private VmNetworkStatistics networkStatistics(Guid nicId, InterfaceStatus status, double receiveRate) {
+        VmNetworkStatistics statistics = new VmNetworkStatistics();
+        statistics.setId(nicId);
+        statistics.setVmId(vmId);
+        statistics.setStatus(status);
+        statistics.setReceiveRate(receiveRate);
+        return statistics;
+    }
+
+    private List<Pair<Guid, DiskImageDynamic>> diskImageDynamic(Guid diskId, long readRate) {
+        DiskImageDynamic dynamic = new DiskImageDynamic();
+        dynamic.setId(diskId);
+        dynamic.setReadRate(readRate);
+        return Collections.singletonList(new Pair<>(vmId, dynamic));
+    }
+}
@@ -0,0 +1,83 @@
+package org.ovirt.engine.core.vdsbroker.monitoring;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.vdsbroker.vdsbroker.SimulatedVdsServer;
+import org.ovirt.engine.core.vdsbroker.vdsbroker.VdsProperties;
+
+/**
+ * Simulates the VMs monitoring of 1,000 hosts flushing their data concurrently, with every database round trip taking
+ * a few milliseconds. Run with {@code -Dmonitoring.stress=true}.
+ */
+@EnabledIfSystemProperty(named = "monitoring.stress", matches = "true")
+public class VmsMonitoringFlusherStressTest {
+
+    private static final int HOSTS = 1000;
+    private static final int VMS_PER_HOST = 20;
+    private static final int MONITORING_THREADS = 100;
+    private static final int FLUSH_THREADS = 4;
+    private static final long ROUND_TRIP_MILLIS = 5;
+
+    @Test
+    public void stress() throws Exception {
+        List<SimulatedVdsServer> hosts = new ArrayList<>();
+        for (int i = 0; i < HOSTS; i++) {
+            hosts.add(new SimulatedVdsServer(VMS_PER_HOST));
+        }
+        ExecutorService monitoringExecutor = Executors.newFixedThreadPool(MONITORING_THREADS);
+        ExecutorService flushExecutor = Executors.newFixedThreadPool(FLUSH_THREADS);
+        VmsMonitoringFlusher flusher = new VmsMonitoringFlusher(flushExecutor, vmAnalyzers -> {
+            try {
+                Thread.sleep(ROUND_TRIP_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, FLUSH_THREADS);
+
+        try {
+            long start = System.nanoTime();
+            List<Future<?>> cycles = new ArrayList<>();
+            for (SimulatedVdsServer host : hosts) {
+                cycles.add(monitoringExecutor.submit(() -> flusher.flush(analyze(host))));
+            }
+            for (Future<?> cycle : cycles) {
+                cycle.get(1, TimeUnit.MINUTES);
+            }
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            assertEquals(HOSTS, flusher.getFlushedRequests());
+            assertTrue(flusher.getFlushedBatches() < HOSTS / 2);
+            // flushing each host in a round trip of its own would take at least that long
+            assertTrue(elapsedMillis < HOSTS * ROUND_TRIP_MILLIS / FLUSH_THREADS,
+                    "Flushed " + HOSTS + " hosts in " + flusher.getFlushedBatches() + " batches within "
+                            + elapsedMillis + " ms");
+        } finally {
+            monitoringExecutor.shutdownNow();
+            flushExecutor.shutdownNow();
+        }
+    }
+
+    private static List<VmAnalyzer> analyze(SimulatedVdsServer host) {
+        List<VmAnalyzer> vmAnalyzers = new ArrayList<>();
+        for (Map<String, Object> vmStats : host.getAllVmStats().infoList) {
+            VmAnalyzer vmAnalyzer = mock(VmAnalyzer.class);
+            when(vmAnalyzer.getVmId()).thenReturn(new Guid((String) vmStats.get(VdsProperties.vm_guid)));
+            vmAnalyzers.add(vmAnalyzer);
+        }
+        return vmAnalyzers;
+    }
+}
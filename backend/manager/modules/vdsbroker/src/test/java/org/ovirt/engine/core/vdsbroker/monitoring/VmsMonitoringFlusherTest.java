@@ -0,0 +1,136 @@
+package org.ovirt.engine.core.vdsbroker.monitoring;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.compat.Guid;
+
+public class VmsMonitoringFlusherTest {
+
+    private ExecutorService flushExecutor;
+    private ExecutorService hostsExecutor;
+    private List<List<VmAnalyzer>> flushedBatches;
+
+    @BeforeEach
+    public void setup() {
+        flushExecutor = Executors.newFixedThreadPool(1);
+        hostsExecutor = Executors.newFixedThreadPool(10);
+        flushedBatches = new CopyOnWriteArrayList<>();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        flushExecutor.shutdownNow();
+        hostsExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testFlushWithoutExecutor() {
+        VmsMonitoringFlusher flusher = new VmsMonitoringFlusher(null, flushedBatches::add, 1);
+        List<VmAnalyzer> vmAnalyzers = analyzers(3);
+        flusher.flush(vmAnalyzers);
+        assertEquals(Collections.singletonList(vmAnalyzers), flushedBatches);
+        assertEquals(1, flusher.getFlushedBatches());
+    }
+
+    @Test
+    public void testFlushesOfWaitingHostsAreCoalesced() throws Exception {
+        CountDownLatch firstFlushStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstFlush = new CountDownLatch(1);
+        VmsMonitoringFlusher flusher = new VmsMonitoringFlusher(flushExecutor, vmAnalyzers -> {
+            if (flushedBatches.isEmpty()) {
+                firstFlushStarted.countDown();
+                await(releaseFirstFlush);
+            }
+            flushedBatches.add(vmAnalyzers);
+        }, 1);
+
+        List<Future<?>> hosts = new ArrayList<>();
+        hosts.add(hostsExecutor.submit(() -> flusher.flush(analyzers(2))));
+        assertTrue(firstFlushStarted.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 9; i++) {
+            hosts.add(hostsExecutor.submit(() -> flusher.flush(analyzers(2))));
+        }
+        while (flusher.getPendingRequests() < 9) {
+            Thread.sleep(10);
+        }
+        releaseFirstFlush.countDown();
+        for (Future<?> host : hosts) {
+            host.get(5, TimeUnit.SECONDS);
+        }
+
+        assertEquals(2, flushedBatches.size());
+        assertEquals(2, flushedBatches.get(0).size());
+        assertEquals(18, flushedBatches.get(1).size());
+        assertEquals(10, flusher.getFlushedRequests());
+        assertEquals(2, flusher.getFlushedBatches());
+    }
+
+    @Test
+    public void testFailedBatchIsFlushedPerHost() throws Exception {
+        CountDownLatch firstFlushStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstFlush = new CountDownLatch(1);
+        List<VmAnalyzer> badHost = analyzers(2);
+        VmsMonitoringFlusher flusher = new VmsMonitoringFlusher(flushExecutor, vmAnalyzers -> {
+            if (flushedBatches.isEmpty()) {
+                firstFlushStarted.countDown();
+                await(releaseFirstFlush);
+            }
+            if (vmAnalyzers.containsAll(badHost)) {
+                throw new IllegalStateException("bad data");
+            }
+            flushedBatches.add(vmAnalyzers);
+        }, 1);
+
+        Future<?> firstHost = hostsExecutor.submit(() -> flusher.flush(analyzers(1)));
+        assertTrue(firstFlushStarted.await(5, TimeUnit.SECONDS));
+        List<VmAnalyzer> goodHost = analyzers(2);
+        Future<?> goodHostFlush = hostsExecutor.submit(() -> flusher.flush(goodHost));
+        Future<?> badHostFlush = hostsExecutor.submit(() -> flusher.flush(badHost));
+        while (flusher.getPendingRequests() < 2) {
+            Thread.sleep(10);
+        }
+        releaseFirstFlush.countDown();
+
+        firstHost.get(5, TimeUnit.SECONDS);
+        goodHostFlush.get(5, TimeUnit.SECONDS);
+        Exception e = assertThrows(Exception.class, () -> badHostFlush.get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof IllegalStateException);
+        assertTrue(flushedBatches.contains(goodHost));
+        assertEquals(2, flusher.getFlushedRequests());
+    }
+
+    static List<VmAnalyzer> analyzers(int count) {
+        List<VmAnalyzer> vmAnalyzers = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            VmAnalyzer vmAnalyzer = mock(VmAnalyzer.class);
+            when(vmAnalyzer.getVmId()).thenReturn(Guid.newGuid());
+            vmAnalyzers.add(vmAnalyzer);
+        }
+        return vmAnalyzers;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
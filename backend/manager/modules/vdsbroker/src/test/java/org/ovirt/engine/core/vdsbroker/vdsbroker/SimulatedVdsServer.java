@@ -0,0 +1,40 @@
+package org.ovirt.engine.core.vdsbroker.vdsbroker;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.ovirt.engine.core.compat.Guid;
+
+/**
+ * A {@link NullVdsServer} which reports a fixed set of running VMs, used for simulating the monitoring of many hosts
+ * without a real VDSM
+ */
+public class SimulatedVdsServer extends NullVdsServer {
+
+    private final Guid[] vmIds;
+
+    public SimulatedVdsServer(int numberOfVms) {
+        vmIds = new Guid[numberOfVms];
+        for (int i = 0; i < numberOfVms; i++) {
+            vmIds[i] = Guid.newGuid();
+        }
+    }
+
+    @Override
+    public VMInfoListReturn getAllVmStats() {
+        Object[] statsList = new Object[vmIds.length];
+        for (int i = 0; i < vmIds.length; i++) {
+            Map<String, Object> vmStats = new HashMap<>();
+            vmStats.put(VdsProperties.vm_guid, vmIds[i].toString());
+            vmStats.put(VdsProperties.status, "Up");
+            statsList[i] = vmStats;
+        }
+        Map<String, Object> status = new HashMap<>();
+        status.put("code", 0);
+        status.put("message", "Done");
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", status);
+        response.put("statsList", statsList);
+        return new VMInfoListReturn(response);
+    }
+}
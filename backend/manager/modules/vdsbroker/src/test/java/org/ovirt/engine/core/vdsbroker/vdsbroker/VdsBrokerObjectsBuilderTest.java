@@ -10,6 +10,7 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -22,6 +23,8 @@ import org.ovirt.engine.core.common.businessentities.LeaseStatus;
 import org.ovirt.engine.core.common.businessentities.VDS;
 import org.ovirt.engine.core.common.businessentities.VdsCpuUnit;
 import org.ovirt.engine.core.common.businessentities.VmStatistics;
+import org.ovirt.engine.core.common.businessentities.network.InterfaceStatus;
+import org.ovirt.engine.core.common.businessentities.network.VdsNetworkInterface;
 import org.ovirt.engine.core.common.businessentities.network.VmInterfaceType;
 import org.ovirt.engine.core.common.businessentities.network.VmNetworkInterface;
 import org.ovirt.engine.core.common.businessentities.storage.DiskImageDynamic;
@@ -269,6 +272,12 @@ public class VdsBrokerObjectsBuilderTest {
         return setDisks(disksData);
     }
 
+    private static VdsNetworkInterface createNic(String name) {
+        VdsNetworkInterface nic = new VdsNetworkInterface();
+        nic.setName(name);
+        return nic;
+    }
+
     private static VDS getVds() {
         return new VDS();
     }
@@ -455,6 +464,79 @@ public class VdsBrokerObjectsBuilderTest {
         assertEquals(2649267647L, disks.get(0).getWriteRate());
     }
 
+    @Test
+    public void testVdsStatisticsAsNumbersAndStrings() {
+        Map<String, Object> struct = new HashMap<>();
+        struct.put(VdsProperties.cpu_sys, 1.5);
+        struct.put(VdsProperties.cpu_user, "2.5");
+        struct.put(VdsProperties.memFree, 1024);
+        struct.put(VdsProperties.swap_free, 4294967296L);
+        struct.put(VdsProperties.ksm_pages, "100.75");
+        struct.put(VdsProperties.vm_active, "3");
+        struct.put(VdsProperties.ksm_state, "true");
+        VDS vds = getVds();
+        vdsBrokerObjectsBuilder.updateVDSStatisticsData(vds, struct);
+        assertEquals(1.5, vds.getCpuSys());
+        assertEquals(2.5, vds.getCpuUser());
+        assertEquals(4, vds.getUsageCpuPercent());
+        assertEquals(1024L, vds.getMemFree());
+        assertEquals(4294967296L, vds.getSwapFree());
+        assertEquals(100L, vds.getKsmPages());
+        assertEquals(3, vds.getVmActive());
+        assertTrue(vds.getKsmState());
+        assertNull(vds.getSwapTotal());
+        assertFalse(vds.getNetConfigDirty());
+    }
+
+    @Test
+    public void testInterfaceStatisticsOfSeveralInterfaces() {
+        VDS vds = getVds();
+        vds.getInterfaces().add(createNic("eth0"));
+        vds.getInterfaces().add(createNic("eth1"));
+        Map<String, Object> eth0 = new HashMap<>();
+        eth0.put(VdsProperties.rx_total, "100");
+        eth0.put(VdsProperties.INTERFACE_SPEED, 1000);
+        eth0.put(VdsProperties.iface_status, "up");
+        Map<String, Object> eth1 = new HashMap<>();
+        eth1.put(VdsProperties.tx_total, 200L);
+        Map<String, Object> network = new HashMap<>();
+        network.put("eth0", eth0);
+        network.put("eth1", eth1);
+        Map<String, Object> struct = new HashMap<>();
+        struct.put(VdsProperties.NETWORK, network);
+
+        vdsBrokerObjectsBuilder.updateVDSStatisticsData(vds, struct);
+        VdsNetworkInterface nic0 = vds.getInterfaces().get(0);
+        VdsNetworkInterface nic1 = vds.getInterfaces().get(1);
+        assertEquals(BigInteger.valueOf(-100), nic0.getStatistics().getReceivedBytesOffset());
+        assertNull(nic0.getStatistics().getTransmittedBytesOffset());
+        assertEquals(1000, nic0.getSpeed());
+        assertEquals(InterfaceStatus.UP, nic0.getStatistics().getStatus());
+        // the values of the first interface must not leak into the second one
+        assertNull(nic1.getStatistics().getReceivedBytesOffset());
+        assertEquals(BigInteger.valueOf(-200), nic1.getStatistics().getTransmittedBytesOffset());
+        assertNull(nic1.getSpeed());
+        assertEquals(InterfaceStatus.NONE, nic1.getStatistics().getStatus());
+    }
+
+    @Test
+    public void testGuestMemoryStats() {
+        Map<String, Object> guestMemoryStats = new HashMap<>();
+        guestMemoryStats.put(VdsProperties.vm_guest_mem_buffered, 1024);
+        guestMemoryStats.put(VdsProperties.vm_guest_mem_cached, "2048");
+        guestMemoryStats.put(VdsProperties.vm_guest_mem_free, 4096L);
+        Map<String, Object> struct = new HashMap<>();
+        struct.put(VdsProperties.vm_guest_mem_stats, guestMemoryStats);
+        VmStatistics vmStatistics = getVmStatistics();
+        vmStatistics.setGuestMemoryUnused(512L);
+        vdsBrokerObjectsBuilder.updateVMStatisticsData(vmStatistics, struct);
+        assertEquals(1024L, vmStatistics.getGuestMemoryBuffered());
+        assertEquals(2048L, vmStatistics.getGuestMemoryCached());
+        assertEquals(4096L, vmStatistics.getGuestMemoryFree());
+        // a value which isn't reported is kept
+        assertEquals(512L, vmStatistics.getGuestMemoryUnused());
+    }
+
     private Map<String, Object> createCpuTopologyStruct() {
         Map<String, Integer> cpuCapability1 = new HashMap<>();
         cpuCapability1.put(VdsProperties.cpu_id, 0);
@@ -22,6 +22,7 @@ import javax.sql.DataSource;
 import org.apache.commons.lang.StringUtils;
 import org.infinispan.Cache;
 import org.ovirt.engine.core.utils.EngineLocalConfig;
+import org.ovirt.engine.core.utils.metrics.EntityStatusCounter;
 import org.ovirt.engine.ui.frontend.server.dashboard.fake.FakeDataGenerator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -46,7 +47,9 @@ public class DashboardDataServlet extends HttpServlet {
     private static final String UTILIZATION_CACHE_UPDATE_INTERVAL_KEY = "DASHBOARD_UTILIZATION_CACHE_UPDATE_INTERVAL"; //$NON-NLS-1$
     private static final String INVENTORY_CACHE_UPDATE_INTERVAL_KEY = "DASHBOARD_INVENTORY_CACHE_UPDATE_INTERVAL"; //$NON-NLS-1$
     private static long UTILIZATION_CACHE_UPDATE_INTERVAL;
+    private static final String STATUS_RECONCILE_INTERVAL_KEY = "DASHBOARD_STATUS_RECONCILE_INTERVAL"; //$NON-NLS-1$
     private static long INVENTORY_CACHE_UPDATE_INTERVAL;
+    private static long STATUS_RECONCILE_INTERVAL;
 
     private static final String PREFER_HEADER = "Prefer"; //$NON-NLS-1$
     private static final String PREFER_FAKE_DATA = "fake_data"; //$NON-NLS-1$
@@ -74,6 +77,7 @@ public class DashboardDataServlet extends HttpServlet {
 
     private ScheduledFuture<?> utilizationCacheUpdate = null;
     private ScheduledFuture<?> inventoryCacheUpdate = null;
+    private ScheduledFuture<?> statusReconcile = null;
 
     @PostConstruct
     private void initCache() {
@@ -93,6 +97,31 @@ public class DashboardDataServlet extends HttpServlet {
 
         engineGrafanaBaseUrl = lookupEngineGrafanaBaseUrl(config);
 
+        /*
+         * Reconcile the host and VM status counters with the DB now and every 10 minutes (by default) thereafter. Until
+         * the first reconciliation the inventory queries the statuses of all the hosts and VMs.
+         */
+        try {
+            STATUS_RECONCILE_INTERVAL = config.getLong(STATUS_RECONCILE_INTERVAL_KEY);
+        } catch (IllegalArgumentException e) {
+            log.error("Missing/Invalid key \"{}\", using default value of 600", STATUS_RECONCILE_INTERVAL_KEY, e); //$NON-NLS-1$
+            STATUS_RECONCILE_INTERVAL = 600;
+        }
+        statusReconcile = scheduledExecutor.scheduleWithFixedDelay(new Runnable() {
+            Logger log = LoggerFactory.getLogger(DashboardDataServlet.class.getName() + ".StatusReconcile"); //$NON-NLS-1$
+
+            @Override
+            public void run() {
+                log.trace("Attempting to reconcile the status counters"); //$NON-NLS-1$
+                try {
+                    reconcileStatusCounters();
+                } catch (DashboardDataException e) {
+                    log.error("Could not reconcile the status counters: {}", e.getMessage(), e); //$NON-NLS-1$
+                }
+            }
+        }, 0, STATUS_RECONCILE_INTERVAL, TimeUnit.SECONDS);
+        log.info("Dashboard status counters reconciler initialized (reconcile interval {}s)", STATUS_RECONCILE_INTERVAL); //$NON-NLS-1$
+
         /*
          * Update the utilization cache now and every 5 minutes (by default) thereafter, but never run 2 updates simultaneously.
          */
@@ -211,6 +240,9 @@ public class DashboardDataServlet extends HttpServlet {
         if (inventoryCacheUpdate != null) {
             inventoryCacheUpdate.cancel(true);
         }
+        if (statusReconcile != null) {
+            statusReconcile.cancel(true);
+        }
     }
 
     @Override
@@ -255,7 +287,7 @@ public class DashboardDataServlet extends HttpServlet {
             } else if (preferNoCache) {
                 log.debug("client requested non-cache direct query data"); //$NON-NLS-1$
                 dashboard = getDashboard();
-                dashboard.setInventory(lookupInventory());
+                dashboard.setInventory(lookupInventory(false));
             } else {
                 dashboard = getDashboardFromCache();
             }
@@ -294,7 +326,7 @@ public class DashboardDataServlet extends HttpServlet {
             }
         }
 
-        dashboard.setInventory(inventory);
+        dashboard.setInventory(isStatusCounted() ? withCountedStatuses(inventory) : inventory);
         return dashboard;
     }
 
@@ -314,7 +346,7 @@ public class DashboardDataServlet extends HttpServlet {
 
     private Inventory populateInventoryCache() throws DashboardDataException {
         long startTime = System.currentTimeMillis();
-        Inventory inventory = lookupInventory();
+        Inventory inventory = lookupInventory(isStatusCounted());
         long endTime = System.currentTimeMillis();
 
         if (enableBackgroundCacheUpdate) {
@@ -342,18 +374,53 @@ public class DashboardDataServlet extends HttpServlet {
         return dashboard;
     }
 
-    private Inventory lookupInventory() throws DashboardDataException {
+    /**
+     * Look up the inventory. The host and VM status information is taken from the status counters if requested,
+     * otherwise it is queried from the DB.
+     */
+    private Inventory lookupInventory(boolean countedStatuses) throws DashboardDataException {
         Inventory inventory = new Inventory();
         inventory.setDc(InventoryHelper.getDcInventoryStatus(engineDataSource));
         inventory.setCluster(InventoryHelper.getClusterInventoryStatus(engineDataSource));
-        inventory.setHost(InventoryHelper.getHostInventoryStatus(engineDataSource));
+        if (countedStatuses) {
+            inventory.setHost(InventoryHelper.getHostInventoryStatus(EntityStatusCounter.HOSTS));
+        } else {
+            inventory.setHost(InventoryHelper.getHostInventoryStatus(engineDataSource));
+        }
         inventory.setStorage(InventoryHelper.getStorageInventoryStatus(engineDataSource));
-        inventory.setVm(InventoryHelper.getVmInventorySummary(engineDataSource));
+        if (countedStatuses) {
+            inventory.setVm(InventoryHelper.getVmInventorySummary(EntityStatusCounter.VMS));
+        } else {
+            inventory.setVm(InventoryHelper.getVmInventorySummary(engineDataSource));
+        }
         inventory.setVolume(InventoryHelper.getGlusterVolumeInventorySummary(engineDataSource));
         inventory.setEvent(EventHelper.getEventStatus(engineDataSource));
         return inventory;
     }
 
+    /**
+     * The host and VM statuses are counted by the engine as they change, once the counters were reconciled with the DB.
+     */
+    private boolean isStatusCounted() {
+        return EntityStatusCounter.HOSTS.isReconciled() && EntityStatusCounter.VMS.isReconciled();
+    }
+
+    /**
+     * Get a copy of the cached inventory with the current host and VM status information.
+     */
+    private Inventory withCountedStatuses(Inventory inventory) {
+        return inventory.withHostAndVm(InventoryHelper.getHostInventoryStatus(EntityStatusCounter.HOSTS),
+                InventoryHelper.getVmInventorySummary(EntityStatusCounter.VMS));
+    }
+
+    private void reconcileStatusCounters() throws DashboardDataException {
+        long startTime = System.currentTimeMillis();
+        InventoryHelper.reconcileHostStatuses(engineDataSource, EntityStatusCounter.HOSTS);
+        InventoryHelper.reconcileVmStatuses(engineDataSource, EntityStatusCounter.VMS);
+        long endTime = System.currentTimeMillis();
+        log.debug("Dashboard status counters reconciled in {}ms", endTime - startTime); //$NON-NLS-1$
+    }
+
     private HeatMapData lookupClusterUtilization() throws DashboardDataException {
         HeatMapData utilization = new HeatMapData();
         HeatMapHelper.getCpuAndMemory(utilization, dwhDataSource);
@@ -86,6 +86,22 @@ public class Inventory {
         this.event = event;
     }
 
+    /**
+     * Get a copy of this inventory with the given host and VM status information, leaving this inventory untouched
+     * since it may be shared.
+     */
+    public Inventory withHostAndVm(InventoryStatus host, InventoryStatus vm) {
+        Inventory inventory = new Inventory();
+        inventory.dc = dc;
+        inventory.cluster = cluster;
+        inventory.storage = storage;
+        inventory.event = event;
+        inventory.volume = volume;
+        inventory.setHost(host);
+        inventory.setVm(vm);
+        return inventory;
+    }
+
     public InventoryStatus getVolume() {
         return volume;
     }
@@ -2,6 +2,7 @@ package org.ovirt.engine.ui.frontend.server.dashboard;
 
 import javax.sql.DataSource;
 
+import org.ovirt.engine.core.utils.metrics.EntityStatusCounter;
 import org.ovirt.engine.ui.frontend.server.dashboard.dao.ClusterEngineDao;
 import org.ovirt.engine.ui.frontend.server.dashboard.dao.DataCenterDao;
 import org.ovirt.engine.ui.frontend.server.dashboard.dao.GlusterVolumeEngineDao;
@@ -45,6 +46,31 @@ public class InventoryHelper {
         return dao.getHostInventoryStatus();
     }
 
+    /**
+     * Get the status information for the hosts from the counted host statuses, without querying the database.
+     * @param hostStatuses The counted host statuses.
+     * @return An {@code InventoryStatus} object containing the status counts mapped from the original status to
+     * the Up/Down/Error status.
+     */
+    public static InventoryStatus getHostInventoryStatus(EntityStatusCounter hostStatuses) {
+        InventoryStatus result = new InventoryStatus();
+        hostStatuses.getCounts().forEach((status, count) -> HostEngineDao.addHostStatus(result, status, count));
+        return result;
+    }
+
+    /**
+     * Reconcile the counted host statuses with the database.
+     * @param engineDataSource The data source to use.
+     * @param hostStatuses The counted host statuses.
+     * @throws DashboardDataException If there is a problem reading the query properties
+     */
+    public static void reconcileHostStatuses(DataSource engineDataSource, EntityStatusCounter hostStatuses)
+            throws DashboardDataException {
+        HostEngineDao dao = new HostEngineDao(engineDataSource);
+        long stamp = hostStatuses.getModificationStamp();
+        hostStatuses.reconcile(dao.getHostStatuses(), stamp);
+    }
+
     /**
      * Get the status information for the storage domains.
      * @param engineDataSource The data source to use.
@@ -69,6 +95,31 @@ public class InventoryHelper {
         return dao.getVmInventoryStatus();
     }
 
+    /**
+     * Get the status information for the VMs from the counted VM statuses, without querying the database.
+     * @param vmStatuses The counted VM statuses.
+     * @return An {@code InventoryStatus} object containing the status counts mapped from the original status to
+     * the Up/Down/Error status.
+     */
+    public static InventoryStatus getVmInventorySummary(EntityStatusCounter vmStatuses) {
+        InventoryStatus result = new InventoryStatus();
+        vmStatuses.getCounts().forEach((status, count) -> VmEngineDao.addVmStatus(result, status, count));
+        return result;
+    }
+
+    /**
+     * Reconcile the counted VM statuses with the database.
+     * @param engineDataSource The data source to use.
+     * @param vmStatuses The counted VM statuses.
+     * @throws DashboardDataException If there is a problem reading the query properties
+     */
+    public static void reconcileVmStatuses(DataSource engineDataSource, EntityStatusCounter vmStatuses)
+            throws DashboardDataException {
+        VmEngineDao dao = new VmEngineDao(engineDataSource);
+        long stamp = vmStatuses.getModificationStamp();
+        vmStatuses.reconcile(dao.getVmStatuses(), stamp);
+    }
+
     /**
      * Get the status information for Gluster Volumes.
      * @param engineDataSource
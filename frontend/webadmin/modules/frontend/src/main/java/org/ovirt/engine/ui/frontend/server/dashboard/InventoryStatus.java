@@ -30,6 +30,10 @@ public class InventoryStatus {
         totalCount++;
     }
 
+    public void addCount(int count) {
+        totalCount += count;
+    }
+
     public void setStatusCount(String type, int value) {
         statuses.put(type, value);
     }
@@ -43,6 +47,10 @@ public class InventoryStatus {
         statuses.put(type, statusCount);
     }
 
+    public void addStatus(String type, int count) {
+        statuses.merge(type, count, Integer::sum);
+    }
+
     public void setStatusValues(String type, List<String> values) {
         statusValues.put(type, values);
     }
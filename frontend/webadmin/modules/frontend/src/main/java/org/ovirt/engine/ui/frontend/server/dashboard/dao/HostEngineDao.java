@@ -1,13 +1,18 @@
 package org.ovirt.engine.ui.frontend.server.dashboard.dao;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import javax.sql.DataSource;
 
+import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.ui.frontend.server.dashboard.DashboardDataException;
 import org.ovirt.engine.ui.frontend.server.dashboard.InventoryStatus;
 import org.ovirt.engine.ui.frontend.server.dashboard.maps.HostStatusMap;
 
 public class HostEngineDao extends BaseDao {
 
+    private static final String VDS_ID = "vds_id"; //$NON-NLS-1$
     private static final String STATUS = "status"; //$NON-NLS-1$
 
     private static final String HOST_INVENTORY = "host.inventory"; //$NON-NLS-1$
@@ -19,20 +24,37 @@ public class HostEngineDao extends BaseDao {
     public InventoryStatus getHostInventoryStatus() throws DashboardDataException {
         final InventoryStatus result = new InventoryStatus();
 
-        runQuery(HOST_INVENTORY, rs -> processHostStatus(result, rs.getInt(STATUS)));
+        runQuery(HOST_INVENTORY, rs -> addHostStatus(result, rs.getInt(STATUS), 1));
+
+        return result;
+    }
+
+    /**
+     * Get the status of each host, to reconcile the counted statuses with the database.
+     * @return A map of the host ids to their status values.
+     * @throws DashboardDataException If there is a problem running the query
+     */
+    public Map<Guid, Integer> getHostStatuses() throws DashboardDataException {
+        final Map<Guid, Integer> result = new HashMap<>();
+
+        runQuery(HOST_INVENTORY, rs -> result.put(new Guid(rs.getString(VDS_ID)), rs.getInt(STATUS)));
 
         return result;
     }
 
-    private InventoryStatus processHostStatus(InventoryStatus summary, int status) {
-        summary.addCount();
+    /**
+     * Add the given number of hosts with the given status to the summary, mapping the status to the Up/Down/Warning
+     * status.
+     */
+    public static InventoryStatus addHostStatus(InventoryStatus summary, int status, int count) {
+        summary.addCount(count);
 
         if (HostStatusMap.WARNING.isType(status)) {
-            summary.addStatus(HostStatusMap.WARNING.name().toLowerCase());
+            summary.addStatus(HostStatusMap.WARNING.name().toLowerCase(), count);
         } else if (HostStatusMap.DOWN.isType(status)) {
-            summary.addStatus(HostStatusMap.DOWN.name().toLowerCase());
+            summary.addStatus(HostStatusMap.DOWN.name().toLowerCase(), count);
         } else {
-            summary.addStatus(HostStatusMap.UP.name().toLowerCase());
+            summary.addStatus(HostStatusMap.UP.name().toLowerCase(), count);
         }
 
         return summary;
@@ -1,13 +1,18 @@
 package org.ovirt.engine.ui.frontend.server.dashboard.dao;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import javax.sql.DataSource;
 
+import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.ui.frontend.server.dashboard.DashboardDataException;
 import org.ovirt.engine.ui.frontend.server.dashboard.InventoryStatus;
 import org.ovirt.engine.ui.frontend.server.dashboard.maps.VmStatusMap;
 
 public class VmEngineDao extends BaseDao {
 
+    private static final String VM_GUID = "vm_guid"; //$NON-NLS-1$
     private static final String STATUS = "status"; //$NON-NLS-1$
 
     private static final String VM_INVENTORY = "vm.inventory"; //$NON-NLS-1$
@@ -19,20 +24,37 @@ public class VmEngineDao extends BaseDao {
     public InventoryStatus getVmInventoryStatus() throws DashboardDataException {
         final InventoryStatus result = new InventoryStatus();
 
-        runQuery(VM_INVENTORY, rs -> processVmStatus(result, rs.getInt(STATUS)));
+        runQuery(VM_INVENTORY, rs -> addVmStatus(result, rs.getInt(STATUS), 1));
+
+        return result;
+    }
+
+    /**
+     * Get the status of each VM, to reconcile the counted statuses with the database.
+     * @return A map of the VM ids to their status values.
+     * @throws DashboardDataException If there is a problem running the query
+     */
+    public Map<Guid, Integer> getVmStatuses() throws DashboardDataException {
+        final Map<Guid, Integer> result = new HashMap<>();
+
+        runQuery(VM_INVENTORY, rs -> result.put(new Guid(rs.getString(VM_GUID)), rs.getInt(STATUS)));
 
         return result;
     }
 
-    private InventoryStatus processVmStatus(InventoryStatus summary, int status) {
-        summary.addCount();
+    /**
+     * Add the given number of VMs with the given status to the summary, mapping the status to the Up/Down/Warning
+     * status.
+     */
+    public static InventoryStatus addVmStatus(InventoryStatus summary, int status, int count) {
+        summary.addCount(count);
 
         if (VmStatusMap.WARNING.isType(status)) {
-            summary.addStatus(VmStatusMap.WARNING.name().toLowerCase());
+            summary.addStatus(VmStatusMap.WARNING.name().toLowerCase(), count);
         } else if (VmStatusMap.DOWN.isType(status)) {
-            summary.addStatus(VmStatusMap.DOWN.name().toLowerCase());
+            summary.addStatus(VmStatusMap.DOWN.name().toLowerCase(), count);
         } else {
-            summary.addStatus(VmStatusMap.UP.name().toLowerCase());
+            summary.addStatus(VmStatusMap.UP.name().toLowerCase(), count);
         }
 
         return summary;
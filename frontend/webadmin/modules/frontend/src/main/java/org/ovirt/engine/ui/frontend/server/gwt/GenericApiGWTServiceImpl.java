@@ -7,7 +7,9 @@ import java.util.List;
 import java.util.UUID;
 import java.util.regex.Pattern;
 
+import javax.annotation.Resource;
 import javax.ejb.EJB;
+import javax.enterprise.concurrent.ManagedExecutorService;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -43,6 +45,9 @@ public class GenericApiGWTServiceImpl extends OvirtXsrfProtectedServiceServlet i
 
     private BackendLocal backend;
 
+    @Resource(lookup = "java:jboss/ee/concurrency/executor/frontendQueries")
+    private ManagedExecutorService queriesExecutor;
+
     @EJB(beanInterface = BackendLocal.class,
             mappedName = "java:global/engine/bll/Backend!org.ovirt.engine.core.common.interfaces.BackendLocal")
     public void setBackend(BackendLocal backend) {
@@ -53,6 +58,18 @@ public class GenericApiGWTServiceImpl extends OvirtXsrfProtectedServiceServlet i
         return backend;
     }
 
+    @Override
+    public void init() throws ServletException {
+        super.init();
+        MultipleQueriesMonitor.getInstance().registerInJMX();
+    }
+
+    @Override
+    public void destroy() {
+        MultipleQueriesMonitor.getInstance().unregisterFromJMX();
+        super.destroy();
+    }
+
     private static String filterCorrelationIdCharacters(String correlationId) {
         if (StringUtils.isNotEmpty(correlationId)) {
             correlationId = INVALID_CORRELATION_ID_CHARACTERS_RE.matcher(correlationId).replaceAll("");
@@ -114,14 +131,21 @@ public class GenericApiGWTServiceImpl extends OvirtXsrfProtectedServiceServlet i
         if (queryTypeList != null
                 && queryParamsList != null
                 && queryTypeList.size() == queryParamsList.size()) {
+            // The session and the correlation ID are taken from the request, so they are set here as the queries may
+            // run on other threads:
+            String sessionId = getEngineSessionId();
             String correlationId = CorrelationIdTracker.getCorrelationId();
             for (int i = 0; i < queryTypeList.size(); i++) {
+                queryParamsList.get(i).setSessionId(sessionId);
                 if (queryParamsList.get(i).getCorrelationId() == null) {
                     queryParamsList.get(i).setCorrelationId(correlationId);
                 }
-                debugQuery(queryTypeList.get(i), queryParamsList.get(i));
-                ret.add(runQuery(queryTypeList.get(i), queryParamsList.get(i)));
+                if (log.isDebugEnabled()) {
+                    debugQuery(queryTypeList.get(i), queryParamsList.get(i));
+                }
             }
+            ret.addAll(new MultipleQueriesRunner(getBackend()::runQuery, queriesExecutor)
+                    .run(queryTypeList, queryParamsList));
         } else {
             log.error(
                     "Wrong multi query usage: the query types and parameters must not be null " //$NON-NLS-1$
@@ -131,8 +155,10 @@ public class GenericApiGWTServiceImpl extends OvirtXsrfProtectedServiceServlet i
             );
         }
 
-        for (QueryReturnValue vqrv : ret) {
-            log.debug("QueryReturnValue '{}'", vqrv); //$NON-NLS-1$
+        if (log.isDebugEnabled()) {
+            for (QueryReturnValue vqrv : ret) {
+                log.debug("QueryReturnValue '{}'", vqrv); //$NON-NLS-1$
+            }
         }
 
         log.debug("Server: RunMultipleQuery result [amount of queries: {}]", ret.size()); //$NON-NLS-1$
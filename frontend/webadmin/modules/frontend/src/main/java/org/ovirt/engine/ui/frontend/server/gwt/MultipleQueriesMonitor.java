@@ -0,0 +1,100 @@
+package org.ovirt.engine.ui.frontend.server.gwt;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.ovirt.engine.core.utils.metrics.LatencyHistogram;
+import org.ovirt.engine.core.utils.metrics.MBeanRegistration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collects the statistics of the multiple queries requests run by {@link MultipleQueriesRunner} and exposes them via
+ * JMX. The statistics are updated without any locking.
+ */
+public class MultipleQueriesMonitor implements MultipleQueriesMonitorMXBean {
+
+    private static final Logger log = LoggerFactory.getLogger(MultipleQueriesMonitor.class);
+
+    private static final String MBEAN_NAME = "MultipleQueriesMonitor:type=" //$NON-NLS-1$
+            + MultipleQueriesMonitor.class.getName();
+
+    private static final MultipleQueriesMonitor instance = new MultipleQueriesMonitor();
+
+    /** Number of multiple queries requests **/
+    private final LongAdder requests = new LongAdder();
+    /** Number of queries of the requests, identical queries included **/
+    private final LongAdder queries = new LongAdder();
+    /** Number of queries of the requests which were actually run **/
+    private final LongAdder distinctQueries = new LongAdder();
+    /** Time each request took to run all its queries **/
+    private final LatencyHistogram requestTime = new LatencyHistogram();
+
+    private boolean registered;
+
+    public static MultipleQueriesMonitor getInstance() {
+        return instance;
+    }
+
+    MultipleQueriesMonitor() {
+    }
+
+    public synchronized void registerInJMX() {
+        if (registered) {
+            return;
+        }
+        try {
+            MBeanRegistration.register(this, MBEAN_NAME);
+            registered = true;
+        } catch (IllegalStateException e) {
+            // The statistics are still collected, only they can't be read:
+            log.warn("The multiple queries statistics are not exposed via JMX: {}", e.getMessage()); //$NON-NLS-1$
+        }
+    }
+
+    public synchronized void unregisterFromJMX() {
+        if (!registered) {
+            return;
+        }
+        try {
+            MBeanRegistration.unregister(MBEAN_NAME);
+        } catch (IllegalStateException e) {
+            log.warn("{}", e.getMessage()); //$NON-NLS-1$
+        } finally {
+            registered = false;
+        }
+    }
+
+    /**
+     * Records a request that ran the given number of queries, of which the given number were distinct, since the
+     * given {@link System#nanoTime()} value
+     */
+    void requestCompleted(int queryCount, int distinctQueryCount, long startNanos) {
+        requests.increment();
+        queries.add(queryCount);
+        distinctQueries.add(distinctQueryCount);
+        requestTime.recordSince(startNanos);
+    }
+
+    LatencyHistogram getRequestTime() {
+        return requestTime;
+    }
+
+    @Override
+    public List<String> showStatistics() {
+        return Arrays.asList(
+                "requests=" + requests.sum(), //$NON-NLS-1$
+                "queries=" + queries.sum(), //$NON-NLS-1$
+                "distinct queries=" + distinctQueries.sum(), //$NON-NLS-1$
+                "request time {" + requestTime + '}'); //$NON-NLS-1$
+    }
+
+    @Override
+    public void resetStatistics() {
+        requests.reset();
+        queries.reset();
+        distinctQueries.reset();
+        requestTime.reset();
+    }
+}
@@ -0,0 +1,20 @@
+package org.ovirt.engine.ui.frontend.server.gwt;
+
+import java.util.List;
+
+/**
+ * The following interface is used as interface for JMX bean
+ */
+public interface MultipleQueriesMonitorMXBean {
+
+    /**
+     * The following method will return the number of multiple queries requests, of their queries and of their
+     * distinct queries, and the histogram of the time the requests took
+     */
+    List<String> showStatistics();
+
+    /**
+     * The following method will reset all the statistics
+     */
+    void resetStatistics();
+}
@@ -0,0 +1,205 @@
+package org.ovirt.engine.ui.frontend.server.gwt;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+import org.apache.commons.lang.SerializationException;
+import org.apache.commons.lang.SerializationUtils;
+import org.ovirt.engine.core.common.queries.QueryParametersBase;
+import org.ovirt.engine.core.common.queries.QueryReturnValue;
+import org.ovirt.engine.core.common.queries.QueryType;
+import org.ovirt.engine.core.utils.CorrelationIdTracker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the queries of a multiple queries request. Identical queries, having the same type and the same parameters, are
+ * run only once and their result is copied to all of them. The distinct queries are run concurrently on the given
+ * executor, and the results are returned in the order of the queries. The parameters are serialized to be compared
+ * only for the query types which occur more than once in the request. The number of queries and the time each request
+ * took are recorded in the {@link MultipleQueriesMonitor}.
+ * <p>
+ * The parameters of the queries are expected to be complete, including the session and the correlation ID, before they
+ * are passed to the runner, as the queries are run on other threads.
+ */
+class MultipleQueriesRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(MultipleQueriesRunner.class);
+
+    private final BiFunction<QueryType, QueryParametersBase, QueryReturnValue> queryRunner;
+    private final ExecutorService executor;
+    private final MultipleQueriesMonitor monitor;
+
+    /**
+     * @param queryRunner
+     *            runs a single query
+     * @param executor
+     *            the executor to run the distinct queries on, if {@code null} they are run one after the other on the
+     *            calling thread
+     */
+    MultipleQueriesRunner(BiFunction<QueryType, QueryParametersBase, QueryReturnValue> queryRunner,
+            ExecutorService executor) {
+        this(queryRunner, executor, MultipleQueriesMonitor.getInstance());
+    }
+
+    MultipleQueriesRunner(BiFunction<QueryType, QueryParametersBase, QueryReturnValue> queryRunner,
+            ExecutorService executor,
+            MultipleQueriesMonitor monitor) {
+        this.queryRunner = queryRunner;
+        this.executor = executor;
+        this.monitor = monitor;
+    }
+
+    List<QueryReturnValue> run(List<QueryType> queryTypes, List<QueryParametersBase> queryParams) {
+        long start = System.nanoTime();
+
+        // Only the queries of the types occurring more than once may be identical:
+        Map<QueryType, Integer> typeOccurrences = new EnumMap<>(QueryType.class);
+        for (QueryType queryType : queryTypes) {
+            typeOccurrences.merge(queryType, 1, Integer::sum);
+        }
+
+        // The index of the first occurrence of each distinct query, and the indexes of the queries identical to it:
+        Map<QueryKey, List<Integer>> distinctQueries = new LinkedHashMap<>();
+        for (int i = 0; i < queryTypes.size(); i++) {
+            QueryType queryType = queryTypes.get(i);
+            QueryKey key = typeOccurrences.get(queryType) > 1
+                    ? new QueryKey(queryType, queryParams.get(i))
+                    : new QueryKey(queryType);
+            distinctQueries.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+        }
+
+        List<Future<QueryReturnValue>> futures = new ArrayList<>(distinctQueries.size());
+        boolean concurrent = executor != null && distinctQueries.size() > 1;
+        if (concurrent) {
+            for (List<Integer> indexes : distinctQueries.values()) {
+                int index = indexes.get(0);
+                futures.add(submit(queryTypes.get(index), queryParams.get(index)));
+            }
+        }
+
+        QueryReturnValue[] results = new QueryReturnValue[queryTypes.size()];
+        int distinctIndex = 0;
+        for (List<Integer> indexes : distinctQueries.values()) {
+            int index = indexes.get(0);
+            QueryReturnValue result = concurrent ?
+                    getResult(futures.get(distinctIndex), queryTypes.get(index), queryParams.get(index))
+                    : queryRunner.apply(queryTypes.get(index), queryParams.get(index));
+            results[index] = result;
+            for (int i = 1; i < indexes.size(); i++) {
+                results[indexes.get(i)] = copy(result);
+            }
+            distinctIndex++;
+        }
+
+        monitor.requestCompleted(queryTypes.size(), distinctQueries.size(), start);
+        log.debug("Ran {} queries, {} distinct, in {} ms", //$NON-NLS-1$
+                queryTypes.size(),
+                distinctQueries.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return Arrays.asList(results);
+    }
+
+    private Future<QueryReturnValue> submit(QueryType queryType, QueryParametersBase params) {
+        try {
+            return executor.submit(() -> {
+                CorrelationIdTracker.setCorrelationId(params.getCorrelationId());
+                try {
+                    return queryRunner.apply(queryType, params);
+                } finally {
+                    CorrelationIdTracker.clean();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("Executor rejected query '{}', running it on the calling thread", queryType); //$NON-NLS-1$
+            return null;
+        }
+    }
+
+    private QueryReturnValue getResult(Future<QueryReturnValue> future, QueryType queryType,
+            QueryParametersBase params) {
+        if (future == null) {
+            return queryRunner.apply(queryType, params);
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for query '" + queryType + "'", e); //$NON-NLS-1$ //$NON-NLS-2$
+        } catch (ExecutionException e) {
+            // Fail the request like a query that was run on the calling thread would:
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Failed to run query '" + queryType + "'", e.getCause()); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+    }
+
+    /**
+     * Returns a copy of the result of a duplicated query, so that the callers can't affect each other by modifying it.
+     */
+    private static QueryReturnValue copy(QueryReturnValue result) {
+        try {
+            return (QueryReturnValue) SerializationUtils.clone(result);
+        } catch (SerializationException e) {
+            return result;
+        }
+    }
+
+    /**
+     * Identifies a query by its type and by the serialized form of its parameters. Parameters that can't be serialized,
+     * or that weren't serialized because no other query has the same type, make the query distinct from all the others.
+     */
+    private static class QueryKey {
+        private final QueryType queryType;
+        private final byte[] params;
+
+        private QueryKey(QueryType queryType) {
+            this.queryType = queryType;
+            this.params = null;
+        }
+
+        private QueryKey(QueryType queryType, QueryParametersBase params) {
+            this.queryType = queryType;
+            this.params = serialize(params);
+        }
+
+        private static byte[] serialize(QueryParametersBase params) {
+            try {
+                return SerializationUtils.serialize(params);
+            } catch (SerializationException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof QueryKey)) {
+                return false;
+            }
+            QueryKey other = (QueryKey) obj;
+            return params != null
+                    && queryType == other.queryType
+                    && Arrays.equals(params, other.params);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Objects.hashCode(queryType) + Arrays.hashCode(params);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package org.ovirt.engine.ui.frontend.server.gwt;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -22,6 +24,7 @@ import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.ovirt.engine.core.common.interfaces.BackendLocal;
 import org.ovirt.engine.core.common.queries.QueryParametersBase;
+import org.ovirt.engine.core.common.queries.QueryReturnValue;
 import org.ovirt.engine.core.common.queries.QueryType;
 
 @ExtendWith(MockitoExtension.class)
@@ -80,11 +83,28 @@ public class GenericApiGWTServiceImplTest {
                 QueryType.Search));
         ArrayList<QueryParametersBase> queryParamsList = new ArrayList<>(Arrays.asList(
                 new QueryParametersBase(),
-                new QueryParametersBase()));
+                new QueryParametersBase().withRefresh()));
 
         underTest.runMultipleQueries(queryTypeList, queryParamsList);
 
         verify(backendLocal, times(2)).runQuery(any(), any());
     }
 
+    @Test
+    public void multiQueryDuplicatesRunOnce() {
+        when(backendLocal.runQuery(any(), any())).thenReturn(new QueryReturnValue());
+        ArrayList<QueryType> queryTypeList = new ArrayList<>(Arrays.asList(
+                QueryType.Search,
+                QueryType.Search));
+        ArrayList<QueryParametersBase> queryParamsList = new ArrayList<>(Arrays.asList(
+                new QueryParametersBase(),
+                new QueryParametersBase()));
+
+        ArrayList<QueryReturnValue> result = underTest.runMultipleQueries(queryTypeList, queryParamsList);
+
+        verify(backendLocal, times(1)).runQuery(any(), any());
+        assertEquals(2, result.size());
+        assertNotSame(result.get(0), result.get(1));
+    }
+
 }
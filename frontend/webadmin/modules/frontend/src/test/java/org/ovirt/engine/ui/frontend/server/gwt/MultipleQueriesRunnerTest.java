@@ -0,0 +1,98 @@
+package org.ovirt.engine.ui.frontend.server.gwt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.common.queries.IdQueryParameters;
+import org.ovirt.engine.core.common.queries.QueryParametersBase;
+import org.ovirt.engine.core.common.queries.QueryReturnValue;
+import org.ovirt.engine.core.common.queries.QueryType;
+import org.ovirt.engine.core.compat.Guid;
+
+public class MultipleQueriesRunnerTest {
+
+    private ExecutorService executor;
+    private AtomicInteger runs;
+    private MultipleQueriesMonitor monitor;
+    private MultipleQueriesRunner underTest;
+
+    @BeforeEach
+    public void setup() {
+        executor = Executors.newFixedThreadPool(4);
+        runs = new AtomicInteger();
+        monitor = new MultipleQueriesMonitor();
+        underTest = new MultipleQueriesRunner((queryType, params) -> {
+            runs.incrementAndGet();
+            QueryReturnValue result = new QueryReturnValue();
+            result.setReturnValue(((IdQueryParameters) params).getId().toString());
+            result.setCorrelationId(params.getCorrelationId());
+            return result;
+        }, executor, monitor);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void resultsKeepQueriesOrder() {
+        Guid first = Guid.newGuid();
+        Guid second = Guid.newGuid();
+        Guid third = Guid.newGuid();
+
+        List<QueryReturnValue> results = underTest.run(
+                Arrays.asList(QueryType.GetVmByVmId, QueryType.GetVmByVmId, QueryType.GetVmByVmId),
+                Arrays.asList(params(first, "a"), params(second, "b"), params(third, "c")));
+
+        assertEquals(3, runs.get());
+        assertEquals(first.toString(), results.get(0).getReturnValue());
+        assertEquals(second.toString(), results.get(1).getReturnValue());
+        assertEquals(third.toString(), results.get(2).getReturnValue());
+        assertEquals("b", results.get(1).getCorrelationId());
+    }
+
+    @Test
+    public void identicalQueriesRunOnce() {
+        Guid id = Guid.newGuid();
+        Guid other = Guid.newGuid();
+
+        List<QueryReturnValue> results = underTest.run(
+                Arrays.asList(QueryType.GetVmByVmId, QueryType.GetClusterById, QueryType.GetVmByVmId),
+                Arrays.asList(params(id, "a"), params(other, "a"), params(id, "a")));
+
+        assertEquals(2, runs.get());
+        assertEquals(id.toString(), results.get(0).getReturnValue());
+        assertEquals(other.toString(), results.get(1).getReturnValue());
+        assertEquals(id.toString(), results.get(2).getReturnValue());
+    }
+
+    @Test
+    public void requestsRecordedInMonitor() {
+        Guid id = Guid.newGuid();
+
+        underTest.run(Arrays.asList(QueryType.GetVmByVmId, QueryType.GetClusterById, QueryType.GetVmByVmId),
+                Arrays.asList(params(id, "a"), params(id, "a"), params(id, "a")));
+
+        assertEquals(1, monitor.getRequestTime().getCount());
+        assertEquals(Arrays.asList("requests=1", "queries=3", "distinct queries=2"),
+                monitor.showStatistics().subList(0, 3));
+
+        monitor.resetStatistics();
+        assertEquals(0, monitor.getRequestTime().getCount());
+    }
+
+    private static QueryParametersBase params(Guid id, String correlationId) {
+        QueryParametersBase params = new IdQueryParameters(id);
+        params.setCorrelationId(correlationId);
+        return params;
+    }
+}
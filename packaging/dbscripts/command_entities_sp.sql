@@ -231,6 +231,19 @@ END;$FUNCTION$
 
 LANGUAGE plpgsql;
 
+CREATE OR REPLACE FUNCTION GetCommandEntityIdsOlderThanDate (v_date TIMESTAMP WITH TIME ZONE)
+RETURNS SETOF idUuidType STABLE AS $FUNCTION$
+
+BEGIN
+    RETURN QUERY
+
+    SELECT command_id
+    FROM command_entities
+    WHERE created_at < v_date;
+END;$FUNCTION$
+
+LANGUAGE plpgsql;
+
 CREATE OR REPLACE FUNCTION GetCommandEntitiesByParentCmdId (v_root_command_id uuid)
 RETURNS SETOF command_entities STABLE AS $FUNCTION$
 
@@ -326,4 +339,16 @@ END;$FUNCTION$
 
 LANGUAGE plpgsql;
 
+CREATE OR REPLACE FUNCTION GetAllCommandAssociatedEntities ()
+RETURNS SETOF command_assoc_entities STABLE AS $FUNCTION$
+
+BEGIN
+    RETURN QUERY
+
+    SELECT *
+    FROM command_assoc_entities;
+END;$FUNCTION$
+
+LANGUAGE plpgsql;
+
 
@@ -455,6 +455,17 @@ BEGIN
 END;$FUNCTION$
 LANGUAGE plpgsql;
 
+CREATE OR REPLACE FUNCTION GetTagsByVmIds (v_vm_ids UUID[])
+RETURNS SETOF tags_vm_map_view STABLE AS $FUNCTION$
+BEGIN
+    RETURN QUERY
+
+    SELECT tags_vm_map_view.*
+    FROM tags_vm_map_view
+    WHERE vm_id = ANY(v_vm_ids);
+END;$FUNCTION$
+LANGUAGE plpgsql;
+
 CREATE OR REPLACE FUNCTION GetVmTagsByTagId (v_tag_ids VARCHAR(4000))
 RETURNS SETOF tags_vm_map_view STABLE AS $FUNCTION$
 BEGIN
@@ -58,6 +58,7 @@ select fn_db_add_config_value('AllowClusterWithVirtGlusterEnabled','true','gener
 select fn_db_add_config_value('ApplicationMode','255','general');
 select fn_db_add_config_value('AsyncCommandPollingLoopInSeconds','1','general');
 select fn_db_add_config_value('AsyncCommandPollingRateInSeconds','10','general');
+select fn_db_add_config_value('AsyncTaskMaxPollingIntervalInSeconds','30','general');
 select fn_db_add_config_value('AsyncTaskPollingRate','10','general');
 select fn_db_add_config_value('AsyncTaskStatusCacheRefreshRateInSeconds','30','general');
 select fn_db_add_config_value('AsyncTaskStatusCachingTimeInMinutes','1','general');
@@ -364,6 +365,7 @@ select fn_db_add_config_value('MaxSchedulerWeight','1000','general');
 select fn_db_add_config_value('SpeedOptimizationSchedulingThreshold','10','general');
 select fn_db_add_config_value('SchedulerAllowOverBooking','false','general');
 select fn_db_add_config_value('SchedulerOverBookingThreshold','10','general');
+select fn_db_add_config_value('SchedulerParallelEvaluationThreshold','64','general');
 select fn_db_add_config_value_for_versions_up_to('IgnoreVmToVmAffinityForHostMaintenance', 'false', '4.2');
 select fn_db_add_config_value_for_versions_up_to('IgnoreVmToVmAffinityForHostMaintenance', 'true', '4.8');
 select fn_db_add_config_value('UploadFileMaxTimeInMinutes','5','general');
@@ -710,6 +712,9 @@ select fn_db_add_config_value('VmPoolMonitorBatchSize','5','general');
 select fn_db_add_config_value('VmPoolMonitorIntervalInMinutes','5','general');
 select fn_db_add_config_value('VmPoolMonitorMaxAttempts','3','general');
 select fn_db_add_config_value('VmPriorityMaxValue','100','general');
+select fn_db_add_config_value('VmStatisticsMaxSkippedSaves','12','general');
+select fn_db_add_config_value('VmStatisticsSaveThresholdPercent','5','general');
+select fn_db_add_config_value('VmStatusEventsCoalescingWindowInMillis','100','general');
 --How often we'll go over the HA VMs that went down and try to restart them
 select fn_db_add_config_value('AutoStartVmsRunnerIntervalInSeconds','1','general');
 --How often we'll try to run HA VM that we couldn't run before